@@ -0,0 +1,67 @@
+package de.evoila.cf.autoscaler.benchmarks;
+
+import de.evoila.cf.autoscaler.benchmarks.stubs.StubProtobufProducer;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.applications.ScalableAppService;
+import de.evoila.cf.autoscaler.kafka.messages.AutoscalerMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@linkplain ScalableAppService#aggregateInstanceMetrics(ScalableApp, de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer)}
+ * for an application with {@code windowSize} published container and HTTP metrics.
+ * The metrics are published again before every invocation, because the aggregation consumes them.
+ * @author Marius Berger
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int windowSize;
+
+	private ScalableApp app;
+	private StubProtobufProducer producer;
+	private AutoscalerMetric[] containerMetrics;
+	private AutoscalerMetric[] httpMetrics;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(windowSize);
+		app = fixtures.createApp(0);
+		producer = fixtures.getProducer();
+		containerMetrics = fixtures.containerMetrics(app, windowSize);
+		httpMetrics = fixtures.httpMetrics(app, windowSize);
+	}
+
+	@Setup(Level.Invocation)
+	public void publishMetrics() {
+		for (int i = 0; i < windowSize; i++) {
+			app.addMetric(containerMetrics[i]);
+			app.addMetric(httpMetrics[i]);
+		}
+	}
+
+	@Benchmark
+	public int aggregateInstanceMetrics() {
+		ScalableAppService.aggregateInstanceMetrics(app, producer);
+		return app.getApplicationMetricWindow().size();
+	}
+}
@@ -0,0 +1,257 @@
+package de.evoila.cf.autoscaler.benchmarks;
+
+import de.evoila.cf.autoscaler.api.binding.Binding;
+import de.evoila.cf.autoscaler.api.binding.BindingContext;
+import de.evoila.cf.autoscaler.benchmarks.stubs.StubHTTPWrapper;
+import de.evoila.cf.autoscaler.benchmarks.stubs.StubProtobufProducer;
+import de.evoila.cf.autoscaler.benchmarks.stubs.StubRepositories;
+import de.evoila.cf.autoscaler.core.applications.AppBlueprint;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import de.evoila.cf.autoscaler.core.scaling.Scaler;
+import de.evoila.cf.autoscaler.core.scaling.ScalingChecker;
+import de.evoila.cf.autoscaler.core.scaling.ScalingEventTrigger;
+import de.evoila.cf.autoscaler.core.scaling.ScalingSchedule;
+import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
+import de.evoila.cf.autoscaler.kafka.messages.AutoscalerMetric;
+import de.evoila.cf.autoscaler.kafka.messages.ApplicationMetric;
+import de.evoila.cf.autoscaler.kafka.messages.ContainerMetric;
+import de.evoila.cf.autoscaler.kafka.messages.HttpMetric;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbApplicationMetric;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the applications, metrics and services the benchmarks work on.
+ * All services are wired by hand with the stubs of {@code de.evoila.cf.autoscaler.benchmarks.stubs},
+ * so neither Spring, Kafka, MongoDB nor a scaling engine is needed.
+ * Metrics are generated from a fixed seed, so every run sees the same values.
+ * @author Marius Berger
+ *
+ */
+public class BenchmarkFixtures {
+
+	/**
+	 * Seed for the generated metric values.
+	 */
+	public static final long SEED = 4711;
+
+	/**
+	 * Number of instances every generated application runs with.
+	 */
+	public static final int INSTANCES = 4;
+
+	private final KafkaPropertiesBean kafkaProps;
+	private final AutoscalerPropertiesBean autoscalerProps;
+	private final StubProtobufProducer producer;
+	private final StubHTTPWrapper httpWrapper;
+	private final SplittableRandom random;
+
+	/**
+	 * Constructor to set up the fixtures for the given window size.
+	 * @param windowSize maximum number of metrics per window of an application
+	 */
+	public BenchmarkFixtures(int windowSize) {
+		kafkaProps = new KafkaPropertiesBean();
+		autoscalerProps = new AutoscalerPropertiesBean();
+		autoscalerProps.setMaxMetricListSize(windowSize);
+		autoscalerProps.setMaxMetricAge(Long.MAX_VALUE / 2);
+		autoscalerProps.setStaticScalingSize(1);
+		autoscalerProps.getPersistence().setWriteBehind(false);
+		producer = new StubProtobufProducer();
+		httpWrapper = new StubHTTPWrapper();
+		random = new SplittableRandom(SEED);
+		ScalingChecker.setStaticScalingSize(autoscalerProps.getStaticScalingSize());
+	}
+
+	/**
+	 * Creates an application with all scaling components enabled and limits around the generated values.
+	 * @param index index of the application, used for its IDs
+	 * @return new {@linkplain ScalableApp}
+	 */
+	public ScalableApp createApp(int index) {
+		AppBlueprint bp = new AppBlueprint();
+		BindingContext context = new BindingContext("cloudfoundry", "default", "evoila");
+		bp.setBinding(new Binding("bindingId-" + index, "resourceId-" + index, "resourceName-" + index, "benchmarkScaler",
+				"benchmarkService", 0, context));
+
+		bp.setScalingEnabled(true);
+		bp.setPredictionScalingEnabled(false);
+		bp.setBillingIntervalConsidered(false);
+		bp.setScalingIntervalMultiplier(1);
+		bp.setCurrentIntervalState(0);
+		bp.setMinInstances(1);
+		bp.setMaxInstances(30);
+		bp.setCooldownTime(0);
+
+		bp.setCpuUpperLimit(80);
+		bp.setCpuLowerLimit(20);
+		bp.setCpuThresholdPolicy("mean");
+		bp.setCpuScalingEnabled(true);
+
+		bp.setRamUpperLimit(800L * 1024 * 1024);
+		bp.setRamLowerLimit(200L * 1024 * 1024);
+		bp.setRamThresholdPolicy("mean");
+		bp.setRamScalingEnabled(true);
+
+		bp.setLatencyUpperLimit(500);
+		bp.setLatencyLowerLimit(25);
+		bp.setLatencyThresholdPolicy("mean");
+		bp.setLatencyScalingEnabled(true);
+
+		bp.setQuotient(0);
+		bp.setMinQuotient(0);
+		bp.setRequestThresholdPolicy("mean");
+		bp.setQuotientBasedScalingEnabled(false);
+
+		bp.setLearningEnabled(false);
+		bp.setLearningTimeMultiplier(1);
+		bp.setLearningStartTime(0);
+
+		return new ScalableApp(bp, kafkaProps, autoscalerProps, producer);
+	}
+
+	/**
+	 * Creates the given number of applications, see {@linkplain #createApp(int)}.
+	 * @param count number of applications
+	 * @return list of new applications
+	 */
+	public List<ScalableApp> createApps(int count) {
+		List<ScalableApp> apps = new ArrayList<ScalableApp>(count);
+		for (int i = 0; i < count; i++) {
+			apps.add(createApp(i));
+		}
+		return apps;
+	}
+
+	/**
+	 * Generates container metrics cycling over the instances of an application.
+	 * @param app application to generate the metrics for
+	 * @param count number of metrics
+	 * @return generated metrics
+	 */
+	public AutoscalerMetric[] containerMetrics(ScalableApp app, int count) {
+		AutoscalerMetric[] metrics = new AutoscalerMetric[count];
+		long now = System.currentTimeMillis();
+		String resourceId = app.getBinding().getResourceId();
+		for (int i = 0; i < count; i++) {
+			metrics[i] = new ContainerMetric(now, "benchmarkContainerMetric", resourceId, "benchmarkApp", "space", "org",
+					random.nextInt(5, 95), (long) random.nextInt(100, 900) * 1024 * 1024, i % INSTANCES, "");
+		}
+		return metrics;
+	}
+
+	/**
+	 * Generates HTTP metrics for an application.
+	 * @param app application to generate the metrics for
+	 * @param count number of metrics
+	 * @return generated metrics
+	 */
+	public AutoscalerMetric[] httpMetrics(ScalableApp app, int count) {
+		AutoscalerMetric[] metrics = new AutoscalerMetric[count];
+		long now = System.currentTimeMillis();
+		String resourceId = app.getBinding().getResourceId();
+		for (int i = 0; i < count; i++) {
+			metrics[i] = new HttpMetric(now, "benchmarkHttpMetric", resourceId, random.nextInt(1, 1000), random.nextInt(5, 800), "");
+		}
+		return metrics;
+	}
+
+	/**
+	 * Generates application metrics for an application.
+	 * @param app application to generate the metrics for
+	 * @param count number of metrics
+	 * @return generated metrics
+	 */
+	public AutoscalerMetric[] applicationMetrics(ScalableApp app, int count) {
+		AutoscalerMetric[] metrics = new AutoscalerMetric[count];
+		long now = System.currentTimeMillis();
+		String resourceId = app.getBinding().getResourceId();
+		for (int i = 0; i < count; i++) {
+			metrics[i] = new ApplicationMetric(PbApplicationMetric.ProtoApplicationMetric.newBuilder()
+					.setTimestamp(now)
+					.setMetricName(AutoscalerMetric.NAME_APPLICATION)
+					.setAppId(resourceId)
+					.setCpu(random.nextInt(5, 95))
+					.setRam((long) random.nextInt(100, 900) * 1024 * 1024)
+					.setRequests(random.nextInt(1, 1000))
+					.setLatency(random.nextInt(5, 800))
+					.setQuotient(0)
+					.setInstanceCount(INSTANCES)
+					.setDescription("")
+					.build());
+		}
+		return metrics;
+	}
+
+	/**
+	 * Adds the given metrics to an application and drains its buffers, so they are visible in its windows.
+	 * Resets the last scaling time first, because application metrics are ignored during the cooldown.
+	 * @param app application to fill
+	 * @param metrics metrics to add
+	 */
+	public static void fill(ScalableApp app, AutoscalerMetric[] metrics) {
+		app.setLastScalingTime(0);
+		for (AutoscalerMetric metric : metrics) {
+			app.addMetric(metric);
+		}
+		app.drainMetricBuffers();
+	}
+
+	/**
+	 * Creates a {@linkplain Scaler} wired with the stubs. The scaling threads of the scaler are not started.
+	 * @return new {@linkplain Scaler}
+	 */
+	public Scaler createScaler() {
+		ScalingSchedule schedule = new ScalingSchedule();
+		inject(schedule, "autoscalerProps", autoscalerProps);
+		schedule.init();
+
+		ScalableAppManager appManager = new ScalableAppManager(kafkaProps);
+		inject(appManager, "autoscalerProperties", autoscalerProps);
+		inject(appManager, "scalingSchedule", schedule);
+		inject(appManager, "appRepository", StubRepositories.appBlueprintRepository());
+		inject(appManager, "protobufProducer", producer);
+
+		ScalingEventTrigger eventTrigger = new ScalingEventTrigger();
+		inject(eventTrigger, "autoscalerProps", autoscalerProps);
+		eventTrigger.init();
+
+		Scaler scaler = new Scaler();
+		inject(scaler, "appManager", appManager);
+		inject(scaler, "eventTrigger", eventTrigger);
+		inject(scaler, "schedule", schedule);
+		inject(scaler, "producer", producer);
+		inject(scaler, "httpWrapper", httpWrapper);
+		inject(scaler, "autoscalerProps", autoscalerProps);
+		return scaler;
+	}
+
+	public StubProtobufProducer getProducer() {
+		return producer;
+	}
+
+	public StubHTTPWrapper getHttpWrapper() {
+		return httpWrapper;
+	}
+
+	/**
+	 * Sets a field, which is injected by Spring in the running Autoscaler.
+	 * @param target object to set the field of
+	 * @param name name of the field
+	 * @param value value to set
+	 */
+	static void inject(Object target, String name, Object value) {
+		try {
+			Field field = target.getClass().getDeclaredField(name);
+			field.setAccessible(true);
+			field.set(target, value);
+		} catch (NoSuchFieldException | IllegalAccessException ex) {
+			throw new IllegalStateException("Could not inject " + name + " into " + target.getClass().getSimpleName() + ".", ex);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package de.evoila.cf.autoscaler.benchmarks;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.kafka.messages.AutoscalerMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@linkplain ScalableApp#addMetric(AutoscalerMetric)} for a full window of container and HTTP metrics,
+ * including the drain into the windows the scaler reads from.
+ * One operation publishes and drains {@code windowSize} metrics.
+ * @author Marius Berger
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricIngestionBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int windowSize;
+
+	private ScalableApp app;
+	private AutoscalerMetric[] containerMetrics;
+	private AutoscalerMetric[] httpMetrics;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(windowSize);
+		app = fixtures.createApp(0);
+		containerMetrics = fixtures.containerMetrics(app, windowSize);
+		httpMetrics = fixtures.httpMetrics(app, windowSize);
+	}
+
+	@Benchmark
+	public int addContainerMetrics() {
+		for (AutoscalerMetric metric : containerMetrics) {
+			app.addMetric(metric);
+		}
+		app.drainMetricBuffers();
+		return app.getInstanceMetricWindow().size();
+	}
+
+	@Benchmark
+	public int addHttpMetrics() {
+		for (AutoscalerMetric metric : httpMetrics) {
+			app.addMetric(metric);
+		}
+		app.drainMetricBuffers();
+		return app.getHttpMetricWindow().size();
+	}
+}
@@ -0,0 +1,73 @@
+package de.evoila.cf.autoscaler.benchmarks;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.scaling.Scaler;
+import de.evoila.cf.autoscaler.kafka.messages.AutoscalerMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@linkplain Scaler#checkScaling(ScalableApp)} for every application of a tick, 
+ * including the scaling requests and scaling logs sent to the stubs and the write to the stubbed repository.
+ * One operation checks {@code appCount} applications. The application metrics are added again before every invocation,
+ * because the check resets them.
+ * @author Marius Berger
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalerBenchmark {
+
+	@Param({ "100", "1000" })
+	public int windowSize;
+
+	@Param({ "10", "100", "1000" })
+	public int appCount;
+
+	private Scaler scaler;
+	private List<ScalableApp> apps;
+	private AutoscalerMetric[][] applicationMetrics;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(windowSize);
+		scaler = fixtures.createScaler();
+		apps = fixtures.createApps(appCount);
+		applicationMetrics = new AutoscalerMetric[appCount][];
+		for (int i = 0; i < appCount; i++) {
+			applicationMetrics[i] = fixtures.applicationMetrics(apps.get(i), windowSize);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void fillWindows() {
+		for (int i = 0; i < appCount; i++) {
+			BenchmarkFixtures.fill(apps.get(i), applicationMetrics[i]);
+		}
+	}
+
+	@Benchmark
+	public int checkScaling() {
+		for (ScalableApp app : apps) {
+			scaler.checkScaling(app);
+		}
+		return apps.size();
+	}
+}
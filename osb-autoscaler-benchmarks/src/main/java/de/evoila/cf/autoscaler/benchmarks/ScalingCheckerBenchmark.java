@@ -0,0 +1,71 @@
+package de.evoila.cf.autoscaler.benchmarks;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.scaling.ScalingAction;
+import de.evoila.cf.autoscaler.core.scaling.ScalingChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decisions of the {@linkplain ScalingChecker} on a full window of application metrics.
+ * @author Marius Berger
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingCheckerBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int windowSize;
+
+	private ScalableApp app;
+	private ScalingAction cpuAction;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(windowSize);
+		app = fixtures.createApp(0);
+		BenchmarkFixtures.fill(app, fixtures.applicationMetrics(app, windowSize));
+		cpuAction = ScalingChecker.chooseScalingActionForCpu(app);
+	}
+
+	@Benchmark
+	public ScalingAction chooseScalingActionForCpu() {
+		return ScalingChecker.chooseScalingActionForCpu(app);
+	}
+
+	@Benchmark
+	public ScalingAction chooseScalingActionForRam() {
+		return ScalingChecker.chooseScalingActionForRam(app);
+	}
+
+	@Benchmark
+	public ScalingAction chooseScalingActionForLatency() {
+		return ScalingChecker.chooseScalingActionForLatency(app);
+	}
+
+	@Benchmark
+	public ScalingAction chooseScalingActionForLimits() {
+		return ScalingChecker.chooseScalingActionForLimits(app, cpuAction);
+	}
+
+	@Benchmark
+	public ScalingAction chooseScalingActionForPrediction() {
+		return ScalingChecker.chooseScalingActionForPrediction(app);
+	}
+}
@@ -0,0 +1,69 @@
+package de.evoila.cf.autoscaler.benchmarks;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the value getters of the component wrappers on a full window of application metrics for every threshold policy.
+ * @author Marius Berger
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapperBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int windowSize;
+
+	@Param({ ScalableApp.MEAN, ScalableApp.MAX, ScalableApp.MIN })
+	public String thresholdPolicy;
+
+	private ScalableApp app;
+
+	@Setup
+	public void setUp() {
+		BenchmarkFixtures fixtures = new BenchmarkFixtures(windowSize);
+		app = fixtures.createApp(0);
+		BenchmarkFixtures.fill(app, fixtures.applicationMetrics(app, windowSize));
+		app.getCpu().setThresholdPolicy(thresholdPolicy);
+		app.getRam().setThresholdPolicy(thresholdPolicy);
+		app.getLatency().setThresholdPolicy(thresholdPolicy);
+		app.getRequest().setThresholdPolicy(thresholdPolicy);
+	}
+
+	@Benchmark
+	public int valueOfCpu() {
+		return app.getCpu().getValueOfCpu();
+	}
+
+	@Benchmark
+	public long valueOfRam() {
+		return app.getRam().getValueOfRam();
+	}
+
+	@Benchmark
+	public int valueOfLatency() {
+		return app.getLatency().getValueOfLatency();
+	}
+
+	@Benchmark
+	public int valueOfHttpRequests() {
+		return app.getRequest().getValueOfHttpRequests();
+	}
+}
@@ -0,0 +1,49 @@
+package de.evoila.cf.autoscaler.benchmarks.stubs;
+
+import de.evoila.cf.autoscaler.api.ApplicationNameRequest;
+import de.evoila.cf.autoscaler.api.binding.BindingContext;
+import de.evoila.cf.autoscaler.core.http.HTTPWrapper;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * {@linkplain HTTPWrapper} answering every request right away without a scaling engine.
+ * @author Marius Berger
+ *
+ */
+public class StubHTTPWrapper extends HTTPWrapper {
+
+	/**
+	 * Response returned for every scaling request.
+	 */
+	private static final ResponseEntity<String> OK = ResponseEntity.ok("");
+
+	/**
+	 * Number of received scaling requests.
+	 */
+	private long scalingRequests;
+
+	@Override
+	public boolean isAsync() {
+		return false;
+	}
+
+	@Override
+	public boolean isBatchScaling() {
+		return false;
+	}
+
+	@Override
+	public ResponseEntity<String> scale(String resourceId, BindingContext context, int newInstances) {
+		scalingRequests++;
+		return OK;
+	}
+
+	@Override
+	public ResponseEntity<ApplicationNameRequest> getNameFromScalingEngine(String resourceId, BindingContext context) {
+		return null;
+	}
+
+	public long getScalingRequests() {
+		return scalingRequests;
+	}
+}
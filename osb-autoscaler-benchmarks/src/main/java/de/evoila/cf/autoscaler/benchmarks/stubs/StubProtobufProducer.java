@@ -0,0 +1,42 @@
+package de.evoila.cf.autoscaler.benchmarks.stubs;
+
+import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
+import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
+import de.evoila.cf.autoscaler.kafka.messages.ContainerMetric;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbApplicationMetric;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbScalingLog;
+
+/**
+ * {@linkplain ProtobufProducer} without a connection to Kafka.
+ * Messages are still created and serialized, so their cost stays part of the measurement, but then dropped.
+ * @author Marius Berger
+ *
+ */
+public class StubProtobufProducer extends ProtobufProducer {
+
+	/**
+	 * Number of serialized bytes, read by the benchmarks to keep the serialization from being eliminated.
+	 */
+	private long producedBytes;
+
+	public StubProtobufProducer() {
+		super(new KafkaPropertiesBean());
+	}
+
+	@Override
+	public void produceScalingLog(PbScalingLog.ProtoScalingLog scalingLogProto) {
+		producedBytes += scalingLogProto.toByteArray().length;
+	}
+
+	@Override
+	public void produceContainerMetric(ContainerMetric containerMetric) { }
+
+	@Override
+	public void produceApplicationMetric(PbApplicationMetric.ProtoApplicationMetric applicationMetric) {
+		producedBytes += applicationMetric.toByteArray().length;
+	}
+
+	public long getProducedBytes() {
+		return producedBytes;
+	}
+}
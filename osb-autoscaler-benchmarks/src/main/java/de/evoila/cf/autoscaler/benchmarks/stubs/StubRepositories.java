@@ -0,0 +1,48 @@
+package de.evoila.cf.autoscaler.benchmarks.stubs;
+
+import de.evoila.cf.autoscaler.core.data.mongodb.AppBlueprintRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Factory for repositories without a database.
+ * @author Marius Berger
+ *
+ */
+public class StubRepositories {
+
+	private StubRepositories() { }
+
+	/**
+	 * Creates an {@linkplain AppBlueprintRepository}, which accepts every write and finds nothing.
+	 * Save methods return their argument, so the caller works as if the write succeeded.
+	 * @return repository stub
+	 */
+	public static AppBlueprintRepository appBlueprintRepository() {
+		return (AppBlueprintRepository) Proxy.newProxyInstance(AppBlueprintRepository.class.getClassLoader(),
+				new Class<?>[] { AppBlueprintRepository.class }, (proxy, method, args) -> {
+					Class<?> returnType = method.getReturnType();
+					if (method.getName().startsWith("save") && args != null && args.length == 1)
+						return args[0];
+					if (method.getDeclaringClass() == Object.class) {
+						if ("equals".equals(method.getName()))
+							return proxy == args[0];
+						if ("hashCode".equals(method.getName()))
+							return System.identityHashCode(proxy);
+						return "StubAppBlueprintRepository";
+					}
+					if (returnType == boolean.class)
+						return false;
+					if (returnType == long.class)
+						return 0L;
+					if (returnType == Optional.class)
+						return Optional.empty();
+					if (List.class.isAssignableFrom(returnType) || Iterable.class.isAssignableFrom(returnType))
+						return Collections.emptyList();
+					return null;
+				});
+	}
+}
@@ -0,0 +1,120 @@
+package de.evoila.cf.autoscaler.core.applications;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.evoila.cf.autoscaler.api.binding.Binding;
+import de.evoila.cf.autoscaler.core.http.response.ResponseApplication;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Versioned view of a {@linkplain ScalableApp}, published after every scaling check and policy update.
+ * HTTP readers serve it without acquiring the lock of the application, so they never wait for the scaling loop or the consumers.
+ * A snapshot is never changed after it was published. The JSON of its {@linkplain ResponseApplication} is created on first request
+ * and cached, so an application is only serialized again after a new version was published.
+ * @author Marius Berger
+ *
+ */
+public class AppSnapshot {
+
+	/**
+	 * Version of this snapshot, increasing with every publication for the same application.
+	 */
+	private final long version;
+	/**
+	 * Epoch time stamp of the publication.
+	 */
+	private final long publishTime;
+	/**
+	 * Copy of the state of the application at the publication. Must not be changed.
+	 */
+	private final ResponseApplication response;
+	/**
+	 * Cached JSON of the {@link #response}, null until first requested.
+	 */
+	private volatile byte[] json;
+	/**
+	 * Cached entity tag derived from the {@link #json}, null until first requested.
+	 */
+	private volatile String eTag;
+	/**
+	 * Cached JSON tree of the binding, null until first requested.
+	 */
+	private volatile JsonNode bindingTree;
+
+	/**
+	 * Constructor to create a snapshot of the given application. The caller has to hold the lock of the application.
+	 * @param app application to take the snapshot of
+	 * @param version {@linkplain #version}
+	 */
+	public AppSnapshot(ScalableApp app, long version) {
+		this.version = version;
+		publishTime = System.currentTimeMillis();
+		response = new ResponseApplication(app);
+	}
+
+	/**
+	 * Returns the JSON of the {@linkplain ResponseApplication}, serializing it on the first call.
+	 * Concurrent first calls may serialize more than once, but always to the same result.
+	 * @param mapper mapper to serialize with
+	 * @return JSON as UTF-8 encoded bytes, do not change them
+	 * @throws JsonProcessingException if serializing fails
+	 */
+	public byte[] getJson(ObjectMapper mapper) throws JsonProcessingException {
+		byte[] cached = json;
+		if (cached == null) {
+			cached = mapper.writeValueAsBytes(response);
+			json = cached;
+		}
+		return cached;
+	}
+
+	/**
+	 * Returns a strong entity tag for the JSON of the {@linkplain ResponseApplication}, computing it on the first call.
+	 * The tag is the MD5 hash of the JSON, like the one of Spring's {@code ShallowEtagHeaderFilter}, instead of the {@linkplain #version},
+	 * as the versions start again after a restart or a new binding with the same id and would tag different content the same way.
+	 * @param mapper mapper to serialize with
+	 * @return quoted entity tag
+	 * @throws JsonProcessingException if serializing fails
+	 */
+	public String getETag(ObjectMapper mapper) throws JsonProcessingException {
+		String cached = eTag;
+		if (cached == null) {
+			cached = "\"0" + DigestUtils.md5DigestAsHex(getJson(mapper)) + "\"";
+			eTag = cached;
+		}
+		return cached;
+	}
+
+	/**
+	 * Returns the binding as JSON tree, converting it on the first call.
+	 * Used by the binding listing to filter by fields of the binding context and to stream the bindings.
+	 * @param mapper mapper to convert with
+	 * @return JSON tree of the binding, do not change it
+	 */
+	public JsonNode getBindingTree(ObjectMapper mapper) {
+		JsonNode cached = bindingTree;
+		if (cached == null) {
+			cached = mapper.valueToTree(response.getBinding());
+			bindingTree = cached;
+		}
+		return cached;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public long getPublishTime() {
+		return publishTime;
+	}
+
+	public ResponseApplication getResponse() {
+		return response;
+	}
+
+	public Binding getBinding() {
+		return response.getBinding();
+	}
+}
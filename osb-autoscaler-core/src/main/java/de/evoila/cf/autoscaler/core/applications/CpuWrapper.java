@@ -1,8 +1,6 @@
 package de.evoila.cf.autoscaler.core.applications;
 
-import de.evoila.cf.autoscaler.kafka.messages.ApplicationMetric;
-
-import java.util.List;
+import de.evoila.cf.autoscaler.core.applications.metrics.WindowAggregate;
 
 
 /**
@@ -104,44 +102,35 @@ public class CpuWrapper {
 	}
 	
 	/**
-	 * Computes the CPU load by searching for the maximum in the {@code ApplicationMetrics}.
+	 * Returns the maximum CPU load in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the maximum of CPU loads or 0 if no metrics are stored
 	 */
 	private int maxOfCpu() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= 0;
-		for (int i = 0; i < metrics.size(); i++) {
-			output = Math.max(output, metrics.get(i).getCpu());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getCpuAggregate();
+		if (aggregate.isEmpty())
+			return 0;
+		return (int) Math.max(0, aggregate.getMax());
 	}
 	
 	/**
-	 * Computes the CPU load by searching for the minimum in the {@code ApplicationMetrics}.
+	 * Returns the minimum CPU load in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the minimum of CPU loads or {@code Integer.Max_Value} if no metrics are stored
 	 */
 	private int minOfCpu() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= Integer.MAX_VALUE;
-		for (int i = 0; i < metrics.size(); i++) {
-			output = Math.min(output, metrics.get(i).getCpu());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getCpuAggregate();
+		if (aggregate.isEmpty())
+			return Integer.MAX_VALUE;
+		return (int) Math.min(Integer.MAX_VALUE, aggregate.getMin());
 	}
 	
 	/**
-	 * Computes the CPU load by adding all values and dividing the sum with the count of {@code ApplicationMetrics}.
+	 * Computes the CPU load by dividing the running sum of the {@code ApplicationMetrics} with their count.
 	 * @return the mean of CPU loads or 0 if no metrics are stored
 	 */
 	private int meanOfCpu() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= 0;
-		if (metrics.size() > 0) {
-			for (int i = 0; i < metrics.size(); i++) {
-				output += metrics.get(i).getCpu();
-			}
-			output /= metrics.size();
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getCpuAggregate();
+		if (aggregate.isEmpty())
+			return 0;
+		return (int) (aggregate.getSum() / aggregate.getCount());
 	}
 }
@@ -1,8 +1,6 @@
 package de.evoila.cf.autoscaler.core.applications;
 
-import de.evoila.cf.autoscaler.kafka.messages.ApplicationMetric;
-
-import java.util.List;
+import de.evoila.cf.autoscaler.core.applications.metrics.WindowAggregate;
 
 /**
  * Wraps settings and methods for latency handling of an application.
@@ -105,44 +103,35 @@ public class LatencyWrapper {
 	}
 	
 	/**
-	 * Computes the latency by searching for the maximum in the {@code ApplicationMetrics}.
+	 * Returns the maximum latency in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the maximum of latencies or 0 if no metrics are stored
 	 */
 	private int maxOfLatency() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= 0;
-		for (int i = 0; i < metrics.size(); i++) {
-			output = Math.max(output, metrics.get(i).getLatency());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getLatencyAggregate();
+		if (aggregate.isEmpty())
+			return 0;
+		return (int) Math.max(0, aggregate.getMax());
 	}
 	
 	/**
-	 * Computes the latency by searching for the minimum in the {@code ApplicationMetrics}.
+	 * Returns the minimum latency in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the minimum of latencies or {@code Integer.Max_Value} if no metrics are stored
 	 */
 	private int minOfLatency() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= Integer.MAX_VALUE;
-		for (int i = 0; i < metrics.size(); i++) {
-			output = Math.min(output, metrics.get(i).getLatency());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getLatencyAggregate();
+		if (aggregate.isEmpty())
+			return Integer.MAX_VALUE;
+		return (int) Math.min(Integer.MAX_VALUE, aggregate.getMin());
 	}
 	
 	/**
-	 * Computes the latency by adding all values and dividing the sum with the count of {@code ApplicationMetrics}.
+	 * Computes the latency by dividing the running sum of the {@code ApplicationMetrics} with their count.
 	 * @return the mean of latencies or 0 if no metrics are stored
 	 */
 	private int meanOfLatency() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= 0;
-		if (metrics.size() > 0) {
-			for (int i = 0; i < metrics.size(); i++) {
-				output += metrics.get(i).getLatency();
-			}
-			output /= metrics.size();
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getLatencyAggregate();
+		if (aggregate.isEmpty())
+			return 0;
+		return (int) (aggregate.getSum() / aggregate.getCount());
 	}
 }
@@ -1,9 +1,7 @@
 package de.evoila.cf.autoscaler.core.applications;
 
 
-import de.evoila.cf.autoscaler.kafka.messages.ApplicationMetric;
-
-import java.util.List;
+import de.evoila.cf.autoscaler.core.applications.metrics.WindowAggregate;
 
 /**
  * Wraps settings and methods for RAM handling of an application.
@@ -108,44 +106,35 @@ public class RamWrapper {
 	}
 	
 	/**
-	 * Computes the RAM load by searching for the maximum in the {@code ApplicationMetrics}.
+	 * Returns the maximum RAM load in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the maximum of RAM loads or 0 if no metrics are stored
 	 */
 	private long maxOfRam() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		long output= 0;
-		for (int i = 0; i < metrics.size(); i++) {
-				output = Math.max(output, metrics.get(i).getRam());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getRamAggregate();
+		if (aggregate.isEmpty())
+			return 0;
+		return Math.max(0, aggregate.getMax());
 	}
 	
 	/**
-	 * Computes the RAM load by searching for the minimum in the {@code ApplicationMetrics}.
+	 * Returns the minimum RAM load in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the minimum of RAM loads or {@code Integer.Max_Value} if no metrics are stored
 	 */
 	private long minOfRam() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		long output= Integer.MAX_VALUE;
-		for (int i = 0; i < metrics.size(); i++) {
-			output = Math.min(output, metrics.get(i).getRam());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getRamAggregate();
+		if (aggregate.isEmpty())
+			return Integer.MAX_VALUE;
+		return Math.min(Integer.MAX_VALUE, aggregate.getMin());
 	}
 	
 	/**
-	 * Computes the RAM load by adding all values and dividing the sum with the count of {@code ApplicationMetrics}.
+	 * Computes the RAM load by dividing the running sum of the {@code ApplicationMetrics} with their count.
 	 * @return the mean of RAM loads or 0 if no metrics are stored
 	 */
 	private long meanOfRam() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		long output= 0;
-		if (metrics.size() > 0) {
-			for (int i = 0; i < metrics.size(); i++) {
-				output += metrics.get(i).getRam();
-			}
-			output /= metrics.size();
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getRamAggregate();
+		if (aggregate.isEmpty())
+			return 0;
+		return (aggregate.getSum() / aggregate.getCount());
 	}
 }
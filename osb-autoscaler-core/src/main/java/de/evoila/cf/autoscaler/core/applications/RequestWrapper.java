@@ -1,13 +1,11 @@
 package de.evoila.cf.autoscaler.core.applications;
 
 
+import de.evoila.cf.autoscaler.core.applications.metrics.WindowAggregate;
 import de.evoila.cf.autoscaler.core.scaling.Scaler;
-import de.evoila.cf.autoscaler.kafka.messages.ApplicationMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
-
 /**
  * Wraps settings and methods for HTTP request handling of an application.
  * @author Marius Berger
@@ -158,46 +156,35 @@ public class RequestWrapper {
 	}
 	
 	/**
-	 * Computes the request count by searching for the maximum in the {@code ApplicationMetrics}.
+	 * Returns the maximum request count in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the maximum of request counts or 0 if no metrics are stored
 	 */
 	private int maxOfHTTPRequests() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= 0;
-		for (int i = 0; i < metrics.size(); i++) {
-			
-			output = Math.max(output, metrics.get(i).getRequests());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getRequestsAggregate();
+		if (aggregate.isEmpty())
+			return 0;
+		return (int) Math.max(0, aggregate.getMax());
 	}
 	
 	/**
-	 * Computes the request count by searching for the minimum in the {@code ApplicationMetrics}.
+	 * Returns the minimum request count in the {@code ApplicationMetrics} from the running aggregate of the window.
 	 * @return the minimum of request counts or {@code Integer.Max_Value} if no metrics are stored
 	 */
 	private int minOfHTTPRequests() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= Integer.MAX_VALUE;
-		for (int i = 0; i < metrics.size(); i++) {
-			output = Math.min(output, metrics.get(i).getRequests());
-		}
-		return output;
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getRequestsAggregate();
+		if (aggregate.isEmpty())
+			return Integer.MAX_VALUE;
+		return (int) Math.min(Integer.MAX_VALUE, aggregate.getMin());
 	}
 	
 	/**
-	 * Computes the request count by adding all values and dividing the sum with the count of {@code ApplicationMetrics}.
-	 * @return the mean of request counts or 0 if no metrics are stored
+	 * Computes the request count by dividing the running sum of the {@code ApplicationMetrics} with their count.
+	 * @return the mean of request counts or -1 if no metrics are stored
 	 */
 	private int meanOfHTTPRequests() {
-		List<ApplicationMetric> metrics = assignedApp.getCopyOfApplicationMetricsList();
-		int output= -1;
-		if (metrics.size() > 0) {
-			for (int i = 0; i < metrics.size(); i++) {
-				output += metrics.get(i).getRequests();
-			}
-			output /= metrics.size();
-		}
-		return output;
-		
+		WindowAggregate aggregate = assignedApp.getApplicationMetricWindow().getRequestsAggregate();
+		if (aggregate.isEmpty())
+			return -1;
+		return (int) ((aggregate.getSum() - 1) / aggregate.getCount());
 	}
 }
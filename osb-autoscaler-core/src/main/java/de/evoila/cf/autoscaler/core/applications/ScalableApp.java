@@ -3,8 +3,16 @@ package de.evoila.cf.autoscaler.core.applications;
 import de.evoila.cf.autoscaler.api.binding.Binding;
 import de.evoila.cf.autoscaler.api.binding.InvalidBindingException;
 import de.evoila.cf.autoscaler.api.update.UpdateRequest;
+import de.evoila.cf.autoscaler.core.applications.metrics.AggregatingMetricWindow;
+import de.evoila.cf.autoscaler.core.applications.metrics.InstanceMetricSlots;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricWindow;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricBatch;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricSink;
+import de.evoila.cf.autoscaler.core.applications.metrics.MpscMetricColumnBuffer;
+import de.evoila.cf.autoscaler.core.applications.metrics.TimeBucketedWindow;
 import de.evoila.cf.autoscaler.core.exception.*;
 import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
 import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
 import de.evoila.cf.autoscaler.core.properties.DefaultValueBean;
 import de.evoila.cf.autoscaler.core.scaling.Scaler;
@@ -14,10 +22,11 @@ import de.evoila.cf.autoscaler.kafka.messages.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Representation of an application of the platform. Holds all metrics and a Semaphore for synchronization.
@@ -46,6 +55,11 @@ public class ScalableApp {
 	 * Default for the {@code learningTimeMultiplier}.
 	 */
 	public static final int LEARNING_STANDARD_TIME = 60 * 1000;
+	/**
+	 * Rough estimate of the bytes held by an application apart from its metric windows and buffers,
+	 * i.e. the policies, the binding and the mutex.
+	 */
+	public static final int FIXED_BYTES = 1024;
 
 	/**
 	 * Code representation for the "maximum" policy.
@@ -61,7 +75,7 @@ public class ScalableApp {
 	public static final String MEAN = "mean";
 	
 	/**
-	 * Maximum of list size for the lists for {@code ContainerMetrics}, {@code ApplicationMetrics} and {@code HttpMetrics}.
+	 * Maximum of window size for the windows for {@code ContainerMetrics}, {@code ApplicationMetrics} and {@code HttpMetrics}.
 	 */
 	private final int maxListSize;
 	
@@ -70,6 +84,11 @@ public class ScalableApp {
 	 */
 	private final long maxMetricAge;
 	
+	/**
+	 * Boolean value, whether the application metric is aggregated from the {@link #instanceSlots} with every instance weighted the same.
+	 */
+	private final boolean perInstanceAggregation;
+	
 	/**
 	 * Boolean value, whether scaling as a whole is activated.
 	 */
@@ -150,15 +169,67 @@ public class ScalableApp {
 	/**
 	 * Stores incoming {@code HttpMetrics} before aggregation.
 	 */
-	private List<HttpMetric> httpMetrics;
+	private MetricWindow httpMetrics;
 	/**
 	 * Stores incoming {@code ContainerMetrics} before aggregation.
 	 */
-	private List<ContainerMetric> instanceMetrics;
+	private MetricWindow instanceMetrics;
+	/**
+	 * Streaming per instance aggregate of the drained {@code ContainerMetrics}, also tracking the instance count.
+	 */
+	private InstanceMetricSlots instanceSlots;
+	/**
+	 * Time buckets of the incoming {@code HttpMetrics} replacing {@link #httpMetrics}, null if the time buckets are disabled.
+	 */
+	private TimeBucketedWindow httpBuckets;
+	/**
+	 * Time buckets of the incoming {@code ContainerMetrics} replacing {@link #instanceMetrics}, null if the time buckets are disabled.
+	 */
+	private TimeBucketedWindow instanceBuckets;
+	/**
+	 * Sink draining {@code HttpMetrics} into the {@link #httpBuckets}.
+	 */
+	private MetricSink httpBucketSink;
+	/**
+	 * Sink draining {@code ContainerMetrics} into the {@link #instanceBuckets} and the {@link #instanceSlots}.
+	 */
+	private MetricSink instanceBucketSink;
+	/**
+	 * Epoch time stamp of the current drain, read by the {@link #instanceBucketSink}.
+	 */
+	private long drainTime;
 	/**
 	 * Stores created {@code ApplicationMetrics} for later scaling purposes.
+	 * The instance index column holds the instance count of the {@code ApplicationMetrics}.
+	 */
+	private AggregatingMetricWindow applicationMetrics;
+	
+	/**
+	 * Lock-free inbox for {@code HttpMetrics} published by the consumers, drained into {@link #httpMetrics}.
+	 */
+	private MpscMetricColumnBuffer httpMetricBuffer;
+	/**
+	 * Lock-free inbox for {@code ContainerMetrics} published by the consumers, drained into {@link #instanceMetrics}.
 	 */
-	private List<ApplicationMetric> applicationMetrics;
+	private MpscMetricColumnBuffer instanceMetricBuffer;
+	
+	/**
+	 * Maximum number of metrics in the windows requested by the memory budget, applied at the next {@linkplain #drainMetricBuffers()}.
+	 * Written without holding the {@link #accessMutex}.
+	 */
+	private volatile int windowCapacityLimit;
+	/**
+	 * Estimated bytes held by this application, updated at every {@linkplain #drainMetricBuffers()}.
+	 */
+	private volatile long estimatedBytes;
+	/**
+	 * Part of the {@link #estimatedBytes} held by the windows, which is the only part shrunk by the {@link #windowCapacityLimit}.
+	 */
+	private volatile long windowBytes;
+	/**
+	 * Last published snapshot, read by the HTTP endpoints without holding the {@link #accessMutex}.
+	 */
+	private volatile AppSnapshot snapshot;
 	
 	/**
 	 * Mutex to manage synchronization for the components accessing this {@code ScalableApp}.
@@ -169,6 +240,19 @@ public class ScalableApp {
 	 */
 	private Prediction prediction;
 	
+	/**
+	 * Epoch time stamp of the first incoming metric above an upper limit since the last scaling check, 0 if there is none.
+	 * Written by the consumers without holding the {@link #accessMutex}.
+	 */
+	private final AtomicLong limitCrossingTime = new AtomicLong();
+	/**
+	 * Epoch time stamp of the last time this application was scheduled for an event triggered check.
+	 */
+	private final AtomicLong lastEventCheckTime = new AtomicLong();
+	/**
+	 * Boolean value, whether this application is scheduled for an event triggered check, which has not run yet.
+	 */
+	private final AtomicBoolean eventCheckPending = new AtomicBoolean();
 	
 	/**
 	 * Constructor to create a {@code ScalableApp} object with a given {@code AppBlueprint}.
@@ -203,7 +287,9 @@ public class ScalableApp {
 		
 		maxMetricAge = autoscalerProps.getMaxMetricAge();
 		maxListSize = autoscalerProps.getMaxMetricListSize();
-		initOtherInternalElements();
+		perInstanceAggregation = autoscalerProps.isPerInstanceAggregation();
+		initOtherInternalElements(autoscalerProps.getWindow());
+		publishSnapshot();
 	}
 	
 	/**
@@ -232,8 +318,10 @@ public class ScalableApp {
 		
 		maxMetricAge = autoscalerProps.getMaxMetricAge();
 		maxListSize = autoscalerProps.getMaxMetricListSize();
-		initOtherInternalElements();
+		perInstanceAggregation = autoscalerProps.isPerInstanceAggregation();
+		initOtherInternalElements(autoscalerProps.getWindow());
 		initialiseDefaults(defaults);
+		publishSnapshot();
 	}
 	
 	/**
@@ -273,11 +361,31 @@ public class ScalableApp {
 	
 	/**
 	 * Sets working set fields.
+	 * @param windowProps settings for the windows of the incoming metrics
 	 */
-	private void initOtherInternalElements() {
-		httpMetrics = new LinkedList<HttpMetric>();
-		instanceMetrics = new LinkedList<ContainerMetric>();
-		applicationMetrics = new LinkedList<ApplicationMetric>();
+	private void initOtherInternalElements(AutoscalerPropertiesBean.Window windowProps) {
+		httpMetrics = new MetricWindow(maxListSize);
+		instanceMetrics = new MetricWindow(maxListSize);
+		instanceSlots = new InstanceMetricSlots();
+		if (windowProps.isTimeBucketed()) {
+			long horizon = windowProps.getHorizon() > 0 ? windowProps.getHorizon() : maxMetricAge;
+			httpBuckets = new TimeBucketedWindow(horizon, windowProps.getBucketWidth());
+			instanceBuckets = new TimeBucketedWindow(horizon, windowProps.getBucketWidth());
+			// only metrics with requests count for HTTP, like in the window based aggregation
+			httpBucketSink = (timestamp, cpu, ram, requests, latency, instanceIndex) -> {
+				if (requests > 0)
+					httpBuckets.add(timestamp, -1, -1, requests, latency, instanceIndex);
+			};
+			instanceBucketSink = (timestamp, cpu, ram, requests, latency, instanceIndex) -> {
+				instanceBuckets.add(timestamp, cpu, ram, -1, -1, instanceIndex);
+				instanceSlots.add(timestamp, cpu, ram, instanceIndex, drainTime, maxMetricAge);
+			};
+		}
+		applicationMetrics = new AggregatingMetricWindow(maxListSize);
+		httpMetricBuffer = new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.HTTP, maxListSize);
+		instanceMetricBuffer = new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.CONTAINER, maxListSize);
+		windowCapacityLimit = instanceMetrics.getMaxCapacity();
+		updateEstimatedBytes();
 		accessMutex = new Semaphore(1);
 		prediction = null;
 	}
@@ -434,6 +542,10 @@ public class ScalableApp {
 	public long getMaxMetricAge() {
 		return maxMetricAge;
 	}
+	
+	public boolean isPerInstanceAggregation() {
+		return perInstanceAggregation;
+	}
 	//----- end getter and setter -----
 
 	/**
@@ -631,28 +743,36 @@ public class ScalableApp {
 	}
 	
 	/**
-	 * Empties the list for {@code ApplicationMetrics}. {@link #applicationMetrics}
+	 * Empties the window for {@code ApplicationMetrics}. {@link #applicationMetrics}
 	 */
 	public void resetApplicationMetricLists() {
-		applicationMetrics = new LinkedList<ApplicationMetric>();
+		applicationMetrics.clear();
 	}
 
 	/**
-	 * Empties the list for {@code HttpMetrics}. {@link #httpMetrics}
+	 * Empties the window for {@code HttpMetrics}. {@link #httpMetrics}
 	 */
 	public void resetHttpMetricList() {
-		httpMetrics = new LinkedList<HttpMetric>();
+		httpMetrics.clear();
+		if (httpBuckets != null)
+			httpBuckets.clear();
 	}
 	
 	/**
-	 * Empties the list for {@code ContainerMetrics}. {@link #instanceMetrics}
+	 * Empties the window for {@code ContainerMetrics}. {@link #instanceMetrics}
 	 */
 	public void resetContainerMetricsList() {
-		instanceMetrics = new LinkedList<ContainerMetric>();
+		instanceMetrics.clear();
+		instanceSlots.clear();
+		if (instanceBuckets != null)
+			instanceBuckets.clear();
 	}
 	
 	/**
 	 * Adds a {@code Metric} to the related list.
+	 * {@code HttpMetrics} and {@code ContainerMetrics} are published to lock-free buffers and can be added without holding the
+	 * {@link #accessMutex}. They become visible to the lists after the next {@linkplain #drainMetricBuffers()}.
+	 * {@code ApplicationMetrics} are added directly and therefore need the {@link #accessMutex}.
 	 * @param metric {@code Metric} to add
 	 */
 	public void addMetric(AutoscalerMetric metric) {
@@ -662,14 +782,16 @@ public class ScalableApp {
 		
 		if (metric.getType() == AutoscalerMetric.TYPE_HTTP) {
 			try {
-				addHttpMetric(metric.getHttpMetric());
+				HttpMetric httpMetric = metric.getHttpMetric();
+				addHttpMetric(httpMetric.getTimestamp(), httpMetric.getRequests(), httpMetric.getLatency());
 			} catch (InvalidMetricTypeException ex) {
 				log.error(ex.getMessage());
 			}
 			
 		} else if( metric.getType() == AutoscalerMetric.TYPE_CONTAINER) {
 			try {
-				addInstanceContainerMetric(metric.getContainerMetric());
+				ContainerMetric containerMetric = metric.getContainerMetric();
+				addContainerMetric(containerMetric.getTimestamp(), containerMetric.getCpu(), containerMetric.getRam(), containerMetric.getInstanceIndex());
 			} catch (InvalidMetricTypeException ex) {
 				log.error(ex.getMessage());
 			}
@@ -683,89 +805,344 @@ public class ScalableApp {
 	}
 	
 	/**
-	 * Adds a {@code HttpMetric} to the {@link #httpMetrics} and deletes latest {@code HttpMetric}, if {@link #maxListSize} is surpassed.
-	 * @param metric {@code HttpMetric} to add
+	 * Moves all published metrics from {@link #httpMetricBuffer} and {@link #instanceMetricBuffer} into
+	 * {@link #httpMetrics} and {@link #instanceMetrics} in one batch and feeds the drained {@code ContainerMetrics} into the {@link #instanceSlots}.
+	 * With the time buckets enabled the metrics go into {@link #httpBuckets} and {@link #instanceBuckets} instead of the windows,
+	 * which are moved forward to the current time afterwards.
+	 * A changed {@link #windowCapacityLimit} is applied to the windows beforehand and the {@link #estimatedBytes} and {@link #windowBytes} are updated afterwards.
+	 * The caller has to hold the {@link #accessMutex}, because the buffers only support a single draining thread.
 	 */
-	private void addHttpMetric(HttpMetric metric) {
-		httpMetrics.add(metric);
-		while (httpMetrics.size() > maxListSize) {
-			httpMetrics.remove(0);
+	public void drainMetricBuffers() {
+		int limit = windowCapacityLimit;
+		if (limit != instanceMetrics.getCapacityLimit()) {
+			httpMetrics.limitCapacity(limit);
+			instanceMetrics.limitCapacity(limit);
+			applicationMetrics.limitCapacity(limit);
+		}
+		if (instanceBuckets != null) {
+			drainTime = System.currentTimeMillis();
+			httpMetricBuffer.drainTo(httpBucketSink);
+			instanceMetricBuffer.drainTo(instanceBucketSink);
+			httpBuckets.expire(drainTime);
+			instanceBuckets.expire(drainTime);
+		} else {
+			httpMetricBuffer.drainTo(httpMetrics);
+			int drained = instanceMetricBuffer.drainTo(instanceMetrics);
+			if (drained > 0)
+				instanceSlots.addNewest(instanceMetrics, drained, System.currentTimeMillis(), maxMetricAge);
 		}
+		updateEstimatedBytes();
 	}
 	
 	/**
-	 * Adds a {@code ContainerMetric} to the {@link #instanceMetrics} and deletes latest {@code ContainerMetric}, if {@link #maxListSize} is surpassed.
-	 * @param metric {@code ContainerMetric} to add
+	 * Estimates the bytes held by the windows, buffers and slots of this application plus the {@linkplain #FIXED_BYTES}
+	 * and the part of them held by the windows.
+	 * The caller has to hold the {@link #accessMutex}, except during construction.
 	 */
-	private void addInstanceContainerMetric(ContainerMetric metric) {
-		instanceMetrics.add(metric);
-		while (instanceMetrics.size() > maxListSize) {
-			instanceMetrics.remove(0);
-		}
+	private void updateEstimatedBytes() {
+		long windows = httpMetrics.estimateBytes() + instanceMetrics.estimateBytes() + applicationMetrics.estimateBytes();
+		long bytes = FIXED_BYTES + windows + instanceSlots.estimateBytes() + httpMetricBuffer.estimateBytes() + instanceMetricBuffer.estimateBytes();
+		if (instanceBuckets != null)
+			bytes += httpBuckets.estimateBytes() + instanceBuckets.estimateBytes();
+		windowBytes = windows;
+		estimatedBytes = bytes;
+	}
+	
+	/**
+	 * Returns the bytes held by this application as estimated at the last {@linkplain #drainMetricBuffers()}. Lock-free.
+	 * @return estimated bytes
+	 */
+	public long getEstimatedBytes() {
+		return estimatedBytes;
 	}
 	
 	/**
-	 * Adds a {@code ApplicationMetric} to the {@link #instanceMetrics} and deletes latest {@code ApplicationMetric}, if {@link #maxListSize} is surpassed.
+	 * Returns the part of the {@linkplain #getEstimatedBytes() estimated bytes} held by the windows. Lock-free.
+	 * The rest, like the buffers sized by the {@linkplain #getMaxListSize() maximum list size}, does not shrink with the window limit.
+	 * @return estimated bytes of the windows
+	 */
+	public long getWindowBytes() {
+		return windowBytes;
+	}
+	
+	/**
+	 * Requests a new maximum number of metrics for the windows, which is applied at the next {@linkplain #drainMetricBuffers()}.
+	 * Lock-free, so the memory budget does not have to wait for the application.
+	 * @param limit maximum number of metrics, at most the {@linkplain #getMaxListSize() maximum list size}
+	 */
+	public void setWindowCapacityLimit(int limit) {
+		windowCapacityLimit = Math.max(1, Math.min(limit, instanceMetrics.getMaxCapacity()));
+	}
+	
+	public int getWindowCapacityLimit() {
+		return windowCapacityLimit;
+	}
+	
+	/**
+	 * Publishes a new snapshot of the current state with the next version.
+	 * Call it after every change readers of the HTTP endpoints should see. The caller has to hold the {@link #accessMutex}.
+	 * @return the published snapshot
+	 */
+	public AppSnapshot publishSnapshot() {
+		AppSnapshot current = snapshot;
+		AppSnapshot next = new AppSnapshot(this, current == null ? 1 : current.getVersion() + 1);
+		snapshot = next;
+		return next;
+	}
+	
+	/**
+	 * Returns the last published snapshot. Lock-free.
+	 * @return {@link #snapshot}
+	 */
+	public AppSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Publishes the fields of a {@code ContainerMetric} to the {@link #instanceMetricBuffer} without creating an object.
+	 * Lock-free, just like {@linkplain #addMetric(AutoscalerMetric)}.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu CPU load in percent
+	 * @param ram RAM usage in byte
+	 * @param instanceIndex index of the instance
+	 * @return true if the metric was published, false if newer metrics already took its slot in the full buffer
+	 */
+	public boolean addContainerMetric(long timestamp, int cpu, long ram, int instanceIndex) {
+		return instanceMetricBuffer.offerContainerMetric(timestamp, cpu, ram, instanceIndex);
+	}
+	
+	/**
+	 * Publishes the fields of a {@code HttpMetric} to the {@link #httpMetricBuffer} without creating an object.
+	 * Lock-free, just like {@linkplain #addMetric(AutoscalerMetric)}.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param requests number of requests
+	 * @param latency latency in milliseconds
+	 * @return true if the metric was published, false if newer metrics already took its slot in the full buffer
+	 */
+	public boolean addHttpMetric(long timestamp, int requests, int latency) {
+		return httpMetricBuffer.offerHttpMetric(timestamp, requests, latency);
+	}
+	
+	/**
+	 * Publishes the given container metrics of a batch to the {@link #instanceMetricBuffer} in one go.
+	 * Lock-free, just like {@linkplain #addMetric(AutoscalerMetric)}.
+	 * @param batch batch holding the metrics
+	 * @param indices indices of the entries in the batch
+	 * @param from first position in {@code indices} to publish
+	 * @param to position in {@code indices} after the last one to publish
+	 * @return number of published metrics, the rest was overtaken by newer metrics in the full buffer
+	 */
+	public int addContainerMetrics(MetricBatch batch, int[] indices, int from, int to) {
+		return instanceMetricBuffer.offerAll(batch, indices, from, to);
+	}
+	
+	/**
+	 * Publishes the given HTTP metrics of a batch to the {@link #httpMetricBuffer} in one go.
+	 * Lock-free, just like {@linkplain #addMetric(AutoscalerMetric)}.
+	 * @param batch batch holding the metrics
+	 * @param indices indices of the entries in the batch
+	 * @param from first position in {@code indices} to publish
+	 * @param to position in {@code indices} after the last one to publish
+	 * @return number of published metrics, the rest was overtaken by newer metrics in the full buffer
+	 */
+	public int addHttpMetrics(MetricBatch batch, int[] indices, int from, int to) {
+		return httpMetricBuffer.offerAll(batch, indices, from, to);
+	}
+	
+	/**
+	 * Makes a consumer the single regular writer of the metric buffer of the given kind, if no other consumer owns it.
+	 * Used by the consumers with partition affinity, publishing stays lock-free for every caller.
+	 * @param kind kind of the metric buffer
+	 * @param consumer consumer claiming the buffer
+	 * @return true if the consumer owns the buffer now
+	 */
+	public boolean claimMetricWriter(MpscMetricColumnBuffer.Kind kind, Object consumer) {
+		return getMetricBuffer(kind).claimOwnership(consumer);
+	}
+	
+	/**
+	 * Releases the metric buffer of the given kind, if the consumer owns it.
+	 * @param kind kind of the metric buffer
+	 * @param consumer consumer releasing the buffer
+	 */
+	public void releaseMetricWriter(MpscMetricColumnBuffer.Kind kind, Object consumer) {
+		getMetricBuffer(kind).releaseOwnership(consumer);
+	}
+	
+	/**
+	 * Returns the metric buffer of the given kind.
+	 * @param kind kind of the metric buffer
+	 * @return {@link #instanceMetricBuffer} or {@link #httpMetricBuffer}
+	 */
+	private MpscMetricColumnBuffer getMetricBuffer(MpscMetricColumnBuffer.Kind kind) {
+		return kind == MpscMetricColumnBuffer.Kind.CONTAINER ? instanceMetricBuffer : httpMetricBuffer;
+	}
+	
+	/**
+	 * Returns the number of incoming metrics, which were overwritten by newer ones before they were drained from a full buffer.
+	 * @return number of dropped {@code HttpMetrics} and {@code ContainerMetrics}
+	 */
+	public long getDroppedMetricCount() {
+		return httpMetricBuffer.getDroppedCount() + instanceMetricBuffer.getDroppedCount();
+	}
+	
+	/**
+	 * Checks whether the values of an incoming {@code ContainerMetric} are above an enabled upper limit.
+	 * Reads the limits without holding the {@link #accessMutex}, so a concurrent policy update may be seen late.
+	 * @param cpu CPU load in percent
+	 * @param ram RAM usage in byte
+	 * @return true if scaling is enabled and the CPU or RAM value is above its upper limit
+	 */
+	public boolean exceedsUpperLimit(int cpu, long ram) {
+		return scalingEnabled && ((this.cpu.isCpuScalingEnabled() && cpu > this.cpu.getUpperLimit())
+				|| (this.ram.isRamScalingEnabled() && ram > this.ram.getUpperLimit()));
+	}
+	
+	/**
+	 * Checks whether the latency of an incoming {@code HttpMetric} is above the enabled upper limit.
+	 * Reads the limit without holding the {@link #accessMutex}, just like {@linkplain #exceedsUpperLimit(int, long)}.
+	 * @param latency latency in milliseconds
+	 * @return true if scaling is enabled and the latency is above its upper limit
+	 */
+	public boolean exceedsLatencyUpperLimit(int latency) {
+		return scalingEnabled && this.latency.isLatencyScalingEnabled() && latency > this.latency.getUpperLimit();
+	}
+	
+	/**
+	 * Remembers the time of an incoming metric above an upper limit, if it is the first one since the last scaling check.
+	 * Lock-free, just like {@linkplain #addMetric(AutoscalerMetric)}.
+	 * @param now epoch time stamp of the crossing
+	 */
+	public void markLimitCrossing(long now) {
+		limitCrossingTime.compareAndSet(0, now);
+	}
+	
+	/**
+	 * Returns and clears the time of the first incoming metric above an upper limit since the last scaling check.
+	 * @return epoch time stamp of the crossing or 0 if there was none
+	 */
+	public long takeLimitCrossingTime() {
+		return limitCrossingTime.getAndSet(0);
+	}
+	
+	/**
+	 * Schedules an event triggered check, if none is pending and the last one was scheduled at least {@code debounce} milliseconds ago.
+	 * Lock-free, just like {@linkplain #addMetric(AutoscalerMetric)}.
+	 * @param now current epoch time stamp
+	 * @param debounce minimum time in milliseconds between two event triggered checks
+	 * @return true if the caller has to queue this application for a check
+	 */
+	public boolean tryScheduleEventCheck(long now, long debounce) {
+		if (eventCheckPending.get() || now - lastEventCheckTime.get() < debounce)
+			return false;
+		if (!eventCheckPending.compareAndSet(false, true))
+			return false;
+		lastEventCheckTime.set(now);
+		return true;
+	}
+	
+	/**
+	 * Marks the pending event triggered check as done, so the application can be scheduled again after the debounce time.
+	 */
+	public void finishEventCheck() {
+		eventCheckPending.set(false);
+	}
+	
+	/**
+	 * Adds a {@code ApplicationMetric} to the {@link #applicationMetrics}, which evicts the oldest {@code ApplicationMetric}, if {@link #maxListSize} is surpassed.
 	 * @param metric {@code ApplicationMetric} to add
 	 */
 	private void addApplicationMetric(ApplicationMetric metric) {
+		addApplicationMetric(metric.getTimestamp(), metric.getCpu(), metric.getRam(), metric.getRequests(), metric.getLatency()
+				, metric.getInstanceCount());
+	}
+	
+	/**
+	 * Adds the fields of an {@code ApplicationMetric} to the {@link #applicationMetrics} without creating an object, unless the application is in cooldown.
+	 * The caller has to hold the {@link #accessMutex}.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu aggregated CPU load in percent
+	 * @param ram aggregated RAM usage in byte
+	 * @param requests number of requests
+	 * @param latency aggregated latency in milliseconds
+	 * @param instanceCount number of instances
+	 */
+	public void addApplicationMetric(long timestamp, int cpu, long ram, int requests, int latency, int instanceCount) {
 		if (!isInCooldown()) {
-			applicationMetrics.add(metric);
-			while (applicationMetrics.size() > maxListSize) {
-				applicationMetrics.remove(0);
-			}
+			applicationMetrics.add(timestamp, cpu, ram, requests, latency, instanceCount);
 		}
 	}
 	
 	/**
-	 * Creates and returns a deep copy of {@link #httpMetrics}.
-	 * @return deep copy of {@link #httpMetrics}
+	 * Returns the window of drained {@code HttpMetrics}. Only read it while holding the {@link #accessMutex}.
+	 * @return {@link #httpMetrics}
 	 */
-	public List<HttpMetric> getCopyOfHttpMetricsList() {
-		List<HttpMetric> output = new LinkedList<HttpMetric>();
-		for (int i = 0; i < httpMetrics.size(); i++) {
-			output.add(new HttpMetric(httpMetrics.get(i)));
-		}
-		return output;
+	public MetricWindow getHttpMetricWindow() {
+		return httpMetrics;
 	}
 	
 	/**
-	 * Creates and returns a deep copy of {@link #instanceMetrics}.
-	 * @return deep copy of {@link #instanceMetrics}
+	 * Returns the window of drained {@code ContainerMetrics}. Only read it while holding the {@link #accessMutex}.
+	 * @return {@link #instanceMetrics}
 	 */
-	public List<ContainerMetric> getCopyOfInstanceContainerMetricsList() {
-		List<ContainerMetric> output = new LinkedList<ContainerMetric>(); 
-		for (int i = 0; i < instanceMetrics.size(); i++) {
-			output.add(new ContainerMetric(instanceMetrics.get(i)));
-		}
-		return output;
+	public MetricWindow getInstanceMetricWindow() {
+		return instanceMetrics;
 	}
 	
 	/**
-	 * Creates and returns a deep copy of {@link #applicationMetrics}.
-	 * @return deep copy of {@link #applicationMetrics}
+	 * Returns the per instance aggregate of the drained {@code ContainerMetrics}. Only read it while holding the {@link #accessMutex}.
+	 * @return {@link #instanceSlots}
 	 */
-	public List<ApplicationMetric> getCopyOfApplicationMetricsList() {
-		List<ApplicationMetric> output = new LinkedList<ApplicationMetric>(); 
-		for (int i = 0; i < applicationMetrics.size(); i++) {
-			output.add(new ApplicationMetric(applicationMetrics.get(i)));
-		}
-		return output;
+	public InstanceMetricSlots getInstanceMetricSlots() {
+		return instanceSlots;
 	}
+	
+	/**
+	 * Returns the time buckets of the drained {@code HttpMetrics}. Only read it while holding the {@link #accessMutex}.
+	 * @return {@link #httpBuckets} or null if the time buckets are disabled
+	 */
+	public TimeBucketedWindow getHttpMetricBuckets() {
+		return httpBuckets;
+	}
+	
+	/**
+	 * Returns the time buckets of the drained {@code ContainerMetrics}. Only read it while holding the {@link #accessMutex}.
+	 * @return {@link #instanceBuckets} or null if the time buckets are disabled
+	 */
+	public TimeBucketedWindow getInstanceMetricBuckets() {
+		return instanceBuckets;
+	}
+	
+	/**
+	 * Checks whether {@code ContainerMetrics} were drained since the last reset, in the window or in the time buckets.
+	 * @return true if there are {@code ContainerMetrics} to aggregate
+	 */
+	public boolean hasContainerMetrics() {
+		return instanceBuckets != null ? instanceSlots.getInstanceCount() > 0 : instanceMetrics.size() > 0;
+	}
+	
+	/**
+	 * Returns the window of {@code ApplicationMetrics}. Only read it while holding the {@link #accessMutex}.
+	 * The instance index column holds the instance count of the {@code ApplicationMetrics}.
+	 * The window keeps running aggregates of its columns, which the wrappers use to compute their values.
+	 * @return {@link #applicationMetrics}
+	 */
+	public AggregatingMetricWindow getApplicationMetricWindow() {
+		return applicationMetrics;
+	}
+	
 	/**
 	 * Computes the current instance count of the application based on {@link #instanceMetrics} or {@link #applicationMetrics}.
 	 * If {@link #instanceMetrics} has no {@code ContainerMetrics}, {@link #applicationMetrics} will be used.
+	 * The highest instance index of the {@code ContainerMetrics} is tracked by the {@link #instanceSlots} while draining, so this does not iterate the window.
 	 * @return instance count of the application or a number representing an error from {@link Scaler}
 	 */
 	public int getCurrentInstanceCount() {
 		int output = Scaler.NO_METRIC_ERROR_INSTANCE_COUNT;
-		if (instanceMetrics.size() > 0) {
-			for (int i = 0; i < instanceMetrics.size(); i++) {
-				output = Math.max(output, instanceMetrics.get(i).getInstanceIndex());
-			}
-			output++; // add one because instanceIndex starts at 0
+		if (hasContainerMetrics() && instanceSlots.getInstanceCount() > 0) {
+			output = instanceSlots.getInstanceCount();
 		} else if (applicationMetrics.size() > 0 ) {
-			output = applicationMetrics.get(applicationMetrics.size()-1).getInstanceCount();
+			output = applicationMetrics.getInstanceIndex(applicationMetrics.size()-1);
 		}
 		return output;
 	}
@@ -804,11 +1181,13 @@ public class ScalableApp {
 	}
 	
 	/**
-	 * Calls the acquire() method of the underlying {@link #accessMutex}.
+	 * Calls the acquire() method of the underlying {@link #accessMutex} and records the time waited for it.
 	 * @throws InterruptedException - if the current thread is interrupted
 	 */
 	public void acquire() throws InterruptedException {
+		long start = System.nanoTime();
 		accessMutex.acquire();
+		AutoscalerMetrics.LOCK_WAIT.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 	}
 	
 	/**
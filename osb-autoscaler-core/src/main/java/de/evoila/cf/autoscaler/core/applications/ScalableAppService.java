@@ -4,14 +4,14 @@ package de.evoila.cf.autoscaler.core.applications;
 import de.evoila.cf.autoscaler.api.ApplicationNameRequest;
 import de.evoila.cf.autoscaler.api.binding.Binding;
 import de.evoila.cf.autoscaler.api.binding.InvalidBindingException;
+import de.evoila.cf.autoscaler.core.applications.metrics.InstanceMetricSlots;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricWindow;
+import de.evoila.cf.autoscaler.core.applications.metrics.TimeBucketedWindow;
 import de.evoila.cf.autoscaler.core.exception.*;
 import de.evoila.cf.autoscaler.core.http.HTTPWrapper;
-import de.evoila.cf.autoscaler.core.http.response.ResponseApplication;
 import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
-import de.evoila.cf.autoscaler.kafka.messages.ApplicationMetric;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
 import de.evoila.cf.autoscaler.kafka.messages.AutoscalerMetric;
-import de.evoila.cf.autoscaler.kafka.messages.ContainerMetric;
-import de.evoila.cf.autoscaler.kafka.messages.HttpMetric;
 import de.evoila.cf.autoscaler.kafka.protobuf.PbApplicationMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Holds helper methods for {@linkplain ScalableApp}:
@@ -41,33 +42,6 @@ public class ScalableAppService {
 	 */
 	private ScalableAppService() { }
 	
-	/**
-	 * Returns a {@linkplain ResponseApplication} object for serialization with locking and unlocking the {@linkplain ScalableApp}.
-	 * Make sure that the application is not locked before calling this method, as this will most likely generate a deadlock.
-	 * @param app {@linkplain ScalableApp} to get fields from.
-	 * @return {@linkplain ResponseApplication} object for serialization
-	 */
-	public static ResponseApplication getSerializationObjectWithLock(ScalableApp app) {
-		ResponseApplication responseApp = null;
-		try {
-			app.acquire();
-			responseApp = new ResponseApplication(app);
-		} catch (InterruptedException ex) {
-			return null;
-		}
-		app.release();
-		return responseApp;
-	}
-	
-	/**
-	 * Returns a {@linkplain ResponseApplication} object for serialization without locking and unlocking the {@linkplain ScalableApp}.
-	 * @param app {@linkplain ScalableApp} to get fields from.
-	 * @return {@linkplain ResponseApplication} object for serialization
-	 */
-	public static ResponseApplication getSerializationObjectWithoutLock(ScalableApp app) {
-		return new ResponseApplication(app);
-	}
-	
 	/**
 	 * Validates an {@linkplain AppBlueprint}. Valid Blueprints can be used to create a {@linkplain ScalableApp}.
 	 * @param bp blueprint to get fields from
@@ -238,19 +212,37 @@ public class ScalableAppService {
 	/**
 	 * Creates and stores an {@code ApplicationMetric} out of the current stored {@code ContainerMetrics}.
 	 * Furthermore a message will be published on the dedicated topic.
+	 * Metrics published to the buffers of the application are drained in one batch before aggregating.
 	 * This method does not make any effort in regards to synchronization. Make sure the application is locked before calling it or inconsistencies can occur.
+	 * The duration of the aggregation is recorded in {@linkplain AutoscalerMetrics#AGGREGATION}.
 	 * @param app {@linkplain ScalableApp} to its metrics
 	 * @param protoProducer {@code ProtobufProducer} to use to publish the message
 	 */
 	public static void aggregateInstanceMetrics(ScalableApp app, ProtobufProducer protoProducer) {
+		long start = System.nanoTime();
+		try {
+			aggregate(app, protoProducer);
+		} finally {
+			AutoscalerMetrics.AGGREGATION.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	/**
+	 * Aggregates the metrics of an application, see {@linkplain #aggregateInstanceMetrics(ScalableApp, ProtobufProducer)}.
+	 * @param app {@linkplain ScalableApp} to its metrics
+	 * @param protoProducer {@code ProtobufProducer} to use to publish the message
+	 */
+	private static void aggregate(ScalableApp app, ProtobufProducer protoProducer) {
 		
-		List<ContainerMetric> containerMetrics = app.getCopyOfInstanceContainerMetricsList();
-		List<HttpMetric> httpMetrics = app.getCopyOfHttpMetricsList();
-		log.debug("InstanceMetrics: count=" + containerMetrics.size() + " - " + containerMetrics);
-		
-		log.debug("Aggregating Instance Metrics for " + app.getIdentifierStringForLogs());
+		app.drainMetricBuffers();
+		MetricWindow containerMetrics = app.getInstanceMetricWindow();
+		MetricWindow httpMetrics = app.getHttpMetricWindow();
+		if (log.isDebugEnabled()) {
+			log.debug("InstanceMetrics: count=" + containerMetrics.size());
+			log.debug("Aggregating Instance Metrics for " + app.getIdentifierStringForLogs());
+		}
 		
-		if (containerMetrics.size() == 0) 
+		if (!app.hasContainerMetrics()) 
 			return;
 		
 		
@@ -268,70 +260,109 @@ public class ScalableAppService {
 		String metricName = AutoscalerMetric.NAME_APPLICATION;
 		String description = "";
 
-		ContainerMetric current = null;
-		for (int i = 0; i < containerMetrics.size(); i++) {
-			current = containerMetrics.get(i);
-			if (!current.isTooOld(app.getMaxMetricAge())) {
-				if (current.getCpu() >= 0) {
-					cpu += current.getCpu();
-					cpuCounter++;
-				}
-				if (current.getRam() >= 0) {
-					ram += current.getRam();
-					ramCounter++;
+		long now = System.currentTimeMillis();
+		if (app.isPerInstanceAggregation()) {
+			// every instance counts once, no matter how many samples it sent
+			InstanceMetricSlots slots = app.getInstanceMetricSlots();
+			int cpuAverage = slots.getCpuAverage();
+			long ramAverage = slots.getRamAverage();
+			if (cpuAverage >= 0) {
+				cpu = cpuAverage;
+				cpuCounter = 1;
+			}
+			if (ramAverage >= 0) {
+				ram = ramAverage;
+				ramCounter = 1;
+			}
+		} else if (app.getInstanceMetricBuckets() != null) {
+			TimeBucketedWindow buckets = app.getInstanceMetricBuckets();
+			cpuCounter = buckets.getCount(TimeBucketedWindow.CPU);
+			ramCounter = buckets.getCount(TimeBucketedWindow.RAM);
+			if (cpuCounter > 0)
+				cpu = (int) buckets.getMean(TimeBucketedWindow.CPU);
+			if (ramCounter > 0)
+				ram = buckets.getMean(TimeBucketedWindow.RAM);
+		} else {
+			for (int i = 0; i < containerMetrics.size(); i++) {
+				if (!containerMetrics.isTooOld(i, now, app.getMaxMetricAge())) {
+					if (containerMetrics.getCpu(i) >= 0) {
+						cpu += containerMetrics.getCpu(i);
+						cpuCounter++;
+					}
+					if (containerMetrics.getRam(i) >= 0) {
+						ram += containerMetrics.getRam(i);
+						ramCounter++;
+					}
 				}
 			}
+			if (cpuCounter > 0)
+				cpu /= cpuCounter;
+			if (ramCounter > 0)
+				ram /= ramCounter;
 		}
-		if (cpuCounter > 0)
-			cpu /= cpuCounter;
-		if (ramCounter > 0)
-			ram /= ramCounter;
 		
 		timestamp = System.currentTimeMillis();
 		
 		app.resetContainerMetricsList();
 
-		HttpMetric currentHttp = null;
-		for (int i = 0; i < httpMetrics.size(); i++) {
-			currentHttp = httpMetrics.get(i);
-			if (!currentHttp.isTooOld(app.getMaxMetricAge()) && currentHttp.getRequests() > 0 ) {
-				requests += currentHttp.getRequests();
-				if (currentHttp.getLatency() >= 0) {
-					latency += currentHttp.getLatency();
-					latencyCounter++;
+		TimeBucketedWindow httpBuckets = app.getHttpMetricBuckets();
+		if (httpBuckets != null) {
+			requests = (int) Math.min(Integer.MAX_VALUE, httpBuckets.getSum(TimeBucketedWindow.REQUESTS));
+			latencyCounter = httpBuckets.getCount(TimeBucketedWindow.LATENCY);
+			if (latencyCounter > 0)
+				latency = (int) httpBuckets.getMean(TimeBucketedWindow.LATENCY);
+		} else {
+			for (int i = 0; i < httpMetrics.size(); i++) {
+				if (!httpMetrics.isTooOld(i, now, app.getMaxMetricAge()) && httpMetrics.getRequests(i) > 0 ) {
+					requests += httpMetrics.getRequests(i);
+					if (httpMetrics.getLatency(i) >= 0) {
+						latency += httpMetrics.getLatency(i);
+						latencyCounter++;
+					}
 				}
 			}
-		}
-		if (latencyCounter > 0) {
-			latency /= latencyCounter;
+			if (latencyCounter > 0) {
+				latency /= latencyCounter;
+			}
 		}
 		app.resetHttpMetricList();
 		
 		if (cpuCounter > 0 && ramCounter > 0) {
-            PbApplicationMetric.ProtoApplicationMetric applicationMetric = PbApplicationMetric.ProtoApplicationMetric.newBuilder()
-					.setTimestamp(timestamp)
-					.setMetricName(metricName)
-					.setAppId(app.getBinding().getResourceId())
-					.setCpu(cpu)
-					.setRam(ram)
-					.setRequests(requests)
-					.setLatency(latency)
-					.setQuotient(quotient)
-					.setInstanceCount(instanceCount)
-					.setDescription(description)
-					.build();
-			
-			ApplicationMetric appMetric = new ApplicationMetric(applicationMetric);
-			if (protoProducer != null)
+			// the protobuf message is only built for publishing, the window takes the plain fields
+			if (protoProducer != null) {
+				PbApplicationMetric.ProtoApplicationMetric applicationMetric = PbApplicationMetric.ProtoApplicationMetric.newBuilder()
+						.setTimestamp(timestamp)
+						.setMetricName(metricName)
+						.setAppId(app.getBinding().getResourceId())
+						.setCpu(cpu)
+						.setRam(ram)
+						.setRequests(requests)
+						.setLatency(latency)
+						.setQuotient(quotient)
+						.setInstanceCount(instanceCount)
+						.setDescription(description)
+						.build();
 				protoProducer.produceApplicationMetric(applicationMetric);
-			app.addMetric(appMetric);
-			log.debug("New ApplicationMetric: " + appMetric);
-			log.debug("ApplicationMetrics: "+ app.getCopyOfApplicationMetricsList());
+			}
+			app.addApplicationMetric(timestamp, cpu, ram, requests, latency, instanceCount);
+			if (log.isDebugEnabled()) {
+				log.debug("New ApplicationMetric: timestamp=" + timestamp + ", cpu=" + cpu + ", ram=" + ram + ", requests=" + requests
+						+ ", latency=" + latency + ", quotient=" + quotient + ", instanceCount=" + instanceCount);
+				log.debug("ApplicationMetrics: count=" + app.getApplicationMetricWindow().size());
+			}
 		}
 	}
 	
 	public static String getNameForScalableApp(Binding binding, HTTPWrapper wrapper) {
-		ResponseEntity<ApplicationNameRequest> response = wrapper.getNameFromScalingEngine(binding.getResourceId(), binding.getContext());
+		return getNameFromResponse(wrapper.getNameFromScalingEngine(binding.getResourceId(), binding.getContext()));
+	}
+	
+	/**
+	 * Extracts the resource name from the response to a name request to the scaling engine.
+	 * @param response response of the scaling engine, null if the request failed
+	 * @return the name or an empty {@code String}, if no name was returned
+	 */
+	public static String getNameFromResponse(ResponseEntity<ApplicationNameRequest> response) {
 		if (response == null) 
 			return "";
 			
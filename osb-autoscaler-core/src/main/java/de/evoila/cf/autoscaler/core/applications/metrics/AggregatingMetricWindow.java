@@ -0,0 +1,90 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+/**
+ * {@linkplain MetricWindow} maintaining a {@linkplain WindowAggregate} for CPU, RAM, requests and latency on every insert and eviction.
+ * Reading minimum, maximum, sum or count of a column therefore does not iterate or copy the window.
+ * @author Marius Berger
+ */
+public class AggregatingMetricWindow extends MetricWindow {
+
+	/**
+	 * Aggregate of the CPU column.
+	 */
+	private final WindowAggregate cpuAggregate;
+	/**
+	 * Aggregate of the RAM column.
+	 */
+	private final WindowAggregate ramAggregate;
+	/**
+	 * Aggregate of the requests column.
+	 */
+	private final WindowAggregate requestsAggregate;
+	/**
+	 * Aggregate of the latency column.
+	 */
+	private final WindowAggregate latencyAggregate;
+
+	/**
+	 * Constructor to create an empty window.
+	 * @param maxCapacity maximum number of metrics in this window
+	 */
+	public AggregatingMetricWindow(int maxCapacity) {
+		super(maxCapacity);
+		cpuAggregate = new WindowAggregate();
+		ramAggregate = new WindowAggregate();
+		requestsAggregate = new WindowAggregate();
+		latencyAggregate = new WindowAggregate();
+	}
+
+	@Override
+	public void add(long timestamp, int cpu, long ram, int requests, int latency, int instanceIndex) {
+		if (size() == getCapacityLimit()) {
+			cpuAggregate.evictOldest(getCpu(0));
+			ramAggregate.evictOldest(getRam(0));
+			requestsAggregate.evictOldest(getRequests(0));
+			latencyAggregate.evictOldest(getLatency(0));
+		}
+		super.add(timestamp, cpu, ram, requests, latency, instanceIndex);
+		cpuAggregate.push(cpu);
+		ramAggregate.push(ram);
+		requestsAggregate.push(requests);
+		latencyAggregate.push(latency);
+	}
+
+	@Override
+	public void limitCapacity(int limit) {
+		int evicted = size() - Math.max(1, Math.min(limit, getMaxCapacity()));
+		for (int i = 0; i < evicted; i++) {
+			cpuAggregate.evictOldest(getCpu(i));
+			ramAggregate.evictOldest(getRam(i));
+			requestsAggregate.evictOldest(getRequests(i));
+			latencyAggregate.evictOldest(getLatency(i));
+		}
+		super.limitCapacity(limit);
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		cpuAggregate.clear();
+		ramAggregate.clear();
+		requestsAggregate.clear();
+		latencyAggregate.clear();
+	}
+
+	public WindowAggregate getCpuAggregate() {
+		return cpuAggregate;
+	}
+
+	public WindowAggregate getRamAggregate() {
+		return ramAggregate;
+	}
+
+	public WindowAggregate getRequestsAggregate() {
+		return requestsAggregate;
+	}
+
+	public WindowAggregate getLatencyAggregate() {
+		return latencyAggregate;
+	}
+}
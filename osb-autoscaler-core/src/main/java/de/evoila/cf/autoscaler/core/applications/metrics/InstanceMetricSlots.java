@@ -0,0 +1,251 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Streaming aggregate of the container metrics of an application with one slot per instance index.
+ * Every slot holds the latest CPU and RAM sample of its instance and the running sums for the average of the current interval,
+ * so the application metric is derived in O(instances) and every instance counts the same, regardless of how many samples it sent.
+ * The highest instance index seen is tracked on the fly, which gives the instance count without iterating the metrics.
+ * The slots start small and grow with the highest index up to {@link #MAX_SLOTS}.
+ * <p>
+ * This class is not thread safe. Only access it while holding the lock of the owning {@code ScalableApp}.
+ * </p>
+ * @author Marius Berger
+ */
+public class InstanceMetricSlots {
+
+	/**
+	 * Number of slots created up front.
+	 */
+	public static final int INITIAL_SLOTS = 8;
+	/**
+	 * Maximum number of slots. Samples of higher instance indices only count for the instance count.
+	 */
+	public static final int MAX_SLOTS = 4096;
+
+	/**
+	 * Epoch time stamp of the latest sample of every instance, 0 for an empty slot.
+	 */
+	private long[] latestTimestamp;
+	/**
+	 * CPU load of the latest sample in percent.
+	 */
+	private int[] latestCpu;
+	/**
+	 * RAM usage of the latest sample in byte.
+	 */
+	private long[] latestRam;
+	/**
+	 * Sum of the CPU samples of the current interval.
+	 */
+	private long[] cpuSum;
+	/**
+	 * Number of CPU samples of the current interval.
+	 */
+	private int[] cpuCount;
+	/**
+	 * Sum of the RAM samples of the current interval.
+	 */
+	private long[] ramSum;
+	/**
+	 * Number of RAM samples of the current interval.
+	 */
+	private int[] ramCount;
+	/**
+	 * Highest instance index seen since the last {@linkplain #clear()}, -1 if there was none.
+	 */
+	private int highestIndex;
+
+	/**
+	 * Constructor to create empty slots.
+	 */
+	public InstanceMetricSlots() {
+		allocate(INITIAL_SLOTS);
+		highestIndex = -1;
+	}
+
+	/**
+	 * Adds a container metric to the slot of its instance.
+	 * Negative CPU or RAM values are not part of the averages, just like in the window based aggregation.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu CPU load in percent
+	 * @param ram RAM usage in byte
+	 * @param instanceIndex index of the instance
+	 */
+	public void add(long timestamp, int cpu, long ram, int instanceIndex) {
+		if (instanceIndex < 0)
+			return;
+		highestIndex = Math.max(highestIndex, instanceIndex);
+		if (instanceIndex >= MAX_SLOTS)
+			return;
+		if (instanceIndex >= latestTimestamp.length)
+			grow(instanceIndex + 1);
+
+		if (timestamp >= latestTimestamp[instanceIndex]) {
+			latestTimestamp[instanceIndex] = timestamp;
+			latestCpu[instanceIndex] = cpu;
+			latestRam[instanceIndex] = ram;
+		}
+		if (cpu >= 0) {
+			cpuSum[instanceIndex] += cpu;
+			cpuCount[instanceIndex]++;
+		}
+		if (ram >= 0) {
+			ramSum[instanceIndex] += ram;
+			ramCount[instanceIndex]++;
+		}
+	}
+
+	/**
+	 * Adds the newest metrics of a window, e.g. the ones just drained into it.
+	 * Metrics older than the given age only count for the instance count.
+	 * @param window window holding container metrics
+	 * @param count number of newest metrics to add, capped to the size of the window
+	 * @param now current epoch time stamp
+	 * @param maxMetricAge maximum age a metric is allowed to have
+	 */
+	public void addNewest(MetricWindow window, int count, long now, long maxMetricAge) {
+		int size = window.size();
+		for (int i = Math.max(0, size - count); i < size; i++) {
+			add(window.getTimestamp(i), window.getCpu(i), window.getRam(i), window.getInstanceIndex(i), now, maxMetricAge);
+		}
+	}
+
+	/**
+	 * Adds a container metric to the slot of its instance, if it is not older than the given age.
+	 * Older metrics only count for the instance count.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu CPU load in percent
+	 * @param ram RAM usage in byte
+	 * @param instanceIndex index of the instance
+	 * @param now current epoch time stamp
+	 * @param maxMetricAge maximum age a metric is allowed to have
+	 */
+	public void add(long timestamp, int cpu, long ram, int instanceIndex, long now, long maxMetricAge) {
+		if (now - timestamp > maxMetricAge) {
+			highestIndex = Math.max(highestIndex, instanceIndex);
+		} else {
+			add(timestamp, cpu, ram, instanceIndex);
+		}
+	}
+
+	/**
+	 * Returns the average over all instances of the average CPU load of every instance.
+	 * @return average CPU load in percent or -1, if no instance has a CPU sample
+	 */
+	public int getCpuAverage() {
+		long sum = 0;
+		int instances = 0;
+		for (int i = 0; i < slotsInUse(); i++) {
+			if (cpuCount[i] > 0) {
+				sum += cpuSum[i] / cpuCount[i];
+				instances++;
+			}
+		}
+		return instances == 0 ? -1 : (int) (sum / instances);
+	}
+
+	/**
+	 * Returns the average over all instances of the average RAM usage of every instance.
+	 * @return average RAM usage in byte or -1, if no instance has a RAM sample
+	 */
+	public long getRamAverage() {
+		long sum = 0;
+		int instances = 0;
+		for (int i = 0; i < slotsInUse(); i++) {
+			if (ramCount[i] > 0) {
+				sum += ramSum[i] / ramCount[i];
+				instances++;
+			}
+		}
+		return instances == 0 ? -1 : sum / instances;
+	}
+
+	/**
+	 * Returns the number of instances derived from the highest instance index seen.
+	 * @return number of instances or 0, if there was no metric since the last {@linkplain #clear()}
+	 */
+	public int getInstanceCount() {
+		return highestIndex + 1;
+	}
+
+	public long getLatestTimestamp(int instanceIndex) {
+		return instanceIndex < latestTimestamp.length ? latestTimestamp[instanceIndex] : 0;
+	}
+
+	public int getLatestCpu(int instanceIndex) {
+		return instanceIndex < latestCpu.length ? latestCpu[instanceIndex] : -1;
+	}
+
+	public long getLatestRam(int instanceIndex) {
+		return instanceIndex < latestRam.length ? latestRam[instanceIndex] : -1;
+	}
+
+	/**
+	 * Empties all slots for the next interval, but keeps the arrays for reuse.
+	 */
+	public void clear() {
+		int used = slotsInUse();
+		Arrays.fill(latestTimestamp, 0, used, 0);
+		Arrays.fill(cpuSum, 0, used, 0);
+		Arrays.fill(cpuCount, 0, used, 0);
+		Arrays.fill(ramSum, 0, used, 0);
+		Arrays.fill(ramCount, 0, used, 0);
+		highestIndex = -1;
+	}
+
+	/**
+	 * Returns the number of slots, which may hold samples.
+	 * @return number of slots up to the highest instance index seen
+	 */
+	private int slotsInUse() {
+		return Math.min(highestIndex + 1, latestTimestamp.length);
+	}
+
+	/**
+	 * Grows the slots to hold at least the given number of instances, doubling up to {@link #MAX_SLOTS}.
+	 * @param minSlots number of slots needed
+	 */
+	private void grow(int minSlots) {
+		int slots = latestTimestamp.length;
+		while (slots < minSlots)
+			slots *= 2;
+		slots = Math.min(slots, MAX_SLOTS);
+		latestTimestamp = Arrays.copyOf(latestTimestamp, slots);
+		latestCpu = Arrays.copyOf(latestCpu, slots);
+		latestRam = Arrays.copyOf(latestRam, slots);
+		cpuSum = Arrays.copyOf(cpuSum, slots);
+		cpuCount = Arrays.copyOf(cpuCount, slots);
+		ramSum = Arrays.copyOf(ramSum, slots);
+		ramCount = Arrays.copyOf(ramCount, slots);
+	}
+
+	/**
+	 * Creates empty slots.
+	 * @param slots number of slots
+	 */
+	private void allocate(int slots) {
+		latestTimestamp = new long[slots];
+		latestCpu = new int[slots];
+		latestRam = new long[slots];
+		cpuSum = new long[slots];
+		cpuCount = new int[slots];
+		ramSum = new long[slots];
+		ramCount = new int[slots];
+	}
+
+	/**
+	 * Estimates the bytes held by the slots.
+	 * @return estimated bytes
+	 */
+	public long estimateBytes() {
+		return MemoryEstimate.OBJECT_HEADER + MemoryEstimate.of(latestTimestamp) + MemoryEstimate.of(latestCpu) + MemoryEstimate.of(latestRam)
+				+ MemoryEstimate.of(cpuSum) + MemoryEstimate.of(cpuCount) + MemoryEstimate.of(ramSum) + MemoryEstimate.of(ramCount);
+	}
+
+	@Override
+	public String toString() {
+		return "InstanceMetricSlots [instances=" + getInstanceCount() + ", slots=" + latestTimestamp.length + "]";
+	}
+}
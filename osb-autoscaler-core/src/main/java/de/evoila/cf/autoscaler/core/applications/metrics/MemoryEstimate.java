@@ -0,0 +1,56 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+/**
+ * Rough sizes of objects and primitive arrays on a 64 bit JVM with compressed references, used to estimate the bytes
+ * held by the metric windows and buffers of an application without walking the heap.
+ * The estimates count the payload of the arrays and the headers, but ignore padding.
+ * @author Marius Berger
+ *
+ */
+public class MemoryEstimate {
+
+	/**
+	 * Bytes of an object header.
+	 */
+	public static final int OBJECT_HEADER = 12;
+	/**
+	 * Bytes of an array header, including the length.
+	 */
+	public static final int ARRAY_HEADER = 16;
+	/**
+	 * Bytes of a reference.
+	 */
+	public static final int REFERENCE = 4;
+
+	/**
+	 * Private constructor as there is no need for an object of this class.
+	 */
+	private MemoryEstimate() { }
+
+	/**
+	 * Estimates the bytes of a {@code long} or {@code double} array.
+	 * @param array array to estimate, may be null
+	 * @return estimated bytes, 0 for null
+	 */
+	public static long of(long[] array) {
+		return array == null ? 0 : ARRAY_HEADER + 8L * array.length;
+	}
+
+	/**
+	 * Estimates the bytes of an {@code int} array.
+	 * @param array array to estimate, may be null
+	 * @return estimated bytes, 0 for null
+	 */
+	public static long of(int[] array) {
+		return array == null ? 0 : ARRAY_HEADER + 4L * array.length;
+	}
+
+	/**
+	 * Estimates the bytes of an array of references, without the referenced objects.
+	 * @param length length of the array
+	 * @return estimated bytes
+	 */
+	public static long ofReferences(int length) {
+		return ARRAY_HEADER + (long) REFERENCE * length;
+	}
+}
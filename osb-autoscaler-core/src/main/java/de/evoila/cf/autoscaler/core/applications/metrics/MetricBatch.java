@@ -0,0 +1,146 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Growable staging area for the decoded metrics of one poll, stored as primitive columns like in the {@linkplain MpscMetricColumnBuffer}.
+ * The consumers fill it with the records of a poll and publish the entries of each application in one go via
+ * {@linkplain MpscMetricColumnBuffer#offerAll(MetricBatch, int[], int, int)}.
+ * Only the columns needed by the {@linkplain MpscMetricColumnBuffer.Kind} of the batch are allocated.
+ * A batch is reused from poll to poll and meant to be used by one consumer thread only.
+ * @author Marius Berger
+ *
+ */
+public class MetricBatch {
+
+	/**
+	 * Kind of the staged metrics.
+	 */
+	private final MpscMetricColumnBuffer.Kind kind;
+
+	/**
+	 * Epoch time stamps of the metrics.
+	 */
+	private long[] timestamps;
+	/**
+	 * RAM usage in byte, null for {@linkplain MpscMetricColumnBuffer.Kind#HTTP}.
+	 */
+	private long[] ram;
+	/**
+	 * CPU load in percent or number of requests.
+	 */
+	private int[] first;
+	/**
+	 * Instance index or latency in milliseconds.
+	 */
+	private int[] second;
+	/**
+	 * Number of staged metrics.
+	 */
+	private int size;
+
+	/**
+	 * Constructor to create an empty batch.
+	 * @param kind {@linkplain #kind}
+	 * @param initialCapacity number of metrics the batch holds before it grows
+	 */
+	public MetricBatch(MpscMetricColumnBuffer.Kind kind, int initialCapacity) {
+		this.kind = kind;
+		int capacity = Math.max(1, initialCapacity);
+		timestamps = new long[capacity];
+		ram = kind == MpscMetricColumnBuffer.Kind.CONTAINER ? new long[capacity] : null;
+		first = new int[capacity];
+		second = new int[capacity];
+	}
+
+	/**
+	 * Appends the fields of a container metric.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu CPU load in percent
+	 * @param ramUsage RAM usage in byte
+	 * @param instanceIndex index of the instance
+	 * @return index of the appended metric
+	 * @throws IllegalStateException if this batch does not hold container metrics
+	 */
+	public int addContainerMetric(long timestamp, int cpu, long ramUsage, int instanceIndex) {
+		if (kind != MpscMetricColumnBuffer.Kind.CONTAINER)
+			throw new IllegalStateException("Batch for " + kind + " metrics can not hold container metrics.");
+		ensureCapacity();
+		timestamps[size] = timestamp;
+		first[size] = cpu;
+		ram[size] = ramUsage;
+		second[size] = instanceIndex;
+		return size++;
+	}
+
+	/**
+	 * Appends the fields of a HTTP metric.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param requests number of requests
+	 * @param latency latency in milliseconds
+	 * @return index of the appended metric
+	 * @throws IllegalStateException if this batch does not hold HTTP metrics
+	 */
+	public int addHttpMetric(long timestamp, int requests, int latency) {
+		if (kind != MpscMetricColumnBuffer.Kind.HTTP)
+			throw new IllegalStateException("Batch for " + kind + " metrics can not hold HTTP metrics.");
+		ensureCapacity();
+		timestamps[size] = timestamp;
+		first[size] = requests;
+		second[size] = latency;
+		return size++;
+	}
+
+	/**
+	 * Removes all staged metrics and keeps the columns for the next poll.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Doubles the columns, if they are full.
+	 */
+	private void ensureCapacity() {
+		if (size < timestamps.length)
+			return;
+		int capacity = timestamps.length * 2;
+		timestamps = Arrays.copyOf(timestamps, capacity);
+		if (ram != null)
+			ram = Arrays.copyOf(ram, capacity);
+		first = Arrays.copyOf(first, capacity);
+		second = Arrays.copyOf(second, capacity);
+	}
+
+	public long getTimestamp(int index) {
+		return timestamps[index];
+	}
+
+	public int getCpu(int index) {
+		return first[index];
+	}
+
+	public long getRam(int index) {
+		return ram[index];
+	}
+
+	public int getInstanceIndex(int index) {
+		return second[index];
+	}
+
+	public int getRequests(int index) {
+		return first[index];
+	}
+
+	public int getLatency(int index) {
+		return second[index];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public MpscMetricColumnBuffer.Kind getKind() {
+		return kind;
+	}
+}
@@ -0,0 +1,19 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+/**
+ * Target the {@linkplain MpscMetricColumnBuffer} drains published metrics into, field by field without creating objects.
+ * @author Marius Berger
+ */
+public interface MetricSink {
+
+	/**
+	 * Takes a drained metric. Fields not carried by the kind of the metric are 0.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu CPU load in percent
+	 * @param ram RAM usage in byte
+	 * @param requests number of requests
+	 * @param latency latency in milliseconds
+	 * @param instanceIndex instance index
+	 */
+	void add(long timestamp, int cpu, long ram, int requests, int latency, int instanceIndex);
+}
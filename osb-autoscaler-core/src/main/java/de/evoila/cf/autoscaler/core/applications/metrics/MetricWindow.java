@@ -0,0 +1,257 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+/**
+ * Bounded ring buffer storing metrics as struct-of-arrays with one primitive column per field the scaler reads.
+ * Adding a metric to a full window overwrites the oldest one, so neither adding nor evicting allocates objects.
+ * The columns start small and grow up to {@link #maxCapacity}, so idle applications do not pay for the full window.
+ * Under memory pressure the window can be limited to a smaller {@link #capacityLimit}, which drops the oldest metrics and shrinks the columns.
+ * <p>
+ * Elements are addressed by their position in the window, where {@code 0} is the oldest and {@code size() - 1} the newest element.
+ * This class is not thread safe. Only access it while holding the lock of the owning {@code ScalableApp}.
+ * </p>
+ * @author Marius Berger
+ */
+public class MetricWindow implements MetricSink {
+
+	/**
+	 * Capacity the columns are created with, if {@link #maxCapacity} is not smaller.
+	 */
+	public static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Maximum number of metrics in this window.
+	 */
+	private final int maxCapacity;
+	/**
+	 * Current maximum number of metrics in this window, at most {@link #maxCapacity}.
+	 */
+	private int capacityLimit;
+
+	/**
+	 * Epoch time stamps of the metrics.
+	 */
+	private long[] timestamps;
+	/**
+	 * CPU load in percent.
+	 */
+	private int[] cpu;
+	/**
+	 * RAM usage in byte.
+	 */
+	private long[] ram;
+	/**
+	 * Number of requests.
+	 */
+	private int[] requests;
+	/**
+	 * Latency in milliseconds.
+	 */
+	private int[] latency;
+	/**
+	 * Instance index for {@code ContainerMetrics} or instance count for {@code ApplicationMetrics}.
+	 */
+	private int[] instanceIndex;
+
+	/**
+	 * Index of the oldest metric in the columns.
+	 */
+	private int start;
+	/**
+	 * Number of metrics in this window.
+	 */
+	private int size;
+
+	/**
+	 * Constructor to create an empty window.
+	 * @param maxCapacity {@linkplain #maxCapacity}, at least one
+	 */
+	public MetricWindow(int maxCapacity) {
+		this.maxCapacity = Math.max(1, maxCapacity);
+		capacityLimit = this.maxCapacity;
+		allocate(Math.min(INITIAL_CAPACITY, this.maxCapacity));
+		start = 0;
+		size = 0;
+	}
+
+	/**
+	 * Appends a metric to the window and evicts the oldest one, if the window is full.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu CPU load in percent
+	 * @param ram RAM usage in byte
+	 * @param requests number of requests
+	 * @param latency latency in milliseconds
+	 * @param instanceIndex instance index or instance count
+	 */
+	@Override
+	public void add(long timestamp, int cpu, long ram, int requests, int latency, int instanceIndex) {
+		int index;
+		if (size == timestamps.length && size < capacityLimit) {
+			resize((int) Math.min((long) timestamps.length * 2, capacityLimit));
+		}
+		if (size == timestamps.length) {
+			index = start;
+			start = next(start);
+		} else {
+			index = start + size;
+			if (index >= timestamps.length)
+				index -= timestamps.length;
+			size++;
+		}
+		this.timestamps[index] = timestamp;
+		this.cpu[index] = cpu;
+		this.ram[index] = ram;
+		this.requests[index] = requests;
+		this.latency[index] = latency;
+		this.instanceIndex[index] = instanceIndex;
+	}
+
+	/**
+	 * Empties the window, but keeps the allocated columns for reuse.
+	 */
+	public void clear() {
+		start = 0;
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Limits the number of metrics in this window. Lowering the limit drops the oldest metrics above it and shrinks the columns,
+	 * raising it lets the columns grow again on demand.
+	 * @param limit new limit, kept between one and {@link #maxCapacity}
+	 */
+	public void limitCapacity(int limit) {
+		capacityLimit = Math.max(1, Math.min(limit, maxCapacity));
+		if (timestamps.length > capacityLimit)
+			resize(capacityLimit);
+	}
+
+	/**
+	 * Estimates the bytes held by the columns of this window.
+	 * @return estimated bytes
+	 */
+	public long estimateBytes() {
+		return MemoryEstimate.OBJECT_HEADER + MemoryEstimate.of(timestamps) + MemoryEstimate.of(cpu) + MemoryEstimate.of(ram)
+				+ MemoryEstimate.of(requests) + MemoryEstimate.of(latency) + MemoryEstimate.of(instanceIndex);
+	}
+
+	public int getMaxCapacity() {
+		return maxCapacity;
+	}
+
+	public int getCapacityLimit() {
+		return capacityLimit;
+	}
+
+	public int getCapacity() {
+		return timestamps.length;
+	}
+
+	public long getTimestamp(int position) {
+		return timestamps[slot(position)];
+	}
+
+	public int getCpu(int position) {
+		return cpu[slot(position)];
+	}
+
+	public long getRam(int position) {
+		return ram[slot(position)];
+	}
+
+	public int getRequests(int position) {
+		return requests[slot(position)];
+	}
+
+	public int getLatency(int position) {
+		return latency[slot(position)];
+	}
+
+	public int getInstanceIndex(int position) {
+		return instanceIndex[slot(position)];
+	}
+
+	/**
+	 * Checks whether the metric at the given position is older than the given age.
+	 * @param position position of the metric in the window
+	 * @param now current epoch time stamp
+	 * @param maxMetricAge maximum age a metric is allowed to have
+	 * @return true if the metric is too old
+	 */
+	public boolean isTooOld(int position, long now, long maxMetricAge) {
+		return now - getTimestamp(position) > maxMetricAge;
+	}
+
+	/**
+	 * Maps a position in the window onto an index in the columns.
+	 * @param position position in the window
+	 * @return index in the columns
+	 */
+	private int slot(int position) {
+		if (position < 0 || position >= size)
+			throw new IndexOutOfBoundsException("Position " + position + " is out of bounds for size " + size + ".");
+		int index = start + position;
+		return index >= timestamps.length ? index - timestamps.length : index;
+	}
+
+	/**
+	 * Returns the index following the given one in the columns.
+	 * @param index index in the columns
+	 * @return following index
+	 */
+	private int next(int index) {
+		return index + 1 == timestamps.length ? 0 : index + 1;
+	}
+
+	/**
+	 * Copies the metrics into columns of the given length and moves the oldest kept metric to index {@code 0}.
+	 * If the new columns are too short, only the newest metrics are kept.
+	 * @param newCapacity length of the new columns
+	 */
+	private void resize(int newCapacity) {
+		int kept = Math.min(size, newCapacity);
+		int skipped = size - kept;
+		long[] oldTimestamps = timestamps;
+		int[] oldCpu = cpu;
+		long[] oldRam = ram;
+		int[] oldRequests = requests;
+		int[] oldLatency = latency;
+		int[] oldInstanceIndex = instanceIndex;
+		allocate(newCapacity);
+		for (int i = 0; i < kept; i++) {
+			int index = (start + skipped + i) % oldTimestamps.length;
+			timestamps[i] = oldTimestamps[index];
+			cpu[i] = oldCpu[index];
+			ram[i] = oldRam[index];
+			requests[i] = oldRequests[index];
+			latency[i] = oldLatency[index];
+			instanceIndex[i] = oldInstanceIndex[index];
+		}
+		start = 0;
+		size = kept;
+	}
+
+	/**
+	 * Creates empty columns with the given length.
+	 * @param capacity length of the columns
+	 */
+	private void allocate(int capacity) {
+		timestamps = new long[capacity];
+		cpu = new int[capacity];
+		ram = new long[capacity];
+		requests = new int[capacity];
+		latency = new int[capacity];
+		instanceIndex = new int[capacity];
+	}
+
+	@Override
+	public String toString() {
+		return "MetricWindow [size=" + size + ", capacity=" + timestamps.length + ", capacityLimit=" + capacityLimit + ", maxCapacity=" + maxCapacity + "]";
+	}
+}
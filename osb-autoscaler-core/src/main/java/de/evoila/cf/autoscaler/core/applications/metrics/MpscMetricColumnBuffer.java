@@ -0,0 +1,347 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bounded multi-producer/single-consumer ring buffer storing incoming metrics as primitive columns.
+ * Producers write the fields of a metric into plain arrays instead of publishing an object, so neither publishing nor draining allocates.
+ * <p>
+ * A producer claims a position by incrementing {@link #tail} and never waits for the consumer. If the consumer falls more than
+ * {@link #capacity} metrics behind, the newest metrics overwrite the oldest ones, so a burst between two drains leaves
+ * the most recent metrics for the scaling decision. Overwritten metrics are counted as dropped when the consumer skips them.
+ * </p>
+ * <p>
+ * The sequence of a slot holds {@code p + 1} once the metric of position {@code p} is published, {@code -(p + 1)} while it is written
+ * and {@link #READING} while the consumer reads it. A producer takes a slot with a CAS on its sequence, writes the columns
+ * and publishes them with an ordered write of the sequence, which the consumer reads before reading the columns.
+ * The CAS keeps producers of different rounds and the consumer from touching the columns of a slot at the same time.
+ * </p>
+ * Only the columns needed by the {@linkplain Kind} of the buffer are allocated.
+ * A buffer can be owned by one producer, see {@linkplain #claimOwnership(Object)}. Ownership does not restrict publishing,
+ * it tells the consumers with partition affinity, which of them is the regular writer.
+ * @author Marius Berger
+ */
+public class MpscMetricColumnBuffer {
+
+	/**
+	 * Kinds of metrics a buffer can hold.
+	 */
+	public enum Kind {
+		/**
+		 * Time stamp, CPU, RAM and instance index of a {@code ContainerMetric}.
+		 */
+		CONTAINER,
+		/**
+		 * Time stamp, requests and latency of a {@code HttpMetric}.
+		 */
+		HTTP
+	}
+
+	/**
+	 * Kind of the buffered metrics.
+	 */
+	private final Kind kind;
+
+	/**
+	 * Epoch time stamps of the metrics.
+	 */
+	private final long[] timestamps;
+	/**
+	 * RAM usage in byte, null for {@linkplain Kind#HTTP}.
+	 */
+	private final long[] ram;
+	/**
+	 * CPU load in percent or number of requests.
+	 */
+	private final int[] first;
+	/**
+	 * Instance index or latency in milliseconds.
+	 */
+	private final int[] second;
+	/**
+	 * Smallest capacity a buffer will be created with.
+	 */
+	public static final int MIN_CAPACITY = 2;
+
+	/**
+	 * Marker in the sequence of a slot, while the consumer reads it.
+	 */
+	private static final long READING = Long.MIN_VALUE;
+
+	/**
+	 * Sequence numbers of the slots, see the description of this class.
+	 */
+	private final AtomicLongArray sequences;
+	/**
+	 * Number of slots, always a power of two.
+	 */
+	private final int capacity;
+	/**
+	 * Bit mask to map a position onto a slot index.
+	 */
+	private final int mask;
+
+	/**
+	 * Next position to be claimed by a producer.
+	 */
+	private final AtomicLong tail;
+	/**
+	 * Next position to be read by the consumer. Only written by the draining thread.
+	 */
+	private volatile long head;
+	/**
+	 * Number of metrics overwritten by newer ones before they were drained.
+	 */
+	private final AtomicLong dropped;
+	/**
+	 * Producer owning this buffer, null if it is not owned.
+	 */
+	private final AtomicReference<Object> owner;
+
+	/**
+	 * Constructor to create a buffer, which holds at least the given number of metrics.
+	 * @param kind {@linkplain #kind}
+	 * @param requestedCapacity minimum number of metrics, will be rounded up to the next power of two
+	 */
+	public MpscMetricColumnBuffer(Kind kind, int requestedCapacity) {
+		this.kind = kind;
+		capacity = roundUpToPowerOfTwo(Math.max(MIN_CAPACITY, requestedCapacity));
+		mask = capacity - 1;
+		timestamps = new long[capacity];
+		ram = kind == Kind.CONTAINER ? new long[capacity] : null;
+		first = new int[capacity];
+		second = new int[capacity];
+		sequences = new AtomicLongArray(capacity);
+		tail = new AtomicLong(0);
+		head = 0;
+		dropped = new AtomicLong(0);
+		owner = new AtomicReference<Object>();
+	}
+
+	/**
+	 * Publishes a container metric without blocking. Safe to call from any number of threads.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param cpu CPU load in percent
+	 * @param ramUsage RAM usage in byte
+	 * @param instanceIndex index of the instance
+	 * @return true if the metric was published, false if newer metrics already took its slot
+	 * @throws IllegalStateException if this buffer does not hold container metrics
+	 */
+	public boolean offerContainerMetric(long timestamp, int cpu, long ramUsage, int instanceIndex) {
+		if (kind != Kind.CONTAINER)
+			throw new IllegalStateException("Buffer for " + kind + " metrics can not hold container metrics.");
+		long pos = tail.getAndIncrement();
+		int index = acquire(pos);
+		if (index < 0)
+			return false;
+		timestamps[index] = timestamp;
+		first[index] = cpu;
+		ram[index] = ramUsage;
+		second[index] = instanceIndex;
+		sequences.lazySet(index, pos + 1);
+		return true;
+	}
+
+	/**
+	 * Publishes a HTTP metric without blocking. Safe to call from any number of threads.
+	 * @param timestamp epoch time stamp of the metric
+	 * @param requests number of requests
+	 * @param latency latency in milliseconds
+	 * @return true if the metric was published, false if newer metrics already took its slot
+	 * @throws IllegalStateException if this buffer does not hold HTTP metrics
+	 */
+	public boolean offerHttpMetric(long timestamp, int requests, int latency) {
+		if (kind != Kind.HTTP)
+			throw new IllegalStateException("Buffer for " + kind + " metrics can not hold HTTP metrics.");
+		long pos = tail.getAndIncrement();
+		int index = acquire(pos);
+		if (index < 0)
+			return false;
+		timestamps[index] = timestamp;
+		first[index] = requests;
+		second[index] = latency;
+		sequences.lazySet(index, pos + 1);
+		return true;
+	}
+
+	/**
+	 * Publishes the given entries of a batch with a single increment of {@link #tail} without waiting for the consumer. Safe to call from any number of threads.
+	 * The entries are claimed as one consecutive range, so they are drained in the given order.
+	 * If the batch is larger than the buffer, only its last {@link #capacity} entries are published.
+	 * @param batch batch holding the metrics
+	 * @param indices indices of the entries in the batch
+	 * @param from first position in {@code indices} to publish
+	 * @param to position in {@code indices} after the last one to publish
+	 * @return number of published metrics
+	 * @throws IllegalStateException if the batch holds another kind of metrics
+	 */
+	public int offerAll(MetricBatch batch, int[] indices, int from, int to) {
+		if (kind != batch.getKind())
+			throw new IllegalStateException("Buffer for " + kind + " metrics can not hold " + batch.getKind() + " metrics.");
+		int requested = to - from;
+		if (requested <= 0)
+			return 0;
+		long pos = tail.getAndAdd(requested);
+		int published = 0;
+		// the first entries of an oversized batch would only be overwritten by the last ones
+		for (int k = Math.max(0, requested - capacity); k < requested; k++) {
+			int index = acquire(pos + k);
+			if (index < 0)
+				continue;
+			int entry = indices[from + k];
+			timestamps[index] = batch.getTimestamp(entry);
+			if (kind == Kind.CONTAINER) {
+				first[index] = batch.getCpu(entry);
+				ram[index] = batch.getRam(entry);
+				second[index] = batch.getInstanceIndex(entry);
+			} else {
+				first[index] = batch.getRequests(entry);
+				second[index] = batch.getLatency(entry);
+			}
+			sequences.lazySet(index, pos + k + 1);
+			published++;
+		}
+		return published;
+	}
+
+	/**
+	 * Takes the slot of the given position for writing, overwriting the metric of an older round.
+	 * Waits while the consumer reads the slot or a producer of an older round still writes it.
+	 * @param pos claimed position
+	 * @return index of the slot or -1, if a producer of a newer round already took it
+	 */
+	private int acquire(long pos) {
+		int index = (int) (pos & mask);
+		long stamp = pos + 1;
+		while (true) {
+			long sequence = sequences.get(index);
+			if (sequence == READING || (sequence < 0 && -sequence < stamp)) {
+				Thread.yield();
+				continue;
+			}
+			if (Math.abs(sequence) >= stamp)
+				return -1;
+			if (sequences.compareAndSet(index, sequence, -stamp))
+				return index;
+		}
+	}
+
+	/**
+	 * Appends all published metrics to the given window or other sink in publication order and frees their slots.
+	 * Metrics overwritten by newer ones are skipped and counted as dropped. Stops at the first claimed but unpublished metric
+	 * and after one full round of the buffer, so producers can not keep the consumer busy forever.
+	 * Must only be called by one thread at a time, e.g. while holding the lock of the owning {@code ScalableApp}.
+	 * @param window window or sink to append the metrics to, null to discard them
+	 * @return number of drained metrics
+	 */
+	public int drainTo(MetricSink window) {
+		long end = tail.get();
+		long pos = head;
+		if (end - pos > capacity) {
+			dropped.addAndGet(end - capacity - pos);
+			pos = end - capacity;
+		}
+		int count = 0;
+		while (pos < end) {
+			int index = (int) (pos & mask);
+			long stamp = pos + 1;
+			long sequence = sequences.get(index);
+			if (sequence == stamp) {
+				// keeps producers of the next round out of the slot while its columns are read
+				if (!sequences.compareAndSet(index, stamp, READING))
+					continue;
+				if (window != null) {
+					if (kind == Kind.CONTAINER)
+						window.add(timestamps[index], first[index], ram[index], 0, 0, second[index]);
+					else
+						window.add(timestamps[index], 0, 0, first[index], second[index], 0);
+				}
+				sequences.set(index, stamp);
+				count++;
+			} else if (Math.abs(sequence) > stamp) {
+				dropped.incrementAndGet();
+			} else {
+				break;
+			}
+			pos++;
+		}
+		head = pos;
+		return count;
+	}
+
+	/**
+	 * Discards all published metrics.
+	 * Must only be called by one thread at a time, just like {@linkplain #drainTo(MetricSink)}.
+	 * @return number of discarded metrics
+	 */
+	public int clear() {
+		return drainTo(null);
+	}
+
+	/**
+	 * Returns an estimate of the number of metrics waiting to be drained.
+	 * @return estimated number of buffered metrics
+	 */
+	public int size() {
+		long size = tail.get() - head;
+		return (int) Math.max(0, Math.min(size, capacity));
+	}
+
+	/**
+	 * Makes the given producer the owner of this buffer, if it is not owned by another one.
+	 * @param producer producer claiming the buffer
+	 * @return true if the producer owns the buffer now
+	 */
+	public boolean claimOwnership(Object producer) {
+		return owner.get() == producer || owner.compareAndSet(null, producer);
+	}
+
+	/**
+	 * Releases the ownership of this buffer, if it is owned by the given producer.
+	 * @param producer producer releasing the buffer
+	 */
+	public void releaseOwnership(Object producer) {
+		owner.compareAndSet(producer, null);
+	}
+
+	public Object getOwner() {
+		return owner.get();
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Estimates the bytes held by this buffer, which are fixed by its capacity.
+	 * @return estimated bytes
+	 */
+	public long estimateBytes() {
+		return MemoryEstimate.OBJECT_HEADER + MemoryEstimate.of(timestamps) + MemoryEstimate.of(ram) + MemoryEstimate.of(first)
+				+ MemoryEstimate.of(second) + MemoryEstimate.ARRAY_HEADER + 8L * capacity;
+	}
+
+	/**
+	 * Rounds the given value up to the next power of two.
+	 * @param value value to round up
+	 * @return next power of two greater than or equal to the given value
+	 */
+	static int roundUpToPowerOfTwo(int value) {
+		int highest = Integer.highestOneBit(value);
+		if (highest == value)
+			return value;
+		if (highest >= (1 << 30))
+			return 1 << 30;
+		return highest << 1;
+	}
+}
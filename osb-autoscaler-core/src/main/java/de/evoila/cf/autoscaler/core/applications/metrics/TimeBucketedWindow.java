@@ -0,0 +1,287 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window over a fixed time horizon, split into buckets of equal width, e.g. 1 second buckets over 30 seconds.
+ * Every bucket holds sum, count, minimum and maximum of the CPU, RAM, requests and latency values of its time span.
+ * Moving the window forward resets the buckets falling out of the horizon, which is O(1) per bucket,
+ * so metrics do not have to be checked for their age on every read and the memory per application
+ * is fixed by the number of buckets instead of growing with the ingest rate.
+ * Negative values are not part of the aggregate of their dimension, so a metric only counts for the dimensions it carries.
+ * <p>
+ * This class is not thread safe. Only access it while holding the lock of the owning {@code ScalableApp}.
+ * </p>
+ * @author Marius Berger
+ */
+public class TimeBucketedWindow implements MetricSink {
+
+	/**
+	 * Dimension of the CPU load in percent.
+	 */
+	public static final int CPU = 0;
+	/**
+	 * Dimension of the RAM usage in byte.
+	 */
+	public static final int RAM = 1;
+	/**
+	 * Dimension of the number of requests.
+	 */
+	public static final int REQUESTS = 2;
+	/**
+	 * Dimension of the latency in milliseconds.
+	 */
+	public static final int LATENCY = 3;
+	/**
+	 * Number of dimensions.
+	 */
+	private static final int DIMENSIONS = 4;
+	/**
+	 * Maximum number of buckets of a window.
+	 */
+	public static final int MAX_BUCKETS = 3600;
+
+	/**
+	 * Width of a bucket in milliseconds.
+	 */
+	private final long bucketWidth;
+	/**
+	 * Number of buckets covering the horizon.
+	 */
+	private final int bucketCount;
+
+	/**
+	 * Number of the time span every bucket currently holds, i.e. its start time divided by the {@link #bucketWidth}, -1 for an empty bucket.
+	 */
+	private final long[] epochs;
+	/**
+	 * Sums by dimension and bucket.
+	 */
+	private final long[][] sums;
+	/**
+	 * Counts by dimension and bucket.
+	 */
+	private final int[][] counts;
+	/**
+	 * Minimums by dimension and bucket.
+	 */
+	private final long[][] mins;
+	/**
+	 * Maximums by dimension and bucket.
+	 */
+	private final long[][] maxs;
+	/**
+	 * Sums by dimension over all buckets in the horizon.
+	 */
+	private final long[] totalSums;
+	/**
+	 * Counts by dimension over all buckets in the horizon.
+	 */
+	private final int[] totalCounts;
+	/**
+	 * Number of the newest time span the window was moved to, -1 if it was never moved.
+	 */
+	private long currentEpoch;
+
+	/**
+	 * Constructor to create an empty window.
+	 * @param horizon time span in milliseconds the window covers
+	 * @param bucketWidth {@linkplain #bucketWidth}, at least one millisecond
+	 */
+	public TimeBucketedWindow(long horizon, long bucketWidth) {
+		this.bucketWidth = Math.max(1, bucketWidth);
+		bucketCount = (int) Math.max(1, Math.min(MAX_BUCKETS, (horizon + this.bucketWidth - 1) / this.bucketWidth));
+		epochs = new long[bucketCount];
+		sums = new long[DIMENSIONS][bucketCount];
+		counts = new int[DIMENSIONS][bucketCount];
+		mins = new long[DIMENSIONS][bucketCount];
+		maxs = new long[DIMENSIONS][bucketCount];
+		totalSums = new long[DIMENSIONS];
+		totalCounts = new int[DIMENSIONS];
+		clear();
+	}
+
+	/**
+	 * Adds a metric to the bucket of its time stamp and moves the window forward, if the metric is newer than the window.
+	 * Metrics older than the horizon are dropped.
+	 * The instance index is not aggregated, see {@linkplain InstanceMetricSlots}.
+	 */
+	@Override
+	public void add(long timestamp, int cpu, long ram, int requests, int latency, int instanceIndex) {
+		long epoch = timestamp / bucketWidth;
+		if (epoch > currentEpoch)
+			moveTo(epoch);
+		if (epoch <= currentEpoch - bucketCount)
+			return;
+		int bucket = bucketOf(epoch);
+		if (epochs[bucket] != epoch)
+			resetBucket(bucket, epoch);
+		addValue(CPU, bucket, cpu);
+		addValue(RAM, bucket, ram);
+		addValue(REQUESTS, bucket, requests);
+		addValue(LATENCY, bucket, latency);
+	}
+
+	/**
+	 * Moves the window forward to the given time, so buckets older than the horizon no longer count.
+	 * Call it before reading the aggregates.
+	 * @param now current epoch time stamp
+	 */
+	public void expire(long now) {
+		long epoch = now / bucketWidth;
+		if (epoch > currentEpoch)
+			moveTo(epoch);
+	}
+
+	/**
+	 * Empties all buckets.
+	 */
+	public void clear() {
+		Arrays.fill(epochs, -1);
+		for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+			Arrays.fill(sums[dimension], 0);
+			Arrays.fill(counts[dimension], 0);
+			totalSums[dimension] = 0;
+			totalCounts[dimension] = 0;
+		}
+		currentEpoch = -1;
+	}
+
+	public int getCount(int dimension) {
+		return totalCounts[dimension];
+	}
+
+	public long getSum(int dimension) {
+		return totalSums[dimension];
+	}
+
+	/**
+	 * Returns the mean of a dimension over the horizon.
+	 * @param dimension dimension to get the mean of
+	 * @return mean or -1, if the dimension has no values
+	 */
+	public long getMean(int dimension) {
+		return totalCounts[dimension] == 0 ? -1 : totalSums[dimension] / totalCounts[dimension];
+	}
+
+	/**
+	 * Returns the maximum of a dimension over the horizon by looking at every bucket once.
+	 * @param dimension dimension to get the maximum of
+	 * @return maximum or {@code Long.MIN_VALUE}, if the dimension has no values
+	 */
+	public long getMax(int dimension) {
+		long max = Long.MIN_VALUE;
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			if (isLive(bucket) && counts[dimension][bucket] > 0)
+				max = Math.max(max, maxs[dimension][bucket]);
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the minimum of a dimension over the horizon by looking at every bucket once.
+	 * @param dimension dimension to get the minimum of
+	 * @return minimum or {@code Long.MAX_VALUE}, if the dimension has no values
+	 */
+	public long getMin(int dimension) {
+		long min = Long.MAX_VALUE;
+		for (int bucket = 0; bucket < bucketCount; bucket++) {
+			if (isLive(bucket) && counts[dimension][bucket] > 0)
+				min = Math.min(min, mins[dimension][bucket]);
+		}
+		return min;
+	}
+
+	public int getBucketCount() {
+		return bucketCount;
+	}
+
+	public long getBucketWidth() {
+		return bucketWidth;
+	}
+
+	/**
+	 * Estimates the bytes held by the buckets, which are fixed by the number of buckets.
+	 * @return estimated bytes
+	 */
+	public long estimateBytes() {
+		long perDimension = MemoryEstimate.of(sums[0]) + MemoryEstimate.of(counts[0]) + MemoryEstimate.of(mins[0]) + MemoryEstimate.of(maxs[0]);
+		return MemoryEstimate.OBJECT_HEADER + MemoryEstimate.of(epochs) + 4 * MemoryEstimate.ofReferences(DIMENSIONS)
+				+ DIMENSIONS * perDimension + MemoryEstimate.of(totalSums) + MemoryEstimate.of(totalCounts);
+	}
+
+	/**
+	 * Moves the newest time span of the window to the given one and resets the buckets falling out of the horizon.
+	 * Resets at most all buckets once, no matter how far the window moves.
+	 * @param epoch number of the new newest time span
+	 */
+	private void moveTo(long epoch) {
+		long first = currentEpoch < 0 ? epoch : Math.max(currentEpoch + 1, epoch - bucketCount + 1);
+		for (long expired = first; expired <= epoch; expired++) {
+			int bucket = bucketOf(expired);
+			if (epochs[bucket] >= 0)
+				resetBucket(bucket, -1);
+		}
+		currentEpoch = epoch;
+	}
+
+	/**
+	 * Removes the values of a bucket from the totals and assigns it to a new time span.
+	 * @param bucket index of the bucket
+	 * @param epoch number of the new time span or -1 for an empty bucket
+	 */
+	private void resetBucket(int bucket, long epoch) {
+		for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+			totalSums[dimension] -= sums[dimension][bucket];
+			totalCounts[dimension] -= counts[dimension][bucket];
+			sums[dimension][bucket] = 0;
+			counts[dimension][bucket] = 0;
+		}
+		epochs[bucket] = epoch;
+	}
+
+	/**
+	 * Adds a value of a dimension to a bucket, unless it is negative.
+	 * @param dimension dimension of the value
+	 * @param bucket index of the bucket
+	 * @param value value to add
+	 */
+	private void addValue(int dimension, int bucket, long value) {
+		if (value < 0)
+			return;
+		if (counts[dimension][bucket] == 0) {
+			mins[dimension][bucket] = value;
+			maxs[dimension][bucket] = value;
+		} else {
+			mins[dimension][bucket] = Math.min(mins[dimension][bucket], value);
+			maxs[dimension][bucket] = Math.max(maxs[dimension][bucket], value);
+		}
+		sums[dimension][bucket] += value;
+		counts[dimension][bucket]++;
+		totalSums[dimension] += value;
+		totalCounts[dimension]++;
+	}
+
+	/**
+	 * Checks whether a bucket holds a time span inside of the horizon.
+	 * @param bucket index of the bucket
+	 * @return true if the bucket counts
+	 */
+	private boolean isLive(int bucket) {
+		return epochs[bucket] >= 0 && epochs[bucket] > currentEpoch - bucketCount;
+	}
+
+	/**
+	 * Maps the number of a time span onto the index of its bucket.
+	 * @param epoch number of the time span
+	 * @return index of the bucket
+	 */
+	private int bucketOf(long epoch) {
+		return (int) (epoch % bucketCount);
+	}
+
+	@Override
+	public String toString() {
+		return "TimeBucketedWindow [buckets=" + bucketCount + ", bucketWidth=" + bucketWidth + ", count=" + totalCounts[CPU] + "/" + totalCounts[REQUESTS] + "]";
+	}
+}
@@ -0,0 +1,195 @@
+package de.evoila.cf.autoscaler.core.applications.metrics;
+
+/**
+ * Running minimum, maximum and sum of the values in a first-in-first-out window.
+ * Values are {@linkplain #push(long) pushed} at the newest end and {@linkplain #evictOldest(long) evicted} at the oldest end.
+ * Minimum and maximum are kept in monotonic deques, so every operation runs in amortised O(1) and the getters in O(1)
+ * without touching the window itself.
+ * <p>
+ * This class is not thread safe. It is meant to be maintained by its {@linkplain AggregatingMetricWindow}.
+ * </p>
+ * @author Marius Berger
+ */
+public class WindowAggregate {
+
+	/**
+	 * Capacity the deques are created with.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Sum of all values in the window.
+	 */
+	private long sum;
+	/**
+	 * Number of values in the window.
+	 */
+	private int count;
+	/**
+	 * Sequence number the next pushed value gets.
+	 */
+	private long nextSequence;
+	/**
+	 * Sequence number of the oldest value in the window.
+	 */
+	private long oldestSequence;
+
+	/**
+	 * Deque of candidates for the maximum with decreasing values from front to back.
+	 */
+	private final Deque maxDeque;
+	/**
+	 * Deque of candidates for the minimum with increasing values from front to back.
+	 */
+	private final Deque minDeque;
+
+	/**
+	 * Constructor to create an aggregate of an empty window.
+	 */
+	public WindowAggregate() {
+		maxDeque = new Deque();
+		minDeque = new Deque();
+		clear();
+	}
+
+	/**
+	 * Adds a value as the newest one of the window.
+	 * @param value value to add
+	 */
+	public void push(long value) {
+		long sequence = nextSequence++;
+		sum += value;
+		count++;
+
+		while (!maxDeque.isEmpty() && maxDeque.lastValue() <= value)
+			maxDeque.removeLast();
+		maxDeque.addLast(sequence, value);
+
+		while (!minDeque.isEmpty() && minDeque.lastValue() >= value)
+			minDeque.removeLast();
+		minDeque.addLast(sequence, value);
+	}
+
+	/**
+	 * Removes the oldest value of the window.
+	 * @param value the oldest value, which has to be the value pushed first among the remaining ones
+	 */
+	public void evictOldest(long value) {
+		if (count == 0)
+			return;
+
+		sum -= value;
+		count--;
+		if (!maxDeque.isEmpty() && maxDeque.firstSequence() == oldestSequence)
+			maxDeque.removeFirst();
+		if (!minDeque.isEmpty() && minDeque.firstSequence() == oldestSequence)
+			minDeque.removeFirst();
+		oldestSequence++;
+	}
+
+	/**
+	 * Resets the aggregate to an empty window.
+	 */
+	public void clear() {
+		sum = 0;
+		count = 0;
+		oldestSequence = nextSequence;
+		maxDeque.clear();
+		minDeque.clear();
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public long getSum() {
+		return sum;
+	}
+
+	/**
+	 * Returns the maximum of the window.
+	 * @return maximum or {@code Long.MIN_VALUE} for an empty window
+	 */
+	public long getMax() {
+		return maxDeque.isEmpty() ? Long.MIN_VALUE : maxDeque.firstValue();
+	}
+
+	/**
+	 * Returns the minimum of the window.
+	 * @return minimum or {@code Long.MAX_VALUE} for an empty window
+	 */
+	public long getMin() {
+		return minDeque.isEmpty() ? Long.MAX_VALUE : minDeque.firstValue();
+	}
+
+	/**
+	 * Growable circular deque of (sequence, value) pairs stored in primitive arrays.
+	 */
+	private static class Deque {
+
+		private long[] sequences = new long[INITIAL_CAPACITY];
+		private long[] values = new long[INITIAL_CAPACITY];
+		private int head;
+		private int size;
+
+		boolean isEmpty() {
+			return size == 0;
+		}
+
+		void clear() {
+			head = 0;
+			size = 0;
+		}
+
+		long firstSequence() {
+			return sequences[head];
+		}
+
+		long firstValue() {
+			return values[head];
+		}
+
+		long lastValue() {
+			return values[index(size - 1)];
+		}
+
+		void addLast(long sequence, long value) {
+			if (size == values.length)
+				grow();
+			int index = index(size);
+			sequences[index] = sequence;
+			values[index] = value;
+			size++;
+		}
+
+		void removeFirst() {
+			head = index(1);
+			size--;
+		}
+
+		void removeLast() {
+			size--;
+		}
+
+		private int index(int offset) {
+			int index = head + offset;
+			return index >= values.length ? index - values.length : index;
+		}
+
+		private void grow() {
+			long[] newSequences = new long[values.length * 2];
+			long[] newValues = new long[values.length * 2];
+			for (int i = 0; i < size; i++) {
+				newSequences[i] = sequences[index(i)];
+				newValues[i] = values[index(i)];
+			}
+			sequences = newSequences;
+			values = newValues;
+			head = 0;
+		}
+	}
+}
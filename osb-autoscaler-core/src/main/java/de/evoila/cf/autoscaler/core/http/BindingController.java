@@ -1,9 +1,8 @@
 package de.evoila.cf.autoscaler.core.http;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,11 +17,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import de.evoila.cf.autoscaler.api.binding.Binding;
 import de.evoila.cf.autoscaler.core.applications.ScalableApp;
 import de.evoila.cf.autoscaler.core.applications.ScalableAppService;
+import de.evoila.cf.autoscaler.core.exception.LimitException;
+import de.evoila.cf.autoscaler.core.http.response.BulkResponse;
 import de.evoila.cf.autoscaler.core.http.response.ResponseApplication;
+import de.evoila.cf.autoscaler.core.manager.BulkBinder;
 import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
 import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
 
@@ -36,6 +42,10 @@ public class BindingController extends BaseController {
 
 	private Logger log = LoggerFactory.getLogger(BindingController.class);
 
+	/**
+	 * Body of responses without content.
+	 */
+	private static final byte[] EMPTY_JSON = "{}".getBytes(StandardCharsets.UTF_8);
 	
 	/**
 	 * {@code ScalableAppManager} to get, bind or unbind applications.
@@ -49,6 +59,18 @@ public class BindingController extends BaseController {
 	@Autowired
 	private HTTPWrapper httpWrapper;
 	
+	/**
+	 * {@code BulkBinder} to bind and unbind several applications at once.
+	 */
+	@Autowired
+	private BulkBinder bulkBinder;
+	
+	/**
+	 * {@code ObjectMapper} of Spring to stream the binding listings with.
+	 */
+	@Autowired
+	private ObjectMapper objectMapper;
+	
 	/**
 	 * {@code String} to check for equality with the secret of a request to authorize it.
 	 */
@@ -91,7 +113,7 @@ public class BindingController extends BaseController {
 				newApp.getBinding().setResourceName(ScalableAppService.getNameForScalableApp(newApp.getBinding(), httpWrapper));
 			}
 			
-			ResponseApplication responseApp = ScalableAppService.getSerializationObjectWithLock(newApp);
+			ResponseApplication responseApp = newApp.publishSnapshot().getResponse();
 			appManager.add(newApp, false);
 			log.info("New binding created for: " + newApp.getIdentifierStringForLogs());
 			return new ResponseEntity<ResponseApplication>(responseApp, HttpStatus.CREATED);
@@ -121,43 +143,111 @@ public class BindingController extends BaseController {
 	}
 	
 	/**
-	 * Handles incoming request to get information about existing bindings.
+	 * Handles incoming requests to bind several new applications at once.
+	 * Each binding is validated like a single binding, the response holds a result per binding.
 	 * @param secret {@code String} to authorize with
+	 * @param bindings information about the bindings via {@linkplain Binding} objects
 	 * @return the response in form of a {@code ResponseEntity}
+	 * @see ResponseEntity
+	 * @see BulkBinder
 	 */
-	@RequestMapping(value = "/bindings", method = RequestMethod.GET,  produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<?> infosAboutBindings(@RequestHeader(value="secret") String secret) {
+	@RequestMapping(value = "/bindings/bulk", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> bindApps(@RequestHeader(value="secret") String secret, @RequestBody List<Binding> bindings) {
 		if (secret.equals(this.secret)) {
-			List<Binding> bindings = appManager.getListOfBindings();
-			Map<String, List<Binding>> map = new HashMap<String, List<Binding>>();
-			map.put("bindings", bindings);
-			return new ResponseEntity<Map<String, List<Binding>>>(map, HttpStatus.OK);
+			try {
+				return new ResponseEntity<BulkResponse>(bulkBinder.bind(bindings), HttpStatus.OK);
+			} catch (LimitException ex) {
+				return processErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{ \"error\" : \"Request was interrupted.\" }");
+			}
 		}
 		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("{}");
 	}
+	
+	/**
+	 * Handles incoming requests to unbind several existing applications at once.
+	 * @param secret {@code String} to authorize with
+	 * @param bindingIds IDs of the applications
+	 * @return the response in form of a {@code ResponseEntity}
+	 * @see ResponseEntity
+	 * @see BulkBinder
+	 */
+	@RequestMapping(value = "/bindings/bulk", method = RequestMethod.DELETE, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> unbindApps(@RequestHeader(value="secret") String secret, @RequestBody List<String> bindingIds) {
+		if (secret.equals(this.secret)) {
+			try {
+				return new ResponseEntity<BulkResponse>(bulkBinder.unbind(bindingIds), HttpStatus.OK);
+			} catch (LimitException ex) {
+				return processErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+			}
+		}
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("{}");
+	}
+	
+	/**
+	 * Handles incoming request to get information about existing bindings.
+	 * The bindings are listed in the order of their binding id and streamed without building the whole listing first.
+	 * Without a limit all matching bindings are listed, otherwise the response names a cursor for the next page.
+	 * @param secret {@code String} to authorize with
+	 * @param cursor binding id to continue after, taken from the {@code nextCursor} of the previous page
+	 * @param limit maximum number of bindings of the page, 0 for all bindings
+	 * @param serviceId id of the service instance the bindings have to belong to
+	 * @param org organization the bindings have to belong to
+	 * @param space space the bindings have to belong to
+	 * @param scalingEnabled required state of scaling
+	 * @return the response in form of a {@code ResponseEntity}
+	 */
+	@RequestMapping(value = "/bindings", method = RequestMethod.GET,  produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> infosAboutBindings(@RequestHeader(value="secret") String secret,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", defaultValue = "0") int limit,
+			@RequestParam(value = "serviceId", required = false) String serviceId,
+			@RequestParam(value = "org", required = false) String org,
+			@RequestParam(value = "space", required = false) String space,
+			@RequestParam(value = "scalingEnabled", required = false) Boolean scalingEnabled) {
+		return listBindings(secret, serviceId == null || serviceId.isEmpty() ? null : serviceId,
+				new BindingQuery(cursor, limit, org, space, scalingEnabled));
+	}
 
 	/**
 	 * Handles incoming request to get information about service instance specific existing bindings.
+	 * Works like {@linkplain #infosAboutBindings(String, String, int, String, String, String, Boolean)}, but only visits the
+	 * bindings of the service instance.
 	 * @param secret {@code String} to authorize with
 	 * @param serviceId {@code String} of the service instance you want to get the bindings of
+	 * @param cursor binding id to continue after, taken from the {@code nextCursor} of the previous page
+	 * @param limit maximum number of bindings of the page, 0 for all bindings
+	 * @param org organization the bindings have to belong to
+	 * @param space space the bindings have to belong to
+	 * @param scalingEnabled required state of scaling
 	 * @return the response in form of a {@code ResponseEntity}
 	 */
 	@RequestMapping(value = "/bindings/serviceInstance/{serviceId}", method = RequestMethod.GET,  produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<?> infosAboutSpecificBindings(@RequestHeader(value="secret") String secret,
-														@PathVariable("serviceId") String serviceId) {
-		if (secret.equals(this.secret)) {
-			List<Binding> bindings = new LinkedList<>();
-
-			for(Binding binding : appManager.getListOfBindings()) {
-				if(binding.getServiceId().equals(serviceId)) {
-					bindings.add(binding);
-				}
-			}
+	public ResponseEntity<StreamingResponseBody> infosAboutSpecificBindings(@RequestHeader(value="secret") String secret,
+			@PathVariable("serviceId") String serviceId,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "limit", defaultValue = "0") int limit,
+			@RequestParam(value = "org", required = false) String org,
+			@RequestParam(value = "space", required = false) String space,
+			@RequestParam(value = "scalingEnabled", required = false) Boolean scalingEnabled) {
+		return listBindings(secret, serviceId, new BindingQuery(cursor, limit, org, space, scalingEnabled));
+	}
 
-			Map<String, List<Binding>> map = new HashMap<String, List<Binding>>();
-			map.put("bindings", bindings);
-			return new ResponseEntity<Map<String, List<Binding>>>(map, HttpStatus.OK);
+	/**
+	 * Streams the page of bindings matching the given query.
+	 * @param secret {@code String} to authorize with
+	 * @param serviceId id of the service instance to restrict the listing to, null for all bindings
+	 * @param query filter and page of the listing
+	 * @return the response in form of a {@code ResponseEntity}
+	 */
+	private ResponseEntity<StreamingResponseBody> listBindings(String secret, String serviceId, BindingQuery query) {
+		if (secret.equals(this.secret)) {
+			NavigableMap<String, ScalableApp> apps = appManager.getAppsAfter(serviceId, query.getCursor());
+			return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(out -> query.write(apps, objectMapper, out));
 		}
-		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("{}");
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(out -> out.write(EMPTY_JSON));
 	}
 }
@@ -0,0 +1,147 @@
+package de.evoila.cf.autoscaler.core.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.evoila.cf.autoscaler.core.applications.AppSnapshot;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+
+/**
+ * Filter and page of a binding listing, which writes the matching bindings straight to the response stream.
+ * Bindings are listed in the order of their binding id. A page ends after {@link #limit} bindings and names the binding id
+ * of its last binding as cursor for the next page, which is null on the last page.
+ * The bindings are read from the last published {@linkplain AppSnapshot} of every application, so no lock is acquired.
+ * @author Marius Berger
+ *
+ */
+public class BindingQuery {
+
+	/**
+	 * Name of the field holding the bindings of a page.
+	 */
+	public static final String BINDINGS = "bindings";
+	/**
+	 * Name of the field holding the cursor for the next page.
+	 */
+	public static final String NEXT_CURSOR = "nextCursor";
+	/**
+	 * Name of the field of the binding context holding the organization.
+	 */
+	public static final String ORG_FIELD = "organization_guid";
+	/**
+	 * Name of the field of the binding context holding the space.
+	 */
+	public static final String SPACE_FIELD = "space_guid";
+
+	/**
+	 * Binding id to start after, null to start with the first binding.
+	 */
+	private final String cursor;
+	/**
+	 * Maximum number of bindings of the page, 0 or less for all bindings.
+	 */
+	private final int limit;
+	/**
+	 * Organization the bindings have to belong to, null for any organization.
+	 */
+	private final String org;
+	/**
+	 * Space the bindings have to belong to, null for any space.
+	 */
+	private final String space;
+	/**
+	 * Required state of scaling, null for any state.
+	 */
+	private final Boolean scalingEnabled;
+
+	/**
+	 * Constructor for a query. Empty {@code String} values are treated as not set.
+	 * @param cursor {@linkplain #cursor}
+	 * @param limit {@linkplain #limit}
+	 * @param org {@linkplain #org}
+	 * @param space {@linkplain #space}
+	 * @param scalingEnabled {@linkplain #scalingEnabled}
+	 */
+	public BindingQuery(String cursor, int limit, String org, String space, Boolean scalingEnabled) {
+		this.cursor = emptyToNull(cursor);
+		this.limit = limit;
+		this.org = emptyToNull(org);
+		this.space = emptyToNull(space);
+		this.scalingEnabled = scalingEnabled;
+	}
+
+	/**
+	 * Checks whether the given snapshot passes the filters of this query.
+	 * @param snapshot snapshot of the application
+	 * @param binding JSON tree of the binding of the snapshot
+	 * @return true if the binding is part of the listing
+	 */
+	public boolean matches(AppSnapshot snapshot, JsonNode binding) {
+		if (scalingEnabled != null && snapshot.getResponse().getScaling().isScalingEnabled() != scalingEnabled)
+			return false;
+		JsonNode context = binding.path("context");
+		if (org != null && !org.equals(context.path(ORG_FIELD).asText(null)))
+			return false;
+		return space == null || space.equals(context.path(SPACE_FIELD).asText(null));
+	}
+
+	/**
+	 * Writes the page of matching bindings as {@code {"bindings": [...], "nextCursor": ...}} to the given stream.
+	 * Each binding is written as soon as it matched, so the listing is never held in memory as a whole.
+	 * @param apps applications sorted by binding id, starting right after the {@linkplain #cursor}
+	 * @param mapper mapper to write with
+	 * @param out stream to write to, left open
+	 * @return number of written bindings
+	 * @throws IOException if writing to the stream fails
+	 */
+	public int write(Map<String, ScalableApp> apps, ObjectMapper mapper, OutputStream out) throws IOException {
+		int written = 0;
+		String nextCursor = null;
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.writeStartObject();
+			generator.writeArrayFieldStart(BINDINGS);
+			String lastId = null;
+			for (Map.Entry<String, ScalableApp> entry : apps.entrySet()) {
+				AppSnapshot snapshot = entry.getValue().getSnapshot();
+				JsonNode binding = snapshot.getBindingTree(mapper);
+				if (!matches(snapshot, binding))
+					continue;
+				if (limit > 0 && written == limit) {
+					nextCursor = lastId;
+					break;
+				}
+				generator.writeTree(binding);
+				lastId = entry.getKey();
+				written++;
+			}
+			generator.writeEndArray();
+			generator.writeStringField(NEXT_CURSOR, nextCursor);
+			generator.writeEndObject();
+		}
+		return written;
+	}
+
+	/**
+	 * Maps empty {@code Strings} to null.
+	 * @param value value to map
+	 * @return null for null or empty values, otherwise the value
+	 */
+	private static String emptyToNull(String value) {
+		return value == null || value.isEmpty() ? null : value;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+}
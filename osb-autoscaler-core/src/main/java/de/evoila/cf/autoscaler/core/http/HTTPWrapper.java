@@ -3,22 +3,44 @@ package de.evoila.cf.autoscaler.core.http;
 import de.evoila.cf.autoscaler.api.ApplicationNameRequest;
 import de.evoila.cf.autoscaler.api.ScalingRequest;
 import de.evoila.cf.autoscaler.api.binding.BindingContext;
+import de.evoila.cf.autoscaler.core.http.request.BatchScalingRequest;
+import de.evoila.cf.autoscaler.core.http.request.BatchScalingResponse;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
 import de.evoila.cf.autoscaler.core.properties.ScalingEnginePropertiesBean;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Wrapper class for outgoing HTTP Communication of the Autoscaler.
+ * Requests are sent via a pooled HTTP client with keep-alive, timeouts and a per-host connection cap.
+ * In the asynchronous client mode the requests run on a dedicated worker pool with a bounded queue and the caller receives a future.
+ * In the batch scaling mode the scaling orders of several applications are sent in one request.
  * @author Marius Berger
  *
  */
@@ -33,13 +55,114 @@ public class HTTPWrapper {
 	private RestTemplate restTemplate;
 	
 	/**
-	 * Hide constructor because there is no need for an instance of this class.
+	 * Pooled HTTP client underlying the {@linkplain #restTemplate}.
+	 */
+	private CloseableHttpClient httpClient;
+	
+	/**
+	 * Worker pool for asynchronous requests, null if the asynchronous client mode is disabled.
+	 * Its queue is bounded, a request rejected by a full queue is sent synchronously by the calling thread,
+	 * so the returned future is completed already.
+	 */
+	private ExecutorService asyncExecutor;
+	
+	/**
+	 * Constructor for Spring to inject the service.
 	 */
 	public HTTPWrapper() {}
 	
+	/**
+	 * Constructor to set up a wrapper without Spring.
+	 * @param engineProps {@linkplain #engineProps}
+	 */
+	public HTTPWrapper(ScalingEnginePropertiesBean engineProps) {
+		this.engineProps = engineProps;
+		init();
+	}
+	
+	/**
+	 * Creates the pooled HTTP client and the worker pool for the asynchronous client mode.
+	 */
 	@PostConstruct
 	private void init() {
-		restTemplate = new RestTemplate();
+		ScalingEnginePropertiesBean.Client clientProps = engineProps.getClient();
+		
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(clientProps.getKeepAlive(), TimeUnit.MILLISECONDS);
+		connectionManager.setMaxTotal(clientProps.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(clientProps.getMaxConnectionsPerHost());
+		
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(clientProps.getConnectTimeout())
+				.setSocketTimeout(clientProps.getReadTimeout())
+				.setConnectionRequestTimeout(clientProps.getConnectionRequestTimeout())
+				.build();
+		
+		httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy((response, context) -> clientProps.getKeepAlive())
+				.evictIdleConnections(clientProps.getKeepAlive(), TimeUnit.MILLISECONDS)
+				.build();
+		restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+		
+		if (clientProps.isAsync()) {
+			AtomicInteger threadNumber = new AtomicInteger();
+			int workers = Math.max(1, clientProps.getMaxConnections());
+			asyncExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<Runnable>(Math.max(1, clientProps.getAsyncQueueCapacity())),
+					runnable -> {
+						Thread thread = new Thread(runnable, "ScalingEngineClient-" + threadNumber.getAndIncrement());
+						thread.setDaemon(true);
+						return thread;
+					},
+					(runnable, executor) -> {
+						if (executor.isShutdown())
+							throw new RejectedExecutionException("The asynchronous scaling engine client is shut down.");
+						log.warn("Queue of the asynchronous scaling engine client is full, sending the request on the calling thread.");
+						runnable.run();
+					});
+			log.info("Using asynchronous client for the scaling engine with up to " + workers + " concurrent requests, at most "
+					+ clientProps.getMaxConnectionsPerHost() + " per host.");
+		}
+	}
+	
+	/**
+	 * Stops the worker pool and closes the pooled connections.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (asyncExecutor != null)
+			asyncExecutor.shutdown();
+		try {
+			httpClient.close();
+		} catch (IOException ex) {
+			log.error("Could not close the HTTP client: " + ex.getMessage());
+		}
+	}
+	
+	/**
+	 * Checks whether the asynchronous client mode is enabled.
+	 * @return true if requests should be sent via the asynchronous methods
+	 */
+	public boolean isAsync() {
+		return asyncExecutor != null;
+	}
+	
+	/**
+	 * Checks whether the batch scaling mode is enabled.
+	 * @return true if scaling orders should be sent via {@linkplain #scaleBatch(BatchScalingRequest)}
+	 */
+	public boolean isBatchScaling() {
+		return engineProps.getClient().getBatchSize() > 1 && engineProps.getEndpoint() != null
+				&& engineProps.getEndpoint().getBatchScaling() != null;
+	}
+	
+	/**
+	 * Returns the maximum number of scaling orders per batch scaling request.
+	 * @return maximum batch size
+	 */
+	public int getBatchSize() {
+		return engineProps.getClient().getBatchSize();
 	}
 	
 	/**
@@ -63,7 +186,93 @@ public class HTTPWrapper {
 		HttpEntity<?> request = new HttpEntity<>(scalingOrder, headers);
 		log.debug("Sending scaling request to " + url + " - " + scalingOrder.toString());
 		
-		return restTemplate.postForEntity(url, request, String.class);
+		return post("scale", url, request, String.class);
+	}
+	
+	/**
+	 * Send a scaling order to the scaling engine without blocking the caller.
+	 * Falls back to a blocking request, if the asynchronous client mode is disabled.
+	 * @param resourceId ID of the resource
+	 * @param context BindingContext of the application
+	 * @param newInstances instance count to scale to
+	 * @return future completing with the response or exceptionally with the thrown {@code RestClientException}
+	 */
+	public CompletableFuture<ResponseEntity<String>> scaleAsync(String resourceId, BindingContext context, int newInstances) {
+		if (asyncExecutor == null) {
+			CompletableFuture<ResponseEntity<String>> future = new CompletableFuture<>();
+			try {
+				future.complete(scale(resourceId, context, newInstances));
+			} catch (RuntimeException ex) {
+				future.completeExceptionally(ex);
+			}
+			return future;
+		}
+		return supplyAsync(() -> scale(resourceId, context, newInstances));
+	}
+	
+	/**
+	 * Send the scaling orders of several applications to the scaling engine in one request.
+	 * @param batch scaling orders to send
+	 * @return the response in form of a {@code ResponseEntity} holding one result per scaling order
+	 * @throws HttpServerErrorException
+	 */
+	public ResponseEntity<BatchScalingResponse> scaleBatch(BatchScalingRequest batch) throws HttpServerErrorException {
+		
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("secret", engineProps.getSecret());
+		headers.add("Content-Type", "application/json");
+		String url = engineProps.getHost()+"/"+engineProps.getEndpoint().getBatchScaling();
+		if (! (url.startsWith("http://") || url.startsWith("https://")) ) {
+			url = "http://"+ url;
+		}
+		HttpEntity<?> request = new HttpEntity<>(batch, headers);
+		log.debug("Sending batch scaling request to " + url + " - " + batch.toString());
+		
+		return post("batch", url, request, BatchScalingResponse.class);
+	}
+	
+	/**
+	 * Posts a request to the scaling engine and records its duration and status code in the metrics of the Autoscaler.
+	 * @param operation kind of the request for the metrics
+	 * @param url URL to post to
+	 * @param request request to post
+	 * @param responseType type of the response body
+	 * @param <T> type of the response body
+	 * @return the response in form of a {@code ResponseEntity}
+	 * @throws RestClientException - if the request failed
+	 */
+	private <T> ResponseEntity<T> post(String operation, String url, HttpEntity<?> request, Class<T> responseType) throws RestClientException {
+		long start = System.nanoTime();
+		int status = -1;
+		try {
+			ResponseEntity<T> response = restTemplate.postForEntity(url, request, responseType);
+			status = response.getStatusCodeValue();
+			return response;
+		} catch (HttpStatusCodeException ex) {
+			status = ex.getRawStatusCode();
+			throw ex;
+		} finally {
+			AutoscalerMetrics.recordEngineRequest(operation, status, System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Send the scaling orders of several applications to the scaling engine in one request without blocking the caller.
+	 * Falls back to a blocking request, if the asynchronous client mode is disabled.
+	 * @param batch scaling orders to send
+	 * @return future completing with the response or exceptionally with the thrown {@code RestClientException}
+	 */
+	public CompletableFuture<ResponseEntity<BatchScalingResponse>> scaleBatchAsync(BatchScalingRequest batch) {
+		if (asyncExecutor == null) {
+			CompletableFuture<ResponseEntity<BatchScalingResponse>> future = new CompletableFuture<>();
+			try {
+				future.complete(scaleBatch(batch));
+			} catch (RuntimeException ex) {
+				future.completeExceptionally(ex);
+			}
+			return future;
+		}
+		return supplyAsync(() -> scaleBatch(batch));
 	}
 	
 	/**
@@ -98,4 +307,34 @@ public class HTTPWrapper {
 		}
 		return response;
 	}
+	
+	/**
+	 * Send a name request to the scaling engine without blocking the caller.
+	 * Falls back to a blocking request, if the asynchronous client mode is disabled.
+	 * @param resourceId ID of the resource
+	 * @param context {@code BindingContext} of the application
+	 * @return future completing with the response or null, just like {@linkplain #getNameFromScalingEngine(String, BindingContext)}
+	 */
+	public CompletableFuture<ResponseEntity<ApplicationNameRequest>> getNameFromScalingEngineAsync(String resourceId, BindingContext context) {
+		if (asyncExecutor == null)
+			return CompletableFuture.completedFuture(getNameFromScalingEngine(resourceId, context));
+		return supplyAsync(() -> getNameFromScalingEngine(resourceId, context));
+	}
+	
+	/**
+	 * Runs a request on the worker pool of the asynchronous client mode.
+	 * A request rejected, because the client is shut down, completes the future exceptionally instead of throwing at the caller.
+	 * @param request request to run
+	 * @param <T> type of the response
+	 * @return future completing with the response
+	 */
+	private <T> CompletableFuture<T> supplyAsync(Supplier<T> request) {
+		try {
+			return CompletableFuture.supplyAsync(request, asyncExecutor);
+		} catch (RejectedExecutionException ex) {
+			CompletableFuture<T> future = new CompletableFuture<T>();
+			future.completeExceptionally(ex);
+			return future;
+		}
+	}
 }
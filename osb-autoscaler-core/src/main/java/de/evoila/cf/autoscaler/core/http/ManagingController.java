@@ -1,11 +1,20 @@
 package de.evoila.cf.autoscaler.core.http;
 
 import de.evoila.cf.autoscaler.api.binding.InvalidBindingException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.evoila.cf.autoscaler.api.update.UpdateRequest;
+import de.evoila.cf.autoscaler.core.applications.AppSnapshot;
 import de.evoila.cf.autoscaler.core.applications.ScalableApp;
 import de.evoila.cf.autoscaler.core.applications.ScalableAppService;
 import de.evoila.cf.autoscaler.core.exception.*;
+import de.evoila.cf.autoscaler.core.http.request.BulkUpdateRequest;
+import de.evoila.cf.autoscaler.core.http.response.BulkResponse;
+import de.evoila.cf.autoscaler.core.http.response.ResponseAppMemory;
 import de.evoila.cf.autoscaler.core.http.response.ResponseApplication;
+import de.evoila.cf.autoscaler.core.http.response.ResponseMemory;
+import de.evoila.cf.autoscaler.core.manager.BulkPolicyUpdater;
+import de.evoila.cf.autoscaler.core.manager.MetricMemoryBudget;
 import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +48,24 @@ public class ManagingController extends BaseController{
 	@Autowired
 	private HTTPWrapper httpWrapper;
 	
+	/**
+	 * {@code ObjectMapper} of Spring to serialize the snapshots with.
+	 */
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	/**
+	 * {@code BulkPolicyUpdater} to apply bulk updates with.
+	 */
+	@Autowired
+	private BulkPolicyUpdater bulkUpdater;
+	
+	/**
+	 * {@code MetricMemoryBudget} to get the memory accounting from.
+	 */
+	@Autowired
+	private MetricMemoryBudget memoryBudget;
+	
 	/**
 	 * {@code String} to check for equality with the secret of a request to authorize it.
 	 */
@@ -81,7 +108,7 @@ public class ManagingController extends BaseController{
 				app.acquire();
 				app.update(requestBody);
 				appManager.updateInDatabase(app);
-				responseApp = ScalableAppService.getSerializationObjectWithoutLock(app);
+				responseApp = app.publishSnapshot().getResponse();
 			} catch (InterruptedException ex) {
 				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{ \"error\" : \"Request was interrupted.\" }");
 			}
@@ -92,8 +119,44 @@ public class ManagingController extends BaseController{
 		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("{}");	
 	}
 	
+	/**
+	 * Handles incoming request to update the policies of several applications at once.
+	 * The applications are selected by the id of their service instance, by their binding ids or by both.
+	 * Each application is validated and updated on its own, the response holds a result per selected binding.
+	 * @param secret {@code String} to authorize with
+	 * @param requestBody body of the request
+	 * @return the response in form of a {@code ResponseEntity}
+	 * @see ResponseEntity
+	 * @see BulkPolicyUpdater
+	 */
+	@RequestMapping(value = "/bindings", method = RequestMethod.PATCH
+			, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> updateApps(@RequestHeader(value="secret") String secret, @RequestBody BulkUpdateRequest requestBody) {
+		if (secret.equals(this.secret)) {
+			if (!requestBody.hasSelector()) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+						"{ \"error\" : \"Neither a service instance nor binding ids were given.\"}");
+			}
+			if (requestBody.getUpdate() == null || requestBody.getUpdate().getAllSetElements().size() == 0) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+						"{ \"error\" : \"Not one valid policy was found.\"}");
+			}
+			
+			try {
+				return new ResponseEntity<BulkResponse>(bulkUpdater.update(requestBody), HttpStatus.OK);
+			} catch (LimitException ex) {
+				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("{ \"error\" : \"" + ex.getMessage() + "\"}");
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{ \"error\" : \"Request was interrupted.\" }");
+			}
+		}
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("{}");
+	}
+	
 	/**
 	 * Handles incoming request to get information about an application.
+	 * Serves the last published snapshot of the application without waiting for its lock, tagged with a hash of its JSON.
 	 * @param secret {@code String} to authorize with
 	 * @param appId ID of the application
 	 * @return the response in form of a {@code ResponseEntity}
@@ -104,11 +167,45 @@ public class ManagingController extends BaseController{
 		if (secret.equals(this.secret)) {
 			ScalableApp app = appManager.get(appId);
 			if (app != null) {
-				ResponseApplication responseApp = ScalableAppService.getSerializationObjectWithLock(app);
-				if (responseApp == null)
-					return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{ \"error\" : \"Request was interrupted.\" }");
-				
-				return new ResponseEntity<ResponseApplication>(responseApp, HttpStatus.OK);
+				AppSnapshot snapshot = app.getSnapshot();
+				try {
+					return ResponseEntity.ok().eTag(snapshot.getETag(objectMapper)).contentType(MediaType.APPLICATION_JSON_UTF8)
+							.body(snapshot.getJson(objectMapper));
+				} catch (JsonProcessingException ex) {
+					log.error("Serializing " + app.getIdentifierStringForLogs() + " failed.", ex);
+					return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{ \"error\" : \"Could not serialize the binding.\" }");
+				}
+			}
+			return ResponseEntity.status(HttpStatus.GONE).body("{}");
+		}
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("{}");
+	}
+	
+	/**
+	 * Handles incoming requests to get the estimated metric memory of all applications and the state of the memory budget.
+	 * @param secret {@code String} to authorize with
+	 * @return the response in form of a {@code ResponseEntity}
+	 */
+	@RequestMapping(value = "/memory", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> memoryInfo(@RequestHeader(value="secret") String secret) {
+		if (secret.equals(this.secret)) {
+			return new ResponseEntity<ResponseMemory>(new ResponseMemory(memoryBudget), HttpStatus.OK);
+		}
+		return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("{}");
+	}
+	
+	/**
+	 * Handles incoming requests to get the estimated metric memory of an application. Does not wait for the lock of the application.
+	 * @param secret {@code String} to authorize with
+	 * @param appId ID of the application
+	 * @return the response in form of a {@code ResponseEntity}
+	 */
+	@RequestMapping(value = "/bindings/{appId}/memory", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<?> appMemoryInfo(@RequestHeader(value="secret") String secret, @PathVariable("appId") String appId) {
+		if (secret.equals(this.secret)) {
+			ScalableApp app = appManager.get(appId);
+			if (app != null) {
+				return new ResponseEntity<ResponseAppMemory>(new ResponseAppMemory(app), HttpStatus.OK);
 			}
 			return ResponseEntity.status(HttpStatus.GONE).body("{}");
 		}
@@ -131,7 +228,7 @@ public class ManagingController extends BaseController{
 					app.acquire();
 					app.getRequest().resetQuotient();
 					appManager.updateInDatabase(app);
-					responseApp = ScalableAppService.getSerializationObjectWithoutLock(app);
+					responseApp = app.publishSnapshot().getResponse();
 					log.info("Reset quotient for "+app.getIdentifierStringForLogs());
 				} catch (InterruptedException e) {}
 				app.release();
@@ -158,7 +255,7 @@ public class ManagingController extends BaseController{
 					app.acquire();
 					app.setLearningStartTime(System.currentTimeMillis());
 					appManager.updateInDatabase(app);
-					responseApp = ScalableAppService.getSerializationObjectWithoutLock(app);
+					responseApp = app.publishSnapshot().getResponse();
 					log.info("Reset learning start time for "+app.getIdentifierStringForLogs());
 				} catch (InterruptedException ex) {  
 					return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("{ \"error\" : \"Request was interrupted.\" }");
@@ -196,7 +293,7 @@ public class ManagingController extends BaseController{
 						return new ResponseEntity<String>("{\"message\" : \"Could not update the name. This might be caused by corrupt binding information"
 								+ " or the application is not findable by the scaling engine. \"}",HttpStatus.NOT_FOUND);
 					}
-					responseApp = ScalableAppService.getSerializationObjectWithoutLock(app);
+					responseApp = app.publishSnapshot().getResponse();
 				} catch (InterruptedException ex) {
 					return new ResponseEntity<String>("{ \"error\" : \"Request was interrupted.\" }",HttpStatus.INTERNAL_SERVER_ERROR);
 				}
@@ -0,0 +1,96 @@
+package de.evoila.cf.autoscaler.core.http.request;
+
+import de.evoila.cf.autoscaler.api.binding.BindingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simple wrapper class for serializing several scaling orders into one request to the scaling engine.
+ * @author Marius Berger
+ *
+ */
+public class BatchScalingRequest {
+
+	/**
+	 * Scaling orders of this batch.
+	 */
+	private List<Item> requests;
+
+	/**
+	 * Constructor to create an empty batch.
+	 */
+	public BatchScalingRequest() {
+		requests = new ArrayList<Item>();
+	}
+
+	/**
+	 * Adds a scaling order to this batch.
+	 * @param resourceId ID of the resource
+	 * @param scale instance count to scale to
+	 * @param context BindingContext of the application
+	 */
+	public void add(String resourceId, int scale, BindingContext context) {
+		requests.add(new Item(resourceId, scale, context));
+	}
+
+	public List<Item> getRequests() {
+		return requests;
+	}
+
+	public void setRequests(List<Item> requests) {
+		this.requests = requests;
+	}
+
+	/**
+	 * Single scaling order of a {@linkplain BatchScalingRequest}.
+	 */
+	public static class Item {
+
+		private String resourceId;
+		private int scale;
+		private BindingContext context;
+
+		public Item() { }
+
+		public Item(String resourceId, int scale, BindingContext context) {
+			this.resourceId = resourceId;
+			this.scale = scale;
+			this.context = context;
+		}
+
+		public String getResourceId() {
+			return resourceId;
+		}
+
+		public void setResourceId(String resourceId) {
+			this.resourceId = resourceId;
+		}
+
+		public int getScale() {
+			return scale;
+		}
+
+		public void setScale(int scale) {
+			this.scale = scale;
+		}
+
+		public BindingContext getContext() {
+			return context;
+		}
+
+		public void setContext(BindingContext context) {
+			this.context = context;
+		}
+
+		@Override
+		public String toString() {
+			return "Item [resourceId=" + resourceId + ", scale=" + scale + "]";
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BatchScalingRequest [requests=" + requests + "]";
+	}
+}
@@ -0,0 +1,85 @@
+package de.evoila.cf.autoscaler.core.http.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simple wrapper class for deserializing the answer of the scaling engine to a {@linkplain BatchScalingRequest}.
+ * Holds one result per scaling order, identified by the resource ID of the order.
+ * @author Marius Berger
+ *
+ */
+public class BatchScalingResponse {
+
+	/**
+	 * Results of the scaling orders.
+	 */
+	private List<Item> results;
+
+	public BatchScalingResponse() {
+		results = new ArrayList<Item>();
+	}
+
+	public List<Item> getResults() {
+		return results;
+	}
+
+	public void setResults(List<Item> results) {
+		this.results = results;
+	}
+
+	/**
+	 * Result of a single scaling order of a {@linkplain BatchScalingRequest}.
+	 */
+	public static class Item {
+
+		private String resourceId;
+		/**
+		 * HTTP status code the scaling engine would have answered a single scaling request with.
+		 */
+		private int statusCode;
+		private String message;
+
+		public Item() { }
+
+		public Item(String resourceId, int statusCode, String message) {
+			this.resourceId = resourceId;
+			this.statusCode = statusCode;
+			this.message = message;
+		}
+
+		public String getResourceId() {
+			return resourceId;
+		}
+
+		public void setResourceId(String resourceId) {
+			this.resourceId = resourceId;
+		}
+
+		public int getStatusCode() {
+			return statusCode;
+		}
+
+		public void setStatusCode(int statusCode) {
+			this.statusCode = statusCode;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		public void setMessage(String message) {
+			this.message = message;
+		}
+
+		@Override
+		public String toString() {
+			return "Item [resourceId=" + resourceId + ", statusCode=" + statusCode + ", message=" + message + "]";
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BatchScalingResponse [results=" + results + "]";
+	}
+}
@@ -0,0 +1,62 @@
+package de.evoila.cf.autoscaler.core.http.request;
+
+import de.evoila.cf.autoscaler.api.update.UpdateRequest;
+
+import java.util.List;
+
+/**
+ * Simple wrapper class for deserializing a policy update for several bindings at once.
+ * The bindings are selected by the id of their service instance, by their binding ids or by both,
+ * in which case only the listed bindings of the service instance are updated.
+ * @author Marius Berger
+ *
+ */
+public class BulkUpdateRequest {
+
+	/**
+	 * Id of the service instance, whose bindings are updated, null to select by binding ids only.
+	 */
+	private String serviceId;
+	/**
+	 * Ids of the bindings to update, null to select by service instance only.
+	 */
+	private List<String> bindingIds;
+	/**
+	 * Policies to set for every selected binding.
+	 */
+	private UpdateRequest update;
+
+	public BulkUpdateRequest() { }
+
+	/**
+	 * Checks whether this request selects any bindings.
+	 * @return true if a service instance or binding ids are given
+	 */
+	public boolean hasSelector() {
+		return (serviceId != null && !serviceId.isEmpty()) || (bindingIds != null && !bindingIds.isEmpty());
+	}
+
+	public String getServiceId() {
+		return serviceId;
+	}
+
+	public void setServiceId(String serviceId) {
+		this.serviceId = serviceId;
+	}
+
+	public List<String> getBindingIds() {
+		return bindingIds;
+	}
+
+	public void setBindingIds(List<String> bindingIds) {
+		this.bindingIds = bindingIds;
+	}
+
+	public UpdateRequest getUpdate() {
+		return update;
+	}
+
+	public void setUpdate(UpdateRequest update) {
+		this.update = update;
+	}
+}
@@ -0,0 +1,115 @@
+package de.evoila.cf.autoscaler.core.http.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Simple wrapper class for serializing the outcome of a bulk request with a result per binding.
+ * @author Marius Berger
+ *
+ */
+public class BulkResponse {
+
+	private int succeeded;
+	private int failed;
+	private List<Result> results;
+	
+	public BulkResponse(List<Result> results) {
+		this.results = new ArrayList<Result>(results);
+		Collections.sort(this.results, (a, b) -> String.valueOf(a.getId()).compareTo(String.valueOf(b.getId())));
+		for (Result result : this.results) {
+			if (result.isSuccessful()) {
+				succeeded++;
+			} else {
+				failed++;
+			}
+		}
+	}
+
+	public int getSucceeded() {
+		return succeeded;
+	}
+
+	public void setSucceeded(int succeeded) {
+		this.succeeded = succeeded;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public void setFailed(int failed) {
+		this.failed = failed;
+	}
+
+	public List<Result> getResults() {
+		return results;
+	}
+
+	public void setResults(List<Result> results) {
+		this.results = results;
+	}
+
+	/**
+	 * Outcome for a single binding of a bulk request.
+	 */
+	public static class Result {
+
+		private String id;
+		private int status;
+		private String error;
+		private boolean persisted;
+
+		public Result() { }
+
+		public Result(String id, int status, String error) {
+			this.id = id;
+			this.status = status;
+			this.error = error;
+		}
+
+		/**
+		 * Checks whether the binding was changed.
+		 * @return true for a status code below 300
+		 */
+		@JsonIgnore
+		public boolean isSuccessful() {
+			return status < 300;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public int getStatus() {
+			return status;
+		}
+
+		public void setStatus(int status) {
+			this.status = status;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		public void setError(String error) {
+			this.error = error;
+		}
+
+		public boolean isPersisted() {
+			return persisted;
+		}
+
+		public void setPersisted(boolean persisted) {
+			this.persisted = persisted;
+		}
+	}
+}
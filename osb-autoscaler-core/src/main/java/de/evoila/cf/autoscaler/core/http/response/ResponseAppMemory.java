@@ -0,0 +1,65 @@
+package de.evoila.cf.autoscaler.core.http.response;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+
+/**
+ * Simple wrapper class for serializing the metric memory accounting of an application.
+ * @author Marius Berger
+ *
+ */
+public class ResponseAppMemory {
+
+	private String id;
+	private long estimatedBytes;
+	private long fixedBytes;
+	private int windowLimit;
+	private int maxWindowSize;
+	
+	public ResponseAppMemory(ScalableApp app) {
+		id = app.getBinding().getId();
+		estimatedBytes = app.getEstimatedBytes();
+		fixedBytes = app.getEstimatedBytes() - app.getWindowBytes();
+		windowLimit = app.getWindowCapacityLimit();
+		maxWindowSize = app.getMaxListSize();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	public void setEstimatedBytes(long estimatedBytes) {
+		this.estimatedBytes = estimatedBytes;
+	}
+
+	public long getFixedBytes() {
+		return fixedBytes;
+	}
+
+	public void setFixedBytes(long fixedBytes) {
+		this.fixedBytes = fixedBytes;
+	}
+
+	public int getWindowLimit() {
+		return windowLimit;
+	}
+
+	public void setWindowLimit(int windowLimit) {
+		this.windowLimit = windowLimit;
+	}
+
+	public int getMaxWindowSize() {
+		return maxWindowSize;
+	}
+
+	public void setMaxWindowSize(int maxWindowSize) {
+		this.maxWindowSize = maxWindowSize;
+	}
+}
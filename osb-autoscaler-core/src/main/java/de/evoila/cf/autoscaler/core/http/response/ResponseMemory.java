@@ -0,0 +1,95 @@
+package de.evoila.cf.autoscaler.core.http.response;
+
+import de.evoila.cf.autoscaler.core.manager.MetricMemoryBudget;
+
+/**
+ * Simple wrapper class for serializing the metric memory accounting of all applications.
+ * @author Marius Berger
+ *
+ */
+public class ResponseMemory {
+
+	private long estimatedBytes;
+	private long fixedBytes;
+	private long budget;
+	private long appBudget;
+	private int appCount;
+	private int degradedApps;
+	private int windowLimit;
+	private int maxWindowSize;
+	
+	public ResponseMemory(MetricMemoryBudget memoryBudget) {
+		estimatedBytes = memoryBudget.getTotalBytes();
+		fixedBytes = memoryBudget.getFixedBytes();
+		budget = memoryBudget.getBudget();
+		appBudget = memoryBudget.getAppBudget();
+		appCount = memoryBudget.getAppCount();
+		degradedApps = memoryBudget.getDegradedApps();
+		windowLimit = memoryBudget.getWindowLimit();
+		maxWindowSize = memoryBudget.getMaxWindowSize();
+	}
+
+	public long getEstimatedBytes() {
+		return estimatedBytes;
+	}
+
+	public void setEstimatedBytes(long estimatedBytes) {
+		this.estimatedBytes = estimatedBytes;
+	}
+
+	public long getFixedBytes() {
+		return fixedBytes;
+	}
+
+	public void setFixedBytes(long fixedBytes) {
+		this.fixedBytes = fixedBytes;
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	public void setBudget(long budget) {
+		this.budget = budget;
+	}
+
+	public long getAppBudget() {
+		return appBudget;
+	}
+
+	public void setAppBudget(long appBudget) {
+		this.appBudget = appBudget;
+	}
+
+	public int getAppCount() {
+		return appCount;
+	}
+
+	public void setAppCount(int appCount) {
+		this.appCount = appCount;
+	}
+
+	public int getDegradedApps() {
+		return degradedApps;
+	}
+
+	public void setDegradedApps(int degradedApps) {
+		this.degradedApps = degradedApps;
+	}
+
+	public int getWindowLimit() {
+		return windowLimit;
+	}
+
+	public void setWindowLimit(int windowLimit) {
+		this.windowLimit = windowLimit;
+	}
+
+	public int getMaxWindowSize() {
+		return maxWindowSize;
+	}
+
+	public void setMaxWindowSize(int maxWindowSize) {
+		this.maxWindowSize = maxWindowSize;
+	}
+}
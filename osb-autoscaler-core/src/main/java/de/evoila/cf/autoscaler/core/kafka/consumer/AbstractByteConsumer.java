@@ -1,16 +1,55 @@
 package de.evoila.cf.autoscaler.core.kafka.consumer;
 
 import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import de.evoila.cf.autoscaler.core.scaling.ScalingEventTrigger;
 import de.evoila.cf.autoscaler.kafka.AutoScalerConsumer;
 import de.evoila.cf.autoscaler.kafka.ByteConsumerThread;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class AbstractByteConsumer implements AutoScalerConsumer {
 
 	ByteConsumerThread consThread;
+	
+	/**
+	 * Thread handing whole polls to {@linkplain #consumeBatch(List)}, null if the records are consumed one by one via the {@linkplain #consThread}.
+	 */
+	BatchConsumerThread batchThread;
+	
 	ScalableAppManager appManager;
 	
 	long maxMetricAge;
 	
+	/**
+	 * Trigger to notify about metrics above an upper limit of their application, null to disable notifications.
+	 */
+	ScalingEventTrigger eventTrigger;
+	
+	/**
+	 * Number of records published to an application.
+	 */
+	final LongAdder published = new LongAdder();
+	/**
+	 * Number of records dropped, because no application is bound for their app id.
+	 */
+	final LongAdder droppedUnknownApp = new LongAdder();
+	/**
+	 * Number of records dropped, because they were older than {@linkplain #maxMetricAge}.
+	 */
+	final LongAdder droppedTooOld = new LongAdder();
+	/**
+	 * Number of records dropped, because newer metrics already took their slot in the full metric buffer of their application.
+	 */
+	final LongAdder droppedBufferFull = new LongAdder();
+	/**
+	 * Number of records dropped, because they could not be parsed.
+	 */
+	final LongAdder droppedMalformed = new LongAdder();
+	
 	public AbstractByteConsumer(String topic, String groupId, String hostname, int port, long maxMetricAge, ScalableAppManager appManager) {
 		consThread = new ByteConsumerThread(topic, groupId, hostname, port, this);
 		this.appManager = appManager;
@@ -18,17 +57,46 @@ public abstract class AbstractByteConsumer implements AutoScalerConsumer {
 	}
 	
 	/**
-	 * Start underlying {@linkplain #consThread ByteConsumerThread}. 
+	 * Constructor for a consumer, which is handed whole polls of the given Kafka consumer by a {@linkplain BatchConsumerThread}.
+	 * @param kafkaConsumer Kafka consumer, subscribed via {@linkplain BatchConsumerThread#subscribe(String)} or already assigned to its partitions
+	 * @param pollTimeout maximum time in milliseconds a poll waits for records
+	 * @param maxMetricAge {@linkplain #maxMetricAge}
+	 * @param appManager {@linkplain #appManager}
+	 */
+	public AbstractByteConsumer(Consumer<byte[], byte[]> kafkaConsumer, long pollTimeout, long maxMetricAge, ScalableAppManager appManager) {
+		batchThread = new BatchConsumerThread(kafkaConsumer, pollTimeout, this);
+		this.appManager = appManager;
+		this.maxMetricAge = maxMetricAge;
+	}
+	
+	/**
+	 * Start underlying {@linkplain #consThread ByteConsumerThread} or {@linkplain #batchThread BatchConsumerThread}. 
 	 */
 	public void startConsumer() {
-		consThread.start();
+		if (batchThread != null) {
+			batchThread.start();
+		} else {
+			consThread.start();
+		}
 	}
 	
 	/**
-	 * Stops the underlying {@linkplain ByteConsumerThread}.
+	 * Stops the underlying {@linkplain ByteConsumerThread} or {@linkplain BatchConsumerThread}.
 	 */
 	public void stopConsumer() {
-		consThread.getKafkaConsumer().wakeup();
+		if (batchThread != null) {
+			batchThread.getKafkaConsumer().wakeup();
+		} else {
+			consThread.getKafkaConsumer().wakeup();
+		}
+	}
+	
+	/**
+	 * Sets the trigger to notify about metrics above an upper limit of their application.
+	 * @param eventTrigger trigger to notify or null to disable notifications
+	 */
+	public void setEventTrigger(ScalingEventTrigger eventTrigger) {
+		this.eventTrigger = eventTrigger;
 	}
 	
 	/**
@@ -37,9 +105,74 @@ public abstract class AbstractByteConsumer implements AutoScalerConsumer {
 	 */
 	public abstract void consume(byte[] bytes);
 	
+	/**
+	 * Consumes the records of one poll. Consumes them one by one, override it to handle the whole poll at once.
+	 * @param records values of the polled records
+	 */
+	public void consumeBatch(List<byte[]> records) {
+		for (int i = 0; i < records.size(); i++) {
+			consume(records.get(i));
+		}
+	}
+	
+	/**
+	 * Consumes the records of one partition of a poll, see {@linkplain #isPartitionAffinity()}.
+	 * @param partition partition of the records
+	 * @param records values of the polled records
+	 */
+	public void consumeBatch(int partition, List<byte[]> records) {
+		consumeBatch(records);
+	}
+	
+	/**
+	 * Called on the consumer thread, before partitions are taken away from this consumer by a rebalance or when it stops.
+	 * @param partitions revoked partitions
+	 */
+	public void onPartitionsRevoked(Collection<TopicPartition> partitions) { }
+	
+	/**
+	 * Checks whether the records are handed over partition by partition via {@linkplain #consumeBatch(int, List)}.
+	 * @return true if this consumer uses partition affinity
+	 */
+	public boolean isPartitionAffinity() {
+		return false;
+	}
+	
 	/**
 	 * Abstract method for returning a string representation of the consumer type.
 	 * Needs to be implemented.
 	 */
 	public abstract String getType();
+	
+	public long getPublishedCount() {
+		return published.sum();
+	}
+	
+	public long getDroppedUnknownAppCount() {
+		return droppedUnknownApp.sum();
+	}
+	
+	public long getDroppedTooOldCount() {
+		return droppedTooOld.sum();
+	}
+	
+	public long getDroppedBufferFullCount() {
+		return droppedBufferFull.sum();
+	}
+	
+	public long getDroppedMalformedCount() {
+		return droppedMalformed.sum();
+	}
+	
+	public BatchConsumerThread getBatchThread() {
+		return batchThread;
+	}
+	
+	/**
+	 * Returns the number of all records dropped by this consumer for any reason.
+	 * @return number of dropped records
+	 */
+	public long getDroppedCount() {
+		return getDroppedUnknownAppCount() + getDroppedTooOldCount() + getDroppedBufferFullCount() + getDroppedMalformedCount();
+	}
 }
@@ -0,0 +1,359 @@
+package de.evoila.cf.autoscaler.core.kafka.consumer;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricBatch;
+import de.evoila.cf.autoscaler.core.applications.metrics.MpscMetricColumnBuffer;
+import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base class for the consumers of container and HTTP metrics, which can consume a whole poll at once.
+ * The records of a poll are decoded into a {@linkplain MetricBatch}, grouped by their application and every group is published
+ * to its {@linkplain ScalableApp} with one claim on its metric buffer. An application with metrics above an upper limit
+ * is reported to the {@linkplain #eventTrigger} once per poll.
+ * The grouping keeps the order of the records of an application.
+ * <p>
+ * With partition affinity the metric topic has to be keyed by the resource id, so all records of an application arrive
+ * on one partition. The consumer owning that partition claims the metric buffer of the application as its single regular writer
+ * and releases it, when the partition is revoked by a rebalance. Kafka revokes partitions inside of a poll of the previous owner,
+ * after it handled all of its records, so the buffer is handed off before the next owner receives records for it.
+ * Records for an application owned by another consumer are still published, but counted as misrouted.
+ * </p>
+ * @author Marius Berger
+ *
+ */
+public abstract class AbstractMetricConsumer extends AbstractByteConsumer {
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(AbstractMetricConsumer.class);
+
+	/**
+	 * Number of entries the arrays of a batch start with.
+	 */
+	private static final int INITIAL_BATCH_SIZE = 512;
+
+	/**
+	 * Decoder reading the records of the consumer thread without creating message objects.
+	 */
+	final MetricRecordDecoder decoder = new MetricRecordDecoder();
+
+	/**
+	 * Decoded metrics of the current poll.
+	 */
+	final MetricBatch batch;
+
+	/**
+	 * Group number of every application of the current poll.
+	 */
+	private final Map<ScalableApp, Integer> groupIds = new IdentityHashMap<ScalableApp, Integer>();
+	/**
+	 * Application of every group of the current poll.
+	 */
+	private ScalableApp[] groupApps = new ScalableApp[16];
+	/**
+	 * Number of entries of every group, followed by the fill level of every group while ordering the entries.
+	 */
+	private int[] groupCounts = new int[16];
+	/**
+	 * Position of the first entry of every group in {@linkplain #order}, followed by the end of the last group.
+	 */
+	private int[] groupStarts = new int[17];
+	/**
+	 * Group number of every entry of the {@linkplain #batch}.
+	 */
+	private int[] entryGroups = new int[INITIAL_BATCH_SIZE];
+	/**
+	 * Indices of the entries of the {@linkplain #batch} ordered by their group.
+	 */
+	private int[] order = new int[INITIAL_BATCH_SIZE];
+	
+	/**
+	 * Boolean value, whether the records are handed over partition by partition and the applications are owned by partition.
+	 */
+	private boolean partitionAffinity;
+	/**
+	 * Partition of the records currently consumed, -1 if they were not handed over by partition.
+	 */
+	private int currentPartition = -1;
+	/**
+	 * Applications whose metric buffer is owned by this consumer with the partition their records arrived on.
+	 * Only used by the consumer thread.
+	 */
+	private final Map<ScalableApp, Integer> ownedApps = new IdentityHashMap<ScalableApp, Integer>();
+	/**
+	 * Number of records published to an application owned by another consumer.
+	 */
+	final LongAdder misrouted = new LongAdder();
+
+	/**
+	 * Constructor for a consumer getting its records one by one from a {@code ByteConsumerThread}.
+	 * @param kind kind of the consumed metrics
+	 * @param topic topic for the {@linkplain #consThread ByteConsumerThread} to subscribe to.
+	 * @param groupId id of the group for the {@linkplain #consThread ByteConsumerThread} to join.
+	 * @param hostname IP or URL of the Kafka service
+	 * @param port port of the Kafka service
+	 * @param maxMetricAge {@linkplain #maxMetricAge}
+	 * @param appManager {@linkplain #appManager ScalableAppManager}
+	 */
+	public AbstractMetricConsumer(MpscMetricColumnBuffer.Kind kind, String topic, String groupId, String hostname, int port, long maxMetricAge,
+			ScalableAppManager appManager) {
+		super(topic, groupId, hostname, port, maxMetricAge, appManager);
+		batch = new MetricBatch(kind, INITIAL_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructor for a consumer getting whole polls from a {@linkplain BatchConsumerThread}.
+	 * @param kind kind of the consumed metrics
+	 * @param kafkaConsumer Kafka consumer, subscribed via {@linkplain BatchConsumerThread#subscribe(String)} or already assigned to its partitions
+	 * @param pollTimeout maximum time in milliseconds a poll waits for records
+	 * @param maxMetricAge {@linkplain #maxMetricAge}
+	 * @param appManager {@linkplain #appManager ScalableAppManager}
+	 */
+	public AbstractMetricConsumer(MpscMetricColumnBuffer.Kind kind, Consumer<byte[], byte[]> kafkaConsumer, long pollTimeout, long maxMetricAge,
+			ScalableAppManager appManager) {
+		super(kafkaConsumer, pollTimeout, maxMetricAge, appManager);
+		batch = new MetricBatch(kind, INITIAL_BATCH_SIZE);
+	}
+
+	/**
+	 * Decodes the records of one partition of a poll and publishes them like {@linkplain #consumeBatch(List)}.
+	 * @param partition partition of the records
+	 * @param records values of the polled records
+	 */
+	@Override
+	public void consumeBatch(int partition, List<byte[]> records) {
+		currentPartition = partition;
+		try {
+			consumeBatch(records);
+		} finally {
+			currentPartition = -1;
+		}
+	}
+	
+	/**
+	 * Releases the metric buffers of the applications owned via the revoked partitions.
+	 * Drops applications, which are no longer bound, regardless of their partition.
+	 * @param partitions revoked partitions
+	 */
+	@Override
+	public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+		Set<Integer> revoked = new HashSet<Integer>();
+		for (TopicPartition partition : partitions) {
+			revoked.add(partition.partition());
+		}
+		Iterator<Map.Entry<ScalableApp, Integer>> it = ownedApps.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<ScalableApp, Integer> entry = it.next();
+			if (revoked.contains(entry.getValue()) || !appManager.contains(entry.getKey())) {
+				entry.getKey().releaseMetricWriter(batch.getKind(), this);
+				it.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Decodes the records of a poll, groups them by their application and publishes every group at once.
+	 * Dropped records are counted by reason, just like in {@linkplain #consume(byte[])}.
+	 * @param records values of the polled records
+	 */
+	@Override
+	public void consumeBatch(List<byte[]> records) {
+		batch.clear();
+		long now = System.currentTimeMillis();
+		int groupCount = 0;
+		for (int i = 0; i < records.size(); i++) {
+			ScalableApp app = stage(records.get(i), now);
+			if (app == null)
+				continue;
+
+			Integer group = groupIds.get(app);
+			if (group == null) {
+				if (groupCount == groupApps.length) {
+					groupApps = Arrays.copyOf(groupApps, groupCount * 2);
+					groupCounts = Arrays.copyOf(groupCounts, groupCount * 2);
+					groupStarts = Arrays.copyOf(groupStarts, groupCount * 2 + 1);
+				}
+				group = groupCount;
+				groupIds.put(app, group);
+				groupApps[groupCount] = app;
+				groupCounts[groupCount] = 0;
+				groupCount++;
+			}
+			int entry = batch.size() - 1;
+			if (entry == entryGroups.length)
+				entryGroups = Arrays.copyOf(entryGroups, entry * 2);
+			entryGroups[entry] = group;
+			groupCounts[group]++;
+		}
+
+		try {
+			orderByGroup(groupCount);
+			for (int group = 0; group < groupCount; group++) {
+				publishGroup(groupApps[group], groupStarts[group], groupStarts[group + 1]);
+			}
+		} finally {
+			Arrays.fill(groupApps, 0, groupCount, null);
+			groupIds.clear();
+		}
+	}
+
+	/**
+	 * Fills {@linkplain #order} with the entries of the {@linkplain #batch} sorted by their group, keeping the order within a group.
+	 * @param groupCount number of groups of the current poll
+	 */
+	private void orderByGroup(int groupCount) {
+		int size = batch.size();
+		if (order.length < size)
+			order = new int[entryGroups.length];
+		groupStarts[0] = 0;
+		for (int group = 0; group < groupCount; group++) {
+			groupStarts[group + 1] = groupStarts[group] + groupCounts[group];
+			groupCounts[group] = 0;
+		}
+		for (int entry = 0; entry < size; entry++) {
+			int group = entryGroups[entry];
+			order[groupStarts[group] + groupCounts[group]++] = entry;
+		}
+	}
+
+	/**
+	 * Publishes the entries of one group to their application and reports a crossed upper limit.
+	 * @param app application of the group
+	 * @param from first position of the group in {@linkplain #order}
+	 * @param to position in {@linkplain #order} after the last entry of the group
+	 */
+	private void publishGroup(ScalableApp app, int from, int to) {
+		if (currentPartition >= 0 && !owns(app))
+			misrouted.add(to - from);
+		int count = publish(app, order, from, to);
+		published.add(count);
+		droppedBufferFull.add(to - from - count);
+		if (eventTrigger == null)
+			return;
+		for (int i = from; i < from + count; i++) {
+			if (exceedsUpperLimit(app, order[i])) {
+				eventTrigger.onLimitCrossed(app);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether this consumer owns the metric buffer of an application and claims it, if no other consumer does.
+	 * @param app application to check
+	 * @return true if this consumer owns the buffer
+	 */
+	private boolean owns(ScalableApp app) {
+		Integer partition = ownedApps.get(app);
+		if (partition != null && partition == currentPartition)
+			return true;
+		if (!app.claimMetricWriter(batch.getKind(), this))
+			return false;
+		ownedApps.put(app, currentPartition);
+		return true;
+	}
+	
+	/**
+	 * Decodes a record and appends it to the {@linkplain #batch}, if its application is bound and it is not too old.
+	 * @param bytes value of the record
+	 * @param now epoch time stamp of the poll
+	 * @return application of the appended metric or null, if the record was dropped
+	 */
+	private ScalableApp stage(byte[] bytes, long now) {
+		try {
+			decode(bytes);
+		} catch (InvalidProtocolBufferException e) {
+			droppedMalformed.increment();
+			log.error("Could not parse metric: " + e.getMessage());
+			return null;
+		}
+		ScalableApp app = appManager.getByResourceId(decoder.getAppIdBuffer(), decoder.getAppIdOffset(), decoder.getAppIdLength());
+		if (app == null) {
+			droppedUnknownApp.increment();
+			return null;
+		}
+		if (now - decoder.getTimestamp() > maxMetricAge) {
+			droppedTooOld.increment();
+			return null;
+		}
+		append();
+		return app;
+	}
+
+	@Override
+	public boolean isPartitionAffinity() {
+		return partitionAffinity;
+	}
+	
+	/**
+	 * Sets whether the records are handed over partition by partition and the applications are owned by partition.
+	 * Only has an effect in the batch mode.
+	 * @param partitionAffinity true to enable the partition affinity
+	 */
+	public void setPartitionAffinity(boolean partitionAffinity) {
+		this.partitionAffinity = partitionAffinity;
+	}
+	
+	/**
+	 * Returns the number of records published to an application owned by another consumer.
+	 * A growing count hints at a metric topic, which is not keyed by the resource id.
+	 * @return number of misrouted records
+	 */
+	public long getMisroutedCount() {
+		return misrouted.sum();
+	}
+	
+	/**
+	 * Returns the number of applications whose metric buffer is owned by this consumer.
+	 * @return number of owned applications
+	 */
+	public int getOwnedAppCount() {
+		return ownedApps.size();
+	}
+	
+	/**
+	 * Decodes a record with the {@linkplain #decoder}.
+	 * @param bytes value of the record
+	 * @throws InvalidProtocolBufferException if the record could not be parsed
+	 */
+	abstract void decode(byte[] bytes) throws InvalidProtocolBufferException;
+
+	/**
+	 * Appends the fields of the last decoded record to the {@linkplain #batch}.
+	 */
+	abstract void append();
+
+	/**
+	 * Publishes the given entries of the {@linkplain #batch} to an application.
+	 * @param app application to publish to
+	 * @param indices indices of the entries in the batch
+	 * @param from first position in {@code indices} to publish
+	 * @param to position in {@code indices} after the last one to publish
+	 * @return number of published metrics
+	 */
+	abstract int publish(ScalableApp app, int[] indices, int from, int to);
+
+	/**
+	 * Checks whether an entry of the {@linkplain #batch} is above an upper limit of its application.
+	 * @param app application of the entry
+	 * @param index index of the entry in the batch
+	 * @return true if an upper limit was crossed
+	 */
+	abstract boolean exceedsUpperLimit(ScalableApp app, int index);
+}
@@ -0,0 +1,177 @@
+package de.evoila.cf.autoscaler.core.kafka.consumer;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Thread polling a Kafka consumer and handing the values of every poll to an {@linkplain AbstractByteConsumer} at once,
+ * instead of one record after the other like the {@code ByteConsumerThread}.
+ * For a consumer with partition affinity the records are handed over partition by partition and the consumer is notified
+ * about rebalances, which are run by Kafka inside of a poll on this thread.
+ * Stops after {@linkplain Consumer#wakeup()} was called on its Kafka consumer.
+ * @author Marius Berger
+ *
+ */
+public class BatchConsumerThread extends Thread implements ConsumerRebalanceListener {
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(BatchConsumerThread.class);
+
+	/**
+	 * Underlying Kafka consumer, only used by this thread apart from {@linkplain Consumer#wakeup()}.
+	 */
+	private final Consumer<byte[], byte[]> kafkaConsumer;
+
+	/**
+	 * Consumer the values of every poll are handed to.
+	 */
+	private final AbstractByteConsumer consumer;
+
+	/**
+	 * Maximum time in milliseconds a poll waits for records.
+	 */
+	private final long pollTimeout;
+
+	/**
+	 * Values of the current poll, reused from poll to poll.
+	 */
+	private final List<byte[]> values;
+
+	/**
+	 * Constructor for a thread polling the given Kafka consumer.
+	 * @param kafkaConsumer {@linkplain #kafkaConsumer}, subscribed via {@linkplain #subscribe(String)} or already assigned to its partitions
+	 * @param pollTimeout {@linkplain #pollTimeout}
+	 * @param consumer {@linkplain #consumer}
+	 */
+	public BatchConsumerThread(Consumer<byte[], byte[]> kafkaConsumer, long pollTimeout, AbstractByteConsumer consumer) {
+		this.kafkaConsumer = kafkaConsumer;
+		this.pollTimeout = pollTimeout;
+		this.consumer = consumer;
+		values = new ArrayList<byte[]>();
+	}
+
+	/**
+	 * Creates a Kafka consumer for byte records.
+	 * @param groupId id of the group to join
+	 * @param hostname IP or URL of the Kafka service
+	 * @param port port of the Kafka service
+	 * @param maxPollRecords maximum number of records returned by one poll
+	 * @return new Kafka consumer
+	 */
+	public static Consumer<byte[], byte[]> createKafkaConsumer(String groupId, String hostname, int port, int maxPollRecords) {
+		Properties configProperties = new Properties();
+		configProperties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, hostname + ":" + port);
+		configProperties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+		configProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+		configProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+		configProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+
+		return new KafkaConsumer<>(configProperties);
+	}
+
+	/**
+	 * Subscribes the Kafka consumer to the given topic with this thread as listener for rebalances.
+	 * Call it before starting the thread.
+	 * @param topic topic to subscribe to
+	 */
+	public void subscribe(String topic) {
+		kafkaConsumer.subscribe(Collections.singletonList(topic), this);
+	}
+
+	/**
+	 * Polls until the Kafka consumer is woken up and closes it afterwards.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				pollOnce();
+			}
+		} catch (WakeupException ex) {
+			log.debug("Batch consumer for " + consumer.getType() + " was woken up and stops.");
+		} finally {
+			consumer.onPartitionsRevoked(kafkaConsumer.assignment());
+			kafkaConsumer.close();
+		}
+	}
+
+	/**
+	 * Polls the Kafka consumer once and hands all values of the poll to the {@linkplain #consumer},
+	 * partition by partition for a consumer with partition affinity.
+	 * @return number of consumed records
+	 */
+	public int pollOnce() {
+		ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(Duration.ofMillis(pollTimeout));
+		if (records.isEmpty())
+			return 0;
+		if (consumer.isPartitionAffinity()) {
+			for (TopicPartition partition : records.partitions()) {
+				handOver(partition.partition(), records.records(partition));
+			}
+		} else {
+			handOver(-1, records);
+		}
+		return records.count();
+	}
+
+	/**
+	 * Hands the values of the given records to the {@linkplain #consumer}.
+	 * @param partition partition of the records or -1 for the records of all partitions
+	 * @param records records to hand over
+	 */
+	private void handOver(int partition, Iterable<ConsumerRecord<byte[], byte[]>> records) {
+		for (ConsumerRecord<byte[], byte[]> record : records) {
+			values.add(record.value());
+		}
+		try {
+			if (partition < 0) {
+				consumer.consumeBatch(values);
+			} else {
+				consumer.consumeBatch(partition, values);
+			}
+		} finally {
+			values.clear();
+		}
+	}
+
+	/**
+	 * Called by Kafka inside of a poll before partitions are taken away from this consumer, forwards them to the {@linkplain #consumer}.
+	 * @param partitions revoked partitions
+	 */
+	@Override
+	public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+		log.debug("Partitions revoked from consumer for " + consumer.getType() + ": " + partitions);
+		consumer.onPartitionsRevoked(partitions);
+	}
+
+	/**
+	 * Called by Kafka inside of a poll after partitions were assigned to this consumer.
+	 * @param partitions assigned partitions
+	 */
+	@Override
+	public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+		log.debug("Partitions assigned to consumer for " + consumer.getType() + ": " + partitions);
+	}
+
+	public Consumer<byte[], byte[]> getKafkaConsumer() {
+		return kafkaConsumer;
+	}
+}
@@ -3,10 +3,12 @@ package de.evoila.cf.autoscaler.core.kafka.consumer;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.applications.metrics.MpscMetricColumnBuffer;
 import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
 import de.evoila.cf.autoscaler.kafka.AutoScalerConsumer;
 import de.evoila.cf.autoscaler.kafka.messages.ContainerMetric;
 import de.evoila.cf.autoscaler.kafka.protobuf.PbContainerMetric;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +21,7 @@ import org.slf4j.LoggerFactory;
  * @author Marius Berger
  *
  */
-public class ContainerMetricConsumer extends AbstractByteConsumer{
+public class ContainerMetricConsumer extends AbstractMetricConsumer {
 	
 	/**
 	 * Logger of the class.
@@ -36,29 +38,69 @@ public class ContainerMetricConsumer extends AbstractByteConsumer{
 	 * @param appManager {@linkplain #appManager ScalableAppManager}
 	 */
 	public ContainerMetricConsumer(String topic, String groupId, String hostname, int port, long maxMetricAge, ScalableAppManager appManager) {
-		super(topic, groupId, hostname, port, maxMetricAge, appManager);
+		super(MpscMetricColumnBuffer.Kind.CONTAINER, topic, groupId, hostname, port, maxMetricAge, appManager);
 	}
 	
 	/**
-	 * Consume byte, parse it into {@linkplain ContainerMetric} and add them to the dedicated {@linkplain ScalableApp}.
+	 * Constructor for a consumer getting whole polls from a {@linkplain BatchConsumerThread}.
+	 * @param kafkaConsumer Kafka consumer, subscribed via {@linkplain BatchConsumerThread#subscribe(String)} or already assigned to its partitions
+	 * @param pollTimeout maximum time in milliseconds a poll waits for records
+	 * @param maxMetricAge {@linkplain #maxMetricAge}
+	 * @param appManager {@linkplain #appManager ScalableAppManager}
+	 */
+	public ContainerMetricConsumer(Consumer<byte[], byte[]> kafkaConsumer, long pollTimeout, long maxMetricAge, ScalableAppManager appManager) {
+		super(MpscMetricColumnBuffer.Kind.CONTAINER, kafkaConsumer, pollTimeout, maxMetricAge, appManager);
+	}
+	
+	/**
+	 * Consume byte, decode the fields of a {@linkplain ContainerMetric} and add them to the dedicated {@linkplain ScalableApp}.
+	 * Decoding creates no message objects or strings and resolving the application does not allocate, dropped records are counted by reason.
+	 * Publishing to the {@linkplain ScalableApp} is lock-free and does not wait for a running scaling check.
+	 * Metrics above the CPU or RAM upper limit are reported to the {@linkplain #eventTrigger}.
 	 * @see ContainerMetric
 	 * @see ScalableApp
 	 * @see PbContainerMetric
 	 */
 	public void consume(byte[] bytes) {
 		try {
-			ContainerMetric metric = new ContainerMetric(PbContainerMetric.ProtoContainerMetric.parseFrom(bytes));
-			ScalableApp app = appManager.getByResourceId(metric.getAppId());
-			if (app != null && !metric.isTooOld(maxMetricAge)) {
-				try {
-					app.acquire();
-					app.addMetric(metric);
-				} catch (InterruptedException e) {}
-				app.release();
-			}
+			decoder.decodeContainerMetric(bytes);
 		} catch (InvalidProtocolBufferException e) {
+			droppedMalformed.increment();
 			log.error("Could not parse metric: "+e.getMessage());
+			return;
 		}
+		ScalableApp app = appManager.getByResourceId(decoder.getAppIdBuffer(), decoder.getAppIdOffset(), decoder.getAppIdLength());
+		if (app == null) {
+			droppedUnknownApp.increment();
+		} else if (System.currentTimeMillis() - decoder.getTimestamp() > maxMetricAge) {
+			droppedTooOld.increment();
+		} else if (app.addContainerMetric(decoder.getTimestamp(), decoder.getCpu(), decoder.getRam(), decoder.getInstanceIndex())) {
+			published.increment();
+			if (eventTrigger != null && app.exceedsUpperLimit(decoder.getCpu(), decoder.getRam()))
+				eventTrigger.onLimitCrossed(app);
+		} else {
+			droppedBufferFull.increment();
+		}
+	}
+	
+	@Override
+	void decode(byte[] bytes) throws InvalidProtocolBufferException {
+		decoder.decodeContainerMetric(bytes);
+	}
+	
+	@Override
+	void append() {
+		batch.addContainerMetric(decoder.getTimestamp(), decoder.getCpu(), decoder.getRam(), decoder.getInstanceIndex());
+	}
+	
+	@Override
+	int publish(ScalableApp app, int[] indices, int from, int to) {
+		return app.addContainerMetrics(batch, indices, from, to);
+	}
+	
+	@Override
+	boolean exceedsUpperLimit(ScalableApp app, int index) {
+		return app.exceedsUpperLimit(batch.getCpu(index), batch.getRam(index));
 	}
 	
 	/**
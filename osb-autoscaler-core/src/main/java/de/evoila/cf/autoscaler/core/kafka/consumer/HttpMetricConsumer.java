@@ -2,10 +2,12 @@ package de.evoila.cf.autoscaler.core.kafka.consumer;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.applications.metrics.MpscMetricColumnBuffer;
 import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
 import de.evoila.cf.autoscaler.kafka.AutoScalerConsumer;
 import de.evoila.cf.autoscaler.kafka.messages.HttpMetric;
 import de.evoila.cf.autoscaler.kafka.protobuf.PbHttpMetric;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,7 +18,7 @@ import org.slf4j.LoggerFactory;
  * @author Marius Berger
  *
  */
-public class HttpMetricConsumer extends AbstractByteConsumer{
+public class HttpMetricConsumer extends AbstractMetricConsumer {
 	
 	/**
 	 * Logger of the class.
@@ -33,28 +35,67 @@ public class HttpMetricConsumer extends AbstractByteConsumer{
 	 * @param appManager {@linkplain #appManager ScalableAppManager}
 	 */
 	public HttpMetricConsumer(String topic, String groupId, String hostname, int port, long maxMetricAge, ScalableAppManager appManager) {
-		super(topic, groupId, hostname, port, maxMetricAge, appManager);
+		super(MpscMetricColumnBuffer.Kind.HTTP, topic, groupId, hostname, port, maxMetricAge, appManager);
 	}
 	
 	/**
-	 * Consume byte, parse it into {@linkplain PbHttpMetric} and add them to the dedicated {@linkplain ScalableApp}.
+	 * Constructor for a consumer getting whole polls from a {@linkplain BatchConsumerThread}.
+	 * @param kafkaConsumer Kafka consumer, subscribed via {@linkplain BatchConsumerThread#subscribe(String)} or already assigned to its partitions
+	 * @param pollTimeout maximum time in milliseconds a poll waits for records
+	 * @param maxMetricAge {@linkplain #maxMetricAge}
+	 * @param appManager {@linkplain #appManager ScalableAppManager}
+	 */
+	public HttpMetricConsumer(Consumer<byte[], byte[]> kafkaConsumer, long pollTimeout, long maxMetricAge, ScalableAppManager appManager) {
+		super(MpscMetricColumnBuffer.Kind.HTTP, kafkaConsumer, pollTimeout, maxMetricAge, appManager);
+	}
+	
+	/**
+	 * Consume byte, decode the fields of a {@linkplain PbHttpMetric} and add them to the dedicated {@linkplain ScalableApp}.
+	 * Decoding creates no message objects or strings and resolving the application does not allocate, dropped records are counted by reason.
+	 * Publishing to the {@linkplain ScalableApp} is lock-free and does not wait for a running scaling check.
+	 * Metrics above the latency upper limit are reported to the {@linkplain #eventTrigger}.
 	 * @see ScalableApp
 	 */
 	public void consume(byte[] bytes) {
 		try {
-			HttpMetric metric = new HttpMetric(PbHttpMetric.ProtoHttpMetric.parseFrom(bytes));
-			ScalableApp app = appManager.getByResourceId(metric.getAppId());
-			
-			if (app != null && !metric.isTooOld(maxMetricAge)) {
-				try {
-					app.acquire();
-					app.addMetric(metric);
-				} catch (InterruptedException ex) {}
-				app.release();
-			}
+			decoder.decodeHttpMetric(bytes);
 		} catch (InvalidProtocolBufferException e) {
+			droppedMalformed.increment();
 			log.error("Could not parse metric: "+e.getMessage());
+			return;
 		}
+		ScalableApp app = appManager.getByResourceId(decoder.getAppIdBuffer(), decoder.getAppIdOffset(), decoder.getAppIdLength());
+		if (app == null) {
+			droppedUnknownApp.increment();
+		} else if (System.currentTimeMillis() - decoder.getTimestamp() > maxMetricAge) {
+			droppedTooOld.increment();
+		} else if (app.addHttpMetric(decoder.getTimestamp(), decoder.getRequests(), decoder.getLatency())) {
+			published.increment();
+			if (eventTrigger != null && app.exceedsLatencyUpperLimit(decoder.getLatency()))
+				eventTrigger.onLimitCrossed(app);
+		} else {
+			droppedBufferFull.increment();
+		}
+	}
+	
+	@Override
+	void decode(byte[] bytes) throws InvalidProtocolBufferException {
+		decoder.decodeHttpMetric(bytes);
+	}
+	
+	@Override
+	void append() {
+		batch.addHttpMetric(decoder.getTimestamp(), decoder.getRequests(), decoder.getLatency());
+	}
+	
+	@Override
+	int publish(ScalableApp app, int[] indices, int from, int to) {
+		return app.addHttpMetrics(batch, indices, from, to);
+	}
+	
+	@Override
+	boolean exceedsUpperLimit(ScalableApp app, int index) {
+		return app.exceedsLatencyUpperLimit(batch.getLatency(index));
 	}
 	
 	/**
@@ -0,0 +1,282 @@
+package de.evoila.cf.autoscaler.core.kafka.consumer;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbContainerMetric.ProtoContainerMetric;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbHttpMetric.ProtoHttpMetric;
+
+import java.io.IOException;
+
+/**
+ * Decodes serialized {@linkplain ProtoContainerMetric} and {@linkplain ProtoHttpMetric} records into primitive fields
+ * without creating message objects or strings.
+ * The fields are read straight from a {@linkplain CodedInputStream} over the record buffer, which is the only object created per record.
+ * The app id is not decoded, instead its position in the buffer is remembered, so it can be resolved via
+ * {@linkplain de.evoila.cf.autoscaler.core.manager.ScalableAppManager#getByResourceId(byte[], int, int)}.
+ * <p>
+ * Fields not needed for scaling are skipped. A record using an unexpected wire type for a needed field
+ * is parsed with the generated parser instead, which allocates but keeps the results identical.
+ * </p>
+ * <p>
+ * Numeric fields are read as raw varints, which matches the encoding of {@code int32}, {@code int64}, {@code uint32}
+ * and {@code uint64} fields. {@code sint} fields use the zig-zag encoding on the same wire type, so if the schema declares
+ * a needed field with another type, every record of that message type is parsed with the generated parser.
+ * </p>
+ * A decoder holds the fields of the last record and is meant to be reused by one consumer thread only.
+ * @author Marius Berger
+ *
+ */
+public class MetricRecordDecoder {
+
+	/**
+	 * Boolean value, whether all needed fields of {@linkplain ProtoContainerMetric} can be read as raw varints.
+	 */
+	private static final boolean CONTAINER_RAW_VARINTS = areRawVarints(ProtoContainerMetric.getDescriptor(),
+			ProtoContainerMetric.TIMESTAMP_FIELD_NUMBER, ProtoContainerMetric.CPU_FIELD_NUMBER,
+			ProtoContainerMetric.RAM_FIELD_NUMBER, ProtoContainerMetric.INSTANCEINDEX_FIELD_NUMBER);
+	/**
+	 * Boolean value, whether all needed fields of {@linkplain ProtoHttpMetric} can be read as raw varints.
+	 */
+	private static final boolean HTTP_RAW_VARINTS = areRawVarints(ProtoHttpMetric.getDescriptor(),
+			ProtoHttpMetric.TIMESTAMP_FIELD_NUMBER, ProtoHttpMetric.REQUESTS_FIELD_NUMBER, ProtoHttpMetric.LATENCY_FIELD_NUMBER);
+
+	/**
+	 * Epoch time stamp of the last record.
+	 */
+	private long timestamp;
+	/**
+	 * CPU load of the last container metric.
+	 */
+	private int cpu;
+	/**
+	 * RAM usage of the last container metric.
+	 */
+	private long ram;
+	/**
+	 * Instance index of the last container metric.
+	 */
+	private int instanceIndex;
+	/**
+	 * Number of requests of the last HTTP metric.
+	 */
+	private int requests;
+	/**
+	 * Latency of the last HTTP metric.
+	 */
+	private int latency;
+	/**
+	 * Buffer holding the app id of the last record.
+	 */
+	private byte[] appIdBuffer;
+	/**
+	 * Index of the first byte of the app id in {@linkplain #appIdBuffer}.
+	 */
+	private int appIdOffset;
+	/**
+	 * Number of bytes of the app id.
+	 */
+	private int appIdLength;
+
+	/**
+	 * Decodes a serialized {@linkplain ProtoContainerMetric}.
+	 * @param bytes serialized record
+	 * @throws InvalidProtocolBufferException if the record is malformed
+	 */
+	public void decodeContainerMetric(byte[] bytes) throws InvalidProtocolBufferException {
+		if (!CONTAINER_RAW_VARINTS) {
+			decodeContainerMetricWithParser(bytes);
+			return;
+		}
+		reset(bytes);
+		try {
+			CodedInputStream input = CodedInputStream.newInstance(bytes);
+			int tag;
+			while ((tag = input.readTag()) != 0) {
+				int field = WireFormat.getTagFieldNumber(tag);
+				int wireType = WireFormat.getTagWireType(tag);
+				if (field == ProtoContainerMetric.APPID_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+					readAppId(input);
+				} else if (field == ProtoContainerMetric.TIMESTAMP_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_VARINT) {
+					timestamp = input.readRawVarint64();
+				} else if (field == ProtoContainerMetric.CPU_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_VARINT) {
+					cpu = (int) input.readRawVarint64();
+				} else if (field == ProtoContainerMetric.RAM_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_VARINT) {
+					ram = input.readRawVarint64();
+				} else if (field == ProtoContainerMetric.INSTANCEINDEX_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_VARINT) {
+					instanceIndex = (int) input.readRawVarint64();
+				} else if (isNeededContainerField(field)) {
+					decodeContainerMetricWithParser(bytes);
+					return;
+				} else if (!input.skipField(tag)) {
+					break;
+				}
+			}
+		} catch (InvalidProtocolBufferException ex) {
+			throw ex;
+		} catch (IOException ex) {
+			throw new InvalidProtocolBufferException(ex.getMessage());
+		}
+	}
+
+	/**
+	 * Decodes a serialized {@linkplain ProtoHttpMetric}.
+	 * @param bytes serialized record
+	 * @throws InvalidProtocolBufferException if the record is malformed
+	 */
+	public void decodeHttpMetric(byte[] bytes) throws InvalidProtocolBufferException {
+		if (!HTTP_RAW_VARINTS) {
+			decodeHttpMetricWithParser(bytes);
+			return;
+		}
+		reset(bytes);
+		try {
+			CodedInputStream input = CodedInputStream.newInstance(bytes);
+			int tag;
+			while ((tag = input.readTag()) != 0) {
+				int field = WireFormat.getTagFieldNumber(tag);
+				int wireType = WireFormat.getTagWireType(tag);
+				if (field == ProtoHttpMetric.APPID_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+					readAppId(input);
+				} else if (field == ProtoHttpMetric.TIMESTAMP_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_VARINT) {
+					timestamp = input.readRawVarint64();
+				} else if (field == ProtoHttpMetric.REQUESTS_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_VARINT) {
+					requests = (int) input.readRawVarint64();
+				} else if (field == ProtoHttpMetric.LATENCY_FIELD_NUMBER && wireType == WireFormat.WIRETYPE_VARINT) {
+					latency = (int) input.readRawVarint64();
+				} else if (isNeededHttpField(field)) {
+					decodeHttpMetricWithParser(bytes);
+					return;
+				} else if (!input.skipField(tag)) {
+					break;
+				}
+			}
+		} catch (InvalidProtocolBufferException ex) {
+			throw ex;
+		} catch (IOException ex) {
+			throw new InvalidProtocolBufferException(ex.getMessage());
+		}
+	}
+
+	/**
+	 * Remembers the position of the length delimited app id and skips its bytes.
+	 * @param input stream positioned right after the tag of the app id
+	 * @throws IOException if the record ends before the app id
+	 */
+	private void readAppId(CodedInputStream input) throws IOException {
+		int length = input.readRawVarint32();
+		appIdOffset = input.getTotalBytesRead();
+		appIdLength = length;
+		input.skipRawBytes(length);
+	}
+
+	/**
+	 * Resets all fields to the defaults of protobuf, as omitted fields are not written to the record.
+	 * @param bytes buffer of the next record
+	 */
+	private void reset(byte[] bytes) {
+		timestamp = 0;
+		cpu = 0;
+		ram = 0;
+		instanceIndex = 0;
+		requests = 0;
+		latency = 0;
+		appIdBuffer = bytes;
+		appIdOffset = 0;
+		appIdLength = 0;
+	}
+
+	/**
+	 * Checks whether the given fields of a message are declared with a type encoded as a plain varint.
+	 * @param descriptor descriptor of the message
+	 * @param fields field numbers to check
+	 * @return true if every field is an {@code int32}, {@code int64}, {@code uint32} or {@code uint64} field
+	 */
+	private static boolean areRawVarints(Descriptor descriptor, int... fields) {
+		for (int field : fields) {
+			FieldDescriptor.Type type = descriptor.findFieldByNumber(field).getType();
+			if (type != FieldDescriptor.Type.INT32 && type != FieldDescriptor.Type.INT64
+					&& type != FieldDescriptor.Type.UINT32 && type != FieldDescriptor.Type.UINT64)
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean isNeededContainerField(int field) {
+		return field == ProtoContainerMetric.APPID_FIELD_NUMBER || field == ProtoContainerMetric.TIMESTAMP_FIELD_NUMBER
+				|| field == ProtoContainerMetric.CPU_FIELD_NUMBER || field == ProtoContainerMetric.RAM_FIELD_NUMBER
+				|| field == ProtoContainerMetric.INSTANCEINDEX_FIELD_NUMBER;
+	}
+
+	private static boolean isNeededHttpField(int field) {
+		return field == ProtoHttpMetric.APPID_FIELD_NUMBER || field == ProtoHttpMetric.TIMESTAMP_FIELD_NUMBER
+				|| field == ProtoHttpMetric.REQUESTS_FIELD_NUMBER || field == ProtoHttpMetric.LATENCY_FIELD_NUMBER;
+	}
+
+	/**
+	 * Fallback for records with unexpected wire types or schemas with zig-zag encoded fields, see {@linkplain #decodeContainerMetric(byte[])}.
+	 * @param bytes serialized record
+	 * @throws InvalidProtocolBufferException if the record is malformed
+	 */
+	private void decodeContainerMetricWithParser(byte[] bytes) throws InvalidProtocolBufferException {
+		ProtoContainerMetric metric = ProtoContainerMetric.parseFrom(bytes);
+		reset(metric.getAppIdBytes().toByteArray());
+		appIdLength = appIdBuffer.length;
+		timestamp = metric.getTimestamp();
+		cpu = metric.getCpu();
+		ram = metric.getRam();
+		instanceIndex = metric.getInstanceIndex();
+	}
+
+	/**
+	 * Fallback for records with unexpected wire types or schemas with zig-zag encoded fields, see {@linkplain #decodeHttpMetric(byte[])}.
+	 * @param bytes serialized record
+	 * @throws InvalidProtocolBufferException if the record is malformed
+	 */
+	private void decodeHttpMetricWithParser(byte[] bytes) throws InvalidProtocolBufferException {
+		ProtoHttpMetric metric = ProtoHttpMetric.parseFrom(bytes);
+		reset(metric.getAppIdBytes().toByteArray());
+		appIdLength = appIdBuffer.length;
+		timestamp = metric.getTimestamp();
+		requests = metric.getRequests();
+		latency = metric.getLatency();
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public int getCpu() {
+		return cpu;
+	}
+
+	public long getRam() {
+		return ram;
+	}
+
+	public int getInstanceIndex() {
+		return instanceIndex;
+	}
+
+	public int getRequests() {
+		return requests;
+	}
+
+	public int getLatency() {
+		return latency;
+	}
+
+	public byte[] getAppIdBuffer() {
+		return appIdBuffer;
+	}
+
+	public int getAppIdOffset() {
+		return appIdOffset;
+	}
+
+	public int getAppIdLength() {
+		return appIdLength;
+	}
+}
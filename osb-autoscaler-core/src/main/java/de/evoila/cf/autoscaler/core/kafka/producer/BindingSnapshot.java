@@ -0,0 +1,57 @@
+package de.evoila.cf.autoscaler.core.kafka.producer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message on the binding topic announcing several bindings with the same action at once,
+ * like a {@code BindingInformation} with a list of resource ids instead of a single one.
+ * Published by the import at startup with one message per import batch instead of one message per application.
+ * @author Marius Berger
+ *
+ */
+public class BindingSnapshot {
+
+	private List<String> resourceIds;
+	private String action;
+	private String source;
+
+	public BindingSnapshot() {
+		resourceIds = new ArrayList<String>();
+	}
+
+	public BindingSnapshot(List<String> resourceIds, String action, String source) {
+		this.resourceIds = resourceIds;
+		this.action = action;
+		this.source = source;
+	}
+
+	public List<String> getResourceIds() {
+		return resourceIds;
+	}
+
+	public void setResourceIds(List<String> resourceIds) {
+		this.resourceIds = resourceIds;
+	}
+
+	public String getAction() {
+		return action;
+	}
+
+	public void setAction(String action) {
+		this.action = action;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public void setSource(String source) {
+		this.source = source;
+	}
+
+	@Override
+	public String toString() {
+		return "BindingSnapshot [action=" + action + ", source=" + source + ", resourceIds=" + (resourceIds == null ? 0 : resourceIds.size()) + "]";
+	}
+}
@@ -1,5 +1,6 @@
 package de.evoila.cf.autoscaler.core.kafka.producer;
 
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
 import de.evoila.cf.autoscaler.kafka.messages.ContainerMetric;
 import de.evoila.cf.autoscaler.kafka.messages.HttpMetric;
 import de.evoila.cf.autoscaler.kafka.protobuf.PbContainerMetric;
@@ -12,6 +13,7 @@ import java.util.Properties;
 
 /**
  * A Producer to publish metrics on Kafka.
+ * The records are keyed by the app id, so all metrics of an application end up on the same partition.
  * @author Marius Berger
  *
  */
@@ -33,22 +35,33 @@ public class MetricProducer {
 	private String groupId;
 	
 	/**
-	 * Constructor with all necessary fields.
+	 * Constructor with all necessary fields, using the default {@linkplain AutoscalerPropertiesBean.Producer} settings.
 	 * @param groupId {@linkplain #groupId}
 	 * @param hostname IP or URL of Kafka
 	 * @param port port of Kafka
 	 */
 	public MetricProducer(String groupId, String hostname, int port) {
+		this(groupId, hostname, port, new AutoscalerPropertiesBean.Producer());
+	}
+	
+	/**
+	 * Constructor with all necessary fields.
+	 * @param groupId {@linkplain #groupId}
+	 * @param hostname IP or URL of Kafka
+	 * @param port port of Kafka
+	 * @param settings batching, compression and idempotence settings of the producer
+	 */
+	public MetricProducer(String groupId, String hostname, int port, AutoscalerPropertiesBean.Producer settings) {
         this.groupId = groupId;
         host = hostname+":"+port;
         
         Properties configProperties = new Properties();
-        configProperties.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
         configProperties.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
         configProperties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, host);
         configProperties.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 1000);
-        configProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ByteArraySerializer");
+        configProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.StringSerializer");
         configProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ByteArraySerializer");
+        ProducerSettings.apply(configProperties, settings);
 
         producer = new KafkaProducer<String, byte[]>(configProperties);
 	}
@@ -70,7 +83,7 @@ public class MetricProducer {
 		
 		byte[] output = metricProto.toByteArray();
 		
-        ProducerRecord<String, byte[]> rec = new ProducerRecord<>(topic, output);
+        ProducerRecord<String, byte[]> rec = new ProducerRecord<>(topic, metric.getAppId(), output);
         producer.send(rec);
 	}
 	
@@ -92,7 +105,7 @@ public class MetricProducer {
 		
 		byte[] output = metricProto.toByteArray();
 		
-        ProducerRecord<String, byte[]> rec = new ProducerRecord<String, byte[]>(topic, output);
+        ProducerRecord<String, byte[]> rec = new ProducerRecord<String, byte[]>(topic, metric.getAppId(), output);
         producer.send(rec);
 	}
 }
@@ -0,0 +1,65 @@
+package de.evoila.cf.autoscaler.core.kafka.producer;
+
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.record.CompressionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Properties;
+
+/**
+ * Applies the {@linkplain AutoscalerPropertiesBean.Producer} settings to the configuration of a Kafka producer,
+ * so all producers of the Autoscaler share the same batching, compression and delivery guarantees.
+ * @author Marius Berger
+ *
+ */
+public class ProducerSettings {
+
+	/**
+	 * Logger of this class.
+	 */
+	private static Logger log = LoggerFactory.getLogger(ProducerSettings.class);
+
+	/**
+	 * Compression used, if the configured one is not supported by the Kafka client.
+	 */
+	static final String FALLBACK_COMPRESSION = "lz4";
+
+	/**
+	 * Private constructor as there is no need for an object of this class.
+	 */
+	private ProducerSettings() { }
+
+	/**
+	 * Puts the batching, compression and idempotence settings into the given configuration.
+	 * @param configProperties configuration of a Kafka producer
+	 * @param settings settings to apply
+	 */
+	public static void apply(Properties configProperties, AutoscalerPropertiesBean.Producer settings) {
+		configProperties.put(ProducerConfig.BATCH_SIZE_CONFIG, settings.getBatchSize());
+		configProperties.put(ProducerConfig.LINGER_MS_CONFIG, settings.getLingerMs());
+		configProperties.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType(settings.getCompression()));
+		if (settings.isIdempotence()) {
+			configProperties.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+			configProperties.put(ProducerConfig.ACKS_CONFIG, "all");
+			configProperties.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+		}
+	}
+
+	/**
+	 * Checks the given compression against the ones known to the Kafka client.
+	 * @param compression name of the configured compression
+	 * @return the given compression or {@linkplain #FALLBACK_COMPRESSION}, if the Kafka client does not support it
+	 */
+	static String compressionType(String compression) {
+		if (compression == null || compression.isEmpty())
+			return CompressionType.NONE.name;
+		try {
+			return CompressionType.forName(compression.toLowerCase()).name;
+		} catch (IllegalArgumentException ex) {
+			log.warn("Compression '" + compression + "' is not supported by the Kafka client, using " + FALLBACK_COMPRESSION + " instead.");
+			return FALLBACK_COMPRESSION;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package de.evoila.cf.autoscaler.core.kafka.producer;
 
 import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
 import de.evoila.cf.autoscaler.core.scaling.ScalingAction;
 import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
 import de.evoila.cf.autoscaler.kafka.messages.ContainerMetric;
@@ -12,16 +14,26 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A Producer to publish {@linkplain ContainerMetric}, {@linkplain ScalingLog} as protobuf on Kafka.
+ * The records are keyed by the resource id of their application, so all records of an application end up on the same partition in order.
+ * Batching, compression and idempotence are set via {@linkplain AutoscalerPropertiesBean.Producer}.
+ * Optionally the application metrics of a scaling tick are packed into envelope records, see {@linkplain #flushApplicationMetrics()}.
  * @author Marius Berger
  *
  */
@@ -33,6 +45,11 @@ public class ProtobufProducer {
 	 */
 	private Logger log = LoggerFactory.getLogger(ProtobufProducer.class);
 	
+	/**
+	 * Suffix of the application metric topic for the topic of the envelopes.
+	 */
+	public static final String ENVELOPE_SUFFIX = "_envelope";
+	
 	/**
 	 * Property Bean for Kafka Settings.
 	 */
@@ -47,8 +64,17 @@ public class ProtobufProducer {
 	 */
 	private String scalingTopic;
 	/**
+	 * Topic to publish application metrics on.
 	 */
 	private String applicationMetricsTopic;
+	/**
+	 * Topic to publish envelopes of application metrics on, null if the envelope is disabled.
+	 */
+	private String envelopeTopic;
+	/**
+	 * Maximum size in bytes of an envelope.
+	 */
+	private int envelopeMaxBytes;
 	/**
 	 * Id of the group to join.
 	 */
@@ -59,6 +85,23 @@ public class ProtobufProducer {
 	 */
 	private org.apache.kafka.clients.producer.Producer<String,byte[]> producer;
 	
+	/**
+	 * Property bean for properties concerning the scaler itself, holding the producer settings.
+	 */
+	@Autowired
+	private AutoscalerPropertiesBean autoscalerProps;
+	
+	/**
+	 * Length-delimited application metrics collected for the next envelope, null if the envelope is disabled.
+	 * Guarded by its own monitor.
+	 */
+	private ByteArrayOutputStream envelope;
+	
+	/**
+	 * Failed sends by topic.
+	 */
+	private final Map<String, LongAdder> failedSends = new ConcurrentHashMap<>();
+	
 	/** 
 	 * Default constructor for Spring to inject this service.
 	 */
@@ -74,14 +117,22 @@ public class ProtobufProducer {
 		applicationMetricsTopic = kafkaProps.getMetricApplicationTopic();
 		groupId = kafkaProps.getProducerGroupId();
 
+		AutoscalerPropertiesBean.Producer settings = autoscalerProps == null ? new AutoscalerPropertiesBean.Producer() : autoscalerProps.getProducer();
+		if (settings.isApplicationMetricEnvelope()) {
+			envelopeTopic = applicationMetricsTopic + ENVELOPE_SUFFIX;
+			envelopeMaxBytes = Math.max(1, settings.getEnvelopeMaxBytes());
+			envelope = new ByteArrayOutputStream(Math.min(envelopeMaxBytes, 64 * 1024));
+			log.info("Application metrics are published in envelopes on " + envelopeTopic);
+		}
+
         Properties configProperties = new Properties();
-        configProperties.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
         configProperties.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
         configProperties.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, host);
         configProperties.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 1000);
-        configProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ByteArraySerializer");
-        configProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, "org.apache.kafka.common.serialization.ByteArraySerializer");
+        configProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        configProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
         configProperties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        ProducerSettings.apply(configProperties, settings);
 
         producer = new KafkaProducer<>(configProperties);
 	}
@@ -92,9 +143,20 @@ public class ProtobufProducer {
 	 * @param timestamp time stamp for the {@linkplain ScalingLog}
 	 */
 	public void produceScalingLog(ScalingAction sc, long timestamp) {
+		produceScalingLog(createScalingLog(sc, timestamp));
+	}
+	
+	/**
+	 * Creates the protobuf representation of a {@linkplain ScalingLog} with the current values of the application.
+	 * Call this while holding the lock of the application, if the log is published later on.
+	 * @param sc {@linkplain ScalingAction} to get fields from
+	 * @param timestamp time stamp for the {@linkplain ScalingLog}
+	 * @return protobuf scaling log
+	 */
+	public PbScalingLog.ProtoScalingLog createScalingLog(ScalingAction sc, long timestamp) {
 		ScalableApp app = sc.getApp();
 		
-		PbScalingLog.ProtoScalingLog scalingLogProto = PbScalingLog.ProtoScalingLog.newBuilder()
+		return PbScalingLog.ProtoScalingLog.newBuilder()
 				.setTimestamp(timestamp)
 				.setAppId(app.getBinding().getResourceId())
 				.setResourceName(app.getBinding().getResourceName())
@@ -116,14 +178,20 @@ public class ProtobufProducer {
 				.setCurrentQuotientValue(app.getRequest().getQuotient())
 				.setDescription(sc.getReasonDescription())
 				.build();
-		
+	}
+	
+	/**
+	 * Publish a {@linkplain PbScalingLog} on Kafka.
+	 * @param scalingLogProto protobuf scaling log to produce
+	 */
+	public void produceScalingLog(PbScalingLog.ProtoScalingLog scalingLogProto) {
 		ScalingLog scalingLog = new ScalingLog(scalingLogProto);
 		log.debug("ScalingLog: " + scalingLog.toString());
 		
 		byte[] output = scalingLogProto.toByteArray();
 		
-        ProducerRecord<String, byte[]> rec = new ProducerRecord<String, byte[]>(scalingTopic, output);
-        producer.send(rec);
+        ProducerRecord<String, byte[]> rec = new ProducerRecord<String, byte[]>(scalingTopic, scalingLogProto.getAppId(), output);
+        send(rec);
 	}
 
 	/**
@@ -143,18 +211,105 @@ public class ProtobufProducer {
 		
 		byte[] output = metricProto.toByteArray();
 		
-        ProducerRecord<String, byte[]> rec = new ProducerRecord<String, byte[]>(applicationMetricsTopic, output);
-        producer.send(rec);
+        ProducerRecord<String, byte[]> rec = new ProducerRecord<String, byte[]>(applicationMetricsTopic, containerMetric.getAppId(), output);
+        send(rec);
 	}
 	
 	/**
 	 * Publish a {@linkplain PbApplicationMetric} on Kafka.
+	 * With the envelope enabled the metric is only appended to the current envelope, which is published by {@linkplain #flushApplicationMetrics()}
+	 * or as soon as it reaches its maximum size.
 	 * @param applicationMetric protobuf application metric to produce
 	 */
 	public void produceApplicationMetric(PbApplicationMetric.ProtoApplicationMetric applicationMetric) {
+		if (envelope != null) {
+			appendToEnvelope(applicationMetric);
+			return;
+		}
 		byte[] output = applicationMetric.toByteArray();
 		
-		ProducerRecord<String, byte[]> rec = new ProducerRecord<>(applicationMetricsTopic, output);
-		producer.send(rec);
+		ProducerRecord<String, byte[]> rec = new ProducerRecord<>(applicationMetricsTopic, applicationMetric.getAppId(), output);
+		send(rec);
+	}
+	
+	/**
+	 * Appends an application metric length-delimited to the current envelope and publishes the envelope, if it is full.
+	 * A metric on its own larger than the maximum size is published in an envelope of its own.
+	 * @param applicationMetric protobuf application metric to append
+	 */
+	private void appendToEnvelope(PbApplicationMetric.ProtoApplicationMetric applicationMetric) {
+		synchronized (envelope) {
+			if (envelope.size() > 0 && envelope.size() + applicationMetric.getSerializedSize() + 5 > envelopeMaxBytes)
+				sendEnvelope();
+			try {
+				applicationMetric.writeDelimitedTo(envelope);
+			} catch (IOException ex) {
+				// a ByteArrayOutputStream does not throw
+				throw new IllegalStateException(ex);
+			}
+			if (envelope.size() >= envelopeMaxBytes)
+				sendEnvelope();
+		}
+	}
+	
+	/**
+	 * Publishes the application metrics collected since the last call as one envelope record.
+	 * Called by the {@linkplain de.evoila.cf.autoscaler.core.scaling.Scaler} after every tick. Does nothing, if the envelope is disabled or empty.
+	 */
+	public void flushApplicationMetrics() {
+		if (envelope == null)
+			return;
+		synchronized (envelope) {
+			if (envelope.size() > 0)
+				sendEnvelope();
+		}
+	}
+	
+	/**
+	 * Sends the current envelope unkeyed, as it holds the metrics of many applications, and starts a new one.
+	 * The caller has to hold the monitor of the {@linkplain #envelope}.
+	 */
+	private void sendEnvelope() {
+		ProducerRecord<String, byte[]> rec = new ProducerRecord<>(envelopeTopic, envelope.toByteArray());
+		envelope.reset();
+		send(rec);
+	}
+	
+	/**
+	 * Sends a record via the {@linkplain #producer} and records the time until Kafka acknowledged it in the metrics of the Autoscaler.
+	 * @param rec record to send
+	 */
+	private void send(ProducerRecord<String, byte[]> rec) {
+		long start = System.nanoTime();
+		producer.send(rec, (metadata, exception) -> {
+			AutoscalerMetrics.recordKafkaSend(rec.topic(), exception != null, System.nanoTime() - start);
+			if (exception != null)
+				onSendFailure(rec.topic(), exception);
+		});
+	}
+	
+	/**
+	 * Called on the I/O thread of the Kafka producer for a failed send. Counts the failure for the topic 
+	 * and logs the first failure and every further one with a power of two as count, so a broken topic does not flood the log.
+	 * @param topic topic of the failed record
+	 * @param exception exception the send failed with
+	 */
+	private void onSendFailure(String topic, Exception exception) {
+		LongAdder failures = failedSends.computeIfAbsent(topic, key -> new LongAdder());
+		failures.increment();
+		AutoscalerMetrics.recordKafkaSendFailure(topic, exception);
+		long count = failures.sum();
+		if ((count & (count - 1)) == 0)
+			log.warn("Sending to " + topic + " failed, " + count + " failed sends so far.", exception);
+	}
+	
+	/**
+	 * Returns the number of failed sends to the given topic.
+	 * @param topic topic to get the failures of
+	 * @return number of failed sends
+	 */
+	public long getFailedSends(String topic) {
+		LongAdder failures = failedSends.get(topic);
+		return failures == null ? 0 : failures.sum();
 	}
 }
@@ -7,6 +7,7 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.util.List;
 import java.util.Properties;
 
 
@@ -65,4 +66,19 @@ public class StringProducer {
 		ProducerRecord<String, String> record = new ProducerRecord<String, String>(topic, message);
 		producer.send(record);
 	}
+
+	/**
+	 * Publishs several messages in the String format on the given topic as one batch.
+	 * The records are handed to the producer together and sent with a single flush instead of one request each.
+	 * @param topic Kafka topic to publish on
+	 * @param messages messages to publish in their order
+	 */
+	public void produceBatch(String topic, List<String> messages) {
+		if (messages.isEmpty())
+			return;
+		for (String message : messages) {
+			producer.send(new ProducerRecord<String, String>(topic, message));
+		}
+		producer.flush();
+	}
 }
@@ -0,0 +1,358 @@
+package de.evoila.cf.autoscaler.core.manager;
+
+import de.evoila.cf.autoscaler.core.applications.AppBlueprint;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for the state of {@linkplain ScalableApp ScalableApps} in the database.
+ * Instead of saving an {@linkplain AppBlueprint} on every update, applications are only marked as dirty.
+ * Repeated updates of the same application between two flushes are coalesced into one write.
+ * A flush runs periodically and as soon as {@linkplain AutoscalerPropertiesBean.Persistence#getFlushThreshold()}
+ * applications are dirty. It creates the blueprints, compares them with the last written documents
+ * and sends only the changed fields of all applications in one bulk operation.
+ * <p>
+ * Flushes never insert documents, so an application unbound while it was dirty is not written back.
+ * Documents for new bindings are saved by the {@linkplain ScalableAppManager}.
+ * </p>
+ * @author Marius Berger
+ *
+ */
+@Service
+public class AppPersistenceBuffer {
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(AppPersistenceBuffer.class);
+
+	/**
+	 * Template to send the bulk operations with.
+	 */
+	@Autowired
+	private MongoOperations mongoOperations;
+
+	/**
+	 * Properties for settings for the Autoscaler.
+	 */
+	@Autowired
+	private AutoscalerPropertiesBean autoscalerProperties;
+
+	/**
+	 * Dirty applications with their binding id as key.
+	 */
+	private final Map<String, ScalableApp> dirtyApps;
+
+	/**
+	 * Last written documents with the binding id as key. Only accessed while holding the monitor of this buffer.
+	 */
+	private final Map<String, Document> writtenDocuments;
+
+	/**
+	 * Signals that a flush triggered by the threshold is already pending.
+	 */
+	private final AtomicBoolean flushPending;
+
+	/**
+	 * Thread running the periodic and triggered flushes.
+	 */
+	private ScheduledExecutorService flushExecutor;
+
+	/**
+	 * Constructor for Spring to inject the service.
+	 */
+	public AppPersistenceBuffer() {
+		dirtyApps = new ConcurrentHashMap<String, ScalableApp>();
+		writtenDocuments = new HashMap<String, Document>();
+		flushPending = new AtomicBoolean(false);
+	}
+
+	/**
+	 * Starts the periodic flushes.
+	 */
+	@PostConstruct
+	public void init() {
+		flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "AppPersistenceFlush");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = Math.max(1, autoscalerProperties.getPersistence().getFlushInterval());
+		flushExecutor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the periodic flushes and writes all pending updates.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (flushExecutor != null)
+			flushExecutor.shutdown();
+		flush();
+	}
+
+	/**
+	 * Marks an application as dirty, so its state will be written with the next flush.
+	 * @param app {@linkplain ScalableApp} to write
+	 */
+	public void markDirty(ScalableApp app) {
+		dirtyApps.put(app.getBinding().getId(), app);
+		if (dirtyApps.size() >= autoscalerProperties.getPersistence().getFlushThreshold()
+				&& flushExecutor != null && flushPending.compareAndSet(false, true)) {
+			flushExecutor.execute(() -> {
+				flushPending.set(false);
+				flushQuietly();
+			});
+		}
+	}
+
+	/**
+	 * Drops pending updates and the last written document of an unbound application.
+	 * Waits for a running flush to finish, so it can not write the application afterwards.
+	 * @param bindingId binding id of the application
+	 */
+	public synchronized void forget(String bindingId) {
+		dirtyApps.remove(bindingId);
+		writtenDocuments.remove(bindingId);
+	}
+
+	/**
+	 * Remembers the document of a freshly saved application as written, so the next flush only sends its changes.
+	 * @param blueprint saved {@linkplain AppBlueprint}
+	 */
+	public synchronized void written(AppBlueprint blueprint) {
+		writtenDocuments.put(blueprint.getBinding().getId(), toDocument(blueprint));
+	}
+
+	/**
+	 * Writes the changed fields of all dirty applications in one bulk operation.
+	 * Applications, which could not be written, are marked as dirty again.
+	 * @return number of written applications
+	 */
+	public synchronized int flush() {
+		if (dirtyApps.isEmpty())
+			return 0;
+
+		List<String> ids = new ArrayList<String>();
+		List<ScalableApp> apps = new ArrayList<ScalableApp>();
+		List<Document> documents = new ArrayList<Document>();
+		BulkOperations bulk = null;
+		for (String bindingId : new ArrayList<String>(dirtyApps.keySet())) {
+			ScalableApp app = dirtyApps.remove(bindingId);
+			if (app == null)
+				continue;
+
+			AppBlueprint blueprint;
+			try {
+				app.acquire();
+			} catch (InterruptedException ex) {
+				dirtyApps.putIfAbsent(bindingId, app);
+				Thread.currentThread().interrupt();
+				break;
+			}
+			try {
+				blueprint = app.getCopyOfBlueprint();
+			} finally {
+				app.release();
+			}
+
+			Document document = toDocument(blueprint);
+			Update update = changedFields(writtenDocuments.get(bindingId), document);
+			if (update == null)
+				continue;
+
+			if (bulk == null)
+				bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, AppBlueprint.class);
+			bulk.updateOne(Query.query(Criteria.where("_id").is(bindingId)), update);
+			ids.add(bindingId);
+			apps.add(app);
+			documents.add(document);
+		}
+
+		if (bulk == null)
+			return 0;
+
+		long start = System.nanoTime();
+		try {
+			bulk.execute();
+		} catch (RuntimeException ex) {
+			log.error("Could not write " + ids.size() + " applications to the database, retrying with the next flush.", ex);
+			for (int i = 0; i < ids.size(); i++) {
+				writtenDocuments.remove(ids.get(i));
+				dirtyApps.putIfAbsent(ids.get(i), apps.get(i));
+			}
+			return 0;
+		} finally {
+			AutoscalerMetrics.DATABASE_BULK_SAVE.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+
+		for (int i = 0; i < ids.size(); i++) {
+			writtenDocuments.put(ids.get(i), documents.get(i));
+		}
+		log.debug("Wrote " + ids.size() + " applications to the database.");
+		return ids.size();
+	}
+
+	/**
+	 * Runs a flush on the flush thread and waits for it to finish.
+	 * Used to force a flush on bindings and unbindings, which must not run while holding the monitor of the {@linkplain ScalableAppManager},
+	 * as a flush waits for the lock of every dirty application. Runs the flush on the calling thread, if the flush thread is not running.
+	 */
+	public void flushAndWait() {
+		Future<?> future;
+		try {
+			future = flushExecutor == null ? null : flushExecutor.submit(this::flushQuietly);
+		} catch (RejectedExecutionException ex) {
+			future = null;
+		}
+		if (future == null) {
+			flushQuietly();
+			return;
+		}
+		try {
+			future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException ex) {
+			log.error("Flushing the application state to the database failed.", ex.getCause());
+		}
+	}
+
+	/**
+	 * Writes the given blueprints of already saved applications in one bulk operation, sending only the fields,
+	 * which changed since their last known write. Used by bulk requests, which change many applications at once.
+	 * The last written documents are only remembered with write-behind persistence, as only flushes compare against them.
+	 * @param blueprints {@linkplain AppBlueprint AppBlueprints} to write
+	 * @return true if the bulk operation succeeded or nothing had to be written
+	 */
+	public synchronized boolean writeAll(List<AppBlueprint> blueprints) {
+		boolean remember = autoscalerProperties.getPersistence().isWriteBehind();
+		List<String> ids = new ArrayList<String>();
+		List<Document> documents = new ArrayList<Document>();
+		BulkOperations bulk = null;
+		for (AppBlueprint blueprint : blueprints) {
+			String bindingId = blueprint.getBinding().getId();
+			Document document = toDocument(blueprint);
+			Update update = changedFields(writtenDocuments.get(bindingId), document);
+			if (update == null)
+				continue;
+
+			if (bulk == null)
+				bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, AppBlueprint.class);
+			bulk.updateOne(Query.query(Criteria.where("_id").is(bindingId)), update);
+			ids.add(bindingId);
+			documents.add(document);
+		}
+
+		if (bulk == null)
+			return true;
+
+		long start = System.nanoTime();
+		try {
+			bulk.execute();
+		} catch (RuntimeException ex) {
+			log.error("Could not write " + ids.size() + " applications of a bulk request to the database.", ex);
+			for (String bindingId : ids) {
+				writtenDocuments.remove(bindingId);
+			}
+			return false;
+		} finally {
+			AutoscalerMetrics.DATABASE_BULK_SAVE.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+
+		if (remember) {
+			for (int i = 0; i < ids.size(); i++) {
+				writtenDocuments.put(ids.get(i), documents.get(i));
+			}
+		}
+		log.debug("Wrote " + ids.size() + " applications of a bulk request to the database.");
+		return true;
+	}
+
+	/**
+	 * Returns the number of applications waiting to be written.
+	 * @return number of dirty applications
+	 */
+	public int getDirtyCount() {
+		return dirtyApps.size();
+	}
+
+	/**
+	 * Runs a flush on the flush thread and logs instead of throwing exceptions, so the periodic flushes keep running.
+	 */
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (RuntimeException ex) {
+			log.error("Flushing the application state to the database failed.", ex);
+		}
+	}
+
+	/**
+	 * Converts a blueprint into the document stored in the database.
+	 * @param blueprint {@linkplain AppBlueprint} to convert
+	 * @return document of the blueprint
+	 */
+	private Document toDocument(AppBlueprint blueprint) {
+		Document document = new Document();
+		mongoOperations.getConverter().write(blueprint, document);
+		return document;
+	}
+
+	/**
+	 * Creates an update setting every top level field of the new document, which differs from the old document,
+	 * and unsetting every field missing in the new document.
+	 * @param written last written document or null, if it is unknown
+	 * @param current current document
+	 * @return update with the changed fields or null, if nothing changed
+	 */
+	public static Update changedFields(Document written, Document current) {
+		Update update = new Update();
+		boolean changed = false;
+		for (Map.Entry<String, Object> entry : current.entrySet()) {
+			String key = entry.getKey();
+			if ("_id".equals(key))
+				continue;
+			if (written == null || !written.containsKey(key) || !Objects.equals(written.get(key), entry.getValue())) {
+				update.set(key, entry.getValue());
+				changed = true;
+			}
+		}
+		if (written != null) {
+			for (String key : written.keySet()) {
+				if (!current.containsKey(key)) {
+					update.unset(key);
+					changed = true;
+				}
+			}
+		}
+		return changed ? update : null;
+	}
+}
@@ -0,0 +1,83 @@
+package de.evoila.cf.autoscaler.core.manager;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index of {@linkplain ScalableApp ScalableApps} sorted by their binding id, overall and per service instance.
+ * Backs the paginated binding listing: a page continues right after the binding id of the last page,
+ * so pages stay stable while applications are bound and unbound in between.
+ * <p>
+ * Reads are lock-free and weakly consistent. Changes have to be serialized by the caller, like the {@linkplain ScalableAppManager} does.
+ * </p>
+ * @author Marius Berger
+ *
+ */
+public class BindingIndex {
+
+	/**
+	 * All indexed applications with their binding id as key.
+	 */
+	private final ConcurrentNavigableMap<String, ScalableApp> all;
+
+	/**
+	 * Indexed applications by the id of their service instance, with their binding id as key.
+	 */
+	private final ConcurrentHashMap<String, ConcurrentNavigableMap<String, ScalableApp>> byServiceId;
+
+	/**
+	 * Constructor to create an empty index.
+	 */
+	public BindingIndex() {
+		all = new ConcurrentSkipListMap<>();
+		byServiceId = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Adds an application to the index.
+	 * @param app application to add
+	 */
+	public void put(ScalableApp app) {
+		String bindingId = app.getBinding().getId();
+		all.put(bindingId, app);
+		String serviceId = app.getBinding().getServiceId();
+		if (serviceId != null)
+			byServiceId.computeIfAbsent(serviceId, id -> new ConcurrentSkipListMap<>()).put(bindingId, app);
+	}
+
+	/**
+	 * Removes an application from the index, if it is indexed.
+	 * @param app application to remove
+	 */
+	public void remove(ScalableApp app) {
+		String bindingId = app.getBinding().getId();
+		all.remove(bindingId, app);
+		String serviceId = app.getBinding().getServiceId();
+		if (serviceId != null) {
+			byServiceId.computeIfPresent(serviceId, (id, apps) -> {
+				apps.remove(bindingId, app);
+				return apps.isEmpty() ? null : apps;
+			});
+		}
+	}
+
+	/**
+	 * Returns the indexed applications sorted by binding id, starting right after the given cursor.
+	 * @param serviceId id of the service instance to restrict the applications to, null for all applications
+	 * @param cursor binding id to start after, null to start with the first application
+	 * @return read-only, weakly consistent view of the applications
+	 */
+	public NavigableMap<String, ScalableApp> after(String serviceId, String cursor) {
+		ConcurrentNavigableMap<String, ScalableApp> apps = serviceId == null ? all : byServiceId.get(serviceId);
+		if (apps == null)
+			return Collections.emptyNavigableMap();
+		if (cursor != null)
+			apps = apps.tailMap(cursor, false);
+		return Collections.unmodifiableNavigableMap(apps);
+	}
+}
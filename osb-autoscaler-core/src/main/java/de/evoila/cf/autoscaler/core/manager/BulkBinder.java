@@ -0,0 +1,329 @@
+package de.evoila.cf.autoscaler.core.manager;
+
+import de.evoila.cf.autoscaler.api.binding.Binding;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.applications.ScalableAppService;
+import de.evoila.cf.autoscaler.core.exception.LimitException;
+import de.evoila.cf.autoscaler.core.http.HTTPWrapper;
+import de.evoila.cf.autoscaler.core.http.response.BulkResponse;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Binds and unbinds many {@linkplain ScalableApp ScalableApps} at once, for example when the service broker reconciles
+ * its bindings after an outage. The bindings are validated in parallel and the names of their resources are requested
+ * from the scaling engine on an own pool of {@linkplain AutoscalerPropertiesBean.Bulk#getNameLookupConcurrency()} threads.
+ * The {@linkplain ScalableAppManager} then saves or deletes all applications with one call to the database
+ * and publishes their binding information as one batch.
+ * @author Marius Berger
+ *
+ */
+@Service
+public class BulkBinder {
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(BulkBinder.class);
+
+	/**
+	 * Property bean for properties concerning the scaler itself.
+	 */
+	@Autowired
+	private AutoscalerPropertiesBean autoscalerProps;
+
+	/**
+	 * {@code ScalableAppManager} to bind and unbind the applications with.
+	 */
+	@Autowired
+	private ScalableAppManager appManager;
+
+	/**
+	 * Wrapper to request the names of the resources with.
+	 */
+	@Autowired
+	private HTTPWrapper httpWrapper;
+
+	/**
+	 * Threads validating the bindings.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Threads requesting the names of the resources, at most {@linkplain AutoscalerPropertiesBean.Bulk#getNameLookupConcurrency()}.
+	 * Used whichever client mode the {@linkplain HTTPWrapper} runs in, so bulk bindings do not share its executor.
+	 */
+	private ExecutorService nameLookupExecutor;
+
+	/**
+	 * Starts the threads validating the bindings and requesting the names.
+	 */
+	@PostConstruct
+	public void init() {
+		int parallelism = Math.max(1, autoscalerProps.getBulk().getParallelism());
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "BulkBind-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		int concurrency = Math.max(1, autoscalerProps.getBulk().getNameLookupConcurrency());
+		AtomicInteger lookupThreadNumber = new AtomicInteger();
+		nameLookupExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+			Thread thread = new Thread(runnable, "BulkNameLookup-" + lookupThreadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Stops the threads validating the bindings and requesting the names.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null)
+			executor.shutdownNow();
+		if (nameLookupExecutor != null)
+			nameLookupExecutor.shutdownNow();
+	}
+
+	/**
+	 * Binds all valid bindings, which are not bound yet. Each binding gets the result a single binding would have returned.
+	 * If saving the new bindings in the database fails, none of them is bound and each of them gets an internal server error as result.
+	 * @param bindings bindings to bind
+	 * @return response with a result per binding
+	 * @throws LimitException if the request holds more bindings than allowed
+	 * @throws InterruptedException if the thread was interrupted while waiting for the validations or name requests
+	 */
+	public BulkResponse bind(List<Binding> bindings) throws LimitException, InterruptedException {
+		checkSize(bindings.size());
+		List<BulkResponse.Result> results = new ArrayList<BulkResponse.Result>();
+		List<Future<Candidate>> futures = new ArrayList<Future<Candidate>>();
+		List<Candidate> candidates = new ArrayList<Candidate>();
+		try {
+			for (Binding binding : bindings) {
+				futures.add(executor.submit(() -> validate(binding, appManager)));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					candidates.add(futures.get(i).get());
+				} catch (ExecutionException ex) {
+					String id = bindings.get(i) == null ? null : bindings.get(i).getId();
+					log.error("Validating the binding " + id + " of a bulk binding failed.", ex.getCause());
+					results.add(new BulkResponse.Result(id, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Could not validate the binding."));
+				}
+			}
+		} finally {
+			for (Future<Candidate> future : futures) {
+				future.cancel(false);
+			}
+		}
+
+		List<ScalableApp> apps = new ArrayList<ScalableApp>();
+		Set<String> bindingIds = new HashSet<String>();
+		Set<String> resourceIds = new HashSet<String>();
+		for (Candidate candidate : candidates) {
+			if (candidate.result != null) {
+				results.add(candidate.result);
+			} else if (!bindingIds.add(candidate.app.getBinding().getId())
+					|| !resourceIds.add(candidate.app.getBinding().getResourceId())) {
+				results.add(new BulkResponse.Result(candidate.app.getBinding().getId(), HttpStatus.CONFLICT.value(),
+						"An other binding of this request has the same id or resource id."));
+			} else {
+				apps.add(candidate.app);
+			}
+		}
+
+		if (autoscalerProps.isUpdateAppNameAtBinding())
+			lookUpNames(apps);
+		for (ScalableApp app : apps) {
+			app.publishSnapshot();
+		}
+
+		Set<ScalableApp> added;
+		try {
+			added = new HashSet<ScalableApp>(apps.isEmpty() ? apps : appManager.addAll(apps));
+		} catch (RuntimeException ex) {
+			for (ScalableApp app : apps) {
+				results.add(new BulkResponse.Result(app.getBinding().getId(), HttpStatus.INTERNAL_SERVER_ERROR.value(),
+						"Could not save the binding in the database."));
+			}
+			log.info("Bulk binding created none of " + bindings.size() + " requested bindings, saving them failed.");
+			return new BulkResponse(results);
+		}
+		for (ScalableApp app : apps) {
+			if (added.contains(app)) {
+				BulkResponse.Result result = new BulkResponse.Result(app.getBinding().getId(), HttpStatus.CREATED.value(), null);
+				result.setPersisted(true);
+				results.add(result);
+			} else {
+				results.add(new BulkResponse.Result(app.getBinding().getId(), HttpStatus.CONFLICT.value(),
+						"An other binding was found with the same id or resource id."));
+			}
+		}
+		log.info("Bulk binding created " + added.size() + " of " + bindings.size() + " requested bindings.");
+		return new BulkResponse(results);
+	}
+
+	/**
+	 * Unbinds all bound applications with the given binding ids.
+	 * @param bindingIds binding ids of the applications to unbind
+	 * @return response with a result per binding id
+	 * @throws LimitException if the request holds more binding ids than allowed
+	 */
+	public BulkResponse unbind(List<String> bindingIds) throws LimitException {
+		Set<String> ids = new LinkedHashSet<String>(bindingIds);
+		ids.remove(null);
+		checkSize(ids.size());
+		Set<String> removed = new HashSet<String>();
+		for (ScalableApp app : appManager.removeAll(ids)) {
+			removed.add(app.getBinding().getId());
+		}
+
+		List<BulkResponse.Result> results = new ArrayList<BulkResponse.Result>();
+		for (String id : ids) {
+			if (removed.contains(id)) {
+				BulkResponse.Result result = new BulkResponse.Result(id, HttpStatus.OK.value(), null);
+				result.setPersisted(true);
+				results.add(result);
+			} else {
+				results.add(new BulkResponse.Result(id, HttpStatus.GONE.value(), "No binding with this id was found."));
+			}
+		}
+		log.info("Bulk unbinding removed " + removed.size() + " of " + ids.size() + " requested bindings.");
+		return new BulkResponse(results);
+	}
+
+	/**
+	 * Checks a bulk request against {@linkplain AutoscalerPropertiesBean.Bulk#getMaxApps()}.
+	 * @param size number of bindings of the request
+	 * @throws LimitException if the request holds more bindings than allowed
+	 */
+	private void checkSize(int size) throws LimitException {
+		int maxApps = autoscalerProps.getBulk().getMaxApps();
+		if (maxApps > 0 && size > maxApps)
+			throw new LimitException("The request holds " + size + " bindings, but only " + maxApps + " may be changed at once.");
+	}
+
+	/**
+	 * Requests the names of the resources of the given applications from the scaling engine on the {@link #nameLookupExecutor}
+	 * and sets them on the bindings. Blocks until all requests completed.
+	 * @param apps new applications, which are not shared yet
+	 * @throws InterruptedException if the thread was interrupted while waiting for the name requests
+	 */
+	private void lookUpNames(List<ScalableApp> apps) throws InterruptedException {
+		List<Binding> bindings = new ArrayList<Binding>();
+		for (ScalableApp app : apps) {
+			bindings.add(app.getBinding());
+		}
+		lookUpNames(bindings, nameLookupExecutor, binding -> {
+			try {
+				return ScalableAppService.getNameFromResponse(
+						httpWrapper.getNameFromScalingEngine(binding.getResourceId(), binding.getContext()));
+			} catch (RuntimeException ex) {
+				log.error("Name request for the binding " + binding.getId() + " failed.", ex);
+				return "";
+			}
+		});
+	}
+
+	/**
+	 * Looks up the names of the resources of the given bindings on the given executor and sets them on the bindings.
+	 * The executor bounds the number of lookups running at once. Blocks until all lookups completed.
+	 * A binding, whose lookup failed, gets an empty name.
+	 * @param bindings bindings, which are not shared yet
+	 * @param executor executor to run the lookups on
+	 * @param nameLookup function returning the name of the resource of a binding
+	 * @throws InterruptedException if the thread was interrupted while waiting for the lookups
+	 */
+	public static void lookUpNames(List<Binding> bindings, ExecutorService executor, Function<Binding, String> nameLookup)
+			throws InterruptedException {
+		List<Callable<String>> lookups = new ArrayList<Callable<String>>();
+		for (Binding binding : bindings) {
+			lookups.add(() -> nameLookup.apply(binding));
+		}
+		List<Future<String>> names = executor.invokeAll(lookups);
+		for (int i = 0; i < names.size(); i++) {
+			String name;
+			try {
+				name = names.get(i).get();
+			} catch (ExecutionException ex) {
+				name = "";
+			}
+			bindings.get(i).setResourceName(name == null ? "" : name);
+		}
+	}
+
+	/**
+	 * Validates a binding of a bulk binding like a single binding request.
+	 * @param binding binding to validate
+	 * @param appManager {@code ScalableAppManager} to check for existing bindings
+	 * @return a candidate holding either a new application or the result for an invalid or already existing binding
+	 */
+	public static Candidate validate(Binding binding, ScalableAppManager appManager) {
+		if (binding == null)
+			return new Candidate(new BulkResponse.Result(null, HttpStatus.BAD_REQUEST.value(), "Missing binding."));
+		String reason = binding.isValidWithReason();
+		if (reason != null)
+			return new Candidate(new BulkResponse.Result(binding.getId(), HttpStatus.BAD_REQUEST.value(), reason));
+
+		ScalableApp newApp = appManager.getNewApp(binding);
+		ScalableApp existing = appManager.get(binding.getId());
+		if (existing != null) {
+			if (existing.getBinding().equals(newApp.getBinding()))
+				return new Candidate(new BulkResponse.Result(binding.getId(), HttpStatus.OK.value(), null));
+			return new Candidate(new BulkResponse.Result(binding.getId(), HttpStatus.CONFLICT.value(),
+					"An other binding was found with the same id."));
+		}
+		if (appManager.containsResourceId(binding.getResourceId()))
+			return new Candidate(new BulkResponse.Result(binding.getId(), HttpStatus.CONFLICT.value(),
+					"An other binding was found with the same resource id."));
+		return new Candidate(newApp);
+	}
+
+	/**
+	 * Outcome of the validation of a single binding, either a new application or a final result.
+	 */
+	public static class Candidate {
+
+		private final ScalableApp app;
+		private final BulkResponse.Result result;
+
+		Candidate(ScalableApp app) {
+			this.app = app;
+			this.result = null;
+		}
+
+		Candidate(BulkResponse.Result result) {
+			this.app = null;
+			this.result = result;
+		}
+
+		public ScalableApp getApp() {
+			return app;
+		}
+
+		public BulkResponse.Result getResult() {
+			return result;
+		}
+	}
+}
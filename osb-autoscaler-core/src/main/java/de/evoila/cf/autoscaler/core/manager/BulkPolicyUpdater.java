@@ -0,0 +1,230 @@
+package de.evoila.cf.autoscaler.core.manager;
+
+import de.evoila.cf.autoscaler.api.binding.InvalidBindingException;
+import de.evoila.cf.autoscaler.api.update.UpdateRequest;
+import de.evoila.cf.autoscaler.core.applications.AppBlueprint;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.exception.InvalidPolicyException;
+import de.evoila.cf.autoscaler.core.exception.InvalidWorkingSetException;
+import de.evoila.cf.autoscaler.core.exception.LimitException;
+import de.evoila.cf.autoscaler.core.exception.SpecialCharacterException;
+import de.evoila.cf.autoscaler.core.exception.TimeException;
+import de.evoila.cf.autoscaler.core.http.request.BulkUpdateRequest;
+import de.evoila.cf.autoscaler.core.http.response.BulkResponse;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Applies one {@linkplain UpdateRequest} to many {@linkplain ScalableApp ScalableApps} at once.
+ * The applications are updated in parallel, each under its own lock, so a failing validation only rejects the update
+ * of that application. The changed applications are written to the database in one bulk operation afterwards
+ * instead of one save per application.
+ * @author Marius Berger
+ *
+ */
+@Service
+public class BulkPolicyUpdater {
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(BulkPolicyUpdater.class);
+
+	/**
+	 * Property bean for properties concerning the scaler itself.
+	 */
+	@Autowired
+	private AutoscalerPropertiesBean autoscalerProps;
+
+	/**
+	 * {@code ScalableAppManager} to get the applications from.
+	 */
+	@Autowired
+	private ScalableAppManager appManager;
+
+	/**
+	 * Buffer to write the changed applications with.
+	 */
+	@Autowired
+	private AppPersistenceBuffer persistenceBuffer;
+
+	/**
+	 * Threads applying the updates.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Starts the threads applying the updates.
+	 */
+	@PostConstruct
+	public void init() {
+		int parallelism = Math.max(1, autoscalerProps.getBulk().getParallelism());
+		AtomicInteger threadNumber = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "BulkUpdate-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Stops the threads applying the updates.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (executor != null)
+			executor.shutdownNow();
+	}
+
+	/**
+	 * Applies the update of the request to all selected applications and writes them to the database.
+	 * @param request request holding the selector and the update
+	 * @return response with a result per selected binding
+	 * @throws LimitException if the request selects more applications than allowed
+	 * @throws InterruptedException if the thread was interrupted while waiting for the updates
+	 */
+	public BulkResponse update(BulkUpdateRequest request) throws LimitException, InterruptedException {
+		List<BulkResponse.Result> results = new ArrayList<BulkResponse.Result>();
+		Collection<ScalableApp> apps = select(request.getServiceId() == null || request.getServiceId().isEmpty()
+				? null : appManager.getAppsAfter(request.getServiceId(), null),
+				request.getBindingIds(), appManager::get, results);
+		int maxApps = autoscalerProps.getBulk().getMaxApps();
+		if (maxApps > 0 && apps.size() > maxApps)
+			throw new LimitException("The request selects " + apps.size() + " bindings, but only " + maxApps + " may be updated at once.");
+
+		UpdateRequest update = request.getUpdate();
+		Map<String, AppBlueprint> blueprints = new ConcurrentHashMap<String, AppBlueprint>();
+		List<Future<BulkResponse.Result>> futures = new ArrayList<Future<BulkResponse.Result>>();
+		try {
+			for (ScalableApp app : apps) {
+				futures.add(executor.submit(() -> apply(app, update, blueprints)));
+			}
+			Iterator<ScalableApp> appIterator = apps.iterator();
+			for (Future<BulkResponse.Result> future : futures) {
+				String id = appIterator.next().getBinding().getId();
+				try {
+					results.add(future.get());
+				} catch (ExecutionException ex) {
+					log.error("Applying a bulk update to the binding " + id + " failed.", ex.getCause());
+					results.add(new BulkResponse.Result(id, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Could not apply the policies."));
+				}
+			}
+		} finally {
+			for (Future<BulkResponse.Result> future : futures) {
+				future.cancel(false);
+			}
+		}
+
+		persist(apps, blueprints, results);
+		log.info("Bulk update changed " + blueprints.size() + " of " + apps.size() + " selected bindings.");
+		return new BulkResponse(results);
+	}
+
+	/**
+	 * Writes the updated applications in one bulk operation and marks their results as persisted.
+	 * If the bulk operation fails with write-behind persistence, the applications are marked as dirty to be retried with the next flush.
+	 * @param apps selected applications
+	 * @param blueprints blueprints of the updated applications with their binding id as key
+	 * @param results results of the request
+	 */
+	private void persist(Collection<ScalableApp> apps, Map<String, AppBlueprint> blueprints, List<BulkResponse.Result> results) {
+		if (blueprints.isEmpty())
+			return;
+		boolean written = persistenceBuffer.writeAll(new ArrayList<AppBlueprint>(blueprints.values()));
+		if (!written && autoscalerProps.getPersistence().isWriteBehind()) {
+			for (ScalableApp app : apps) {
+				if (blueprints.containsKey(app.getBinding().getId()))
+					appManager.updateInDatabase(app);
+			}
+		}
+		for (BulkResponse.Result result : results) {
+			if (!blueprints.containsKey(result.getId()))
+				continue;
+			if (written) {
+				result.setPersisted(true);
+			} else if (!autoscalerProps.getPersistence().isWriteBehind()) {
+				result.setError("The policies were applied, but could not be written to the database.");
+			}
+		}
+	}
+
+	/**
+	 * Applies the update to a single application under its lock and publishes a new snapshot.
+	 * Validation errors are returned as result with the status code {@code 400} instead of being thrown.
+	 * @param app application to update
+	 * @param update update to apply
+	 * @param blueprints map to put a blueprint of the updated state into on success, with the binding id as key
+	 * @return result for the application
+	 */
+	public static BulkResponse.Result apply(ScalableApp app, UpdateRequest update, Map<String, AppBlueprint> blueprints) {
+		String id = app.getBinding().getId();
+		try {
+			app.acquire();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return new BulkResponse.Result(id, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Request was interrupted.");
+		}
+		try {
+			app.update(update);
+			app.publishSnapshot();
+			blueprints.put(id, app.getCopyOfBlueprint());
+			return new BulkResponse.Result(id, HttpStatus.OK.value(), null);
+		} catch (LimitException | InvalidPolicyException | SpecialCharacterException | TimeException
+				| InvalidWorkingSetException | InvalidBindingException ex) {
+			return new BulkResponse.Result(id, HttpStatus.BAD_REQUEST.value(), ex.getMessage());
+		} finally {
+			app.release();
+		}
+	}
+
+	/**
+	 * Selects the applications of a bulk request. If both the applications of a service instance and binding ids are given,
+	 * only the listed applications of the service instance are selected. Binding ids without an application get a result
+	 * with the status code {@code 410}, like a single update of an unknown binding.
+	 * @param ofService applications of the selected service instance with their binding id as key, null to select by binding ids only
+	 * @param bindingIds selected binding ids, null or empty to select the whole service instance
+	 * @param lookup function to look up an application by its binding id
+	 * @param results list to add the results of missing bindings to
+	 * @return selected applications without duplicates, in the order of the selector
+	 */
+	public static Collection<ScalableApp> select(Map<String, ScalableApp> ofService, List<String> bindingIds,
+			Function<String, ScalableApp> lookup, List<BulkResponse.Result> results) {
+		Map<String, ScalableApp> selected = new LinkedHashMap<String, ScalableApp>();
+		if (bindingIds == null || bindingIds.isEmpty()) {
+			if (ofService != null)
+				selected.putAll(ofService);
+			return selected.values();
+		}
+		for (String bindingId : bindingIds) {
+			if (bindingId == null || selected.containsKey(bindingId))
+				continue;
+			ScalableApp app = ofService == null ? lookup.apply(bindingId) : ofService.get(bindingId);
+			if (app == null) {
+				results.add(new BulkResponse.Result(bindingId, HttpStatus.GONE.value(), "No binding with this id was found."));
+			} else {
+				selected.put(bindingId, app);
+			}
+		}
+		return selected.values();
+	}
+}
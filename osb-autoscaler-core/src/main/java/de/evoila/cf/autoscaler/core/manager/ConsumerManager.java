@@ -1,10 +1,16 @@
 package de.evoila.cf.autoscaler.core.manager;
 
 import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.kafka.consumer.AbstractByteConsumer;
+import de.evoila.cf.autoscaler.core.kafka.consumer.AbstractMetricConsumer;
+import de.evoila.cf.autoscaler.core.kafka.consumer.BatchConsumerThread;
 import de.evoila.cf.autoscaler.core.kafka.consumer.ContainerMetricConsumer;
 import de.evoila.cf.autoscaler.core.kafka.consumer.HttpMetricConsumer;
 import de.evoila.cf.autoscaler.core.kafka.consumer.PredictionConsumer;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
 import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import de.evoila.cf.autoscaler.core.scaling.ScalingEventTrigger;
+import de.evoila.cf.autoscaler.kafka.AutoScalerConsumer;
 import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,9 +20,11 @@ import org.springframework.stereotype.Service;
 import javax.annotation.PostConstruct;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 /**
  * Manager for starting and managing consumer for Kafka.
+ * Registers the record counters of the metric consumers in {@linkplain AutoscalerMetrics}, summed up per consumer type.
  * @author Marius Berger
  *
  */
@@ -46,6 +54,12 @@ public class ConsumerManager {
 	@Autowired
 	AutoscalerPropertiesBean scalerProperties;
 	
+	/**
+	 * Trigger the metric consumers report metrics above an upper limit to.
+	 */
+	@Autowired
+	ScalingEventTrigger eventTrigger;
+	
 	/**
 	 * Id of the group for {@linkplain ContainerMetricConsumer}.
 	 */
@@ -82,10 +96,22 @@ public class ConsumerManager {
 	
 	/**
 	 * Adds a {@linkplain ContainerMetricConsumer} and starts it.
+	 * In the batch mode the consumer is handed whole polls by a {@linkplain BatchConsumerThread}, with partition affinity if configured.
 	 */
 	public void addContainerConsumer() {
-		ContainerMetricConsumer newConsumer = new ContainerMetricConsumer(kafkaProps.getMetricContainerTopic()
-				, containerConsumerGroupId, kafkaProps.getHost(), kafkaProps.getPort(), scalerProperties.getMaxMetricAge(), appManager);
+		AutoscalerPropertiesBean.Consumer consumerProps = scalerProperties.getConsumer();
+		ContainerMetricConsumer newConsumer;
+		if (consumerProps.isBatch()) {
+			newConsumer = new ContainerMetricConsumer(BatchConsumerThread.createKafkaConsumer(containerConsumerGroupId
+					, kafkaProps.getHost(), kafkaProps.getPort(), consumerProps.getMaxPollRecords())
+					, consumerProps.getPollTimeout(), scalerProperties.getMaxMetricAge(), appManager);
+			newConsumer.setPartitionAffinity(consumerProps.isPartitionAffinity());
+			newConsumer.getBatchThread().subscribe(kafkaProps.getMetricContainerTopic());
+		} else {
+			newConsumer = new ContainerMetricConsumer(kafkaProps.getMetricContainerTopic()
+					, containerConsumerGroupId, kafkaProps.getHost(), kafkaProps.getPort(), scalerProperties.getMaxMetricAge(), appManager);
+		}
+		newConsumer.setEventTrigger(eventTrigger);
 		containerConsumers.add(newConsumer);
 		newConsumer.startConsumer();
 		log.info("New container consumer #"+containerConsumers.size()+" started.");
@@ -93,10 +119,22 @@ public class ConsumerManager {
 	
 	/**
 	 * Adds a {@linkplain HttpMetricConsumer} and starts it.
+	 * In the batch mode the consumer is handed whole polls by a {@linkplain BatchConsumerThread}, with partition affinity if configured.
 	 */
 	public void addRequestConsumer() {
-		HttpMetricConsumer newConsumer = new HttpMetricConsumer(kafkaProps.getMetricHttpTopic()
-				, httpConsumerGroupId, kafkaProps.getHost(), kafkaProps.getPort(), scalerProperties.getMaxMetricAge(), appManager);
+		AutoscalerPropertiesBean.Consumer consumerProps = scalerProperties.getConsumer();
+		HttpMetricConsumer newConsumer;
+		if (consumerProps.isBatch()) {
+			newConsumer = new HttpMetricConsumer(BatchConsumerThread.createKafkaConsumer(httpConsumerGroupId
+					, kafkaProps.getHost(), kafkaProps.getPort(), consumerProps.getMaxPollRecords())
+					, consumerProps.getPollTimeout(), scalerProperties.getMaxMetricAge(), appManager);
+			newConsumer.setPartitionAffinity(consumerProps.isPartitionAffinity());
+			newConsumer.getBatchThread().subscribe(kafkaProps.getMetricHttpTopic());
+		} else {
+			newConsumer = new HttpMetricConsumer(kafkaProps.getMetricHttpTopic()
+					, httpConsumerGroupId, kafkaProps.getHost(), kafkaProps.getPort(), scalerProperties.getMaxMetricAge(), appManager);
+		}
+		newConsumer.setEventTrigger(eventTrigger);
 		requestConsumers.add(newConsumer);
 		newConsumer.startConsumer();
 		log.info("New request consumer #"+requestConsumers.size()+" started.");
@@ -129,6 +167,8 @@ public class ConsumerManager {
 			addRequestConsumer();
 		}
 		addPredictionConsumer();
+		registerRecordCounters(containerConsumers, AutoScalerConsumer.TYPE_METRIC_CONTAINER);
+		registerRecordCounters(requestConsumers, AutoScalerConsumer.TYPE_METRIC_HTTP);
 	}
 	
 	/**
@@ -143,4 +183,80 @@ public class ConsumerManager {
 		}
 		predictionConsumer.stopConsumer();
 	}
+	
+	/**
+	 * Returns the number of metrics published to applications by all metric consumers.
+	 * @return number of published metrics
+	 */
+	public long getPublishedMetricCount() {
+		long count = 0;
+		for (AbstractByteConsumer consumer : getMetricConsumers()) {
+			count += consumer.getPublishedCount();
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns the number of metrics dropped by all metric consumers,
+	 * because their application was unknown, they were too old, malformed or overtaken by newer metrics in the full buffer of their application.
+	 * @return number of dropped metrics
+	 */
+	public long getDroppedMetricCount() {
+		long count = 0;
+		for (AbstractByteConsumer consumer : getMetricConsumers()) {
+			count += consumer.getDroppedCount();
+		}
+		return count;
+	}
+	
+	/**
+	 * Registers the record counters for the given list of consumers of the same type.
+	 * @param consumers consumers to sum the counts of
+	 * @param type type of the consumers
+	 */
+	private void registerRecordCounters(List<? extends AbstractByteConsumer> consumers, String type) {
+		registerRecordCounter(consumers, type, "published", AbstractByteConsumer::getPublishedCount);
+		registerRecordCounter(consumers, type, "unknown_app", AbstractByteConsumer::getDroppedUnknownAppCount);
+		registerRecordCounter(consumers, type, "too_old", AbstractByteConsumer::getDroppedTooOldCount);
+		registerRecordCounter(consumers, type, "buffer_full", AbstractByteConsumer::getDroppedBufferFullCount);
+		registerRecordCounter(consumers, type, "malformed", AbstractByteConsumer::getDroppedMalformedCount);
+		AutoscalerMetrics.registerCounter("autoscaler.consumer.misrouted",
+				"Records published to an application owned by another consumer with partition affinity", consumers, list -> {
+					long sum = 0;
+					for (AbstractByteConsumer consumer : new LinkedList<AbstractByteConsumer>(list)) {
+						if (consumer instanceof AbstractMetricConsumer)
+							sum += ((AbstractMetricConsumer) consumer).getMisroutedCount();
+					}
+					return sum;
+				}, "consumer", type);
+	}
+	
+	/**
+	 * Registers a counter summing up one count over the given consumers.
+	 * @param consumers consumers to sum the count of
+	 * @param type type of the consumers
+	 * @param outcome outcome of the counted records
+	 * @param count function returning the count of a consumer
+	 */
+	private void registerRecordCounter(List<? extends AbstractByteConsumer> consumers, String type, String outcome,
+			ToLongFunction<AbstractByteConsumer> count) {
+		AutoscalerMetrics.registerCounter("autoscaler.consumer.records",
+				"Records consumed from Kafka by the metric consumers", consumers, list -> {
+					long sum = 0;
+					for (AbstractByteConsumer consumer : new LinkedList<AbstractByteConsumer>(list)) {
+						sum += count.applyAsLong(consumer);
+					}
+					return sum;
+				}, "consumer", type, "outcome", outcome);
+	}
+	
+	/**
+	 * Returns a flat copy of all managed {@linkplain ContainerMetricConsumer} and {@linkplain HttpMetricConsumer}.
+	 * @return list of metric consumers
+	 */
+	public List<AbstractByteConsumer> getMetricConsumers() {
+		List<AbstractByteConsumer> consumers = new LinkedList<AbstractByteConsumer>(containerConsumers);
+		consumers.addAll(requestConsumers);
+		return consumers;
+	}
 }
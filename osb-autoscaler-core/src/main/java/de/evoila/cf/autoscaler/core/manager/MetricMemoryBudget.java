@@ -0,0 +1,219 @@
+package de.evoila.cf.autoscaler.core.manager;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Accounts the estimated bytes held by the metric windows and buffers of every application and of the whole fleet.
+ * If the fleet exceeds its budget, the windows of all applications are shrunk step by step, dropping their oldest metrics,
+ * and grow back once the estimate falls below the {@linkplain #RECOVERY_THRESHOLD}. An application above its own budget
+ * is shrunk on its own in the same way.
+ * Only the windows shrink, so the fixed bytes of the buffers and slots are reported separately and left out of the shrink calculation:
+ * the windows are fitted into what is left of a budget after the fixed bytes. If nothing is left, the windows stay at their minimum.
+ * The limits are only requested from the applications, which apply them at their next drain, so accounting never waits for a lock.
+ * @author Marius Berger
+ *
+ */
+@Service
+public class MetricMemoryBudget {
+
+	/**
+	 * Fraction of a budget, below which shrunk windows grow again.
+	 */
+	public static final double RECOVERY_THRESHOLD = 0.8;
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(MetricMemoryBudget.class);
+
+	/**
+	 * Property bean for properties concerning the scaler itself.
+	 */
+	@Autowired
+	private AutoscalerPropertiesBean autoscalerProps;
+
+	/**
+	 * {@code ScalableAppManager} to get the applications from.
+	 */
+	@Autowired
+	private ScalableAppManager appManager;
+
+	/**
+	 * Estimated bytes all applications may hold together, 0 for no budget.
+	 */
+	private long budget;
+	/**
+	 * Estimated bytes a single application may hold, 0 for no budget.
+	 */
+	private long appBudget;
+	/**
+	 * Number of metrics a window is never shrunk below.
+	 */
+	private int minWindowSize;
+	/**
+	 * Number of metrics a window holds without memory pressure.
+	 */
+	private int maxWindowSize;
+
+	/**
+	 * Current window limit for all applications derived from the fleet budget.
+	 */
+	private volatile int windowLimit;
+	/**
+	 * Estimated bytes of all applications at the last accounting.
+	 */
+	private volatile long totalBytes;
+	/**
+	 * Part of the {@linkplain #totalBytes} not held by the windows, which does not shrink with the window limit.
+	 */
+	private volatile long fixedBytes;
+	/**
+	 * Number of applications at the last accounting.
+	 */
+	private volatile int appCount;
+	/**
+	 * Number of applications with shrunk windows at the last accounting.
+	 */
+	private volatile int degradedApps;
+
+	/**
+	 * Reads the budgets and registers the gauges of the accounting.
+	 */
+	@PostConstruct
+	public void init() {
+		AutoscalerPropertiesBean.Memory props = autoscalerProps.getMemory();
+		budget = Math.max(0, props.getBudget());
+		appBudget = Math.max(0, props.getAppBudget());
+		maxWindowSize = Math.max(1, autoscalerProps.getMaxMetricListSize());
+		minWindowSize = Math.max(1, Math.min(props.getMinWindowSize(), maxWindowSize));
+		windowLimit = maxWindowSize;
+		AutoscalerMetrics.registerGauge("autoscaler.memory.estimated", "Estimated bytes held by the metric windows and buffers of all applications",
+				this, MetricMemoryBudget::getTotalBytes);
+		AutoscalerMetrics.registerGauge("autoscaler.memory.fixed", "Estimated bytes of all applications, which do not shrink with the window limit",
+				this, MetricMemoryBudget::getFixedBytes);
+		AutoscalerMetrics.registerGauge("autoscaler.memory.budget", "Estimated bytes all applications may hold, 0 for no budget",
+				this, MetricMemoryBudget::getBudget);
+		AutoscalerMetrics.registerGauge("autoscaler.memory.window.limit", "Window limit for all applications derived from the fleet budget",
+				this, MetricMemoryBudget::getWindowLimit);
+		AutoscalerMetrics.registerGauge("autoscaler.memory.degraded.apps", "Number of applications with shrunk windows",
+				this, MetricMemoryBudget::getDegradedApps);
+		if (budget > 0 || appBudget > 0)
+			log.info("Metric memory is limited to " + budget + " bytes in total and " + appBudget + " bytes per application (0 for no limit).");
+	}
+
+	/**
+	 * Sums up the estimated bytes of all applications and, if a budget is set, requests new window limits from them.
+	 * Called by the {@linkplain de.evoila.cf.autoscaler.core.scaling.Scaler} after every tick.
+	 */
+	public void account() {
+		long total = 0;
+		long fixed = 0;
+		int count = 0;
+		for (ScalableApp app : appManager.getApps()) {
+			long bytes = app.getEstimatedBytes();
+			total += bytes;
+			fixed += bytes - app.getWindowBytes();
+			count++;
+		}
+		totalBytes = total;
+		fixedBytes = fixed;
+		appCount = count;
+		if (budget <= 0 && appBudget <= 0)
+			return;
+
+		int limit = nextLimit(windowLimit, total, fixed, budget, minWindowSize, maxWindowSize);
+		if (limit != windowLimit) {
+			if (budget > 0 && fixed >= budget) {
+				log.warn("Estimated fixed metric memory of " + fixed + " bytes alone exceeds the budget of " + budget
+						+ " bytes, shrinking the windows to their minimum of " + limit + " metrics. Raise the budget or lower the maximum metric list size.");
+			} else if (limit < windowLimit) {
+				log.warn("Estimated metric memory of " + total + " bytes exceeds the budget of " + budget + " bytes, shrinking the windows to " + limit + " metrics.");
+			} else {
+				log.info("Estimated metric memory of " + total + " bytes is below the budget of " + budget + " bytes, growing the windows to " + limit + " metrics.");
+			}
+			windowLimit = limit;
+		}
+		int degraded = 0;
+		for (ScalableApp app : appManager.getApps()) {
+			long bytes = app.getEstimatedBytes();
+			int appLimit = Math.min(limit, nextLimit(app.getWindowCapacityLimit(), bytes, bytes - app.getWindowBytes(), appBudget, minWindowSize, maxWindowSize));
+			app.setWindowCapacityLimit(appLimit);
+			if (appLimit < maxWindowSize)
+				degraded++;
+		}
+		degradedApps = degraded;
+	}
+
+	/**
+	 * Calculates the next window limit for the given estimate. The fixed bytes are subtracted from both the estimate and the budget,
+	 * as they do not shrink with the limit. Above the rest of the budget the limit shrinks in proportion to the excess of the windows,
+	 * below the {@linkplain #RECOVERY_THRESHOLD} of it the limit grows by a quarter, in between it stays the same.
+	 * If the fixed bytes alone reach the budget, the limit is the minimum.
+	 * @param current current limit
+	 * @param bytes estimated bytes including the fixed bytes
+	 * @param fixedBytes part of the estimated bytes, which does not shrink with the limit
+	 * @param budget budget for the estimate, 0 for no budget
+	 * @param min minimum limit
+	 * @param max maximum limit
+	 * @return next limit between min and max
+	 */
+	public static int nextLimit(int current, long bytes, long fixedBytes, long budget, int min, int max) {
+		if (budget <= 0)
+			return max;
+		long windowBudget = budget - fixedBytes;
+		if (windowBudget <= 0)
+			return min;
+		long windowBytes = Math.max(0, bytes - fixedBytes);
+		int next = current;
+		if (windowBytes > windowBudget) {
+			next = (int) (current * ((double) windowBudget / windowBytes));
+		} else if (windowBytes < windowBudget * RECOVERY_THRESHOLD) {
+			next = current + Math.max(1, current / 4);
+		}
+		return Math.max(min, Math.min(next, max));
+	}
+
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public long getFixedBytes() {
+		return fixedBytes;
+	}
+
+	public int getAppCount() {
+		return appCount;
+	}
+
+	public int getDegradedApps() {
+		return degradedApps;
+	}
+
+	public int getWindowLimit() {
+		return windowLimit;
+	}
+
+	public long getBudget() {
+		return budget;
+	}
+
+	public long getAppBudget() {
+		return appBudget;
+	}
+
+	public int getMinWindowSize() {
+		return minWindowSize;
+	}
+
+	public int getMaxWindowSize() {
+		return maxWindowSize;
+	}
+}
@@ -0,0 +1,194 @@
+package de.evoila.cf.autoscaler.core.manager;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of {@linkplain ScalableApp ScalableApps} by the UTF-8 bytes of their resource id.
+ * Lets the metric consumers find the application of an incoming record straight from the record buffer,
+ * without decoding the resource id into a {@code String}.
+ * <p>
+ * Lookups read an immutable open addressing table hashed with 32 bit FNV-1a and never lock or allocate.
+ * Binding and unbinding replace the whole table under the monitor of the index, which is fine because they are rare
+ * compared to incoming metrics. Many applications are added with {@linkplain #putAll(Collection)}, which replaces the table once.
+ * </p>
+ * @author Marius Berger
+ *
+ */
+public class ResourceIdIndex {
+
+	/**
+	 * Offset basis of the 32 bit FNV-1a hash.
+	 */
+	private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+	/**
+	 * Prime of the 32 bit FNV-1a hash.
+	 */
+	private static final int FNV_PRIME = 0x01000193;
+
+	/**
+	 * Indexed applications with their resource id as key. Only accessed while holding the monitor of this index.
+	 */
+	private final Map<String, ScalableApp> entries;
+
+	/**
+	 * UTF-8 bytes of the indexed resource ids, so a rebuild of the table does not encode them again.
+	 * Only accessed while holding the monitor of this index.
+	 */
+	private final Map<String, byte[]> encodedKeys;
+
+	/**
+	 * Current lookup table, replaced on every change.
+	 */
+	private volatile Table table;
+
+	/**
+	 * Constructor to create an empty index.
+	 */
+	public ResourceIdIndex() {
+		entries = new HashMap<String, ScalableApp>();
+		encodedKeys = new HashMap<String, byte[]>();
+		table = new Table(entries, encodedKeys);
+	}
+
+	/**
+	 * Adds or replaces the application for the given resource id.
+	 * @param resourceId resource id of the application
+	 * @param app {@linkplain ScalableApp} to index
+	 */
+	public synchronized void put(String resourceId, ScalableApp app) {
+		if (resourceId == null || app == null)
+			return;
+		entries.put(resourceId, app);
+		encodedKeys.computeIfAbsent(resourceId, id -> id.getBytes(StandardCharsets.UTF_8));
+		table = new Table(entries, encodedKeys);
+	}
+
+	/**
+	 * Adds or replaces the given applications under their resource ids and rebuilds the table only once,
+	 * so importing or binding many applications at once does not rebuild it for every application.
+	 * @param apps {@linkplain ScalableApp ScalableApps} to index
+	 */
+	public synchronized void putAll(Collection<ScalableApp> apps) {
+		boolean changed = false;
+		for (ScalableApp app : apps) {
+			String resourceId = app == null ? null : app.getBinding().getResourceId();
+			if (resourceId == null)
+				continue;
+			entries.put(resourceId, app);
+			encodedKeys.computeIfAbsent(resourceId, id -> id.getBytes(StandardCharsets.UTF_8));
+			changed = true;
+		}
+		if (changed)
+			table = new Table(entries, encodedKeys);
+	}
+
+	/**
+	 * Removes the given application, if it is still indexed under the given resource id.
+	 * @param resourceId resource id of the application
+	 * @param app {@linkplain ScalableApp} to remove
+	 */
+	public synchronized void remove(String resourceId, ScalableApp app) {
+		if (resourceId != null && entries.remove(resourceId, app)) {
+			encodedKeys.remove(resourceId);
+			table = new Table(entries, encodedKeys);
+		}
+	}
+
+	/**
+	 * Looks up the application for the resource id stored as UTF-8 in the given range of a buffer.
+	 * @param buffer buffer holding the resource id
+	 * @param offset index of the first byte of the resource id
+	 * @param length number of bytes of the resource id
+	 * @return indexed {@linkplain ScalableApp} or null
+	 */
+	public ScalableApp get(byte[] buffer, int offset, int length) {
+		return table.get(buffer, offset, length);
+	}
+
+	/**
+	 * Returns the number of indexed applications.
+	 * @return size of the index
+	 */
+	public int size() {
+		return table.size;
+	}
+
+	/**
+	 * Computes the 32 bit FNV-1a hash of the given range of a buffer.
+	 * @param buffer buffer to hash
+	 * @param offset index of the first byte
+	 * @param length number of bytes
+	 * @return hash of the bytes
+	 */
+	public static int hash(byte[] buffer, int offset, int length) {
+		int hash = FNV_OFFSET_BASIS;
+		for (int i = offset; i < offset + length; i++) {
+			hash ^= buffer[i] & 0xff;
+			hash *= FNV_PRIME;
+		}
+		return hash;
+	}
+
+	/**
+	 * Immutable open addressing table with linear probing and a load factor of at most one half.
+	 */
+	private static final class Table {
+
+		private final int[] hashes;
+		private final byte[][] keys;
+		private final ScalableApp[] apps;
+		private final int mask;
+		private final int size;
+
+		private Table(Map<String, ScalableApp> entries, Map<String, byte[]> encodedKeys) {
+			int capacity = 2;
+			while (capacity < entries.size() * 2) {
+				capacity <<= 1;
+			}
+			hashes = new int[capacity];
+			keys = new byte[capacity][];
+			apps = new ScalableApp[capacity];
+			mask = capacity - 1;
+			size = entries.size();
+
+			for (Map.Entry<String, ScalableApp> entry : entries.entrySet()) {
+				byte[] key = encodedKeys.get(entry.getKey());
+				int hash = hash(key, 0, key.length);
+				int index = hash & mask;
+				while (keys[index] != null) {
+					index = (index + 1) & mask;
+				}
+				hashes[index] = hash;
+				keys[index] = key;
+				apps[index] = entry.getValue();
+			}
+		}
+
+		private ScalableApp get(byte[] buffer, int offset, int length) {
+			int hash = hash(buffer, offset, length);
+			int index = hash & mask;
+			byte[] key;
+			while ((key = keys[index]) != null) {
+				if (hashes[index] == hash && matches(key, buffer, offset, length))
+					return apps[index];
+				index = (index + 1) & mask;
+			}
+			return null;
+		}
+
+		private static boolean matches(byte[] key, byte[] buffer, int offset, int length) {
+			if (key.length != length)
+				return false;
+			for (int i = 0; i < length; i++) {
+				if (key[i] != buffer[offset + i])
+					return false;
+			}
+			return true;
+		}
+	}
+}
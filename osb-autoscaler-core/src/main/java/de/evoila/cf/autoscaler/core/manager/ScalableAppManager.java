@@ -3,25 +3,49 @@ package de.evoila.cf.autoscaler.core.manager;
 import de.evoila.cf.autoscaler.api.binding.Binding;
 import de.evoila.cf.autoscaler.api.binding.InvalidBindingException;
 import de.evoila.cf.autoscaler.core.applications.AppBlueprint;
+import de.evoila.cf.autoscaler.core.applications.AppSnapshot;
 import de.evoila.cf.autoscaler.core.applications.ScalableApp;
 import de.evoila.cf.autoscaler.core.applications.ScalableAppService;
 import de.evoila.cf.autoscaler.core.data.mongodb.AppBlueprintRepository;
 import de.evoila.cf.autoscaler.core.exception.*;
+import de.evoila.cf.autoscaler.core.kafka.producer.BindingSnapshot;
 import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
+import de.evoila.cf.autoscaler.core.kafka.producer.StringProducer;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
 import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
 import de.evoila.cf.autoscaler.core.properties.DefaultValueBean;
+import de.evoila.cf.autoscaler.core.scaling.ScalingSchedule;
 import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
 import de.evoila.cf.autoscaler.kafka.model.BindingInformation;
-import de.evoila.cf.autoscaler.kafka.producer.KafkaJsonProducer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manager for adding, deleting and getting {@linkplain ScalableApp}.
@@ -66,97 +90,456 @@ public class ScalableAppManager {
 	private ProtobufProducer protobufProducer;
 	
 	/**
-	 * Producer to publish JSON messages on Kafka.
-	 * This will be the case when binding or unbinding.
+	 * Producer to publish the JSON messages on the binding topic.
+	 * This will be the case when binding, unbinding or importing applications.
 	 */
 	@Autowired
-	private KafkaJsonProducer jsonProducer;
+	private StringProducer stringProducer;
 	
 	/**
-	 * Internal list of all {@linkplain ScalableApp} objects bound to the Autoscaler.
+	 * {@code ObjectMapper} of Spring to serialize the messages on the binding topic with.
 	 */
-	private List<ScalableApp> apps;
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	/**
+	 * Template to stream the blueprints at startup and to delete several documents at once with.
+	 */
+	@Autowired
+	private MongoOperations mongoOperations;
+	
+	/**
+	 * Write-behind buffer for updates of the managed applications.
+	 */
+	@Autowired
+	private AppPersistenceBuffer persistenceBuffer;
+	
+	/**
+	 * Schedule of the scaling checks in the timing wheel mode.
+	 */
+	@Autowired
+	private ScalingSchedule scalingSchedule;
+	
+	/**
+	 * Index of all {@linkplain ScalableApp} objects bound to the Autoscaler with their binding id as key.
+	 */
+	private Map<String, ScalableApp> appsByBindingId;
+	
+	/**
+	 * Index of all {@linkplain ScalableApp} objects bound to the Autoscaler with their resource id as key.
+	 * Used by the metric consumers to find the application of an incoming metric.
+	 */
+	private Map<String, ScalableApp> appsByResourceId;
+	
+	/**
+	 * Index of all {@linkplain ScalableApp} objects bound to the Autoscaler with the UTF-8 bytes of their resource id as key.
+	 * Used by the metric consumers to find the application of an incoming record without decoding its resource id.
+	 */
+	private ResourceIdIndex resourceIdIndex;
+	
+	/**
+	 * Index of all {@linkplain ScalableApp} objects bound to the Autoscaler sorted by binding id, overall and per service instance.
+	 * Used by the paginated binding listing.
+	 */
+	private BindingIndex bindingIndex;
 	
 	/**
 	 * Basic constructor for setting up the manager.
 	 */
+	@Autowired
 	public ScalableAppManager(KafkaPropertiesBean kafkaProperties) {
 		this.kafkaProperties = kafkaProperties;
-		apps = new ArrayList<ScalableApp>();
+		appsByBindingId = new ConcurrentHashMap<String, ScalableApp>();
+		appsByResourceId = new ConcurrentHashMap<String, ScalableApp>();
+		resourceIdIndex = new ResourceIdIndex();
+		bindingIndex = new BindingIndex();
+	}
+	
+	/**
+	 * Constructor to set up a manager without Spring, which can import applications via {@linkplain #importBlueprints(Iterator)}.
+	 * Without write-behind persistence no database is touched by the import.
+	 * @param kafkaProperties {@linkplain #kafkaProperties}
+	 * @param autoscalerProperties {@linkplain #autoscalerProperties}
+	 * @param protobufProducer {@linkplain #protobufProducer}
+	 * @param stringProducer {@linkplain #stringProducer}
+	 * @param objectMapper {@linkplain #objectMapper}
+	 * @param scalingSchedule {@linkplain #scalingSchedule}
+	 */
+	public ScalableAppManager(KafkaPropertiesBean kafkaProperties, AutoscalerPropertiesBean autoscalerProperties, ProtobufProducer protobufProducer,
+			StringProducer stringProducer, ObjectMapper objectMapper, ScalingSchedule scalingSchedule) {
+		this(kafkaProperties);
+		this.autoscalerProperties = autoscalerProperties;
+		this.protobufProducer = protobufProducer;
+		this.stringProducer = stringProducer;
+		this.objectMapper = objectMapper;
+		this.scalingSchedule = scalingSchedule;
 	}
 
 	/**
 	 * Connects to the database and loads the stored {@linkplain AppBlueprint} object
-	 * to create {@linkplain ScalableApp} objects.
+	 * to create {@linkplain ScalableApp} objects, see {@linkplain #importBlueprints(Iterator)}.
 	 * This method will not overwrite existing objects with equal IDs or remove the current {@linkplain ScalableApp} objects.
+	 * The duration is recorded in {@linkplain AutoscalerMetrics#STARTUP_IMPORT}.
 	 */
 	@PostConstruct
 	public void loadFromDatabase() {
 		log.info("Importing from database ...");
-		List<AppBlueprint> appsFromDb = appRepository.findAll();
-		
-		for (int i = 0; i < appsFromDb.size(); i++) {		
-			AppBlueprint bp = appsFromDb.get(i);
+		long start = System.nanoTime();
+		try (CloseableIterator<AppBlueprint> cursor = mongoOperations.stream(new Query(), AppBlueprint.class)) {
+			importBlueprints(cursor);
+		} finally {
+			AutoscalerMetrics.STARTUP_IMPORT.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+	
+	/**
+	 * Imports the blueprints of a database cursor in batches of {@linkplain AutoscalerPropertiesBean.Startup#getBatchSize()}.
+	 * The applications of a batch are constructed and validated in parallel, while the next batch is read, and then imported together.
+	 * Each imported batch is announced with one {@linkplain BindingSnapshot} on the binding topic.
+	 * Blueprints with an already managed binding id are skipped.
+	 * @param cursor cursor over the stored blueprints
+	 * @return number of imported applications
+	 */
+	public int importBlueprints(Iterator<AppBlueprint> cursor) {
+		long start = System.nanoTime();
+		AutoscalerPropertiesBean.Startup props = autoscalerProperties.getStartup();
+		int batchSize = Math.max(1, props.getBatchSize());
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, props.getParallelism()), runnable -> {
+			Thread thread = new Thread(runnable, "StartupImport-" + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
 		
+		int read = 0;
+		int imported = 0;
+		try {
+			List<Future<ScalableApp>> pending = Collections.emptyList();
+			while (cursor.hasNext()) {
+				List<Future<ScalableApp>> batch = new ArrayList<Future<ScalableApp>>(batchSize);
+				while (batch.size() < batchSize && cursor.hasNext()) {
+					AppBlueprint bp = cursor.next();
+					batch.add(executor.submit(() -> importBlueprint(bp)));
+				}
+				read += batch.size();
+				imported += addLoaded(pending);
+				pending = batch;
+			}
+			imported += addLoaded(pending);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			log.error("Import from database was interrupted after " + imported + " apps.");
+		} finally {
+			executor.shutdownNow();
+		}
+		log.info("Imports from database complete: imported " + imported + " of " + read + " apps in "
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+		return imported;
+	}
+	
+	/**
+	 * Constructs and validates the {@linkplain ScalableApp} of a blueprint from the database.
+	 * @param bp {@linkplain AppBlueprint} to import
+	 * @return the new application or null, if the blueprint is invalid
+	 */
+	private ScalableApp importBlueprint(AppBlueprint bp) {
+		try {
+			if (ScalableAppService.isValid(bp)) 
+				return new ScalableApp(bp, kafkaProperties, autoscalerProperties, protobufProducer);
+			log.error("Found an invalid AppBlueprint while trying to synch with the database: " + identifierOf(bp) + " : could not determine the cause.");
+		} catch (LimitException | InvalidPolicyException | TimeException
+                | InvalidWorkingSetException | InvalidBindingException ex) {
+			log.error("Found an invalid AppBlueprint while trying to synch with the database: "
+						+ identifierOf(bp) + " : " + ex.getMessage());
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the identifier of the binding of a blueprint for logs.
+	 * @param bp {@linkplain AppBlueprint} to identify
+	 * @return identifier of the binding or a hint for a blueprint without binding
+	 */
+	private static String identifierOf(AppBlueprint bp) {
+		return bp == null || bp.getBinding() == null ? "<no binding>" : bp.getBinding().getIdentifierStringForLogs();
+	}
+	
+	/**
+	 * Waits for the applications of an import batch and adds them to the indexes like {@linkplain #add(ScalableApp, boolean)}
+	 * for loaded applications, but announces them with one {@linkplain BindingSnapshot} instead of a {@linkplain BindingInformation} each.
+	 * @param batch constructed applications of the batch, completing with null for invalid blueprints
+	 * @return number of added applications
+	 * @throws InterruptedException if the thread was interrupted while waiting for the batch
+	 */
+	private int addLoaded(List<Future<ScalableApp>> batch) throws InterruptedException {
+		List<ScalableApp> apps = new ArrayList<ScalableApp>(batch.size());
+		for (Future<ScalableApp> future : batch) {
 			try {
-				if (ScalableAppService.isValid(bp)) {
-					ScalableApp app = new ScalableApp(bp, kafkaProperties, autoscalerProperties, protobufProducer);
-					if (!contains(app)) {
-						add(app,true);
-						log.info("Imported app from database: "+app.getIdentifierStringForLogs());
-					} else {
-						log.debug("Found an already existing binding with the same ID while trying to import " + bp.getBinding().getIdentifierStringForLogs());
-					}
-				} else {
-					log.error("Found an invalid AppBlueprint while trying to synch with the database: " + bp.getBinding().getIdentifierStringForLogs() + " : could not determine the cause.");
+				ScalableApp app = future.get();
+				if (app != null)
+					apps.add(app);
+			} catch (ExecutionException ex) {
+				log.error("Importing an AppBlueprint from the database failed.", ex.getCause());
+			}
+		}
+		if (apps.isEmpty())
+			return 0;
+		
+		List<ScalableApp> added = new ArrayList<ScalableApp>(apps.size());
+		synchronized (this) {
+			boolean writeBehind = autoscalerProperties.getPersistence().isWriteBehind();
+			for (ScalableApp app : apps) {
+				if (contains(app)) {
+					log.debug("Found an already existing binding with the same ID while trying to import " + app.getIdentifierStringForLogs());
+					continue;
 				}
-			} catch (LimitException | InvalidPolicyException | TimeException
-                    | InvalidWorkingSetException | InvalidBindingException ex) {
-				log.error("Found an invalid AppBlueprint while trying to synch with the database: "
-							+bp.getBinding().getIdentifierStringForLogs()+" : "+ex.getMessage());
+				index(app);
+				if (writeBehind)
+					persistenceBuffer.written(app.getCopyOfBlueprint());
+				added.add(app);
+				log.debug("Imported app from database: " + app.getIdentifierStringForLogs());
 			}
+			resourceIdIndex.putAll(added);
 		}
-		log.info("Imports from database complete.");
+		produceBindingSnapshot(added, BindingInformation.ACTION_LOAD);
+		return added.size();
 	}
 	
 	/**
-	 * Adds a {@linkplain ScalableApp} to the list and the database, if its ID is not already taken.
+	 * Puts an application into all indexes but the {@linkplain ResourceIdIndex} and registers it at the {@linkplain ScalingSchedule}.
+	 * The caller has to hold the monitor of this manager and to add the application to the {@linkplain ResourceIdIndex},
+	 * with {@linkplain ResourceIdIndex#putAll(Collection)} for many applications at once.
+	 * @param app {@linkplain ScalableApp} to index
+	 */
+	private void index(ScalableApp app) {
+		appsByBindingId.put(app.getBinding().getId(), app);
+		appsByResourceId.put(app.getBinding().getResourceId(), app);
+		bindingIndex.put(app);
+		scalingSchedule.register(app);
+	}
+	
+	/**
+	 * Adds a {@linkplain ScalableApp} to the indexes and the database, if its ID is not already taken.
+	 * A new binding forces a flush of the {@linkplain AppPersistenceBuffer} before it is saved,
+	 * which runs before entering the monitor of this manager, as it waits for the locks of the dirty applications.
+	 * The application is registered at the {@linkplain ScalingSchedule} for its first check.
 	 * @param app {@linkplain ScalableApp} to add
 	 * @param loadedFromDatabase boolean indicator to signal, whether this ScalableApp was loaded from the database.
 	 * @return true if the application was successfully added
 	 */
 	public boolean add(ScalableApp app, boolean loadedFromDatabase) {
-		if (!contains(app)) {
-			apps.add(app);
-			String action = BindingInformation.ACTION_LOAD;
-			log.debug("Added following app to ScalableAppManager: "+app.getIdentifierStringForLogs());
-			if (!loadedFromDatabase) {
-				appRepository.save(app.getCopyOfBlueprint());
-				action = BindingInformation.ACTION_BIND;
-				log.info("Bound following app: "+app.getIdentifierStringForLogs());
+		boolean writeBehind = autoscalerProperties.getPersistence().isWriteBehind();
+		if (writeBehind && !loadedFromDatabase && app != null && !contains(app))
+			persistenceBuffer.flushAndWait();
+		synchronized (this) {
+			if (app != null && !contains(app)) {
+				index(app);
+				resourceIdIndex.put(app.getBinding().getResourceId(), app);
+				String action = BindingInformation.ACTION_LOAD;
+				log.debug("Added following app to ScalableAppManager: "+app.getIdentifierStringForLogs());
+				if (!loadedFromDatabase) {
+					AppBlueprint bp = app.getCopyOfBlueprint();
+					appRepository.save(bp);
+					if (writeBehind)
+						persistenceBuffer.written(bp);
+					action = BindingInformation.ACTION_BIND;
+					log.info("Bound following app: "+app.getIdentifierStringForLogs());
+				} else if (writeBehind) {
+					persistenceBuffer.written(app.getCopyOfBlueprint());
+				}
+				produceBindingInformation(app, action);
+				return true;
 			}
-			jsonProducer.produceKafkaMessage(kafkaProperties.getBindingTopic(), new BindingInformation(app.getBinding().getResourceId(),
-					action, BindingInformation.SOURCE_AUTOSCALER));
-			return true;
+			return false;
 		}
-		return false;
 	}
 	
 	/**
-	 * Removes a {@linkplain ScalableApp} from the list and the database, if an application with the same ID is found.
+	 * Removes a {@linkplain ScalableApp} from the indexes and the database, if an application with the same ID is found.
+	 * Pending updates of the application are dropped and the updates of all other applications are flushed
+	 * after leaving the monitor of this manager, as the flush waits for the locks of the dirty applications.
+	 * The application is removed from the {@linkplain ScalingSchedule}.
 	 * @param app {@linkplain ScalableApp} to remove
 	 * @return true if the application was successfully removed
 	 */
 	public boolean remove(ScalableApp app) {
-		if (contains(app)) {
-			apps.remove(app);
+		boolean writeBehind = autoscalerProperties.getPersistence().isWriteBehind();
+		synchronized (this) {
+			if (app == null || !contains(app))
+				return false;
+			appsByBindingId.remove(app.getBinding().getId());
+			appsByResourceId.remove(app.getBinding().getResourceId(), app);
+			resourceIdIndex.remove(app.getBinding().getResourceId(), app);
+			bindingIndex.remove(app);
+			scalingSchedule.cancel(app);
+			if (writeBehind)
+				persistenceBuffer.forget(app.getBinding().getId());
 			appRepository.deleteById(app.getBinding().getId());
-			jsonProducer.produceKafkaMessage(kafkaProperties.getBindingTopic(), new BindingInformation(app.getBinding().getResourceId(),
-					BindingInformation.ACTION_UNBIND, BindingInformation.SOURCE_AUTOSCALER));
+			produceBindingInformation(app, BindingInformation.ACTION_UNBIND);
 			log.info("Removed following app from ScalableAppManager: "+app.getIdentifierStringForLogs());
-			return true;
 		}
-		return false;
+		if (writeBehind)
+			persistenceBuffer.flushAndWait();
+		return true;
+	}
+	
+	/**
+	 * Adds several new {@linkplain ScalableApp ScalableApps} like {@linkplain #add(ScalableApp, boolean)}, but saves all of them
+	 * with one call to the database and publishes their {@linkplain BindingInformation} as one batch after releasing the monitor of this manager.
+	 * Applications with an already taken binding or resource id are skipped.
+	 * The applications are only indexed and scheduled after the database accepted all of them. If saving fails,
+	 * the documents written until then are deleted again and none of the applications is added.
+	 * @param apps new applications to add
+	 * @return the added applications
+	 * @throws RuntimeException if saving the applications in the database failed
+	 */
+	public List<ScalableApp> addAll(List<ScalableApp> apps) {
+		List<ScalableApp> added = new ArrayList<ScalableApp>();
+		boolean writeBehind = autoscalerProperties.getPersistence().isWriteBehind();
+		if (writeBehind)
+			persistenceBuffer.flushAndWait();
+		synchronized (this) {
+			List<AppBlueprint> blueprints = new ArrayList<AppBlueprint>();
+			Set<String> bindingIds = new HashSet<String>();
+			Set<String> resourceIds = new HashSet<String>();
+			for (ScalableApp app : apps) {
+				if (app == null || contains(app) || containsResourceId(app.getBinding().getResourceId())
+						|| bindingIds.contains(app.getBinding().getId()) || !resourceIds.add(app.getBinding().getResourceId()))
+					continue;
+				bindingIds.add(app.getBinding().getId());
+				added.add(app);
+				blueprints.add(app.getCopyOfBlueprint());
+			}
+			if (added.isEmpty())
+				return added;
+
+			long start = System.nanoTime();
+			try {
+				appRepository.saveAll(blueprints);
+			} catch (RuntimeException ex) {
+				log.error("Could not save " + blueprints.size() + " new bindings in the database, none of them is added.", ex);
+				deletePartiallySaved(bindingIds);
+				throw ex;
+			} finally {
+				AutoscalerMetrics.DATABASE_BULK_SAVE.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+			for (ScalableApp app : added) {
+				index(app);
+			}
+			resourceIdIndex.putAll(added);
+			if (writeBehind) {
+				for (AppBlueprint bp : blueprints) {
+					persistenceBuffer.written(bp);
+				}
+			}
+		}
+		produceBindingInformation(added, BindingInformation.ACTION_BIND);
+		log.info("Bound " + added.size() + " apps at once.");
+		return added;
+	}
+	
+	/**
+	 * Deletes the documents a failed {@linkplain #addAll(List)} may have written before it failed.
+	 * The caller has to hold the monitor of this manager, so none of the ids was indexed in the meantime.
+	 * @param bindingIds binding ids of the applications, which were not added
+	 */
+	private void deletePartiallySaved(Collection<String> bindingIds) {
+		try {
+			mongoOperations.remove(Query.query(Criteria.where("_id").in(bindingIds)), AppBlueprint.class);
+		} catch (RuntimeException ex) {
+			log.error("Could not delete the documents of " + bindingIds.size() + " bindings, which failed to be saved.", ex);
+		}
+	}
+	
+	/**
+	 * Removes several {@linkplain ScalableApp ScalableApps} like {@linkplain #remove(ScalableApp)}, but deletes all of them
+	 * with one call to the database and publishes their {@linkplain BindingInformation} as one batch after releasing the monitor of this manager.
+	 * @param bindingIds binding ids of the applications to remove
+	 * @return the removed applications
+	 */
+	public List<ScalableApp> removeAll(Collection<String> bindingIds) {
+		List<ScalableApp> removed = new ArrayList<ScalableApp>();
+		boolean writeBehind = autoscalerProperties.getPersistence().isWriteBehind();
+		synchronized (this) {
+			List<String> ids = new ArrayList<String>();
+			for (String bindingId : bindingIds) {
+				ScalableApp app = get(bindingId);
+				if (app == null)
+					continue;
+				appsByBindingId.remove(bindingId);
+				appsByResourceId.remove(app.getBinding().getResourceId(), app);
+				resourceIdIndex.remove(app.getBinding().getResourceId(), app);
+				bindingIndex.remove(app);
+				scalingSchedule.cancel(app);
+				if (writeBehind)
+					persistenceBuffer.forget(bindingId);
+				removed.add(app);
+				ids.add(bindingId);
+			}
+			if (removed.isEmpty())
+				return removed;
+
+			mongoOperations.remove(Query.query(Criteria.where("_id").in(ids)), AppBlueprint.class);
+		}
+		if (writeBehind)
+			persistenceBuffer.flushAndWait();
+		produceBindingInformation(removed, BindingInformation.ACTION_UNBIND);
+		log.info("Unbound " + removed.size() + " apps at once.");
+		return removed;
+	}
+	
+	/**
+	 * Publishs a {@linkplain BindingInformation} for an application on the binding topic.
+	 * @param app application to publish the information for
+	 * @param action action of the information
+	 */
+	private void produceBindingInformation(ScalableApp app, String action) {
+		try {
+			stringProducer.produceString(kafkaProperties.getBindingTopic(), objectMapper.writeValueAsString(
+					new BindingInformation(app.getBinding().getResourceId(), action, BindingInformation.SOURCE_AUTOSCALER)));
+		} catch (JsonProcessingException ex) {
+			log.error("Could not serialize the binding information for " + app.getIdentifierStringForLogs(), ex);
+		}
+	}
+	
+	/**
+	 * Publishs one {@linkplain BindingSnapshot} with the resource ids of all given applications on the binding topic.
+	 * Flushes the producer, so it must not be called while holding the monitor of this manager.
+	 * @param apps applications to publish the snapshot for
+	 * @param action action of the snapshot
+	 */
+	private void produceBindingSnapshot(List<ScalableApp> apps, String action) {
+		if (apps.isEmpty())
+			return;
+		List<String> resourceIds = new ArrayList<String>(apps.size());
+		for (ScalableApp app : apps) {
+			resourceIds.add(app.getBinding().getResourceId());
+		}
+		try {
+			stringProducer.produceBatch(kafkaProperties.getBindingTopic(), Collections.singletonList(objectMapper.writeValueAsString(
+					new BindingSnapshot(resourceIds, action, BindingInformation.SOURCE_AUTOSCALER))));
+		} catch (JsonProcessingException ex) {
+			log.error("Could not serialize the binding snapshot of " + apps.size() + " apps.", ex);
+		}
+	}
+	
+	/**
+	 * Publishs a {@linkplain BindingInformation} for each of the given applications on the binding topic as one batch.
+	 * Flushes the producer, so it must not be called while holding the monitor of this manager.
+	 * @param apps applications to publish the information for
+	 * @param action action of the information
+	 */
+	private void produceBindingInformation(List<ScalableApp> apps, String action) {
+		List<String> messages = new ArrayList<String>(apps.size());
+		for (ScalableApp app : apps) {
+			try {
+				messages.add(objectMapper.writeValueAsString(new BindingInformation(app.getBinding().getResourceId(),
+						action, BindingInformation.SOURCE_AUTOSCALER)));
+			} catch (JsonProcessingException ex) {
+				log.error("Could not serialize the binding information for " + app.getIdentifierStringForLogs(), ex);
+			}
+		}
+		stringProducer.produceBatch(kafkaProperties.getBindingTopic(), messages);
 	}
 	
 	/**
@@ -171,38 +554,34 @@ public class ScalableAppManager {
 	/**
 	 * See {@linkplain #contains(ScalableApp)}
 	 * @param bindingId ID of the binding to look for
-	 * @return true if the list contains an application with a binding id equal to the given one 
+	 * @return true if an application with a binding id equal to the given one is managed
 	 */
 	public boolean contains(String bindingId) {
-		for (int i = 0; i < apps.size(); i++) {
-			if (apps.get(i).getBinding().getId().equals(bindingId)) {
-				return true;
-			}
-		}
-		return false;
+		if (bindingId == null)
+			return false;
+		return appsByBindingId.containsKey(bindingId);
 	}
 	
 	/**
 	 * See {@linkplain #contains(ScalableApp)}
 	 * @param resourceId ID of the resource to look for
-	 * @return true if the list contains an application with a resource id equal to the given one 
+	 * @return true if an application with a resource id equal to the given one is managed
 	 */
 	public boolean containsResourceId(String resourceId) {
-		for (int i = 0; i < apps.size(); i++) {
-			if (apps.get(i).getBinding().getResourceId().equals(resourceId)) {
-				return true;
-			}
-		}
-		return false;
+		if (resourceId == null)
+			return false;
+		return appsByResourceId.containsKey(resourceId);
 	}
 	
 	/**
-	 * Looks for an equal {@linkplain ScalableApp} in the list.
+	 * Looks for a managed {@linkplain ScalableApp} with the same binding id.
 	 * @param app {@linkplain ScalableApp} to look for.
-	 * @return true if the list contains an application equal to the given one
+	 * @return true if an application with the binding id of the given one is managed
 	 */
 	public boolean contains(ScalableApp app) {
-		return apps.contains(app);
+		if (app == null)
+			return false;
+		return contains(app.getBinding().getId());
 	}
 	
 	/**
@@ -211,21 +590,34 @@ public class ScalableAppManager {
 	 * @return {@linkplain ScalableApp} that matches the search criteria
 	 */
 	public ScalableApp get(String bindingId) {
-		for (int i = 0 ; i < apps.size(); i++) {
-			if (apps.get(i).getBinding().getId().equals(bindingId)) {
-				return apps.get(i);
-			}
-		}
-		return null;
+		if (bindingId == null)
+			return null;
+		return appsByBindingId.get(bindingId);
 	}
 	
+	/**
+	 * Returns a {@linkplain ScalableApp} if one with the given resource id was found.
+	 * @param resourceId ID of the resource to look for
+	 * @return {@linkplain ScalableApp} that matches the search criteria or null
+	 */
 	public ScalableApp getByResourceId(String resourceId) {
-		for (int i = 0 ; i < apps.size(); i++) {
-			if (apps.get(i).getBinding().getResourceId().equals(resourceId)) {
-				return apps.get(i);
-			}
-		}
-		return null;
+		if (resourceId == null)
+			return null;
+		return appsByResourceId.get(resourceId);
+	}
+	
+	/**
+	 * Returns a {@linkplain ScalableApp} if one with the resource id stored as UTF-8 in the given range of a buffer was found.
+	 * Does not allocate, so the metric consumers can resolve applications straight from the record buffer.
+	 * @param buffer buffer holding the resource id
+	 * @param offset index of the first byte of the resource id
+	 * @param length number of bytes of the resource id
+	 * @return {@linkplain ScalableApp} that matches the search criteria or null
+	 */
+	public ScalableApp getByResourceId(byte[] buffer, int offset, int length) {
+		if (buffer == null)
+			return null;
+		return resourceIdIndex.get(buffer, offset, length);
 	}
 	
 	/**
@@ -242,7 +634,28 @@ public class ScalableAppManager {
 	 * @return count of managed applications.
 	 */
 	public int size() {
-		return apps.size();
+		return appsByBindingId.size();
+	}
+	
+	/**
+	 * Returns a read-only view of the managed applications without copying them.
+	 * The view is weakly consistent: it reflects bindings and unbindings happening while iterating over it, 
+	 * but never throws a {@linkplain java.util.ConcurrentModificationException}.
+	 * @return read-only view of the managed applications
+	 */
+	public Collection<ScalableApp> getApps() {
+		return Collections.unmodifiableCollection(appsByBindingId.values());
+	}
+	
+	/**
+	 * Returns the managed applications sorted by binding id, starting right after the given cursor, without copying them.
+	 * See {@linkplain BindingIndex#after(String, String)}.
+	 * @param serviceId id of the service instance to restrict the applications to, null for all applications
+	 * @param cursor binding id to start after, null to start with the first application
+	 * @return read-only, weakly consistent view of the applications
+	 */
+	public NavigableMap<String, ScalableApp> getAppsAfter(String serviceId, String cursor) {
+		return bindingIndex.after(serviceId, cursor);
 	}
 	
 	/**
@@ -250,7 +663,7 @@ public class ScalableAppManager {
 	 * @return flat copy of the managed applications as a {@linkplain List}
 	 */
 	public List<ScalableApp> getFlatCopyOfApps() {
-		return new LinkedList<ScalableApp>(apps);
+		return new LinkedList<ScalableApp>(appsByBindingId.values());
 	}
 	
 	/**
@@ -258,10 +671,8 @@ public class ScalableAppManager {
 	 * @return {@linkplain List} with the identifier Strings of all managed applications.
 	 */
 	public List<String> getListOfIdentifierStrings() {
-		ScalableApp current;
 		List<String> list = new LinkedList<String>();
-		for (int i = 0; i < apps.size(); i++) {
-			current = apps.get(i);
+		for (ScalableApp current : appsByBindingId.values()) {
 			try {
 				current.acquire();
 				list.add(current.getIdentifierStringForLogs());
@@ -272,20 +683,15 @@ public class ScalableAppManager {
 	}
 	
 	/**
-	 * Creates and returns a {@linkplain List} with the basic information Strings of all managed applications.
-	 * @return {@linkplain List} with the basic information Strings of all managed applications.
+	 * Creates and returns a {@linkplain List} with the bindings of all managed applications.
+	 * The bindings are taken from the last published {@linkplain AppSnapshot} of every application, so no lock is acquired.
+	 * @return {@linkplain List} with the bindings of all managed applications.
 	 */
 	public List<Binding> getListOfBindings() {
-		ScalableApp current;
-		List<Binding> list = new LinkedList<Binding>();
+		List<Binding> list = new ArrayList<Binding>(appsByBindingId.size());
 		
-		for (int i = 0; i < apps.size(); i++) {
-			current = apps.get(i);
-			try {
-				current.acquire();
-				list.add(current.getBinding());
-			} catch (InterruptedException ex) {}
-			current.release();
+		for (ScalableApp current : appsByBindingId.values()) {
+			list.add(current.getSnapshot().getBinding());
 		}
 		
 		return list;
@@ -293,9 +699,22 @@ public class ScalableAppManager {
 
 	/**
 	 * Updates the {@linkplain AppBlueprint} of a {@linkplain ScalableApp} in the database.
+	 * With write-behind persistence the application is only marked as dirty in the {@linkplain AppPersistenceBuffer}
+	 * and written with its next flush. Otherwise the duration of the save is recorded in {@linkplain AutoscalerMetrics#DATABASE_SAVE}.
 	 * @param app {@linkplain ScalableApp} to update.
 	 */
 	public void updateInDatabase(ScalableApp app) {
-		appRepository.save(app.getCopyOfBlueprint());
+		if (autoscalerProperties.getPersistence().isWriteBehind()) {
+			if (contains(app))
+				persistenceBuffer.markDirty(app);
+		} else {
+			AppBlueprint bp = app.getCopyOfBlueprint();
+			long start = System.nanoTime();
+			try {
+				appRepository.save(bp);
+			} finally {
+				AutoscalerMetrics.DATABASE_SAVE.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+		}
 	}
 }
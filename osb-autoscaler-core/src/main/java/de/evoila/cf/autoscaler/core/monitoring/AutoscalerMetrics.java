@@ -0,0 +1,214 @@
+package de.evoila.cf.autoscaler.core.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Meters for the hot paths of the Autoscaler itself.
+ * The meters are registered at the global Micrometer registry, which Spring Boot connects to the registries exposed
+ * via the Actuator, e.g. the Prometheus endpoint. Without a connected registry, like in unit tests, recording does nothing.
+ * Static, so classes created outside of Spring, like {@linkplain de.evoila.cf.autoscaler.core.applications.ScalableApp}, can record as well.
+ * @author Marius Berger
+ *
+ */
+public class AutoscalerMetrics {
+
+	/**
+	 * Tag value for applications, if the per application tags are disabled.
+	 */
+	public static final String ALL_APPS = "all";
+	/**
+	 * Tag value for a request or a send, which failed without a status code.
+	 */
+	public static final String ERROR = "error";
+	/**
+	 * Tag value for a successful send.
+	 */
+	public static final String SUCCESS = "success";
+
+	/**
+	 * Name of the timer of the scaling checks.
+	 */
+	public static final String SCALING_CHECK = "autoscaler.scaling.check";
+
+	/**
+	 * Registry the meters are registered at.
+	 */
+	private static final MeterRegistry registry = Metrics.globalRegistry;
+
+	/**
+	 * Time waited for the lock of an application.
+	 */
+	public static final Timer LOCK_WAIT = Timer.builder("autoscaler.app.lock.wait")
+			.description("Time waited for the lock of an application")
+			.register(registry);
+
+	/**
+	 * Duration of the aggregation of the instance metrics of an application.
+	 */
+	public static final Timer AGGREGATION = Timer.builder("autoscaler.aggregation")
+			.description("Duration of the aggregation of the instance metrics of an application")
+			.register(registry);
+
+	/**
+	 * Duration of saving a single application in the database.
+	 */
+	public static final Timer DATABASE_SAVE = Timer.builder("autoscaler.database.save")
+			.description("Duration of writing application state to the database")
+			.tag("mode", "single")
+			.register(registry);
+
+	/**
+	 * Duration of writing the dirty applications of a flush in one bulk operation.
+	 */
+	public static final Timer DATABASE_BULK_SAVE = Timer.builder("autoscaler.database.save")
+			.description("Duration of writing application state to the database")
+			.tag("mode", "bulk")
+			.register(registry);
+
+	/**
+	 * Duration of importing all applications from the database at startup.
+	 */
+	public static final Timer STARTUP_IMPORT = Timer.builder("autoscaler.startup.import")
+			.description("Duration of importing the applications from the database at startup")
+			.register(registry);
+
+	/**
+	 * Wall time of a tick of the scaling loop, from its start until every application was checked.
+	 */
+	public static final Timer SCALING_TICK = Timer.builder("autoscaler.scaling.tick")
+			.description("Wall time of a tick of the scaling loop")
+			.register(registry);
+
+	/**
+	 * Time the slowest shard of a tick finished after the tick was triggered.
+	 */
+	public static final Timer SCALING_SHARD_LAG = Timer.builder("autoscaler.scaling.shard.lag")
+			.description("Time the slowest shard of a tick of the scaling loop finished after the tick was triggered")
+			.register(registry);
+
+	/**
+	 * Reaction times of event triggered scaling checks, from the first metric above an upper limit to the check.
+	 */
+	public static final Timer EVENT_REACTION = reactionTimer("event");
+
+	/**
+	 * Reaction times of periodic scaling checks, from the first metric above an upper limit to the check.
+	 */
+	public static final Timer PERIODIC_REACTION = reactionTimer("periodic");
+
+	/**
+	 * Boolean value, whether scaling checks are tagged with the resource id of their application.
+	 */
+	private static volatile boolean perApplication;
+
+	/**
+	 * Private constructor as there is no need for an object of this class.
+	 */
+	private AutoscalerMetrics() { }
+
+	/**
+	 * Sets whether scaling checks are tagged with the resource id of their application.
+	 * Disable it for large fleets to limit the number of time series.
+	 * @param enabled true to tag every application on its own
+	 */
+	public static void setPerApplication(boolean enabled) {
+		perApplication = enabled;
+	}
+
+	/**
+	 * Registers a gauge reading its value from the given object whenever the registry is scraped.
+	 * @param <T> type of the object
+	 * @param name name of the gauge
+	 * @param description description of the gauge
+	 * @param object object to read the value from, referenced weakly by the registry
+	 * @param value function reading the value
+	 */
+	public static <T> void registerGauge(String name, String description, T object, ToDoubleFunction<T> value) {
+		Gauge.builder(name, object, value).description(description).register(registry);
+	}
+
+	/**
+	 * Registers a counter reading its monotonically increasing value from the given object whenever the registry is scraped.
+	 * @param <T> type of the object
+	 * @param name name of the counter
+	 * @param description description of the counter
+	 * @param object object to read the value from, referenced weakly by the registry
+	 * @param value function reading the value
+	 * @param tags tags of the counter as key value pairs
+	 */
+	public static <T> void registerCounter(String name, String description, T object, ToDoubleFunction<T> value, String... tags) {
+		FunctionCounter.builder(name, object, value).description(description).tags(tags).register(registry);
+	}
+
+	/**
+	 * Records the duration of the scaling check of an application.
+	 * @param resourceId resource id of the application
+	 * @param nanos duration in nanoseconds
+	 */
+	public static void recordScalingCheck(String resourceId, long nanos) {
+		registry.timer(SCALING_CHECK, "app", perApplication && resourceId != null ? resourceId : ALL_APPS)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Records a request to the scaling engine.
+	 * @param operation kind of the request, e.g. {@code scale}
+	 * @param status HTTP status code of the response or -1, if there was none
+	 * @param nanos duration in nanoseconds
+	 */
+	public static void recordEngineRequest(String operation, int status, long nanos) {
+		registry.timer("autoscaler.engine.request", "operation", operation, "status", status < 0 ? ERROR : String.valueOf(status))
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Records the time from sending a record to Kafka until it was acknowledged or failed.
+	 * @param topic topic of the record
+	 * @param failed whether the send failed
+	 * @param nanos duration in nanoseconds
+	 */
+	public static void recordKafkaSend(String topic, boolean failed, long nanos) {
+		registry.timer("autoscaler.kafka.send", "topic", topic == null ? "" : topic, "outcome", failed ? ERROR : SUCCESS)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Counts a failed send to Kafka.
+	 * @param topic topic of the record
+	 * @param exception exception the send failed with
+	 */
+	public static void recordKafkaSendFailure(String topic, Exception exception) {
+		registry.counter("autoscaler.kafka.send.failures", "topic", topic == null ? "" : topic,
+				"exception", exception == null ? ERROR : exception.getClass().getSimpleName())
+				.increment();
+	}
+
+	/**
+	 * Records the reaction time of a scaling check, from the first metric above an upper limit to the check.
+	 * @param eventTriggered whether the check was triggered by an event or by the periodic checks
+	 * @param millis reaction time in milliseconds
+	 */
+	public static void recordReactionTime(boolean eventTriggered, long millis) {
+		(eventTriggered ? EVENT_REACTION : PERIODIC_REACTION).record(millis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Builds the reaction time timer for a trigger type, publishing the median, the 90th and the 99th percentile.
+	 * @param trigger trigger type of the checks, {@code event} or {@code periodic}
+	 * @return registered timer
+	 */
+	private static Timer reactionTimer(String trigger) {
+		return Timer.builder("autoscaler.scaling.reaction")
+				.description("Time from the first metric above an upper limit to the scaling check of the application")
+				.tag("trigger", trigger)
+				.publishPercentiles(0.5, 0.9, 0.99)
+				.register(registry);
+	}
+}
@@ -33,6 +33,472 @@ public class AutoscalerPropertiesBean {
 	 */
 	private int staticScalingSize;
 	
+	/**
+	 * Number of shards the applications are partitioned into for parallel scaling checks. Values below 2 disable the sharded mode.
+	 */
+	private int scalingShards;
+	
+	/**
+	 * Boolean value, whether the duration of the scaling checks is recorded for every application on its own instead of for all applications together.
+	 */
+	private boolean perApplicationMetrics = false;
+	
+	/**
+	 * Boolean value, whether the application metrics are aggregated per instance, weighting every instance the same, instead of over all samples.
+	 */
+	private boolean perInstanceAggregation = false;
+	
+	/**
+	 * Settings for writing the state of the applications to the database.
+	 */
+	private Persistence persistence = new Persistence();
+	
+	public static class Persistence {
+		
+		/**
+		 * Boolean value, whether updates are collected and written in bulk instead of saving them right away.
+		 */
+		private boolean writeBehind = true;
+		
+		/**
+		 * Time in milliseconds between two flushes of the collected updates.
+		 */
+		private long flushInterval = 5000;
+		
+		/**
+		 * Number of collected updates, which triggers a flush before the interval elapsed.
+		 */
+		private int flushThreshold = 500;
+		
+		public boolean isWriteBehind() {
+			return writeBehind;
+		}
+		
+		public void setWriteBehind(boolean writeBehind) {
+			this.writeBehind = writeBehind;
+		}
+		
+		public long getFlushInterval() {
+			return flushInterval;
+		}
+		
+		public void setFlushInterval(long flushInterval) {
+			this.flushInterval = flushInterval;
+		}
+		
+		public int getFlushThreshold() {
+			return flushThreshold;
+		}
+		
+		public void setFlushThreshold(int flushThreshold) {
+			this.flushThreshold = flushThreshold;
+		}
+	}
+	
+	/**
+	 * Settings for checking applications right after their metrics crossed an upper limit.
+	 */
+	private EventTrigger eventTrigger = new EventTrigger();
+	
+	public static class EventTrigger {
+		
+		/**
+		 * Boolean value, whether applications are checked right after an incoming metric crossed an upper limit.
+		 * The periodic checks keep running as a fallback.
+		 */
+		private boolean enabled = false;
+		
+		/**
+		 * Minimum time in milliseconds between two event triggered checks of the same application.
+		 */
+		private long debounce = 10000;
+		
+		public boolean isEnabled() {
+			return enabled;
+		}
+		
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+		
+		public long getDebounce() {
+			return debounce;
+		}
+		
+		public void setDebounce(long debounce) {
+			this.debounce = debounce;
+		}
+	}
+	
+	/**
+	 * Settings for scheduling the scaling checks of the applications.
+	 */
+	private Scheduling scheduling = new Scheduling();
+	
+	public static class Scheduling {
+		
+		/**
+		 * Boolean value, whether every application is checked at its own check time on a timing wheel. All applications still aggregate their metrics once per base interval.
+		 */
+		private boolean timingWheel = false;
+		
+		/**
+		 * Time in milliseconds the scaling interval multiplier of an application is multiplied with in the timing wheel mode, also the interval all applications aggregate their metrics in.
+		 */
+		private long baseInterval = 30000;
+		
+		/**
+		 * Resolution of the timing wheel in milliseconds.
+		 */
+		private long tickDuration = 1000;
+		
+		public boolean isTimingWheel() {
+			return timingWheel;
+		}
+		
+		public void setTimingWheel(boolean timingWheel) {
+			this.timingWheel = timingWheel;
+		}
+		
+		public long getBaseInterval() {
+			return baseInterval;
+		}
+		
+		public void setBaseInterval(long baseInterval) {
+			this.baseInterval = baseInterval;
+		}
+		
+		public long getTickDuration() {
+			return tickDuration;
+		}
+		
+		public void setTickDuration(long tickDuration) {
+			this.tickDuration = tickDuration;
+		}
+	}
+	
+	/**
+	 * Settings for the Kafka consumers of the container and HTTP metrics.
+	 */
+	private Consumer consumer = new Consumer();
+	
+	public static class Consumer {
+		
+		/**
+		 * Boolean value, whether the metric consumers handle every poll at once and publish the metrics of an application in one go.
+		 */
+		private boolean batch = false;
+		
+		/**
+		 * Maximum number of records returned by one poll in the batch mode.
+		 */
+		private int maxPollRecords = 500;
+		
+		/**
+		 * Maximum time in milliseconds a poll waits for records in the batch mode.
+		 */
+		private long pollTimeout = 100;
+		
+		/**
+		 * Boolean value, whether the metric consumers own the applications of their partitions in the batch mode.
+		 * Requires the metric topics to be keyed by the resource id.
+		 */
+		private boolean partitionAffinity = false;
+		
+		public boolean isBatch() {
+			return batch;
+		}
+		
+		public void setBatch(boolean batch) {
+			this.batch = batch;
+		}
+		
+		public int getMaxPollRecords() {
+			return maxPollRecords;
+		}
+		
+		public void setMaxPollRecords(int maxPollRecords) {
+			this.maxPollRecords = maxPollRecords;
+		}
+		
+		public long getPollTimeout() {
+			return pollTimeout;
+		}
+		
+		public void setPollTimeout(long pollTimeout) {
+			this.pollTimeout = pollTimeout;
+		}
+		
+		public boolean isPartitionAffinity() {
+			return partitionAffinity;
+		}
+		
+		public void setPartitionAffinity(boolean partitionAffinity) {
+			this.partitionAffinity = partitionAffinity;
+		}
+	}
+	
+	/**
+	 * Settings for the windows of the incoming container and HTTP metrics.
+	 */
+	private Window window = new Window();
+	
+	public static class Window {
+		
+		/**
+		 * Boolean value, whether the incoming metrics are kept in time buckets over a fixed horizon instead of count bounded windows.
+		 */
+		private boolean timeBucketed = false;
+		
+		/**
+		 * Width of a time bucket in milliseconds.
+		 */
+		private long bucketWidth = 1000;
+		
+		/**
+		 * Time span in milliseconds the time buckets cover, 0 to use the maximum metric age.
+		 */
+		private long horizon = 0;
+		
+		public boolean isTimeBucketed() {
+			return timeBucketed;
+		}
+		
+		public void setTimeBucketed(boolean timeBucketed) {
+			this.timeBucketed = timeBucketed;
+		}
+		
+		public long getBucketWidth() {
+			return bucketWidth;
+		}
+		
+		public void setBucketWidth(long bucketWidth) {
+			this.bucketWidth = bucketWidth;
+		}
+		
+		public long getHorizon() {
+			return horizon;
+		}
+		
+		public void setHorizon(long horizon) {
+			this.horizon = horizon;
+		}
+	}
+	
+	/**
+	 * Settings for the Kafka producers of the Autoscaler.
+	 */
+	private Producer producer = new Producer();
+	
+	public static class Producer {
+		
+		/**
+		 * Maximum size in bytes of a batch of records for one partition.
+		 */
+		private int batchSize = 65536;
+		
+		/**
+		 * Time in milliseconds a producer waits for further records before sending a batch, which is not full yet.
+		 */
+		private int lingerMs = 5;
+		
+		/**
+		 * Compression of the batches, one of none, gzip, snappy, lz4 or zstd.
+		 */
+		private String compression = "lz4";
+		
+		/**
+		 * Boolean value, whether the producers are idempotent, so retries do not write records twice.
+		 */
+		private boolean idempotence = true;
+		
+		/**
+		 * Boolean value, whether the application metrics of a scaling tick are packed into one envelope record instead of a record per application.
+		 */
+		private boolean applicationMetricEnvelope = false;
+		
+		/**
+		 * Maximum size in bytes of an envelope, larger envelopes are split.
+		 */
+		private int envelopeMaxBytes = 512 * 1024;
+		
+		public int getBatchSize() {
+			return batchSize;
+		}
+		
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+		
+		public int getLingerMs() {
+			return lingerMs;
+		}
+		
+		public void setLingerMs(int lingerMs) {
+			this.lingerMs = lingerMs;
+		}
+		
+		public String getCompression() {
+			return compression;
+		}
+		
+		public void setCompression(String compression) {
+			this.compression = compression;
+		}
+		
+		public boolean isIdempotence() {
+			return idempotence;
+		}
+		
+		public void setIdempotence(boolean idempotence) {
+			this.idempotence = idempotence;
+		}
+		
+		public boolean isApplicationMetricEnvelope() {
+			return applicationMetricEnvelope;
+		}
+		
+		public void setApplicationMetricEnvelope(boolean applicationMetricEnvelope) {
+			this.applicationMetricEnvelope = applicationMetricEnvelope;
+		}
+		
+		public int getEnvelopeMaxBytes() {
+			return envelopeMaxBytes;
+		}
+		
+		public void setEnvelopeMaxBytes(int envelopeMaxBytes) {
+			this.envelopeMaxBytes = envelopeMaxBytes;
+		}
+	}
+	
+	/**
+	 * Settings for the memory budget of the metric windows.
+	 */
+	private Memory memory = new Memory();
+	
+	public static class Memory {
+		
+		/**
+		 * Estimated bytes all applications may hold in their metric windows and buffers together, 0 for no budget.
+		 */
+		private long budget = 0;
+		
+		/**
+		 * Estimated bytes a single application may hold in its metric windows and buffers, 0 for no budget.
+		 */
+		private long appBudget = 0;
+		
+		/**
+		 * Number of metrics a window is never shrunk below.
+		 */
+		private int minWindowSize = 16;
+		
+		public long getBudget() {
+			return budget;
+		}
+		
+		public void setBudget(long budget) {
+			this.budget = budget;
+		}
+		
+		public long getAppBudget() {
+			return appBudget;
+		}
+		
+		public void setAppBudget(long appBudget) {
+			this.appBudget = appBudget;
+		}
+		
+		public int getMinWindowSize() {
+			return minWindowSize;
+		}
+		
+		public void setMinWindowSize(int minWindowSize) {
+			this.minWindowSize = minWindowSize;
+		}
+	}
+	
+	/**
+	 * Settings for the bulk endpoints.
+	 */
+	private Bulk bulk = new Bulk();
+	
+	public static class Bulk {
+		
+		/**
+		 * Number of threads applying the changes of a bulk request in parallel.
+		 */
+		private int parallelism = 4;
+		
+		/**
+		 * Maximum number of applications a bulk request may change.
+		 */
+		private int maxApps = 5000;
+		
+		/**
+		 * Maximum number of name requests to the scaling engine running at once for a bulk binding.
+		 */
+		private int nameLookupConcurrency = 8;
+		
+		public int getParallelism() {
+			return parallelism;
+		}
+		
+		public void setParallelism(int parallelism) {
+			this.parallelism = parallelism;
+		}
+		
+		public int getMaxApps() {
+			return maxApps;
+		}
+		
+		public void setMaxApps(int maxApps) {
+			this.maxApps = maxApps;
+		}
+		
+		public int getNameLookupConcurrency() {
+			return nameLookupConcurrency;
+		}
+		
+		public void setNameLookupConcurrency(int nameLookupConcurrency) {
+			this.nameLookupConcurrency = nameLookupConcurrency;
+		}
+	}
+	
+	/**
+	 * Settings for importing the applications from the database at startup.
+	 */
+	private Startup startup = new Startup();
+	
+	public static class Startup {
+		
+		/**
+		 * Number of blueprints read from the database cursor before they are validated and imported together.
+		 */
+		private int batchSize = 500;
+		
+		/**
+		 * Number of threads constructing and validating the applications of a batch in parallel.
+		 */
+		private int parallelism = 4;
+		
+		public int getBatchSize() {
+			return batchSize;
+		}
+		
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+		
+		public int getParallelism() {
+			return parallelism;
+		}
+		
+		public void setParallelism(int parallelism) {
+			this.parallelism = parallelism;
+		}
+	}
+	
 	/**
 	 * Constructor for Spring to inject the bean.
 	 */
@@ -73,4 +539,100 @@ public class AutoscalerPropertiesBean {
 			this.staticScalingSize = 1;
 		}
 	}
+
+	public int getScalingShards() {
+		return scalingShards;
+	}
+
+	public void setScalingShards(int scalingShards) {
+		this.scalingShards = scalingShards;
+	}
+
+	public boolean isPerApplicationMetrics() {
+		return perApplicationMetrics;
+	}
+
+	public void setPerApplicationMetrics(boolean perApplicationMetrics) {
+		this.perApplicationMetrics = perApplicationMetrics;
+	}
+
+	public boolean isPerInstanceAggregation() {
+		return perInstanceAggregation;
+	}
+
+	public void setPerInstanceAggregation(boolean perInstanceAggregation) {
+		this.perInstanceAggregation = perInstanceAggregation;
+	}
+
+	public Persistence getPersistence() {
+		return persistence;
+	}
+
+	public void setPersistence(Persistence persistence) {
+		this.persistence = persistence;
+	}
+
+	public EventTrigger getEventTrigger() {
+		return eventTrigger;
+	}
+
+	public void setEventTrigger(EventTrigger eventTrigger) {
+		this.eventTrigger = eventTrigger;
+	}
+
+	public Scheduling getScheduling() {
+		return scheduling;
+	}
+
+	public void setScheduling(Scheduling scheduling) {
+		this.scheduling = scheduling;
+	}
+
+	public Consumer getConsumer() {
+		return consumer;
+	}
+
+	public void setConsumer(Consumer consumer) {
+		this.consumer = consumer;
+	}
+
+	public Producer getProducer() {
+		return producer;
+	}
+
+	public void setProducer(Producer producer) {
+		this.producer = producer;
+	}
+
+	public Window getWindow() {
+		return window;
+	}
+
+	public void setWindow(Window window) {
+		this.window = window;
+	}
+
+	public Memory getMemory() {
+		return memory;
+	}
+
+	public void setMemory(Memory memory) {
+		this.memory = memory;
+	}
+
+	public Bulk getBulk() {
+		return bulk;
+	}
+
+	public void setBulk(Bulk bulk) {
+		this.bulk = bulk;
+	}
+
+	public Startup getStartup() {
+		return startup;
+	}
+
+	public void setStartup(Startup startup) {
+		this.startup = startup;
+	}
 }
@@ -31,11 +31,21 @@ public class ScalingEnginePropertiesBean {
 
 	private Endpoint endpoint;
 
+	/**
+	 * Settings of the HTTP client talking to the Scaling Engine.
+	 */
+	private Client client = new Client();
+
 	public static class Endpoint {
 		private String scaling;
 
 		private String name;
 
+		/**
+		 * Endpoint for scaling requests carrying the scaling orders of several applications.
+		 */
+		private String batchScaling;
+
 		public String getScaling() {
 			return scaling;
 		}
@@ -51,9 +61,139 @@ public class ScalingEnginePropertiesBean {
 		public void setName(String name) {
 			this.name = name;
 		}
+
+		public String getBatchScaling() {
+			return batchScaling;
+		}
+
+		public void setBatchScaling(String batchScaling) {
+			this.batchScaling = batchScaling;
+		}
 	}
 
 
+	public static class Client {
+
+		/**
+		 * Boolean value, whether scaling requests are sent asynchronously without blocking the scaling loop.
+		 */
+		private boolean async = false;
+
+		/**
+		 * Maximum number of pooled connections and concurrent requests in total.
+		 */
+		private int maxConnections = 50;
+
+		/**
+		 * Maximum number of pooled connections and concurrent requests per Scaling Engine host.
+		 */
+		private int maxConnectionsPerHost = 10;
+
+		/**
+		 * Timeout in milliseconds for establishing a connection.
+		 */
+		private int connectTimeout = 2000;
+
+		/**
+		 * Timeout in milliseconds for waiting on data of an established connection.
+		 */
+		private int readTimeout = 10000;
+
+		/**
+		 * Timeout in milliseconds for waiting on a free connection of the pool.
+		 */
+		private int connectionRequestTimeout = 5000;
+
+		/**
+		 * Time in milliseconds an idle connection is kept alive for reuse.
+		 */
+		private long keepAlive = 30000;
+
+		/**
+		 * Maximum number of requests waiting for a worker in the asynchronous client mode.
+		 * Further requests are sent by the calling thread instead.
+		 */
+		private int asyncQueueCapacity = 500;
+
+		/**
+		 * Maximum number of scaling orders sent in one batch scaling request.
+		 * Values below 2 disable the batch scaling mode.
+		 */
+		private int batchSize = 0;
+
+		public boolean isAsync() {
+			return async;
+		}
+
+		public void setAsync(boolean async) {
+			this.async = async;
+		}
+
+		public int getMaxConnections() {
+			return maxConnections;
+		}
+
+		public void setMaxConnections(int maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public int getMaxConnectionsPerHost() {
+			return maxConnectionsPerHost;
+		}
+
+		public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+			this.maxConnectionsPerHost = maxConnectionsPerHost;
+		}
+
+		public int getConnectTimeout() {
+			return connectTimeout;
+		}
+
+		public void setConnectTimeout(int connectTimeout) {
+			this.connectTimeout = connectTimeout;
+		}
+
+		public int getReadTimeout() {
+			return readTimeout;
+		}
+
+		public void setReadTimeout(int readTimeout) {
+			this.readTimeout = readTimeout;
+		}
+
+		public int getConnectionRequestTimeout() {
+			return connectionRequestTimeout;
+		}
+
+		public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+			this.connectionRequestTimeout = connectionRequestTimeout;
+		}
+
+		public long getKeepAlive() {
+			return keepAlive;
+		}
+
+		public void setKeepAlive(long keepAlive) {
+			this.keepAlive = keepAlive;
+		}
+
+		public int getAsyncQueueCapacity() {
+			return asyncQueueCapacity;
+		}
+
+		public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+			this.asyncQueueCapacity = asyncQueueCapacity;
+		}
+
+		public int getBatchSize() {
+			return batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+	}
+
 	/**
 	 * Constructor for Spring to inject the bean.
 	 */
@@ -90,4 +230,12 @@ public class ScalingEnginePropertiesBean {
 	public void setEndpoint(Endpoint endpoint) {
 		this.endpoint = endpoint;
 	}
+
+	public Client getClient() {
+		return client;
+	}
+
+	public void setClient(Client client) {
+		this.client = client;
+	}
 }
@@ -4,7 +4,9 @@ import de.evoila.cf.autoscaler.core.applications.ScalableApp;
 import de.evoila.cf.autoscaler.core.applications.ScalableAppService;
 import de.evoila.cf.autoscaler.core.http.HTTPWrapper;
 import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
+import de.evoila.cf.autoscaler.core.manager.MetricMemoryBudget;
 import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
 import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,9 +14,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
-import java.util.LinkedList;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Core class with the check scaling loop.
@@ -59,10 +74,33 @@ public class Scaler {
 	private AutoscalerPropertiesBean autoscalerProps;
 	
 	/**
-	 * Mutex to get the scaling checks triggered based on time by a {@linkplain TimerThread}
+	 * Schedules applications for a check right after their metrics crossed an upper limit.
+	 */
+	@Autowired
+	private ScalingEventTrigger eventTrigger;
+	
+	/**
+	 * Wakes the applications at their own check times in the timing wheel mode.
+	 */
+	@Autowired
+	private ScalingSchedule schedule;
+	
+	/**
+	 * Accounts the metric memory of the applications after every tick.
+	 */
+	@Autowired
+	private MetricMemoryBudget memoryBudget;
+	
+	/**
+	 * Mutex to get the scaling checks triggered based on time by a {@linkplain TimerThread} or by the {@linkplain #eventTrigger}.
 	 */
 	private Semaphore checkScalingMutex;
 	
+	/**
+	 * Boolean value, whether the {@linkplain #timer} triggered a tick, which has not started yet.
+	 */
+	private final AtomicBoolean tickPending;
+	
 	/**
 	 * Triggers the scaling checks of the scaler.
 	 */
@@ -73,11 +111,62 @@ public class Scaler {
 	 */
 	private de.evoila.cf.autoscaler.core.scaling.ScalingThread scalingThread;
 	
+	/**
+	 * Worker pool running the shards of a tick in the sharded mode, null in the serial mode.
+	 */
+	private ExecutorService shardExecutor;
+	
+	/**
+	 * Number of shards the applications are partitioned into, 1 for the serial mode.
+	 */
+	private int shardCount;
+	
+	/**
+	 * Epoch time stamp of the last time the {@linkplain #timer} triggered a tick.
+	 */
+	private volatile long lastTriggerTime;
+	
+	/**
+	 * Timing information about the ticks of the {@linkplain #checkScalingLoop()}.
+	 */
+	private final ScalingTickStatistics tickStatistics;
+	
+	/**
+	 * Actions prepared during the current tick in the batch scaling mode, sent at the end of the tick.
+	 */
+	private final Queue<de.evoila.cf.autoscaler.core.scaling.ScalingAction> batchedActions;
+	
 	/**
 	 * Constructor for Spring to set up and inject the scaler.
 	 */
 	public Scaler() {
 		checkScalingMutex = new Semaphore(0, true);
+		tickStatistics = new ScalingTickStatistics();
+		batchedActions = new ConcurrentLinkedQueue<>();
+		tickPending = new AtomicBoolean();
+		shardCount = 1;
+	}
+	
+	/**
+	 * Constructor to set up a scaler without Spring, e.g. for tests. Neither the timer nor the scaling loop are started,
+	 * ticks are run by calling {@linkplain #runTick()}. The worker pool of the sharded mode is created like in {@linkplain #init()}.
+	 * @param autoscalerProps properties concerning the scaler itself
+	 * @param appManager manager to get the applications from
+	 * @param schedule schedule of the timing wheel mode
+	 * @param producer producer to publish on the message broker
+	 * @param httpWrapper wrapper for the requests to the scaling engine
+	 * @param memoryBudget accounting of the metric memory after every tick
+	 */
+	public Scaler(AutoscalerPropertiesBean autoscalerProps, ScalableAppManager appManager, ScalingSchedule schedule, ProtobufProducer producer,
+			HTTPWrapper httpWrapper, MetricMemoryBudget memoryBudget) {
+		this();
+		this.autoscalerProps = autoscalerProps;
+		this.appManager = appManager;
+		this.schedule = schedule;
+		this.producer = producer;
+		this.httpWrapper = httpWrapper;
+		this.memoryBudget = memoryBudget;
+		createShardExecutor();
 	}
 	
 	/**
@@ -86,96 +175,437 @@ public class Scaler {
 	 */
 	@PostConstruct
 	public void init() {
-		timer = new de.evoila.cf.autoscaler.core.scaling.TimerThread(this);
+		AutoscalerMetrics.setPerApplication(autoscalerProps.isPerApplicationMetrics());
+		AutoscalerMetrics.registerGauge("autoscaler.scaling.tick.apps", "Number of applications checked in the last tick of the scaling loop",
+				tickStatistics, ScalingTickStatistics::getLastAppCount);
+		AutoscalerMetrics.registerGauge("autoscaler.scaling.tick.shards", "Number of shards used in the last tick of the scaling loop",
+				tickStatistics, ScalingTickStatistics::getLastShardCount);
+		createShardExecutor();
+		eventTrigger.setWakeUp(checkScalingMutex::release);
+		if (schedule.isEnabled()) {
+			timer = new de.evoila.cf.autoscaler.core.scaling.TimerThread(this, schedule.getTickDuration());
+		} else {
+			timer = new de.evoila.cf.autoscaler.core.scaling.TimerThread(this);
+		}
 		timer.start();
 		scalingThread = new de.evoila.cf.autoscaler.core.scaling.ScalingThread(this);
 		scalingThread.start();
 		de.evoila.cf.autoscaler.core.scaling.ScalingChecker.setStaticScalingSize(autoscalerProps.getStaticScalingSize());
 	}
 	
+	/**
+	 * Creates the worker pool of the sharded mode, if more than one shard is configured.
+	 */
+	private void createShardExecutor() {
+		if (autoscalerProps.getScalingShards() > 1) {
+			shardCount = autoscalerProps.getScalingShards();
+			AtomicInteger threadNumber = new AtomicInteger();
+			shardExecutor = Executors.newFixedThreadPool(shardCount, runnable -> {
+				Thread thread = new Thread(runnable, "ScalingShard-" + threadNumber.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+			log.info("Scaling checks run in " + shardCount + " shards.");
+		}
+	}
+	
+	/**
+	 * Shuts down the worker pool of the sharded mode.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (shardExecutor != null)
+			shardExecutor.shutdownNow();
+	}
+	
 	/**
 	 *  Loops the check scaling mechanism of the scaler.
 	 *  Waits until the checkScalingMutex is available to check all ScalableApps.
+	 *  In the sharded mode the applications are partitioned by the hash of their resource ID and every shard 
+	 *  runs on its own worker, so a slow application only delays the applications of its own shard.
+	 *  In the batch scaling mode the scaling actions of a tick are collected and sent at the end of the tick.
+	 *  Applications queued by the {@linkplain #eventTrigger} are checked after the tick or, without a pending tick, right away.
 	 *  !This is an endless loop!
 	 */
 	public void checkScalingLoop() {
 		try {
-			ScalableApp currentApp = null;
 			while(true){
 				checkScalingMutex.acquire();
-				List<ScalableApp> l = appManager.getFlatCopyOfApps();
-				for (int i = 0; i < l.size(); i++) {
-					currentApp = l.get(i);
-					currentApp.acquire();
-					log.debug("--- Application " + currentApp.getIdentifierStringForLogs() + " --- ");
-					if (currentApp.isScalingEnabled()) {
-						ScalableAppService.aggregateInstanceMetrics(currentApp, producer);
-						boolean timeToCheck = currentApp.timeToCheck();
-						if (currentApp.isInCooldown()) {
-							log.info("Application "+ currentApp.getIdentifierStringForLogs() + " is still waiting for cooldown.");
-							currentApp.resetApplicationMetricLists();
-						} else if (timeToCheck) {
-							log.info("Time to check for "+ currentApp.getIdentifierStringForLogs());
-							checkScaling(currentApp);
-						} else {
-							log.debug("Not yet time for " + currentApp.getIdentifierStringForLogs());
-						}
-					} else {
-						log.debug("InstanceMetrics: count=" + currentApp.getCopyOfInstanceContainerMetricsList().size() + " - " + currentApp.getCopyOfInstanceContainerMetricsList());
-						log.debug("No scaling enabled for " + currentApp.getIdentifierStringForLogs());
-						currentApp.resetContainerMetricsList();
-						currentApp.resetHttpMetricList();
-					}
-
-					currentApp.release();
-				}
+				if (tickPending.getAndSet(false))
+					runTick();
+				checkTriggeredApps();
 			}
 		} catch (InterruptedException e) { }
 		log.error("Scaling loop stopped because of an InterruptedException.");
 	}
+	
+	/**
+	 * Check of a shard of applications or wake-ups, which may be interrupted while waiting for an application.
+	 * @param <T> type of the items of the shard
+	 */
+	private interface ShardCheck<T> {
+		int check(List<T> shard) throws InterruptedException;
+	}
+	
+	/**
+	 * Runs one periodic tick, serial or sharded.
+	 * In the timing wheel mode only the applications due at the {@linkplain #schedule} are visited, otherwise all applications.
+	 * A shard stopping with an exception is logged and does not stop the other shards.
+	 * Called by the {@linkplain #checkScalingLoop()}, only one tick may run at a time.
+	 * @throws InterruptedException if the thread is interrupted while waiting for an application or a shard
+	 */
+	public void runTick() throws InterruptedException {
+		long tickStart = System.currentTimeMillis();
+		long triggerTime = lastTriggerTime > 0 && lastTriggerTime <= tickStart ? lastTriggerTime : tickStart;
+		List<ScalingSchedule.Wake> due = schedule.isEnabled() ? schedule.due(tickStart) : null;
+		long slowestShardEnd;
+		int appCount;
+		if (shardExecutor == null) {
+			appCount = due == null ? checkShard(appManager.getApps()) : checkWakes(due);
+			slowestShardEnd = System.currentTimeMillis();
+		} else {
+			List<Callable<Long>> tasks;
+			if (due == null) {
+				appCount = appManager.size();
+				tasks = shardTasks(partition(appManager.getApps(), app -> app), this::checkShard);
+			} else {
+				appCount = due.size();
+				tasks = shardTasks(partition(due, ScalingSchedule.Wake::getApp), this::checkWakes);
+			}
+			slowestShardEnd = tickStart;
+			for (Future<Long> future : shardExecutor.invokeAll(tasks)) {
+				try {
+					slowestShardEnd = Math.max(slowestShardEnd, future.get());
+				} catch (ExecutionException ex) {
+					log.error("A scaling shard stopped with an exception.", ex.getCause());
+				}
+			}
+		}
+		sendBatchedActions();
+		producer.flushApplicationMetrics();
+		memoryBudget.account();
+		long wallTime = System.currentTimeMillis() - tickStart;
+		tickStatistics.recordTick(shardCount, appCount, wallTime, slowestShardEnd - triggerTime);
+		AutoscalerMetrics.SCALING_TICK.record(wallTime, TimeUnit.MILLISECONDS);
+		AutoscalerMetrics.SCALING_SHARD_LAG.record(slowestShardEnd - triggerTime, TimeUnit.MILLISECONDS);
+		log.debug("Tick finished: " + tickStatistics);
+	}
+	
+	/**
+	 * Checks the applications queued by the {@linkplain #eventTrigger} without waiting for their next periodic check.
+	 * Applications unbound in the meantime are skipped.
+	 * @throws InterruptedException if the thread is interrupted while waiting for an application
+	 */
+	private void checkTriggeredApps() throws InterruptedException {
+		ScalableApp app;
+		boolean checked = false;
+		while ((app = eventTrigger.poll()) != null) {
+			if (appManager.get(app.getBinding().getId()) != app) {
+				app.finishEventCheck();
+				continue;
+			}
+			app.acquire();
+			try {
+				checkTriggeredApp(app);
+			} catch (RuntimeException ex) {
+				log.error("Checking " + app.getIdentifierStringForLogs() + " failed.", ex);
+			} finally {
+				app.finishEventCheck();
+				app.release();
+			}
+			checked = true;
+		}
+		if (checked) {
+			sendBatchedActions();
+			producer.flushApplicationMetrics();
+		}
+	}
+	
+	/**
+	 * Aggregates and checks an application queued by the {@linkplain #eventTrigger} and restarts its scaling interval.
+	 * The caller has to hold the lock of the application.
+	 * @param app application to check
+	 */
+	private void checkTriggeredApp(ScalableApp app) {
+		if (!app.isScalingEnabled())
+			return;
+		if (app.isInCooldown()) {
+			app.takeLimitCrossingTime();
+			return;
+		}
+		log.info("Event triggered check for " + app.getIdentifierStringForLogs());
+		ScalableAppService.aggregateInstanceMetrics(app, producer);
+		app.setCurrentIntervalState(0);
+		checkScaling(app, true);
+		schedule.scheduleNext(app, System.currentTimeMillis());
+	}
+	
+	/**
+	 * Sends the actions collected in {@linkplain #batchedActions} to the scaling engine in batches of at most 
+	 * the configured batch size and records the outcome for every action.
+	 * In the asynchronous client mode the outcome is recorded, when the response arrives.
+	 */
+	private void sendBatchedActions() {
+		if (batchedActions.isEmpty())
+			return;
+		
+		int batchSize = Math.max(1, httpWrapper.getBatchSize());
+		List<ScalingBatch> batches = new ArrayList<>();
+		ScalingBatch batch = null;
+		de.evoila.cf.autoscaler.core.scaling.ScalingAction action;
+		while ((action = batchedActions.poll()) != null) {
+			if (batch == null || batch.size() >= batchSize) {
+				batch = new ScalingBatch(batchSize);
+				batches.add(batch);
+			}
+			batch.add(action);
+		}
+		
+		for (ScalingBatch current : batches) {
+			log.info("Sending batch scaling request with " + current.size() + " scaling orders.");
+			httpWrapper.scaleBatchAsync(current.toRequest()).handle((response, ex) -> {
+				current.complete(response, ex, producer);
+				return current;
+			});
+		}
+	}
+	
+	/**
+	 * Partitions the given items into {@linkplain #shardCount} shards by the hash of the resource ID of their application.
+	 * @param items applications or wake-ups to partition
+	 * @param appOf function returning the application of an item
+	 * @param <T> type of the items
+	 * @return list of shards
+	 */
+	private <T> List<List<T>> partition(Collection<T> items, Function<T, ScalableApp> appOf) {
+		List<List<T>> shards = new ArrayList<>(shardCount);
+		for (int i = 0; i < shardCount; i++) {
+			shards.add(new ArrayList<T>());
+		}
+		for (T item : items) {
+			String resourceId = appOf.apply(item).getBinding().getResourceId();
+			int hash = resourceId == null ? 0 : resourceId.hashCode();
+			shards.get(Math.floorMod(hash, shardCount)).add(item);
+		}
+		return shards;
+	}
+	
+	/**
+	 * Creates a task for every shard, which runs the given check and returns the time it finished.
+	 * @param shards shards to check
+	 * @param check check to run for a shard
+	 * @param <T> type of the items of the shards
+	 * @return list of tasks
+	 */
+	private <T> List<Callable<Long>> shardTasks(List<List<T>> shards, ShardCheck<T> check) {
+		List<Callable<Long>> tasks = new ArrayList<>(shards.size());
+		for (List<T> shard : shards) {
+			tasks.add(() -> {
+				check.check(shard);
+				return System.currentTimeMillis();
+			});
+		}
+		return tasks;
+	}
+	
+	/**
+	 * Wakes the given due applications of the {@linkplain #schedule} one after another and schedules their next wake-up.
+	 * Applications only woken for the aggregation keep their pending wake-up. Applications unbound in the meantime are skipped.
+	 * @param wakes due applications
+	 * @return number of woken applications
+	 * @throws InterruptedException if the thread is interrupted while waiting for an application
+	 */
+	private int checkWakes(List<ScalingSchedule.Wake> wakes) throws InterruptedException {
+		int count = 0;
+		for (ScalingSchedule.Wake wake : wakes) {
+			ScalableApp currentApp = wake.getApp();
+			if (appManager.get(currentApp.getBinding().getId()) != currentApp)
+				continue;
+			currentApp.acquire();
+			try {
+				checkWake(wake);
+			} catch (RuntimeException ex) {
+				log.error("Checking " + currentApp.getIdentifierStringForLogs() + " failed.", ex);
+			} finally {
+				if (!wake.isAggregationOnly())
+					schedule.scheduleNext(currentApp, System.currentTimeMillis());
+				currentApp.release();
+			}
+			count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Runs aggregation and the scaling check for an application woken by the {@linkplain #schedule}.
+	 * An application woken only for the aggregation is aggregated without a check, like between two checks in the interval mode.
+	 * At the end of the cooldown the metrics collected during the cooldown are discarded and no check is run.
+	 * The caller has to hold the lock of the application.
+	 * @param wake due application
+	 */
+	private void checkWake(ScalingSchedule.Wake wake) {
+		ScalableApp currentApp = wake.getApp();
+		log.debug("--- Application " + currentApp.getIdentifierStringForLogs() + " --- ");
+		if (!currentApp.isScalingEnabled()) {
+			discardMetrics(currentApp);
+			return;
+		}
+		ScalableAppService.aggregateInstanceMetrics(currentApp, producer);
+		if (wake.isAggregationOnly()) {
+			if (currentApp.isInCooldown()) {
+				currentApp.takeLimitCrossingTime();
+				currentApp.resetApplicationMetricLists();
+			} else {
+				log.debug("Not yet time for " + currentApp.getIdentifierStringForLogs());
+			}
+		} else if (currentApp.isInCooldown() || wake.isCooldownExpiry()) {
+			log.info("Application "+ currentApp.getIdentifierStringForLogs() + " finished or is still waiting for cooldown.");
+			currentApp.takeLimitCrossingTime();
+			currentApp.resetApplicationMetricLists();
+		} else {
+			log.info("Time to check for "+ currentApp.getIdentifierStringForLogs());
+			checkScaling(currentApp);
+		}
+	}
+	
+	/**
+	 * Aggregates, checks and scales the given applications one after another.
+	 * @param apps applications to check
+	 * @return number of checked applications
+	 * @throws InterruptedException if the thread is interrupted while waiting for an application
+	 */
+	private int checkShard(Iterable<ScalableApp> apps) throws InterruptedException {
+		int count = 0;
+		for (ScalableApp currentApp : apps) {
+			currentApp.acquire();
+			try {
+				checkApp(currentApp);
+			} catch (RuntimeException ex) {
+				log.error("Checking " + currentApp.getIdentifierStringForLogs() + " failed.", ex);
+			} finally {
+				currentApp.release();
+			}
+			count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Runs aggregation, the scaling check and the scaling action for a single application.
+	 * The caller has to hold the lock of the application.
+	 * @param currentApp application to check
+	 */
+	private void checkApp(ScalableApp currentApp) {
+		log.debug("--- Application " + currentApp.getIdentifierStringForLogs() + " --- ");
+		if (currentApp.isScalingEnabled()) {
+			ScalableAppService.aggregateInstanceMetrics(currentApp, producer);
+			boolean timeToCheck = currentApp.timeToCheck();
+			if (currentApp.isInCooldown()) {
+				log.info("Application "+ currentApp.getIdentifierStringForLogs() + " is still waiting for cooldown.");
+				currentApp.takeLimitCrossingTime();
+				currentApp.resetApplicationMetricLists();
+			} else if (timeToCheck) {
+				log.info("Time to check for "+ currentApp.getIdentifierStringForLogs());
+				checkScaling(currentApp);
+			} else {
+				log.debug("Not yet time for " + currentApp.getIdentifierStringForLogs());
+			}
+		} else {
+			discardMetrics(currentApp);
+		}
+	}
+	
+	/**
+	 * Drains and drops the incoming metrics of an application without scaling enabled.
+	 * The caller has to hold the lock of the application.
+	 * @param currentApp application to drop the metrics of
+	 */
+	private void discardMetrics(ScalableApp currentApp) {
+		currentApp.drainMetricBuffers();
+		log.debug("InstanceMetrics: count=" + currentApp.getInstanceMetricWindow().size());
+		log.debug("No scaling enabled for " + currentApp.getIdentifierStringForLogs());
+		currentApp.resetContainerMetricsList();
+		currentApp.resetHttpMetricList();
+	}
 
 	/**
 	 * Checks whether it is necessary to scale for a ScalableApp.
 	 * @param app ScalalbeApp to check scaling for
 	 */
 	public void checkScaling(ScalableApp app) {
+		checkScaling(app, false);
+	}
+	
+	/**
+	 * Checks whether it is necessary to scale for a ScalableApp, records the reaction time and the duration of the check
+	 * and publishes a new snapshot of the application.
+	 * @param app ScalalbeApp to check scaling for
+	 * @param eventTriggered whether the check was triggered by the {@linkplain #eventTrigger}
+	 */
+	private void checkScaling(ScalableApp app, boolean eventTriggered) {
 		if (app == null) 
 			return;
 		
+		eventTrigger.recordCheck(app, eventTriggered);
+		long start = System.nanoTime();
+		try {
+			decideAndScale(app);
+		} finally {
+			app.publishSnapshot();
+			AutoscalerMetrics.recordScalingCheck(app.getBinding().getResourceId(), System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Decides on the scaling action for a ScalableApp and executes it.
+	 * @param app ScalalbeApp to check scaling for
+	 */
+	private void decideAndScale(ScalableApp app) {
 		int instances = app.getCurrentInstanceCount();
 		if (instances == NO_METRIC_ERROR_INSTANCE_COUNT) {
 			log.error("Application " + app.getIdentifierStringForLogs() + " had no metrics to compute the instance count.");
 			return;
 		}
 		
-		List<de.evoila.cf.autoscaler.core.scaling.ScalingAction> actions = new LinkedList<>();
-		
-		actions.add(de.evoila.cf.autoscaler.core.scaling.ScalingChecker.chooseScalingActionForCpu(app));
-		actions.add(de.evoila.cf.autoscaler.core.scaling.ScalingChecker.chooseScalingActionForRam(app));
-		actions.add(de.evoila.cf.autoscaler.core.scaling.ScalingChecker.chooseScalingActionForLatency(app));
+		ScalingDecision decision = ScalingDecision.forCurrentThread();
+		de.evoila.cf.autoscaler.core.scaling.ScalingAction cpuAction = ScalingChecker.chooseScalingActionForCpu(app, decision.getCpu());
+		de.evoila.cf.autoscaler.core.scaling.ScalingAction ramAction = ScalingChecker.chooseScalingActionForRam(app, decision.getRam());
+		de.evoila.cf.autoscaler.core.scaling.ScalingAction latencyAction = ScalingChecker.chooseScalingActionForLatency(app, decision.getLatency());
 		
-		log.debug("Hardware actions: " + actions);
-		de.evoila.cf.autoscaler.core.scaling.ScalingAction action = decideAction(actions);
-		log.debug("Decided action: " + action);
+		if (log.isDebugEnabled())
+			log.debug("Hardware actions: [" + cpuAction + ", " + ramAction + ", " + latencyAction + "]");
+		de.evoila.cf.autoscaler.core.scaling.ScalingAction action = higherPriority(higherPriority(higherPriority(null, cpuAction), ramAction), latencyAction);
+		if (log.isDebugEnabled())
+			log.debug("Decided action: " + action);
 		
-		de.evoila.cf.autoscaler.core.scaling.ScalingAction tmpAction = de.evoila.cf.autoscaler.core.scaling.ScalingChecker.chooseScalingActionForLimits(app, action);
+		de.evoila.cf.autoscaler.core.scaling.ScalingAction tmpAction = ScalingChecker.chooseScalingActionForLimits(app, action, decision.getLimits());
 		if (tmpAction != null) {
-			log.debug("Limit action created: " + tmpAction);
+			if (log.isDebugEnabled())
+				log.debug("Limit action created: " + tmpAction);
 			action = tmpAction;
 		}
 		
-		de.evoila.cf.autoscaler.core.scaling.ScalingAction predictedAction = de.evoila.cf.autoscaler.core.scaling.ScalingChecker.chooseScalingActionForPrediction(app);
+		de.evoila.cf.autoscaler.core.scaling.ScalingAction predictedAction = ScalingChecker.chooseScalingActionForPrediction(app, decision.getPrediction());
 		if ( predictedAction != null) {
-			log.debug("Predicted action: " + predictedAction);
+			if (log.isDebugEnabled())
+				log.debug("Predicted action: " + predictedAction);
 			action = predictedAction;
 		}
 		
-		log.debug("Final action: " + action);
+		if (log.isDebugEnabled())
+			log.debug("Final action: " + action);
 		
 		if (action != null) {
 			if (action.isNeedToScale() && action.getNewInstances() != action.getOldInstances()) {
+				// the action outlives this check in the batch or the pending response, so detach it from the decision
+				action = action.copy();
 				log.info("Scaling needed for " + app.getIdentifierStringForLogs() + ": " + action.getReasonDescription());
-				action.executeAction(httpWrapper, producer);
+				if (httpWrapper.isBatchScaling()) {
+					if (action.prepareExecution(producer))
+						batchedActions.add(action);
+				} else {
+					action.executeAction(httpWrapper, producer);
+				}
 			} else if (app.isLearningEnabled()){
 				// no scaling ? => set Requests Per Instance
 				log.info("No scaling needed for " + app.getIdentifierStringForLogs() + ".");
@@ -193,25 +623,13 @@ public class Scaler {
 	 * Method for the {@linkplain #timer TimerThread} to access the {@linkplain Scaler#checkScalingMutex Mutex}.
 	 */
 	public void releaseMutex() {
+		lastTriggerTime = System.currentTimeMillis();
+		tickPending.set(true);
 		checkScalingMutex.release();
 	}
 	
-	/**
-	 * Looks for the {@linkplain ScalingAction} with the highest priority.
-	 * @param actions List of actions to work with
-	 * @return {@linkplain ScalingAction} with the highest priority
-	 */
-	private de.evoila.cf.autoscaler.core.scaling.ScalingAction decideAction(List<de.evoila.cf.autoscaler.core.scaling.ScalingAction> actions) {
-		if (actions.size() > 0) {
-			de.evoila.cf.autoscaler.core.scaling.ScalingAction action = null;
-			de.evoila.cf.autoscaler.core.scaling.ScalingAction hlp;
-			for (int i = 0; i < actions.size(); i++) {
-				hlp = actions.get(i);
-				action = higherPriority(action, hlp);
-			}
-			return action;
-		}
-		return null;
+	public ScalingTickStatistics getTickStatistics() {
+		return tickStatistics;
 	}
 	
 	/**
@@ -4,14 +4,21 @@ import de.evoila.cf.autoscaler.core.applications.ScalableApp;
 import de.evoila.cf.autoscaler.core.http.HTTPWrapper;
 import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
 import de.evoila.cf.autoscaler.kafka.messages.ScalingLog;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbScalingLog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Defines and manages a scaling order.
+ * The reason is stored as {@linkplain ScalingReason} and rendered to a description only on demand.
+ * Actions filled during a check are reused via {@linkplain ScalingDecision}, see {@linkplain #set(ScalableApp, int, int, boolean, int, ScalingReason, long)}.
  * @author Marius Berger
  *
  */
@@ -21,6 +28,11 @@ public class ScalingAction {
 	 * Logger of this class.
 	 */
 	private static Logger log = LoggerFactory.getLogger(ScalingAction.class);
+	
+	/**
+	 * Status code of an action, which did not receive a response from the scaling engine (yet).
+	 */
+	public static final int NO_RESPONSE = -1;
 
 	
 	/**
@@ -44,48 +56,154 @@ public class ScalingAction {
 	 * Boolean value whether there is need to scale
 	 */
 	private boolean needToScale;
+	/**
+	 * Code of the reason of this action.
+	 */
+	private ScalingReason reasonCode;
+	/**
+	 * Limit or instance count the reason refers to.
+	 */
+	private long reasonValue;
 	/**
 	 * Description of the reseason, which will not be used for computation.
+	 * Rendered from the {@linkplain #reasonCode} on the first call of {@linkplain #getReasonDescription()}.
 	 */
 	private String reasonDescription;
+	
+	/**
+	 * Epoch time stamp of the execution of this action, 0 if it was not executed.
+	 */
+	private long scalingTime;
+	/**
+	 * Status code of the response of the scaling engine or {@linkplain #NO_RESPONSE}.
+	 */
+	private volatile int responseStatusCode = NO_RESPONSE;
+	/**
+	 * Future completing, when the outcome of this action was recorded.
+	 */
+	private CompletableFuture<ScalingAction> completion = CompletableFuture.completedFuture(this);
+	/**
+	 * {@linkplain ScalingLog} prepared by {@linkplain #prepareExecution(ProtobufProducer)}, null if there is no pending execution.
+	 */
+	private PbScalingLog.ProtoScalingLog pendingScalingLog;
 
 	/**
-	 *
-     *
+	 * Sends the scaling request for this action to the scaling engine and publishes a {@linkplain ScalingLog} on success.
+	 * In the asynchronous client mode of the {@linkplain HTTPWrapper} this method does not wait for the response.
+	 * The {@linkplain ScalingLog} is then created right away with the current values of the application 
+	 * and published, when the outcome is recorded. Use {@linkplain #getCompletion()} to wait for the outcome.
+	 * @param httpWrapper Wrapper to send the scaling request with
 	 * @param producer Producer to publish on the message broker
 	 */
 	public void executeAction(HTTPWrapper httpWrapper, ProtobufProducer producer) {
 		if (needToScale && isValid()) {
-			long scalingTime = System.currentTimeMillis();
+			scalingTime = System.currentTimeMillis();
 			app.setLastScalingTime(scalingTime);
-			try {
-				ResponseEntity<String> response = httpWrapper.scale(app.getBinding().getResourceId()
-						, app.getBinding().getContext()
-						, newInstances);
-				
-				if (newInstances > oldInstances)
-					log.info("Upscaled app "+app.getIdentifierStringForLogs() + ": Statuscode "
-							+response.getStatusCodeValue() + ", reason: " + getReasonDescription());
-				if (newInstances < oldInstances)
-					log.info("Downscaled app "+app.getIdentifierStringForLogs()+": Statuscode "
-							+response.getStatusCodeValue() + ", reason: " + getReasonDescription());
-				
-				if (response.getStatusCodeValue() >= 400 && response.getStatusCodeValue() < 600) {
-					log.error("Scaling request returned with " + response.getStatusCodeValue() + " " + response.getStatusCode().name()
-							+ " - " + response.getBody());
+			if (httpWrapper.isAsync()) {
+				PbScalingLog.ProtoScalingLog scalingLog = producer.createScalingLog(this, scalingTime);
+				completion = httpWrapper.scaleAsync(app.getBinding().getResourceId(), app.getBinding().getContext(), newInstances)
+						.handle((response, ex) -> {
+							recordOutcome(response, ex, producer, scalingLog);
+							return this;
+						});
+			} else {
+				try {
+					ResponseEntity<String> response = httpWrapper.scale(app.getBinding().getResourceId()
+							, app.getBinding().getContext()
+							, newInstances);
+					recordOutcome(response, null, producer, null);
+				} catch (RestClientException ex) {
+					recordOutcome(null, ex, producer, null);
 				}
-				
-				producer.produceScalingLog(this, scalingTime);
-			} catch (HttpServerErrorException ex) {
+			}
+		} else if (!isValid()) {
+			log.error("A ScalingAction for " + app.getIdentifierStringForLogs() + " is not valid.");
+		}
+	}
+	
+	/**
+	 * Prepares this action to be sent as part of a batch scaling request instead of executing it right away.
+	 * Sets the scaling time and creates the {@linkplain ScalingLog} with the current values of the application,
+	 * so the caller has to hold the lock of the application. The outcome has to be recorded 
+	 * via {@linkplain #completeExecution(ResponseEntity, Throwable, ProtobufProducer)} afterwards.
+	 * @param producer Producer to create the {@linkplain ScalingLog} with, may be null
+	 * @return true if the action has to be sent, false if there is no need to scale or the action is not valid
+	 */
+	public boolean prepareExecution(ProtobufProducer producer) {
+		if (needToScale && isValid()) {
+			scalingTime = System.currentTimeMillis();
+			app.setLastScalingTime(scalingTime);
+			pendingScalingLog = producer == null ? null : producer.createScalingLog(this, scalingTime);
+			completion = new CompletableFuture<>();
+			return true;
+		} else if (!isValid()) {
+			log.error("A ScalingAction for " + app.getIdentifierStringForLogs() + " is not valid.");
+		}
+		return false;
+	}
+	
+	/**
+	 * Records the outcome of an action prepared by {@linkplain #prepareExecution(ProtobufProducer)} and completes {@linkplain #completion}.
+	 * @param response response of the scaling engine for this action, null if the request failed
+	 * @param error error of the request or of this action, null if it succeeded
+	 * @param producer Producer to publish on the message broker
+	 */
+	public void completeExecution(ResponseEntity<String> response, Throwable error, ProtobufProducer producer) {
+		PbScalingLog.ProtoScalingLog scalingLog = pendingScalingLog;
+		pendingScalingLog = null;
+		try {
+			recordOutcome(response, error, producer, scalingLog);
+		} finally {
+			completion.complete(this);
+		}
+	}
+	
+	/**
+	 * Records the outcome of the scaling request, logs it and publishes the {@linkplain ScalingLog} for a successful request.
+	 * @param response response of the scaling engine, null if the request failed
+	 * @param error error thrown by the request, null if it succeeded
+	 * @param producer Producer to publish on the message broker
+	 * @param scalingLog prepared {@linkplain ScalingLog} to publish or null to create it now
+	 */
+	public void recordOutcome(ResponseEntity<String> response, Throwable error, ProtobufProducer producer, PbScalingLog.ProtoScalingLog scalingLog) {
+		if (error instanceof CompletionException && error.getCause() != null)
+			error = error.getCause();
+		
+		if (error != null) {
+			if (error instanceof HttpStatusCodeException)
+				responseStatusCode = ((HttpStatusCodeException) error).getRawStatusCode();
+			
+			if (error instanceof HttpServerErrorException) {
+				HttpServerErrorException ex = (HttpServerErrorException) error;
 				log.error("Scaling request threw HttpServerErrorException with " + ex.getRawStatusCode() + " " + ex.getStatusText()
 						+ " - " + ex.getResponseBodyAsString());
-			} catch (RestClientException ex){
+			} else if (error instanceof RestClientException) {
 				log.error("Encountered a RestClientException while sending a scaling request to a scaling engine. "
 						+ "Possible causes for this could be that the scaling engine is not reachable"
-						+ " or the scaling engine could not find a matching object for the given resourceId.", ex);
+						+ " or the scaling engine could not find a matching object for the given resourceId.", error);
+			} else {
+				log.error("Scaling request for " + app.getIdentifierStringForLogs() + " failed.", error);
 			}
-		} else if (!isValid()) {
-			log.error("A ScalingAction for " + app.getIdentifierStringForLogs() + " is not valid.");
+			return;
+		}
+		
+		responseStatusCode = response.getStatusCodeValue();
+		if (newInstances > oldInstances)
+			log.info("Upscaled app "+app.getIdentifierStringForLogs() + ": Statuscode "
+					+response.getStatusCodeValue() + ", reason: " + getReasonDescription());
+		if (newInstances < oldInstances)
+			log.info("Downscaled app "+app.getIdentifierStringForLogs()+": Statuscode "
+					+response.getStatusCodeValue() + ", reason: " + getReasonDescription());
+		
+		if (response.getStatusCodeValue() >= 400 && response.getStatusCodeValue() < 600) {
+			log.error("Scaling request returned with " + response.getStatusCodeValue() + " " + response.getStatusCode().name()
+					+ " - " + response.getBody());
+		}
+		
+		if (producer != null) {
+			if (scalingLog == null)
+				scalingLog = producer.createScalingLog(this, scalingTime);
+			producer.produceScalingLog(scalingLog);
 		}
 	}
 	
@@ -95,7 +213,8 @@ public class ScalingAction {
 	 */
 	public boolean isValid() {
 		return (app != null && newInstances <= app.getMaxInstances() && newInstances >= app.getMinInstances()
-				&& reason >= ScalingLog.UNDEFINED_BASED && reason <= ScalingLog.LIMIT_BASED && reasonDescription != null);
+				&& reason >= ScalingLog.UNDEFINED_BASED && reason <= ScalingLog.LIMIT_BASED 
+				&& reasonCode != null && (reasonCode != ScalingReason.CUSTOM || reasonDescription != null));
 	}
 	
 	/**
@@ -115,9 +234,12 @@ public class ScalingAction {
 	}
 	
 	/**
-	 * Constructor the set up the ScalingAction with all necessary fields.
-	 * 
+	 * Constructor for an empty action to be filled via {@linkplain #set(ScalableApp, int, int, boolean, int, ScalingReason, long)}.
 	 */
+	public ScalingAction() {
+		reasonCode = ScalingReason.NONE;
+	}
+	
 	/**
 	 * Constructor the set up the ScalingAction with all necessary fields.
 	 * @param app {@linkplain #app}
@@ -134,8 +256,42 @@ public class ScalingAction {
 		this.oldInstances = oldInstances;
 		this.needToScale = needToScale;
 		this.reason = reason;
+		this.reasonCode = ScalingReason.CUSTOM;
 		this.reasonDescription = reasonDescription;
 	}
+	
+	/**
+	 * Overwrites the decision fields of this action, so it can be reused for the next check.
+	 * @param app {@linkplain #app}
+	 * @param newInstances {@linkplain #newInstances}
+	 * @param oldInstances {@linkplain #oldInstances}
+	 * @param needToScale {@linkplain #needToScale}
+	 * @param reason {@linkplain #reason}
+	 * @param reasonCode {@linkplain #reasonCode}
+	 * @param reasonValue {@linkplain #reasonValue}
+	 * @return this action
+	 */
+	public ScalingAction set(ScalableApp app, int newInstances, int oldInstances, boolean needToScale, int reason,
+			ScalingReason reasonCode, long reasonValue) {
+		this.app = app;
+		this.newInstances = newInstances;
+		this.oldInstances = oldInstances;
+		this.needToScale = needToScale;
+		this.reason = reason;
+		setReasonCode(reasonCode, reasonValue);
+		return this;
+	}
+	
+	/**
+	 * Creates a new action with the decision fields of this one, detached from its {@linkplain ScalingDecision}.
+	 * @return copy of this action
+	 */
+	public ScalingAction copy() {
+		ScalingAction copy = new ScalingAction();
+		copy.set(app, newInstances, oldInstances, needToScale, reason, reasonCode, reasonValue);
+		copy.reasonDescription = reasonDescription;
+		return copy;
+	}
 
 	public ScalableApp getApp() {
 		return app;
@@ -177,22 +333,60 @@ public class ScalingAction {
 		this.reason = reason;
 	}
 
+	/**
+	 * Returns the description of the reason and renders it from the {@linkplain #reasonCode} on the first call.
+	 * @return {@linkplain #reasonDescription}
+	 */
 	public String getReasonDescription() {
+		if (reasonDescription == null && reasonCode != null && reasonCode != ScalingReason.CUSTOM)
+			reasonDescription = reasonCode.render(reason, reasonValue);
 		return reasonDescription;
 	}
 
 	public void setReasonDescription(String reasonDescription) {
+		this.reasonCode = ScalingReason.CUSTOM;
 		this.reasonDescription = reasonDescription;
 	}
+	
+	public ScalingReason getReasonCode() {
+		return reasonCode;
+	}
+	
+	public long getReasonValue() {
+		return reasonValue;
+	}
+	
+	/**
+	 * Sets the reason of this action and drops a previously rendered description.
+	 * @param reasonCode {@linkplain #reasonCode}
+	 * @param reasonValue {@linkplain #reasonValue}
+	 */
+	public void setReasonCode(ScalingReason reasonCode, long reasonValue) {
+		this.reasonCode = reasonCode;
+		this.reasonValue = reasonValue;
+		this.reasonDescription = null;
+	}
 
 	public void setApp(ScalableApp app) {
 		this.app = app;
 	}
+	
+	public long getScalingTime() {
+		return scalingTime;
+	}
+	
+	public int getResponseStatusCode() {
+		return responseStatusCode;
+	}
+	
+	public CompletableFuture<ScalingAction> getCompletion() {
+		return completion;
+	}
 
 	@Override
 	public String toString() {
 		return "ScalingAction [app=" + app.getIdentifierStringForLogs() + ", newInstances=" + newInstances + ", oldInstances=" + oldInstances
-				+ ", reason=" + reason + ", needToScale=" + needToScale + ", reasonDescription=" + reasonDescription
+				+ ", reason=" + reason + ", needToScale=" + needToScale + ", reasonDescription=" + getReasonDescription()
 				+ "]";
 	}
 }
@@ -0,0 +1,131 @@
+package de.evoila.cf.autoscaler.core.scaling;
+
+import de.evoila.cf.autoscaler.core.http.request.BatchScalingRequest;
+import de.evoila.cf.autoscaler.core.http.request.BatchScalingResponse;
+import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups prepared {@linkplain ScalingAction ScalingActions} of one tick into a single {@linkplain BatchScalingRequest}
+ * and maps the per-item results of the scaling engine back onto the actions.
+ * A result is treated like the response to a single scaling request with the same status code,
+ * so error codes end up as {@code HttpStatusCodeException} and no {@code ScalingLog} is published for them.
+ * @author Marius Berger
+ *
+ */
+public class ScalingBatch {
+
+	/**
+	 * Actions of this batch, all prepared via {@linkplain ScalingAction#prepareExecution(ProtobufProducer)}.
+	 */
+	private final List<ScalingAction> actions;
+
+	/**
+	 * Constructor to create an empty batch.
+	 * @param capacity expected number of actions
+	 */
+	public ScalingBatch(int capacity) {
+		actions = new ArrayList<ScalingAction>(capacity);
+	}
+
+	/**
+	 * Adds a prepared action to this batch.
+	 * @param action action to add
+	 */
+	public void add(ScalingAction action) {
+		actions.add(action);
+	}
+
+	public int size() {
+		return actions.size();
+	}
+
+	public boolean isEmpty() {
+		return actions.isEmpty();
+	}
+
+	public List<ScalingAction> getActions() {
+		return actions;
+	}
+
+	/**
+	 * Creates the request body with one scaling order per action.
+	 * @return request for the scaling engine
+	 */
+	public BatchScalingRequest toRequest() {
+		BatchScalingRequest request = new BatchScalingRequest();
+		for (ScalingAction action : actions) {
+			request.add(action.getApp().getBinding().getResourceId(), action.getNewInstances(), action.getApp().getBinding().getContext());
+		}
+		return request;
+	}
+
+	/**
+	 * Records the outcome of the batch scaling request for every action of this batch.
+	 * If the request itself failed, every action fails with the same error.
+	 * @param response response of the scaling engine, null if the request failed
+	 * @param error error thrown by the request, null if it succeeded
+	 * @param producer Producer to publish on the message broker
+	 */
+	public void complete(ResponseEntity<BatchScalingResponse> response, Throwable error, ProtobufProducer producer) {
+		if (error == null && (response == null || response.getBody() == null))
+			error = new RestClientException("The scaling engine answered a batch scaling request without results.");
+
+		if (error != null) {
+			for (ScalingAction action : actions) {
+				action.completeExecution(null, error, producer);
+			}
+			return;
+		}
+
+		Map<String, BatchScalingResponse.Item> results = new HashMap<>();
+		for (BatchScalingResponse.Item item : response.getBody().getResults()) {
+			if (item != null && item.getResourceId() != null)
+				results.put(item.getResourceId(), item);
+		}
+
+		for (ScalingAction action : actions) {
+			BatchScalingResponse.Item item = results.get(action.getApp().getBinding().getResourceId());
+			if (item == null) {
+				action.completeExecution(null, new RestClientException("The scaling engine returned no result for "
+						+ action.getApp().getIdentifierStringForLogs() + " in a batch scaling request."), producer);
+			} else if (item.getStatusCode() >= 400 || HttpStatus.resolve(item.getStatusCode()) == null) {
+				action.completeExecution(null, toException(item), producer);
+			} else {
+				action.completeExecution(ResponseEntity.status(item.getStatusCode()).body(item.getMessage()), null, producer);
+			}
+		}
+	}
+
+	/**
+	 * Creates the exception a single scaling request would have thrown for the status code of the given result.
+	 * @param item result with an error or unknown status code
+	 * @return matching {@code RestClientException}
+	 */
+	private static RestClientException toException(BatchScalingResponse.Item item) {
+		HttpStatus status = HttpStatus.resolve(item.getStatusCode());
+		byte[] body = item.getMessage() == null ? null : item.getMessage().getBytes(StandardCharsets.UTF_8);
+		if (status == null)
+			return new UnknownHttpStatusCodeException(item.getStatusCode(), "", new HttpHeaders(), body, StandardCharsets.UTF_8);
+		if (status.is4xxClientError())
+			return new HttpClientErrorException(status, status.getReasonPhrase(), body, StandardCharsets.UTF_8);
+		return new HttpServerErrorException(status, status.getReasonPhrase(), body, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return "ScalingBatch [actions=" + actions + "]";
+	}
+}
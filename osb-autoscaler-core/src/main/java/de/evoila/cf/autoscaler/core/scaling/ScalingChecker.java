@@ -9,6 +9,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Holds methods for computing needed instance counts of an application.
+ * Every method comes in two variants: one creating a new {@linkplain ScalingAction} and one filling a given action,
+ * which is used by the {@linkplain Scaler} with the actions of its {@linkplain ScalingDecision} to check without allocating.
  * @author Marius Berger
  *
  */
@@ -45,25 +47,19 @@ public class ScalingChecker {
 	 * @return computed ScalingAction or null if scaling for this component is not enabled or null if the instance count could not be computed
 	 */
 	public static ScalingAction chooseScalingActionForCpu(ScalableApp app) {
+		return chooseScalingActionForCpu(app, new ScalingAction());
+	}
+	
+	/**
+	 * Fills a {@linkplain ScalingAction} based on CPU values.
+	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
+	 * @param target action to fill
+	 * @return the filled target or null if scaling for this component is not enabled or null if the instance count could not be computed
+	 */
+	public static ScalingAction chooseScalingActionForCpu(ScalableApp app, ScalingAction target) {
 		if (!app.getCpu().isCpuScalingEnabled()) 
 			return null;
-		
-		int instances = app.getCurrentInstanceCount();
-		if (instances == Scaler.NO_METRIC_ERROR_INSTANCE_COUNT) {
-			log.error("Application " + app.getIdentifierStringForLogs() + " had no metrics to compute the instance count.");
-			return null;
-		}
-		
-		ScalingAction act = null;
-		
-		if (app.getRequest().isQuotientScalingEnabled() && app.getRequest().getQuotient() > 0 && !app.isInLearningTime()) {
-			act = chooseScalingActionWithQuotient(app, instances, ScalingLog.CONTAINER_CPU_BASED);
-		} else {		
-			act = chooseScalingActionWithoutQuotient(app, instances, ScalingLog.CONTAINER_CPU_BASED);
-		}
-		
-		act = checkForLimits(app, act);
-		return act;
+		return chooseScalingActionForComponent(app, ScalingLog.CONTAINER_CPU_BASED, target);
 	}
 	
 	/**
@@ -72,25 +68,19 @@ public class ScalingChecker {
 	 * @return computed ScalingAction or null if scaling for this component is not enabled or null if the instance count could not be computed
 	 */
 	public static ScalingAction chooseScalingActionForRam(ScalableApp app) {
+		return chooseScalingActionForRam(app, new ScalingAction());
+	}
+	
+	/**
+	 * Fills a {@linkplain ScalingAction} based on RAM values.
+	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
+	 * @param target action to fill
+	 * @return the filled target or null if scaling for this component is not enabled or null if the instance count could not be computed
+	 */
+	public static ScalingAction chooseScalingActionForRam(ScalableApp app, ScalingAction target) {
 		if (!app.getRam().isRamScalingEnabled()) 
-			return null;	
-		
-		int instances = app.getCurrentInstanceCount();
-		if (instances == Scaler.NO_METRIC_ERROR_INSTANCE_COUNT) {
-			log.error("Application had no metrics to compute the instance count.");
 			return null;
-		}
-		
-		ScalingAction act = null;
-		
-		if (app.getRequest().isQuotientScalingEnabled() && app.getRequest().getQuotient() > 0 && !app.isInLearningTime()) {
-			act = chooseScalingActionWithQuotient(app, instances, ScalingLog.CONTAINER_RAM_BASED);
-		} else {		
-			act = chooseScalingActionWithoutQuotient(app, instances, ScalingLog.CONTAINER_RAM_BASED);
-		}
-		
-		act = checkForLimits(app, act);
-		return act;
+		return chooseScalingActionForComponent(app, ScalingLog.CONTAINER_RAM_BASED, target);
 	}
 	
 	/**
@@ -99,25 +89,44 @@ public class ScalingChecker {
 	 * @return computed ScalingAction or null if scaling for this component is not enabled or null if the instance count could not be computed
 	 */
 	public static ScalingAction chooseScalingActionForLatency(ScalableApp app) {
+		return chooseScalingActionForLatency(app, new ScalingAction());
+	}
+	
+	/**
+	 * Fills a {@linkplain ScalingAction} based on latency values.
+	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
+	 * @param target action to fill
+	 * @return the filled target or null if scaling for this component is not enabled or null if the instance count could not be computed
+	 */
+	public static ScalingAction chooseScalingActionForLatency(ScalableApp app, ScalingAction target) {
 		if (!app.getLatency().isLatencyScalingEnabled()) 
-			return null;	
-		
+			return null;
+		return chooseScalingActionForComponent(app, ScalingLog.HTTP_LATENCY_BASED, target);
+	}
+	
+	/**
+	 * Fills a {@linkplain ScalingAction} based on the given component, with or without the quotient.
+	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
+	 * @param component index of which component will be used
+	 * @param target action to fill
+	 * @return the filled target or null if the instance count could not be computed
+	 */
+	private static ScalingAction chooseScalingActionForComponent(ScalableApp app, int component, ScalingAction target) {
 		int instances = app.getCurrentInstanceCount();
 		if (instances == Scaler.NO_METRIC_ERROR_INSTANCE_COUNT) {
-			log.error("Application had no metrics to compute the instance count.");
+			log.error("Application " + app.getIdentifierStringForLogs() + " had no metrics to compute the instance count.");
 			return null;
 		}
 		
 		ScalingAction act = null;
 		
 		if (app.getRequest().isQuotientScalingEnabled() && app.getRequest().getQuotient() > 0 && !app.isInLearningTime()) {
-			act = chooseScalingActionWithQuotient(app, instances, ScalingLog.HTTP_LATENCY_BASED);
+			act = chooseScalingActionWithQuotient(app, instances, component, target);
 		} else {		
-			act = chooseScalingActionWithoutQuotient(app, instances, ScalingLog.HTTP_LATENCY_BASED);
+			act = chooseScalingActionWithoutQuotient(app, instances, component, target);
 		}
 		
-		act = checkForLimits(app, act);
-		return act;
+		return checkForLimits(app, act);
 	}
 	
 	/**
@@ -127,32 +136,32 @@ public class ScalingChecker {
 	 * @return computed ScalingAction or null if the instance count could not be computed
 	 */
 	public static ScalingAction chooseScalingActionForLimits(ScalableApp app, ScalingAction act) {
-			int newInstances = -1;
+		return chooseScalingActionForLimits(app, act, new ScalingAction());
+	}
+	
+	/**
+	 * Fills a {@linkplain ScalingAction} based on application limits.
+	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
+	 * @param act {@linkplain ScalingAction} to control for limit violations, not altered
+	 * @param target action to fill, has to be another object than {@code act}
+	 * @return the filled target or null if no limit is violated or the instance count could not be computed
+	 */
+	public static ScalingAction chooseScalingActionForLimits(ScalableApp app, ScalingAction act, ScalingAction target) {
 			int oldInstances = app.getCurrentInstanceCount();
-			boolean changeNeeded = false;
-			String desc = "";
 			
 			if (oldInstances == Scaler.NO_METRIC_ERROR_INSTANCE_COUNT)
 				return null;
 			
 			//if there is need to scale, the other scaling action already stays in the limit
 			if (oldInstances > app.getMaxInstances() && (act == null || !act.isNeedToScale() || act.getNewInstances() == app.getMaxInstances()) ) {
-				newInstances = app.getMaxInstances();
-				changeNeeded = true;
-				desc = "Downscaled - instance count over maximum of "+app.getMaxInstances(); 
+				return target.set(app, app.getMaxInstances(), oldInstances, true, ScalingLog.LIMIT_BASED
+						, ScalingReason.ABOVE_MAXIMUM, app.getMaxInstances());
 			}
 			else if (oldInstances < app.getMinInstances() && (act == null || !act.isNeedToScale() || act.getNewInstances() == app.getMinInstances()) ) {
-				newInstances = app.getMinInstances();
-				changeNeeded = true;
-				desc = "Upscaled - instance count below minimum of "+app.getMinInstances(); 
+				return target.set(app, app.getMinInstances(), oldInstances, true, ScalingLog.LIMIT_BASED
+						, ScalingReason.BELOW_MINIMUM, app.getMinInstances());
 			}
 			
-			
-			if (changeNeeded) {
-				ScalingAction newAction = new ScalingAction(app, newInstances, oldInstances, true, ScalingLog.LIMIT_BASED, desc);
-				return newAction;
-			}
-			//return new ScalingAction(app,oldInstances, oldInstances, false, "No application limits were surpassed.");
 			return null;
 	}
 	
@@ -162,6 +171,16 @@ public class ScalingChecker {
 	 * @return computed ScalingAction or null if scaling for this component is not enabled or null if the instance count could not be computed
 	 */
 	public static ScalingAction chooseScalingActionForPrediction(ScalableApp app) {
+		return chooseScalingActionForPrediction(app, new ScalingAction());
+	}
+	
+	/**
+	 * Fills a {@linkplain ScalingAction} based on the {@linkplain Prediction}.
+	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
+	 * @param target action to fill
+	 * @return the filled target or null if there is no current prediction
+	 */
+	public static ScalingAction chooseScalingActionForPrediction(ScalableApp app, ScalingAction target) {
 		Prediction pred = app.getPrediction(); 
 		long current = System.currentTimeMillis();
 		
@@ -174,141 +193,142 @@ public class ScalingChecker {
 		}
 		
 		int oldInstances = app.getCurrentInstanceCount();
-		ScalingAction act = null;
 		
 		if (oldInstances == pred.getInstanceCount()) {
-			act = new ScalingAction(app, oldInstances, oldInstances, false, ScalingLog.PREDICTOR_BASED, "No scaling - current instance count is the same as the predicted one.");
+			target.set(app, oldInstances, oldInstances, false, ScalingLog.PREDICTOR_BASED, ScalingReason.PREDICTION_MATCHES, 0);
 		} else {
-			String desc;
-			if (oldInstances > pred.getInstanceCount()) {
-				desc = "Downscaled - instance count above prediction.";
-			} else { 
-				desc = "Upscaled - instance count below prediction.";
-			}
-			act = new ScalingAction(app, pred.getInstanceCount(), oldInstances, true, ScalingLog.PREDICTOR_BASED, desc);
+			ScalingReason reason = oldInstances > pred.getInstanceCount() ? ScalingReason.ABOVE_PREDICTION : ScalingReason.BELOW_PREDICTION;
+			target.set(app, pred.getInstanceCount(), oldInstances, true, ScalingLog.PREDICTOR_BASED, reason, 0);
 		}
 			
-		return checkForLimits(app, act);
+		return checkForLimits(app, target);
 	}
 	
 	/**
-	 * Get a {@linkplain ScalingAction} based on the given component with the help of the quotient.
+	 * Returns the upper limit of the given component.
+	 * @param app {@linkplain ScalableApp} to get the limit of
+	 * @param component index of the component
+	 * @return upper limit
+	 */
+	private static long upperLimit(ScalableApp app, int component) {
+		switch(component) {
+		case ScalingLog.CONTAINER_CPU_BASED:	return app.getCpu().getUpperLimit();
+		case ScalingLog.CONTAINER_RAM_BASED:	return app.getRam().getUpperLimit();
+		default:								return app.getLatency().getUpperLimit();
+		}
+	}
+	
+	/**
+	 * Returns the lower limit of the given component.
+	 * @param app {@linkplain ScalableApp} to get the limit of
+	 * @param component index of the component
+	 * @return lower limit
+	 */
+	private static long lowerLimit(ScalableApp app, int component) {
+		switch(component) {
+		case ScalingLog.CONTAINER_CPU_BASED:	return app.getCpu().getLowerLimit();
+		case ScalingLog.CONTAINER_RAM_BASED:	return app.getRam().getLowerLimit();
+		default:								return app.getLatency().getLowerLimit();
+		}
+	}
+	
+	/**
+	 * Returns the current value of the given component.
+	 * @param app {@linkplain ScalableApp} to get the value of
+	 * @param component index of the component
+	 * @return current value
+	 */
+	private static long currentValue(ScalableApp app, int component) {
+		switch(component) {
+		case ScalingLog.CONTAINER_CPU_BASED:	return app.getCpu().getValueOfCpu();
+		case ScalingLog.CONTAINER_RAM_BASED:	return app.getRam().getValueOfRam();
+		default:								return app.getLatency().getValueOfLatency();
+		}
+	}
+	
+	/**
+	 * Checks whether the given component is one the checker can compute actions for.
+	 * @param component index of the component
+	 * @return true for CPU, RAM and latency
+	 */
+	private static boolean isKnownComponent(int component) {
+		if (component == ScalingLog.CONTAINER_CPU_BASED || component == ScalingLog.CONTAINER_RAM_BASED
+				|| component == ScalingLog.HTTP_LATENCY_BASED)
+			return true;
+		log.error("Tried to create a ScalingAction based on an unknown component.");
+		return false;
+	}
+	
+	/**
+	 * Fills a {@linkplain ScalingAction} based on the given component with the help of the quotient.
 	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
 	 * @param instances current number of instances of the application
 	 * @param component index of which component will be used
-	 * @return the computed ScalingAction
+	 * @param target action to fill
+	 * @return the filled target or null for an unknown component
 	 */
-	private static ScalingAction chooseScalingActionWithQuotient(ScalableApp app, int instances, int component) {
-		long upperLimit = -1;
-		long lowerLimit = -1;
-		long currentValue = -1;
-		String descriptionFiller = "";
-		
-		switch(component) {
-		case ScalingLog.CONTAINER_CPU_BASED: upperLimit = app.getCpu().getUpperLimit();
-												lowerLimit = app.getCpu().getLowerLimit();
-												currentValue = app.getCpu().getValueOfCpu();
-												descriptionFiller = "cpu load";
-												break;
-		case ScalingLog.CONTAINER_RAM_BASED: upperLimit = app.getRam().getUpperLimit();
-												lowerLimit = app.getRam().getLowerLimit();
-												currentValue = app.getRam().getValueOfRam();
-												descriptionFiller = "ram load";
-												break;
-		case ScalingLog.HTTP_LATENCY_BASED:	upperLimit = app.getLatency().getUpperLimit();
-												lowerLimit = app.getLatency().getLowerLimit();
-												currentValue = app.getLatency().getValueOfLatency();
-												descriptionFiller = "latency";
-												break;
-		default:								log.error("Tried to create a ScalingAction based on an unknown component.");
-												return null;
-		}
+	private static ScalingAction chooseScalingActionWithQuotient(ScalableApp app, int instances, int component, ScalingAction target) {
+		if (!isKnownComponent(component))
+			return null;
+		long upperLimit = upperLimit(app, component);
+		long lowerLimit = lowerLimit(app, component);
+		long currentValue = currentValue(app, component);
 		
-		ScalingAction act = chooseScalingActionBasedOnQuotient(app, instances, component);
+		ScalingAction act = chooseScalingActionBasedOnQuotient(app, instances, component, target);
 		
 		if (currentValue > upperLimit) {
-			act.setReasonDescription("Upscaled - " + descriptionFiller + " over " + upperLimit + " - with quotient");
-			
 			if (act.getNewInstances() <= act.getOldInstances()) {
-				act = chooseScalingActionWithoutQuotient(app, instances, component);
-				act.setReasonDescription("Upscaled - " + descriptionFiller + " over " + upperLimit + " - despite quotient");
+				act = chooseScalingActionWithoutQuotient(app, instances, component, target);
+				act.setReasonCode(ScalingReason.UPSCALE_DESPITE_QUOTIENT, upperLimit);
+			} else {
+				act.setReasonCode(ScalingReason.UPSCALE_WITH_QUOTIENT, upperLimit);
 			}
 		} else if (currentValue < lowerLimit) {
-			act.setReasonDescription("Downscaled - " + descriptionFiller + " below " + lowerLimit + " - with quotient");
-			
 			if (act.getNewInstances() >= act.getOldInstances()) {
-				act = chooseScalingActionWithoutQuotient(app, instances, component);
-				act.setReasonDescription("Downscaled - " + descriptionFiller + " below "+ lowerLimit+ " - despite quotient");
+				act = chooseScalingActionWithoutQuotient(app, instances, component, target);
+				act.setReasonCode(ScalingReason.DOWNSCALE_DESPITE_QUOTIENT, lowerLimit);
+			} else {
+				act.setReasonCode(ScalingReason.DOWNSCALE_WITH_QUOTIENT, lowerLimit);
 			}
-		} else if (currentValue <= upperLimit && currentValue >= lowerLimit) {
-			String desc = "No need for scaling, because " + descriptionFiller + " is in an allowed state.";
-			act = new ScalingAction(app, instances, instances, false, component, desc);
+		} else {
+			act.set(app, instances, instances, false, component, ScalingReason.IN_ALLOWED_STATE, 0);
 		}
 		return act;
 	}
 	
 	/**
-	 * Get a {@linkplain ScalingAction} based on the given component without the help of the quotient.
+	 * Fills a {@linkplain ScalingAction} based on the given component without the help of the quotient.
 	 * Use the constants of the ScalingAction class for the component index.
 	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
 	 * @param instances current number of instances of the application
 	 * @param component index of which component will be used
-	 * @return the computed ScalingAction
+	 * @param target action to fill
+	 * @return the filled target or null for an unknown component
 	 */
-	private static ScalingAction chooseScalingActionWithoutQuotient(ScalableApp app, int instances, int component) {
-		int newInstances = -1;
-		long upperLimit = -1;
-		long lowerLimit = -1;
-		long currentValue = -1;
-		String desc;
-		String descriptionFiller = "";
-		
-		switch(component) {
-		case ScalingLog.CONTAINER_CPU_BASED: upperLimit = app.getCpu().getUpperLimit();
-												lowerLimit = app.getCpu().getLowerLimit();
-												currentValue = app.getCpu().getValueOfCpu();
-												descriptionFiller = "cpu load";
-												break;
-		case ScalingLog.CONTAINER_RAM_BASED: upperLimit = app.getRam().getUpperLimit();
-												lowerLimit = app.getRam().getLowerLimit();
-												currentValue = app.getRam().getValueOfRam();
-												descriptionFiller = "ram load";
-												break;
-		case ScalingLog.HTTP_LATENCY_BASED:	upperLimit = app.getLatency().getUpperLimit();
-												lowerLimit = app.getLatency().getLowerLimit();
-												currentValue = app.getLatency().getValueOfLatency();
-												descriptionFiller = "latency";
-												break;
-		default:								log.error("Tried to create a ScalingAction based on an unknown component.");
-												return null;
-		}
-		
-		ScalingAction act = null;
+	private static ScalingAction chooseScalingActionWithoutQuotient(ScalableApp app, int instances, int component, ScalingAction target) {
+		if (!isKnownComponent(component))
+			return null;
+		long upperLimit = upperLimit(app, component);
+		long lowerLimit = lowerLimit(app, component);
+		long currentValue = currentValue(app, component);
 		
 		if (currentValue > upperLimit) {
-			newInstances = instances + staticScalingSize;
-			desc = "Upscaled - " + descriptionFiller + " over " + upperLimit + " - without quotient ";
-			act = new ScalingAction(app, newInstances, instances, true, component, desc);	
+			return target.set(app, instances + staticScalingSize, instances, true, component, ScalingReason.UPSCALE_WITHOUT_QUOTIENT, upperLimit);
 		} else if (currentValue < lowerLimit) {
-			newInstances = instances - staticScalingSize;
-			desc = "Downscaled - " + descriptionFiller + " below "+ lowerLimit + " - without quotient ";
-			act = new ScalingAction(app, newInstances, instances, true, component, desc);
-		} else if (currentValue <= upperLimit && currentValue >= lowerLimit) {
-			desc = "No need for scaling, because " + descriptionFiller + " is in an allowed state.";
-			act = new ScalingAction(app, instances, instances, false, component, desc);
+			return target.set(app, instances - staticScalingSize, instances, true, component, ScalingReason.DOWNSCALE_WITHOUT_QUOTIENT, lowerLimit);
 		}
-		
-		return act;
+		return target.set(app, instances, instances, false, component, ScalingReason.IN_ALLOWED_STATE, 0);
 	}
 	
 	/**
-	 * Creates a {@linkplain ScalingAction} with an instance count computed by the quotient. 
+	 * Fills a {@linkplain ScalingAction} with an instance count computed by the quotient. 
 	 * @param app {@linkplain ScalableApp} to get the ScalingAction for
 	 * @param instances current number of instances of the application
 	 * @param basedOnComponent index of which component will be used
-	 * @return created ScalingAction
+	 * @param target action to fill
+	 * @return the filled target
 	 */
-	private static ScalingAction chooseScalingActionBasedOnQuotient(ScalableApp app, int instances, int basedOnComponent) {
+	private static ScalingAction chooseScalingActionBasedOnQuotient(ScalableApp app, int instances, int basedOnComponent, ScalingAction target) {
 			int quotient = app.getRequest().getQuotient();
 			int requests = app.getRequest().getValueOfHttpRequests();
 			int newInstances = Math.abs(requests / quotient);
@@ -322,9 +342,7 @@ public class ScalingChecker {
 			if (newInstances > app.getMaxInstances())
 				newInstances = app.getMaxInstances();
 			
-			if (newInstances == instances)
-				return new ScalingAction(app, instances, instances, false, basedOnComponent, "");
-			return new ScalingAction(app, newInstances, instances, true, basedOnComponent, "");
+			return target.set(app, newInstances, instances, newInstances != instances, basedOnComponent, ScalingReason.NONE, 0);
 	}
 
 	/**
@@ -347,8 +365,7 @@ public class ScalingChecker {
 				
 			
 			if (act.getNewInstances()  == act.getOldInstances() && act.isNeedToScale()) {
-				String desc = "Not allowed to scale, because it would break an instance count limit.";
-				act = new ScalingAction(app, act.getOldInstances(), act.getOldInstances(), false, act.getReason(), desc);
+				act.set(app, act.getOldInstances(), act.getOldInstances(), false, act.getReason(), ScalingReason.LIMIT_BLOCKED, 0);
 			}
 		}
 		
@@ -0,0 +1,66 @@
+package de.evoila.cf.autoscaler.core.scaling;
+
+/**
+ * Reusable record of the {@linkplain ScalingAction} objects filled during one scaling check.
+ * Every thread deciding on scaling gets its own record, so a check does not allocate actions.
+ * The actions are overwritten by the next check of the same thread, so an action which is executed
+ * or kept beyond the check has to be detached via {@linkplain ScalingAction#copy()}.
+ * @author Marius Berger
+ *
+ */
+public class ScalingDecision {
+
+	/**
+	 * Record of the current thread.
+	 */
+	private static final ThreadLocal<ScalingDecision> DECISIONS = ThreadLocal.withInitial(ScalingDecision::new);
+
+	/**
+	 * Action based on the CPU load.
+	 */
+	private final ScalingAction cpu = new ScalingAction();
+	/**
+	 * Action based on the RAM usage.
+	 */
+	private final ScalingAction ram = new ScalingAction();
+	/**
+	 * Action based on the latency.
+	 */
+	private final ScalingAction latency = new ScalingAction();
+	/**
+	 * Action based on the instance limits.
+	 */
+	private final ScalingAction limits = new ScalingAction();
+	/**
+	 * Action based on the prediction.
+	 */
+	private final ScalingAction prediction = new ScalingAction();
+
+	/**
+	 * Returns the record of the current thread.
+	 * @return record of the current thread
+	 */
+	public static ScalingDecision forCurrentThread() {
+		return DECISIONS.get();
+	}
+
+	public ScalingAction getCpu() {
+		return cpu;
+	}
+
+	public ScalingAction getRam() {
+		return ram;
+	}
+
+	public ScalingAction getLatency() {
+		return latency;
+	}
+
+	public ScalingAction getLimits() {
+		return limits;
+	}
+
+	public ScalingAction getPrediction() {
+		return prediction;
+	}
+}
@@ -0,0 +1,125 @@
+package de.evoila.cf.autoscaler.core.scaling;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.monitoring.AutoscalerMetrics;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Schedules applications for an immediate scaling check, when the consumers see a metric above one of their upper limits.
+ * In the event driven mode a crossing queues the application, debounced per application, and wakes up the {@linkplain Scaler}.
+ * Crossings are recorded in both modes, so the reaction times of event triggered and periodic checks can be compared.
+ * @author Marius Berger
+ *
+ */
+@Service
+public class ScalingEventTrigger {
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(ScalingEventTrigger.class);
+
+	/**
+	 * Property bean for properties concerning the scaler itself.
+	 */
+	@Autowired
+	private AutoscalerPropertiesBean autoscalerProps;
+
+	/**
+	 * Applications scheduled for an event triggered check.
+	 */
+	private final Queue<ScalableApp> pending;
+
+	/**
+	 * Called after an application was queued, wakes up the scaling loop.
+	 */
+	private volatile Runnable wakeUp;
+
+	/**
+	 * Boolean value, whether crossings schedule event triggered checks.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Minimum time in milliseconds between two event triggered checks of the same application.
+	 */
+	private long debounce;
+
+	/**
+	 * Constructor for Spring to set up and inject the trigger.
+	 */
+	public ScalingEventTrigger() {
+		pending = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * Reads the settings of the event driven mode.
+	 */
+	@PostConstruct
+	public void init() {
+		AutoscalerPropertiesBean.EventTrigger props = autoscalerProps.getEventTrigger();
+		enabled = props.isEnabled();
+		debounce = props.getDebounce();
+		if (enabled)
+			log.info("Applications are checked right after crossing an upper limit, debounced by " + debounce + " ms.");
+	}
+
+	/**
+	 * Sets the callback waking up the scaling loop after an application was queued.
+	 * @param wakeUp callback to run
+	 */
+	public void setWakeUp(Runnable wakeUp) {
+		this.wakeUp = wakeUp;
+	}
+
+	/**
+	 * Called by the consumers for an incoming metric above an upper limit of the application.
+	 * Records the crossing and in the event driven mode queues the application, unless it is already queued or was checked within the debounce time.
+	 * Lock-free and safe to call from any thread.
+	 * @param app application the metric belongs to
+	 */
+	public void onLimitCrossed(ScalableApp app) {
+		long now = System.currentTimeMillis();
+		app.markLimitCrossing(now);
+		if (enabled && app.tryScheduleEventCheck(now, debounce)) {
+			pending.add(app);
+			Runnable callback = wakeUp;
+			if (callback != null)
+				callback.run();
+		}
+	}
+
+	/**
+	 * Takes the next application scheduled for an event triggered check.
+	 * @return next application or null if none is queued
+	 */
+	public ScalableApp poll() {
+		return pending.poll();
+	}
+
+	/**
+	 * Records the reaction time of a check, if an upper limit was crossed since the last check of the application.
+	 * The caller has to hold the lock of the application.
+	 * @param app checked application
+	 * @param eventTriggered whether the check was triggered by an event or by the periodic sweep
+	 */
+	public void recordCheck(ScalableApp app, boolean eventTriggered) {
+		long crossingTime = app.takeLimitCrossingTime();
+		if (crossingTime <= 0)
+			return;
+		long reactionTime = Math.max(0, System.currentTimeMillis() - crossingTime);
+		AutoscalerMetrics.recordReactionTime(eventTriggered, reactionTime);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+}
@@ -0,0 +1,95 @@
+package de.evoila.cf.autoscaler.core.scaling;
+
+import de.evoila.cf.autoscaler.kafka.messages.ScalingLog;
+
+/**
+ * Reason codes of a {@linkplain ScalingAction}.
+ * The human readable description of a reason is only rendered, when it is needed for a {@linkplain ScalingLog} or a log message,
+ * so deciding on an action does not build any Strings.
+ * @author Marius Berger
+ *
+ */
+public enum ScalingReason {
+
+	/**
+	 * Intermediate action computed by the quotient, which gets its final reason afterwards.
+	 */
+	NONE("", false, null, ""),
+	/**
+	 * Description given as String, see {@linkplain ScalingAction#setReasonDescription(String)}.
+	 */
+	CUSTOM("", false, null, ""),
+	IN_ALLOWED_STATE("No need for scaling, because ", true, null, " is in an allowed state."),
+	UPSCALE_WITH_QUOTIENT("Upscaled - ", true, " over ", " - with quotient"),
+	UPSCALE_DESPITE_QUOTIENT("Upscaled - ", true, " over ", " - despite quotient"),
+	UPSCALE_WITHOUT_QUOTIENT("Upscaled - ", true, " over ", " - without quotient "),
+	DOWNSCALE_WITH_QUOTIENT("Downscaled - ", true, " below ", " - with quotient"),
+	DOWNSCALE_DESPITE_QUOTIENT("Downscaled - ", true, " below ", " - despite quotient"),
+	DOWNSCALE_WITHOUT_QUOTIENT("Downscaled - ", true, " below ", " - without quotient "),
+	LIMIT_BLOCKED("Not allowed to scale, because it would break an instance count limit.", false, null, ""),
+	ABOVE_MAXIMUM("Downscaled - instance count over maximum of ", false, "", ""),
+	BELOW_MINIMUM("Upscaled - instance count below minimum of ", false, "", ""),
+	PREDICTION_MATCHES("No scaling - current instance count is the same as the predicted one.", false, null, ""),
+	ABOVE_PREDICTION("Downscaled - instance count above prediction.", false, null, ""),
+	BELOW_PREDICTION("Upscaled - instance count below prediction.", false, null, "");
+
+	/**
+	 * Text in front of the component name.
+	 */
+	private final String prefix;
+	/**
+	 * Boolean value, whether the name of the component is part of the description.
+	 */
+	private final boolean withComponent;
+	/**
+	 * Text in front of the value of the reason, null if the value is not part of the description.
+	 */
+	private final String beforeValue;
+	/**
+	 * Text at the end of the description.
+	 */
+	private final String suffix;
+
+	/**
+	 * Constructor with all necessary fields.
+	 * @param prefix {@linkplain #prefix}
+	 * @param withComponent {@linkplain #withComponent}
+	 * @param beforeValue {@linkplain #beforeValue}
+	 * @param suffix {@linkplain #suffix}
+	 */
+	private ScalingReason(String prefix, boolean withComponent, String beforeValue, String suffix) {
+		this.prefix = prefix;
+		this.withComponent = withComponent;
+		this.beforeValue = beforeValue;
+		this.suffix = suffix;
+	}
+
+	/**
+	 * Renders the description of this reason.
+	 * @param component component the action is based on, see the x_BASED constants of {@linkplain ScalingLog}
+	 * @param value limit or instance count the description refers to
+	 * @return human readable description
+	 */
+	public String render(int component, long value) {
+		StringBuilder builder = new StringBuilder(64).append(prefix);
+		if (withComponent)
+			builder.append(componentName(component));
+		if (beforeValue != null)
+			builder.append(beforeValue).append(value);
+		return builder.append(suffix).toString();
+	}
+
+	/**
+	 * Returns the name of a component used in descriptions.
+	 * @param component component, see the x_BASED constants of {@linkplain ScalingLog}
+	 * @return name of the component
+	 */
+	public static String componentName(int component) {
+		switch (component) {
+		case ScalingLog.CONTAINER_CPU_BASED:	return "cpu load";
+		case ScalingLog.CONTAINER_RAM_BASED:	return "ram load";
+		case ScalingLog.HTTP_LATENCY_BASED:		return "latency";
+		default:								return "unknown component";
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package de.evoila.cf.autoscaler.core.scaling;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedules the scaling checks of the applications on a {@linkplain TimingWheel} in the timing wheel mode.
+ * Every application is registered for its next check time or, after a scaling event, for the end of its cooldown,
+ * so the {@linkplain Scaler} only checks the applications, which are due.
+ * Once per base interval all other registered applications are woken to aggregate their metrics without a check,
+ * so their application metrics are collected as often as in the interval mode.
+ * The check interval of an application is its scaling interval multiplier times the configured base interval.
+ * The learning time is evaluated during the checks and needs no wake-up of its own.
+ * Safe to use from any thread.
+ * @author Marius Berger
+ *
+ */
+@Service
+public class ScalingSchedule {
+
+	/**
+	 * Number of slots per level of the {@linkplain #wheel}.
+	 */
+	private static final int WHEEL_SIZE = 64;
+
+	/**
+	 * Number of levels of the {@linkplain #wheel}, which covers 64^4 ticks.
+	 */
+	private static final int WHEEL_LEVELS = 4;
+
+	/**
+	 * A due application and the reason it was scheduled for.
+	 */
+	public static final class Wake {
+
+		/**
+		 * Application to wake.
+		 */
+		private final ScalableApp app;
+		/**
+		 * Boolean value, whether the application was scheduled for the end of its cooldown instead of a check.
+		 */
+		private final boolean cooldownExpiry;
+		/**
+		 * Boolean value, whether the application is only woken to aggregate its metrics and keeps its pending wake-up.
+		 */
+		private final boolean aggregationOnly;
+
+		private Wake(ScalableApp app, boolean cooldownExpiry, boolean aggregationOnly) {
+			this.app = app;
+			this.cooldownExpiry = cooldownExpiry;
+			this.aggregationOnly = aggregationOnly;
+		}
+
+		public ScalableApp getApp() {
+			return app;
+		}
+
+		public boolean isCooldownExpiry() {
+			return cooldownExpiry;
+		}
+
+		public boolean isAggregationOnly() {
+			return aggregationOnly;
+		}
+	}
+
+	/**
+	 * Logger of this class.
+	 */
+	private Logger log = LoggerFactory.getLogger(ScalingSchedule.class);
+
+	/**
+	 * Property bean for properties concerning the scaler itself.
+	 */
+	@Autowired
+	private AutoscalerPropertiesBean autoscalerProps;
+
+	/**
+	 * Boolean value, whether the timing wheel mode is active.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Time in milliseconds the scaling interval multiplier of an application is multiplied with.
+	 */
+	private long baseInterval;
+
+	/**
+	 * Epoch time stamp, at which all registered applications are woken to aggregate their metrics next.
+	 */
+	private long nextAggregation;
+
+	/**
+	 * Wheel holding the next wake-up of every registered application.
+	 */
+	private TimingWheel<Wake> wheel;
+
+	/**
+	 * Pending wake-up of every registered application, used to cancel it when the application is rescheduled or unbound.
+	 */
+	private final Map<ScalableApp, TimingWheel.Timeout<Wake>> timeouts;
+
+	/**
+	 * Constructor for Spring to set up and inject the schedule.
+	 */
+	public ScalingSchedule() {
+		timeouts = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Reads the settings of the timing wheel mode and creates the wheel.
+	 */
+	@PostConstruct
+	public void init() {
+		AutoscalerPropertiesBean.Scheduling props = autoscalerProps.getScheduling();
+		enabled = props.isTimingWheel();
+		baseInterval = Math.max(1, props.getBaseInterval());
+		long now = System.currentTimeMillis();
+		wheel = new TimingWheel<>(props.getTickDuration(), WHEEL_SIZE, WHEEL_LEVELS, now);
+		nextAggregation = now + baseInterval;
+		if (enabled)
+			log.info("Scaling checks are scheduled on a timing wheel with a base interval of " + baseInterval + " ms and ticks of "
+					+ wheel.getTickDuration() + " ms.");
+	}
+
+	/**
+	 * Registers an application for its first check one interval from now, if it is not registered yet.
+	 * Does nothing outside of the timing wheel mode.
+	 * @param app application to register
+	 */
+	public synchronized void register(ScalableApp app) {
+		if (enabled && !timeouts.containsKey(app))
+			schedule(app, System.currentTimeMillis());
+	}
+
+	/**
+	 * Schedules the next wake-up of an application after it was woken or checked and cancels its pending one.
+	 * An application in its cooldown is scheduled for the end of the cooldown, otherwise for its next check one interval from now.
+	 * Does nothing outside of the timing wheel mode.
+	 * @param app application to schedule
+	 * @param now current epoch time stamp
+	 */
+	public synchronized void scheduleNext(ScalableApp app, long now) {
+		if (!enabled)
+			return;
+		cancelTimeout(app);
+		schedule(app, now);
+	}
+
+	/**
+	 * Removes an application from the schedule.
+	 * @param app application to remove
+	 */
+	public synchronized void cancel(ScalableApp app) {
+		cancelTimeout(app);
+	}
+
+	/**
+	 * Advances the wheel to the given time and returns the applications, which are due.
+	 * Due applications are not scheduled again until {@linkplain #scheduleNext(ScalableApp, long)} is called for them.
+	 * Once per base interval all other registered applications are returned as well, marked as {@linkplain Wake#isAggregationOnly()}.
+	 * They keep their pending wake-up.
+	 * @param now current epoch time stamp
+	 * @return list of due applications
+	 */
+	public synchronized List<Wake> due(long now) {
+		List<Wake> due = new ArrayList<>();
+		wheel.advance(now, wake -> {
+			timeouts.remove(wake.getApp());
+			due.add(wake);
+		});
+		if (now >= nextAggregation) {
+			nextAggregation = Math.max(nextAggregation + baseInterval, now + 1);
+			for (ScalableApp app : timeouts.keySet()) {
+				due.add(new Wake(app, false, true));
+			}
+		}
+		return due;
+	}
+
+	/**
+	 * Returns the check interval of an application.
+	 * @param app application to get the interval of
+	 * @return interval in milliseconds
+	 */
+	public long getInterval(ScalableApp app) {
+		return Math.max(ScalableApp.SCALING_INTERVAL_MULTIPLIER_MIN, app.getScalingIntervalMultiplier()) * baseInterval;
+	}
+
+	/**
+	 * Returns the number of applications with a pending wake-up.
+	 * @return number of scheduled applications
+	 */
+	public synchronized int size() {
+		return timeouts.size();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public long getTickDuration() {
+		return wheel.getTickDuration();
+	}
+
+	/**
+	 * Puts the next wake-up of an application on the wheel.
+	 * @param app application to schedule
+	 * @param now current epoch time stamp
+	 */
+	private void schedule(ScalableApp app, long now) {
+		long cooldownEnd = app.getLastScalingTime() + app.getCooldownTime();
+		Wake wake;
+		long deadline;
+		if (cooldownEnd > now) {
+			wake = new Wake(app, true, false);
+			deadline = cooldownEnd;
+		} else {
+			wake = new Wake(app, false, false);
+			deadline = now + getInterval(app);
+		}
+		timeouts.put(app, wheel.schedule(wake, deadline));
+	}
+
+	/**
+	 * Cancels the pending wake-up of an application.
+	 * @param app application to cancel the wake-up of
+	 */
+	private void cancelTimeout(ScalableApp app) {
+		TimingWheel.Timeout<Wake> timeout = timeouts.remove(app);
+		if (timeout != null)
+			timeout.cancel();
+	}
+}
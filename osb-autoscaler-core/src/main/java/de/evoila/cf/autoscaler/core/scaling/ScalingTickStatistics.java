@@ -0,0 +1,94 @@
+package de.evoila.cf.autoscaler.core.scaling;
+
+/**
+ * Holds timing information about the ticks of the {@linkplain Scaler Scaler's} check scaling loop.
+ * A tick starts, when the {@linkplain TimerThread} triggers the loop, and ends, when every application was checked.
+ * Written by the scaling thread and readable from any thread.
+ * @author Marius Berger
+ *
+ */
+public class ScalingTickStatistics {
+
+	/**
+	 * Number of finished ticks.
+	 */
+	private volatile long tickCount;
+	/**
+	 * Number of shards used in the last tick, 1 for the serial mode.
+	 */
+	private volatile int lastShardCount;
+	/**
+	 * Wall time of the last tick in milliseconds, from the start of the first shard to the end of the last one.
+	 */
+	private volatile long lastTickWallTime;
+	/**
+	 * Maximum wall time of a tick in milliseconds since the start.
+	 */
+	private volatile long maxTickWallTime;
+	/**
+	 * Time in milliseconds the slowest shard of the last tick finished after the tick was triggered.
+	 */
+	private volatile long lastSlowestShardLag;
+	/**
+	 * Maximum of {@link #lastSlowestShardLag} since the start.
+	 */
+	private volatile long maxSlowestShardLag;
+	/**
+	 * Number of applications checked in the last tick.
+	 */
+	private volatile int lastAppCount;
+
+	/**
+	 * Records a finished tick.
+	 * @param shardCount number of shards used in the tick
+	 * @param appCount number of applications checked in the tick
+	 * @param wallTime wall time of the tick in milliseconds
+	 * @param slowestShardLag time in milliseconds the slowest shard finished after the tick was triggered
+	 */
+	public void recordTick(int shardCount, int appCount, long wallTime, long slowestShardLag) {
+		lastShardCount = shardCount;
+		lastAppCount = appCount;
+		lastTickWallTime = wallTime;
+		lastSlowestShardLag = slowestShardLag;
+		if (wallTime > maxTickWallTime)
+			maxTickWallTime = wallTime;
+		if (slowestShardLag > maxSlowestShardLag)
+			maxSlowestShardLag = slowestShardLag;
+		tickCount++;
+	}
+
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	public int getLastShardCount() {
+		return lastShardCount;
+	}
+
+	public long getLastTickWallTime() {
+		return lastTickWallTime;
+	}
+
+	public long getMaxTickWallTime() {
+		return maxTickWallTime;
+	}
+
+	public long getLastSlowestShardLag() {
+		return lastSlowestShardLag;
+	}
+
+	public long getMaxSlowestShardLag() {
+		return maxSlowestShardLag;
+	}
+
+	public int getLastAppCount() {
+		return lastAppCount;
+	}
+
+	@Override
+	public String toString() {
+		return "ScalingTickStatistics [tickCount=" + tickCount + ", lastShardCount=" + lastShardCount + ", lastAppCount=" + lastAppCount
+				+ ", lastTickWallTime=" + lastTickWallTime + ", maxTickWallTime=" + maxTickWallTime
+				+ ", lastSlowestShardLag=" + lastSlowestShardLag + ", maxSlowestShardLag=" + maxSlowestShardLag + "]";
+	}
+}
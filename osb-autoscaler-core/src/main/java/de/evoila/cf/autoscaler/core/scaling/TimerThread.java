@@ -11,10 +11,15 @@ import org.slf4j.LoggerFactory;
  */
 public class TimerThread extends Thread {
 
+	/**
+	 * Default time to wait before releasing the mutex.
+	 */
+	public static final int MIN_INTERVAL = 30000;
+	
 	/**
 	 * Time to wait before releasing the mutex.
 	 */
-	private static final int MIN_INTERVAL = 30000;
+	private final long interval;
 	
 	/**
 	 * Logger of this class.
@@ -41,21 +46,36 @@ public class TimerThread extends Thread {
 	 * @param scaler scaler object to trigger
 	 */
 	public TimerThread(Scaler scaler) {
+		this(scaler, MIN_INTERVAL);
+	}
+	
+	/**
+	 * Constructor for setting up TimerThread with a given {@linkplain Scaler} and interval.
+	 * @param scaler scaler object to trigger
+	 * @param interval time in milliseconds to wait before releasing the mutex
+	 */
+	public TimerThread(Scaler scaler, long interval) {
 		super("TimerThread");
 		running = true;
 		this.scaler = scaler;
+		this.interval = interval;
 		intervalCount = 0;
 	}
 	
 	/**
-	 * Waits for the time defined in the {@linkplain #MIN_INTERVAL} and then releases the mutex of the {@linkplain Scaler} in a loop.
+	 * Waits for the time defined in the {@linkplain #interval} and then releases the mutex of the {@linkplain Scaler} in a loop.
+	 * Intervals shorter than {@linkplain #MIN_INTERVAL} are only logged on debug level.
 	 */
 	public void run() {
 		try {
 			while (running) {
-				sleep(MIN_INTERVAL);
+				sleep(interval);
 				increaseInterval();
-				log.info("##### Scaling interval "+intervalCount+" ended. #####");
+				if (interval >= MIN_INTERVAL) {
+					log.info("##### Scaling interval "+intervalCount+" ended. #####");
+				} else {
+					log.debug("##### Scaling interval "+intervalCount+" ended. #####");
+				}
 				scaler.releaseMutex();
 			}
 		} catch (InterruptedException ex) {}
@@ -0,0 +1,192 @@
+package de.evoila.cf.autoscaler.core.scaling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for scheduling items at epoch time stamps with a resolution of one tick.
+ * Level 0 has a slot for each of the next {@code wheelSize} ticks, every higher level has a slot for {@code wheelSize}
+ * slots of the level below. Entries of a higher level are cascaded down, when the lower level wraps around.
+ * Scheduling and cancelling are O(1), advancing costs O(1) per passed tick plus the work for the due and cascaded entries.
+ * Deadlines beyond the range of the highest level are parked in its last slot and placed again on every cascade, until they are in range.
+ * Not thread-safe, callers have to synchronize.
+ * @author Marius Berger
+ *
+ * @param <T> type of the scheduled items
+ */
+public class TimingWheel<T> {
+
+	/**
+	 * A scheduled item, which can be cancelled.
+	 * @param <T> type of the scheduled item
+	 */
+	public static final class Timeout<T> {
+
+		/**
+		 * Scheduled item.
+		 */
+		private final T item;
+		/**
+		 * Tick the item is due at.
+		 */
+		private final long deadlineTick;
+		/**
+		 * Boolean value, whether the timeout was cancelled and has to be skipped.
+		 */
+		private boolean cancelled;
+
+		private Timeout(T item, long deadlineTick) {
+			this.item = item;
+			this.deadlineTick = deadlineTick;
+		}
+
+		public T getItem() {
+			return item;
+		}
+
+		/**
+		 * Cancels the timeout, it is dropped when its slot is reached.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	/**
+	 * Duration of one tick in milliseconds.
+	 */
+	private final long tickDuration;
+	/**
+	 * Number of bits of the slot index of one level.
+	 */
+	private final int bits;
+	/**
+	 * Mask for the slot index of one level.
+	 */
+	private final long mask;
+	/**
+	 * Slots of all levels, {@code slots[level][index]}.
+	 */
+	private final List<Timeout<T>>[][] slots;
+	/**
+	 * Last processed tick.
+	 */
+	private long currentTick;
+	/**
+	 * Number of scheduled timeouts, including cancelled ones, which have not been dropped yet.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for a timing wheel starting at the given time.
+	 * @param tickDuration duration of one tick in milliseconds
+	 * @param wheelSize number of slots per level, rounded up to a power of two
+	 * @param levels number of levels
+	 * @param startTime epoch time stamp to start at
+	 */
+	@SuppressWarnings("unchecked")
+	public TimingWheel(long tickDuration, int wheelSize, int levels, long startTime) {
+		this.tickDuration = Math.max(1, tickDuration);
+		this.bits = 32 - Integer.numberOfLeadingZeros(Math.max(2, wheelSize) - 1);
+		this.mask = (1L << bits) - 1;
+		int levelCount = Math.max(1, Math.min(levels, 62 / bits));
+		slots = new List[levelCount][1 << bits];
+		for (int level = 0; level < levelCount; level++) {
+			for (int i = 0; i < slots[level].length; i++) {
+				slots[level][i] = new ArrayList<>();
+			}
+		}
+		currentTick = startTime / this.tickDuration;
+	}
+
+	/**
+	 * Schedules an item at the given time. Deadlines in the past fire on the next tick.
+	 * @param item item to schedule
+	 * @param deadline epoch time stamp the item is due at
+	 * @return timeout to cancel the item with
+	 */
+	public Timeout<T> schedule(T item, long deadline) {
+		long deadlineTick = (deadline + tickDuration - 1) / tickDuration;
+		Timeout<T> timeout = new Timeout<>(item, Math.max(deadlineTick, currentTick + 1));
+		place(timeout);
+		size++;
+		return timeout;
+	}
+
+	/**
+	 * Advances the wheel to the given time and hands every due, not cancelled item to the consumer.
+	 * @param now current epoch time stamp
+	 * @param due consumer for the due items
+	 */
+	public void advance(long now, Consumer<T> due) {
+		long targetTick = now / tickDuration;
+		while (currentTick < targetTick) {
+			currentTick++;
+			for (int level = slots.length - 1; level > 0; level--) {
+				if ((currentTick & ((1L << (bits * level)) - 1)) == 0)
+					cascade(level);
+			}
+			List<Timeout<T>> slot = slots[0][(int) (currentTick & mask)];
+			for (Timeout<T> timeout : slot) {
+				size--;
+				if (!timeout.cancelled)
+					due.accept(timeout.item);
+			}
+			slot.clear();
+		}
+	}
+
+	/**
+	 * Moves the entries of the current slot of the given level to the levels below.
+	 * @param level level to cascade
+	 */
+	private void cascade(int level) {
+		List<Timeout<T>> slot = slots[level][(int) ((currentTick >>> (bits * level)) & mask)];
+		if (slot.isEmpty())
+			return;
+		List<Timeout<T>> entries = new ArrayList<>(slot);
+		slot.clear();
+		for (Timeout<T> timeout : entries) {
+			if (timeout.cancelled) {
+				size--;
+			} else {
+				place(timeout);
+			}
+		}
+	}
+
+	/**
+	 * Puts a timeout into the slot of the lowest level covering its deadline.
+	 * Timeouts due at the current tick are put into the current slot of level 0, which is processed next.
+	 * Timeouts beyond the range of the highest level are put into the slot cascaded last.
+	 * @param timeout timeout to place
+	 */
+	private void place(Timeout<T> timeout) {
+		long delta = Math.max(0, timeout.deadlineTick - currentTick);
+		int level = 0;
+		while (level < slots.length - 1 && delta >= (1L << (bits * (level + 1)))) {
+			level++;
+		}
+		long tick = timeout.deadlineTick;
+		if (level == slots.length - 1 && delta >= (1L << (bits * slots.length)))
+			tick = currentTick + (1L << (bits * slots.length)) - 1;
+		slots[level][(int) ((tick >>> (bits * level)) & mask)].add(timeout);
+	}
+
+	/**
+	 * Returns the number of scheduled timeouts, cancelled timeouts are counted until their slot is reached.
+	 * @return number of scheduled timeouts
+	 */
+	public int size() {
+		return size;
+	}
+
+	public long getTickDuration() {
+		return tickDuration;
+	}
+}
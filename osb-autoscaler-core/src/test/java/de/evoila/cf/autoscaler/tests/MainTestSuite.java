@@ -1,5 +1,9 @@
 package de.evoila.cf.autoscaler.tests;
 
+import de.evoila.cf.autoscaler.tests.http.HttpTestSuite;
+import de.evoila.cf.autoscaler.tests.kafka.KafkaTestSuite;
+import de.evoila.cf.autoscaler.tests.manager.ManagerTestSuite;
+import de.evoila.cf.autoscaler.tests.metrics.MetricsTestSuite;
 import de.evoila.cf.autoscaler.tests.scalingaction.ScalingActionTestSuite;
 import de.evoila.cf.autoscaler.tests.wrapper.WrapperTestSuite;
 import org.junit.runner.RunWith;
@@ -7,7 +11,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({WrapperTestSuite.class, ScalingActionTestSuite.class})
+@SuiteClasses({WrapperTestSuite.class, ScalingActionTestSuite.class, MetricsTestSuite.class, HttpTestSuite.class, ManagerTestSuite.class, KafkaTestSuite.class})
 public class MainTestSuite {
 
 }
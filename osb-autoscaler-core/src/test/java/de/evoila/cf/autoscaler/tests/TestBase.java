@@ -57,7 +57,7 @@ public class TestBase {
 		}
 	}
 
-	private static AppBlueprint setUpBluePrint() {
+	protected static AppBlueprint setUpBluePrint() {
 		AppBlueprint bp = new AppBlueprint();
 		
 		BindingContext context = new BindingContext("cloudfoundry", "default", "evoila");
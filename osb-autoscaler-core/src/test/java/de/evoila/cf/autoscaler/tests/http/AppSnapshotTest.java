@@ -0,0 +1,57 @@
+package de.evoila.cf.autoscaler.tests.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.evoila.cf.autoscaler.core.applications.AppSnapshot;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class AppSnapshotTest extends TestBase {
+
+	@Test
+	public void testVersionAndCachedJson() throws JsonProcessingException {
+		ObjectMapper mapper = new ObjectMapper();
+		AppSnapshot first = app.publishSnapshot();
+		assertSame(first, app.getSnapshot());
+		byte[] json = first.getJson(mapper);
+		assertSame(json, first.getJson(mapper));
+		assertTrue(new String(json, StandardCharsets.UTF_8).contains("\"testBindingId\""));
+		
+		int minInstances = app.getMinInstances();
+		app.setMinInstances(minInstances + 1);
+		AppSnapshot second = app.publishSnapshot();
+		assertEquals(first.getVersion() + 1, second.getVersion());
+		assertEquals(minInstances, first.getResponse().getScaling().getMinInstances());
+		assertEquals(minInstances + 1, second.getResponse().getScaling().getMinInstances());
+		assertNotSame(json, second.getJson(mapper));
+		app.setMinInstances(minInstances);
+		app.publishSnapshot();
+	}
+	
+	@Test
+	public void testETagFollowsTheContent() throws JsonProcessingException {
+		ObjectMapper mapper = new ObjectMapper();
+		AppSnapshot first = app.publishSnapshot();
+		AppSnapshot same = app.publishSnapshot();
+		assertNotEquals(first.getVersion(), same.getVersion());
+		assertEquals(first.getETag(mapper), same.getETag(mapper));
+		assertTrue(first.getETag(mapper).startsWith("\"") && first.getETag(mapper).endsWith("\""));
+		
+		int minInstances = app.getMinInstances();
+		app.setMinInstances(minInstances + 1);
+		AppSnapshot changed = app.publishSnapshot();
+		assertNotEquals(first.getETag(mapper), changed.getETag(mapper));
+		app.setMinInstances(minInstances);
+		assertEquals(first.getETag(mapper), app.publishSnapshot().getETag(mapper));
+	}
+}
@@ -0,0 +1,93 @@
+package de.evoila.cf.autoscaler.tests.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.evoila.cf.autoscaler.api.binding.Binding;
+import de.evoila.cf.autoscaler.api.binding.BindingContext;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.http.BindingQuery;
+import de.evoila.cf.autoscaler.core.manager.BindingIndex;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import de.evoila.cf.autoscaler.core.properties.DefaultValueBean;
+import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
+
+public class BindingQueryTest {
+
+	private ObjectMapper mapper;
+	private BindingIndex index;
+	private List<ScalableApp> apps;
+	
+	@Before
+	public void setUp() {
+		mapper = new ObjectMapper();
+		index = new BindingIndex();
+		apps = new ArrayList<>();
+		AutoscalerPropertiesBean autoscalerProps = new AutoscalerPropertiesBean();
+		autoscalerProps.setMaxMetricListSize(16);
+		for (int i = 0; i < 10; i++) {
+			BindingContext context = new BindingContext("cloudfoundry", "context-" + (i % 2), "context-" + (i % 3));
+			Binding binding = new Binding("binding-" + i, "resource-" + i, "name-" + i, "scaler", "service-" + (i % 2), 1, context);
+			ScalableApp app = new ScalableApp(binding, new KafkaPropertiesBean(), new DefaultValueBean(), autoscalerProps, null);
+			apps.add(app);
+			index.put(app);
+		}
+	}
+	
+	@Test
+	public void testPagesFollowCursor() throws IOException {
+		JsonNode page = list(null, new BindingQuery(null, 4, null, null, null));
+		assertIds(page, 0, 1, 2, 3);
+		assertEquals("binding-3", page.path(BindingQuery.NEXT_CURSOR).asText());
+		
+		page = list(null, new BindingQuery("binding-3", 4, null, null, null));
+		assertIds(page, 4, 5, 6, 7);
+		
+		index.remove(apps.get(8));
+		page = list(null, new BindingQuery("binding-7", 4, null, null, null));
+		assertIds(page, 9);
+		assertTrue(page.path(BindingQuery.NEXT_CURSOR).isNull());
+	}
+	
+	@Test
+	public void testFilterByServiceIdAndContext() throws IOException {
+		assertIds(list("service-1", new BindingQuery(null, 0, null, null, null)), 1, 3, 5, 7, 9);
+		assertIds(list("unknown", new BindingQuery(null, 0, null, null, null)));
+		
+		String org = apps.get(0).getSnapshot().getBindingTree(mapper).path("context").path(BindingQuery.ORG_FIELD).asText();
+		JsonNode page = list(null, new BindingQuery(null, 0, org, null, null));
+		assertTrue(page.path(BindingQuery.BINDINGS).size() > 0);
+		for (JsonNode binding : page.path(BindingQuery.BINDINGS)) {
+			assertEquals(org, binding.path("context").path(BindingQuery.ORG_FIELD).asText());
+		}
+		
+		apps.get(2).setScalingEnabled(!apps.get(2).isScalingEnabled());
+		apps.get(2).publishSnapshot();
+		assertIds(list("service-0", new BindingQuery(null, 0, null, null, apps.get(2).isScalingEnabled())), 2);
+	}
+	
+	private JsonNode list(String serviceId, BindingQuery query) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		query.write(index.after(serviceId, query.getCursor()), mapper, out);
+		return mapper.readTree(out.toByteArray());
+	}
+	
+	private void assertIds(JsonNode page, int... ids) {
+		JsonNode bindings = page.path(BindingQuery.BINDINGS);
+		assertEquals(ids.length, bindings.size());
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals("binding-" + ids[i], bindings.get(i).path("id").asText());
+		}
+	}
+}
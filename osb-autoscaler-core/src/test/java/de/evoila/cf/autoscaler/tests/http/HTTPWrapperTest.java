@@ -0,0 +1,148 @@
+package de.evoila.cf.autoscaler.tests.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.ResponseEntity;
+
+import com.sun.net.httpserver.HttpServer;
+
+import de.evoila.cf.autoscaler.api.binding.BindingContext;
+import de.evoila.cf.autoscaler.core.http.HTTPWrapper;
+import de.evoila.cf.autoscaler.core.properties.ScalingEnginePropertiesBean;
+
+public class HTTPWrapperTest {
+
+	private HttpServer server;
+	private HTTPWrapper wrapper;
+	private List<String> paths;
+	private AtomicInteger concurrent;
+	private AtomicInteger maxConcurrent;
+	
+	@Before
+	public void setUp() throws IOException {
+		paths = new ArrayList<String>();
+		concurrent = new AtomicInteger();
+		maxConcurrent = new AtomicInteger();
+		
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newFixedThreadPool(8));
+		server.createContext("/scaling", exchange -> {
+			int current = concurrent.incrementAndGet();
+			maxConcurrent.accumulateAndGet(current, Math::max);
+			synchronized (paths) {
+				paths.add(exchange.getRequestURI().getPath() + " " + exchange.getRequestHeaders().getFirst("secret"));
+			}
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) { }
+			byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+			concurrent.decrementAndGet();
+		});
+		server.start();
+		
+		ScalingEnginePropertiesBean engineProps = new ScalingEnginePropertiesBean();
+		engineProps.setHost("localhost:" + server.getAddress().getPort());
+		engineProps.setSecret("testSecret");
+		ScalingEnginePropertiesBean.Endpoint endpoint = new ScalingEnginePropertiesBean.Endpoint();
+		endpoint.setScaling("scaling");
+		endpoint.setName("name");
+		engineProps.setEndpoint(endpoint);
+		engineProps.getClient().setAsync(true);
+		engineProps.getClient().setMaxConnectionsPerHost(2);
+		wrapper = new HTTPWrapper(engineProps);
+	}
+	
+	@After
+	public void tearDown() {
+		wrapper.shutdown();
+		server.stop(0);
+	}
+	
+	@Test
+	public void testAsyncScaleRespectsPerHostCap() throws InterruptedException, ExecutionException {
+		assertTrue(wrapper.isAsync());
+		BindingContext context = new BindingContext("cloudfoundry", "default", "evoila");
+		
+		List<CompletableFuture<ResponseEntity<String>>> futures = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			futures.add(wrapper.scaleAsync("resource" + i, context, 2));
+		}
+		for (CompletableFuture<ResponseEntity<String>> future : futures) {
+			assertEquals(200, future.get().getStatusCodeValue());
+		}
+		
+		assertEquals(6, paths.size());
+		assertTrue(paths.contains("/scaling/resource3 testSecret"));
+		assertTrue(maxConcurrent.get() <= 2);
+	}
+	
+	@Test
+	public void testFullQueueFallsBackToCallingThread() throws InterruptedException, ExecutionException {
+		wrapper.shutdown();
+		ScalingEnginePropertiesBean engineProps = new ScalingEnginePropertiesBean();
+		engineProps.setHost("localhost:" + server.getAddress().getPort());
+		ScalingEnginePropertiesBean.Endpoint endpoint = new ScalingEnginePropertiesBean.Endpoint();
+		endpoint.setScaling("scaling");
+		engineProps.setEndpoint(endpoint);
+		engineProps.getClient().setAsync(true);
+		engineProps.getClient().setMaxConnections(1);
+		engineProps.getClient().setAsyncQueueCapacity(1);
+		wrapper = new HTTPWrapper(engineProps);
+		BindingContext context = new BindingContext("cloudfoundry", "default", "evoila");
+		
+		List<CompletableFuture<ResponseEntity<String>>> futures = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			futures.add(wrapper.scaleAsync("resource" + i, context, 2));
+		}
+		CompletableFuture<ResponseEntity<String>> rejected = wrapper.scaleAsync("resource2", context, 2);
+		assertTrue(rejected.isDone());
+		assertEquals(200, rejected.get().getStatusCodeValue());
+		for (CompletableFuture<ResponseEntity<String>> future : futures) {
+			assertEquals(200, future.get().getStatusCodeValue());
+		}
+		assertEquals(3, paths.size());
+	}
+	
+	@Test
+	public void testShutdownClientCompletesExceptionally() throws InterruptedException {
+		wrapper.shutdown();
+		CompletableFuture<ResponseEntity<String>> future = wrapper.scaleAsync("resource", new BindingContext("cloudfoundry", "default", "evoila"), 2);
+		assertTrue(future.isCompletedExceptionally());
+		try {
+			future.get();
+			fail("The request of a shut down client must not succeed.");
+		} catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof RejectedExecutionException);
+		}
+		assertEquals(0, paths.size());
+	}
+	
+	@Test(expected = ExecutionException.class)
+	public void testUnreachableEngineCompletesExceptionally() throws InterruptedException, ExecutionException, TimeoutException {
+		server.stop(0);
+		wrapper.scaleAsync("resource", new BindingContext("cloudfoundry", "default", "evoila"), 2).get(10, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,11 @@
+package de.evoila.cf.autoscaler.tests.http;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ HTTPWrapperTest.class, AppSnapshotTest.class, BindingQueryTest.class })
+public class HttpTestSuite {
+	
+}
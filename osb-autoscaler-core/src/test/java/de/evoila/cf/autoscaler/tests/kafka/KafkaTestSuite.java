@@ -0,0 +1,11 @@
+package de.evoila.cf.autoscaler.tests.kafka;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ProducerSettingsTest.class, MetricRecordDecoderTest.class})
+public class KafkaTestSuite {
+
+}
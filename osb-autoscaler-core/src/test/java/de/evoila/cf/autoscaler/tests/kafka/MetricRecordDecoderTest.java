@@ -0,0 +1,167 @@
+package de.evoila.cf.autoscaler.tests.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import de.evoila.cf.autoscaler.core.kafka.consumer.MetricRecordDecoder;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbContainerMetric.ProtoContainerMetric;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbHttpMetric.ProtoHttpMetric;
+
+public class MetricRecordDecoderTest {
+
+	private static String appId(MetricRecordDecoder decoder) {
+		return new String(decoder.getAppIdBuffer(), decoder.getAppIdOffset(), decoder.getAppIdLength(), StandardCharsets.UTF_8);
+	}
+
+	private static void assertContainerMetric(ProtoContainerMetric expected, MetricRecordDecoder decoder) {
+		assertEquals(expected.getTimestamp(), decoder.getTimestamp());
+		assertEquals(expected.getCpu(), decoder.getCpu());
+		assertEquals(expected.getRam(), decoder.getRam());
+		assertEquals(expected.getInstanceIndex(), decoder.getInstanceIndex());
+		assertEquals(expected.getAppId(), appId(decoder));
+	}
+
+	private static void assertHttpMetric(ProtoHttpMetric expected, MetricRecordDecoder decoder) {
+		assertEquals(expected.getTimestamp(), decoder.getTimestamp());
+		assertEquals(expected.getRequests(), decoder.getRequests());
+		assertEquals(expected.getLatency(), decoder.getLatency());
+		assertEquals(expected.getAppId(), appId(decoder));
+	}
+
+	/**
+	 * Appends an unknown varint field, an unknown length delimited field and an unknown fixed field to a record.
+	 */
+	private static byte[] withUnknownFields(byte[] record) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+		output.writeInt64(100, 12345L);
+		output.writeString(101, "unknown");
+		output.writeFixed32(102, 7);
+		output.writeRawBytes(record);
+		output.writeInt64(103, -1L);
+		output.flush();
+		return bytes.toByteArray();
+	}
+
+	@Test
+	public void testContainerMetricWithAllFields() throws InvalidProtocolBufferException {
+		ProtoContainerMetric metric = ProtoContainerMetric.newBuilder().setTimestamp(1538000000000L).setMetricName("container")
+				.setAppId("testId").setCpu(85).setRam(Long.MAX_VALUE - 1).setInstanceIndex(12).setDescription("ignored")
+				.build();
+		byte[] record = metric.toByteArray();
+		MetricRecordDecoder decoder = new MetricRecordDecoder();
+		decoder.decodeContainerMetric(record);
+
+		assertContainerMetric(metric, decoder);
+		assertSame(record, decoder.getAppIdBuffer());
+		assertEquals(6, decoder.getAppIdLength());
+	}
+
+	@Test
+	public void testNegativeValuesRoundTrip() throws InvalidProtocolBufferException {
+		ProtoContainerMetric container = ProtoContainerMetric.newBuilder().setTimestamp(-5L).setAppId("testId")
+				.setCpu(-1).setRam(Long.MIN_VALUE).setInstanceIndex(Integer.MIN_VALUE).build();
+		MetricRecordDecoder decoder = new MetricRecordDecoder();
+		decoder.decodeContainerMetric(container.toByteArray());
+		assertContainerMetric(container, decoder);
+
+		ProtoHttpMetric http = ProtoHttpMetric.newBuilder().setTimestamp(-5L).setAppId("testId")
+				.setRequests(-1).setLatency(Integer.MAX_VALUE).build();
+		decoder.decodeHttpMetric(http.toByteArray());
+		assertHttpMetric(http, decoder);
+	}
+
+	@Test
+	public void testOmittedFieldsAreDefaults() throws InvalidProtocolBufferException {
+		MetricRecordDecoder decoder = new MetricRecordDecoder();
+		decoder.decodeContainerMetric(ProtoContainerMetric.newBuilder().setTimestamp(1L).setAppId("testId")
+				.setCpu(50).setRam(1024L).setInstanceIndex(2).build().toByteArray());
+
+		ProtoContainerMetric onlyAppId = ProtoContainerMetric.newBuilder().setAppId("otherId").build();
+		decoder.decodeContainerMetric(onlyAppId.toByteArray());
+		assertContainerMetric(onlyAppId, decoder);
+
+		ProtoContainerMetric empty = ProtoContainerMetric.newBuilder().build();
+		decoder.decodeContainerMetric(empty.toByteArray());
+		assertContainerMetric(empty, decoder);
+		assertEquals(0, decoder.getAppIdLength());
+
+		decoder.decodeHttpMetric(ProtoHttpMetric.newBuilder().setTimestamp(1L).setAppId("testId")
+				.setRequests(10).setLatency(20).build().toByteArray());
+		ProtoHttpMetric onlyLatency = ProtoHttpMetric.newBuilder().setLatency(30).build();
+		decoder.decodeHttpMetric(onlyLatency.toByteArray());
+		assertHttpMetric(onlyLatency, decoder);
+	}
+
+	@Test
+	public void testUnknownFieldsAreSkipped() throws IOException {
+		ProtoContainerMetric container = ProtoContainerMetric.newBuilder().setTimestamp(1234L).setAppId("testId")
+				.setCpu(42).setRam(4096L).setInstanceIndex(3).build();
+		byte[] record = withUnknownFields(container.toByteArray());
+
+		MetricRecordDecoder decoder = new MetricRecordDecoder();
+		decoder.decodeContainerMetric(record);
+		assertContainerMetric(container, decoder);
+		assertSame(record, decoder.getAppIdBuffer());
+
+		ProtoHttpMetric http = ProtoHttpMetric.newBuilder().setTimestamp(99L).setAppId("testId").setRequests(7).setLatency(250).build();
+		record = withUnknownFields(http.toByteArray());
+		decoder.decodeHttpMetric(record);
+		assertHttpMetric(http, decoder);
+		assertSame(record, decoder.getAppIdBuffer());
+	}
+
+	@Test
+	public void testAppIdOffsetAndLength() throws IOException {
+		byte[] record = withUnknownFields(ProtoHttpMetric.newBuilder().setTimestamp(99L).setAppId("anotherTestId")
+				.setRequests(7).build().toByteArray());
+		MetricRecordDecoder decoder = new MetricRecordDecoder();
+		decoder.decodeHttpMetric(record);
+
+		assertEquals(13, decoder.getAppIdLength());
+		int offset = decoder.getAppIdOffset();
+		assertEquals(13, record[offset - 1]);
+		assertEquals("anotherTestId", appId(decoder));
+	}
+
+	@Test
+	public void testUnexpectedWireTypeFallsBackToParser() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+		output.writeString(ProtoContainerMetric.APPID_FIELD_NUMBER, "testId");
+		output.writeInt64(ProtoContainerMetric.TIMESTAMP_FIELD_NUMBER, 1234L);
+		output.writeFixed32(ProtoContainerMetric.CPU_FIELD_NUMBER, 42);
+		output.writeInt64(ProtoContainerMetric.RAM_FIELD_NUMBER, 4096L);
+		output.flush();
+		byte[] record = bytes.toByteArray();
+
+		MetricRecordDecoder decoder = new MetricRecordDecoder();
+		decoder.decodeContainerMetric(record);
+
+		assertContainerMetric(ProtoContainerMetric.parseFrom(record), decoder);
+		assertNotSame(record, decoder.getAppIdBuffer());
+		assertEquals(0, decoder.getAppIdOffset());
+		assertEquals(6, decoder.getAppIdLength());
+	}
+
+	@Test(expected = InvalidProtocolBufferException.class)
+	public void testTruncatedRecordIsMalformed() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+		output.writeString(ProtoHttpMetric.APPID_FIELD_NUMBER, "testId");
+		output.flush();
+		byte[] truncated = new byte[bytes.size() - 4];
+		System.arraycopy(bytes.toByteArray(), 0, truncated, 0, truncated.length);
+		new MetricRecordDecoder().decodeHttpMetric(truncated);
+	}
+}
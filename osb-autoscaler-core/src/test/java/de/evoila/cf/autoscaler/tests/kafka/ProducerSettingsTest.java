@@ -0,0 +1,43 @@
+package de.evoila.cf.autoscaler.tests.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Properties;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.kafka.producer.ProducerSettings;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+
+public class ProducerSettingsTest {
+
+	@Test
+	public void testDefaultsAreIdempotentAndCompressed() {
+		Properties config = new Properties();
+		ProducerSettings.apply(config, new AutoscalerPropertiesBean.Producer());
+		
+		assertEquals(65536, config.get(ProducerConfig.BATCH_SIZE_CONFIG));
+		assertEquals(5, config.get(ProducerConfig.LINGER_MS_CONFIG));
+		assertEquals("lz4", config.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+		assertEquals(true, config.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+		assertEquals("all", config.get(ProducerConfig.ACKS_CONFIG));
+	}
+	
+	@Test
+	public void testUnknownCompressionFallsBack() {
+		AutoscalerPropertiesBean.Producer settings = new AutoscalerPropertiesBean.Producer();
+		settings.setCompression("brotli");
+		settings.setIdempotence(false);
+		Properties config = new Properties();
+		ProducerSettings.apply(config, settings);
+		
+		assertEquals("lz4", config.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+		assertFalse(config.containsKey(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+		
+		settings.setCompression("GZIP");
+		ProducerSettings.apply(config, settings);
+		assertEquals("gzip", config.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+	}
+}
@@ -0,0 +1,50 @@
+package de.evoila.cf.autoscaler.tests.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.query.Update;
+
+import de.evoila.cf.autoscaler.core.manager.AppPersistenceBuffer;
+
+public class AppPersistenceBufferTest {
+
+	private static Document blueprint(int currentIntervalState, long lastScalingTime) {
+		return new Document("_id", "testBindingId")
+				.append("currentIntervalState", currentIntervalState)
+				.append("lastScalingTime", lastScalingTime)
+				.append("binding", new Document("resourceId", "testId").append("scalerId", "testScalerId"));
+	}
+
+	@Test
+	public void testUnknownDocumentSetsEveryField() {
+		Update update = AppPersistenceBuffer.changedFields(null, blueprint(1, 100));
+		Document set = (Document) update.getUpdateObject().get("$set");
+		assertEquals(3, set.size());
+		assertFalse(set.containsKey("_id"));
+	}
+
+	@Test
+	public void testOnlyChangedFieldsAreSet() {
+		Update update = AppPersistenceBuffer.changedFields(blueprint(1, 100), blueprint(2, 100));
+		Document set = (Document) update.getUpdateObject().get("$set");
+		assertEquals(1, set.size());
+		assertEquals(2, set.get("currentIntervalState"));
+		assertNull(update.getUpdateObject().get("$unset"));
+	}
+
+	@Test
+	public void testUnchangedAndRemovedFields() {
+		assertNull(AppPersistenceBuffer.changedFields(blueprint(1, 100), blueprint(1, 100)));
+
+		Document current = blueprint(1, 100);
+		current.remove("lastScalingTime");
+		Update update = AppPersistenceBuffer.changedFields(blueprint(1, 100), current);
+		assertTrue(((Document) update.getUpdateObject().get("$unset")).containsKey("lastScalingTime"));
+		assertNull(update.getUpdateObject().get("$set"));
+	}
+}
@@ -0,0 +1,117 @@
+package de.evoila.cf.autoscaler.tests.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.api.binding.Binding;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.manager.BulkBinder;
+import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class BulkBinderTest extends TestBase {
+
+	private ScalableAppManager appManager;
+	
+	@Before
+	public void setUpManager() {
+		appManager = new ScalableAppManager(new KafkaPropertiesBean()) {
+			@Override
+			public ScalableApp get(String bindingId) {
+				return app.getBinding().getId().equals(bindingId) ? app : null;
+			}
+			
+			@Override
+			public boolean containsResourceId(String resourceId) {
+				return app.getBinding().getResourceId().equals(resourceId);
+			}
+			
+			@Override
+			public ScalableApp getNewApp(Binding binding) {
+				return app;
+			}
+		};
+	}
+	
+	private Binding binding(String bindingId, String resourceId) {
+		return new Binding(bindingId, resourceId, "testName", "testScalerId", "testServiceId", 0, app.getBinding().getContext());
+	}
+	
+	@Test
+	public void testMissingBinding() {
+		BulkBinder.Candidate candidate = BulkBinder.validate(null, appManager);
+		assertNull(candidate.getApp());
+		assertEquals(400, candidate.getResult().getStatus());
+	}
+	
+	@Test
+	public void testIdenticalBinding() {
+		BulkBinder.Candidate candidate = BulkBinder.validate(app.getBinding(), appManager);
+		assertNull(candidate.getApp());
+		assertEquals(200, candidate.getResult().getStatus());
+	}
+	
+	@Test
+	public void testConflictingResourceId() {
+		BulkBinder.Candidate candidate = BulkBinder.validate(binding("otherBindingId", app.getBinding().getResourceId()), appManager);
+		assertNull(candidate.getApp());
+		assertEquals(409, candidate.getResult().getStatus());
+	}
+	
+	@Test
+	public void testNewBinding() {
+		BulkBinder.Candidate candidate = BulkBinder.validate(binding("newBindingId", "newResourceId"), appManager);
+		assertNull(candidate.getResult());
+		assertSame(app, candidate.getApp());
+	}
+	
+	@Test
+	public void testNameLookupsReachConcurrency() throws InterruptedException {
+		int concurrency = 4;
+		List<Binding> bindings = new ArrayList<Binding>();
+		for (int i = 0; i < 3 * concurrency; i++) {
+			bindings.add(binding("bindingId" + i, "resourceId" + i));
+		}
+		CountDownLatch allRunning = new CountDownLatch(concurrency);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		try {
+			BulkBinder.lookUpNames(bindings, executor, binding -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				allRunning.countDown();
+				try {
+					allRunning.await(5, TimeUnit.SECONDS);
+					Thread.sleep(20);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				} finally {
+					running.decrementAndGet();
+				}
+				if (binding.getId().equals("bindingId1"))
+					throw new IllegalStateException("Scaling engine not reachable.");
+				return "name-" + binding.getResourceId();
+			});
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(0, allRunning.getCount());
+		assertEquals(concurrency, maxRunning.get());
+		assertEquals("name-resourceId0", bindings.get(0).getResourceName());
+		assertEquals("", bindings.get(1).getResourceName());
+		assertEquals("name-resourceId11", bindings.get(11).getResourceName());
+	}
+}
@@ -0,0 +1,67 @@
+package de.evoila.cf.autoscaler.tests.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.http.response.BulkResponse;
+import de.evoila.cf.autoscaler.core.manager.BulkPolicyUpdater;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class BulkPolicyUpdaterTest extends TestBase {
+
+	@Test
+	public void testSelectServiceInstance() {
+		Map<String, ScalableApp> ofService = new TreeMap<String, ScalableApp>();
+		ofService.put("testBindingId", app);
+		List<BulkResponse.Result> results = new ArrayList<BulkResponse.Result>();
+		Collection<ScalableApp> selected = BulkPolicyUpdater.select(ofService, null, id -> null, results);
+		assertEquals(1, selected.size());
+		assertSame(app, selected.iterator().next());
+		assertTrue(results.isEmpty());
+	}
+	
+	@Test
+	public void testSelectBindingIds() {
+		List<BulkResponse.Result> results = new ArrayList<BulkResponse.Result>();
+		Collection<ScalableApp> selected = BulkPolicyUpdater.select(null, Arrays.asList("testBindingId", "missingId", "testBindingId"),
+				id -> "testBindingId".equals(id) ? app : null, results);
+		assertEquals(1, selected.size());
+		assertEquals(1, results.size());
+		assertEquals("missingId", results.get(0).getId());
+		assertEquals(410, results.get(0).getStatus());
+	}
+	
+	@Test
+	public void testSelectBindingIdsOfServiceInstance() {
+		List<BulkResponse.Result> results = new ArrayList<BulkResponse.Result>();
+		Map<String, ScalableApp> ofService = Collections.singletonMap("testBindingId", app);
+		Collection<ScalableApp> selected = BulkPolicyUpdater.select(ofService, Arrays.asList("otherBindingId"), id -> app, results);
+		assertTrue(selected.isEmpty());
+		assertEquals(410, results.get(0).getStatus());
+	}
+	
+	@Test
+	public void testResponseCounts() {
+		BulkResponse.Result updated = new BulkResponse.Result("b", 200, null);
+		updated.setPersisted(true);
+		BulkResponse response = new BulkResponse(Arrays.asList(updated, new BulkResponse.Result("a", 400, "invalid")));
+		assertEquals(1, response.getSucceeded());
+		assertEquals(1, response.getFailed());
+		assertEquals("a", response.getResults().get(0).getId());
+		assertFalse(response.getResults().get(0).isPersisted());
+		assertTrue(response.getResults().get(1).isPersisted());
+	}
+}
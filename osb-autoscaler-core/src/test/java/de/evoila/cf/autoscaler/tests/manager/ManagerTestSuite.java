@@ -0,0 +1,12 @@
+package de.evoila.cf.autoscaler.tests.manager;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ AppPersistenceBufferTest.class, ResourceIdIndexTest.class, MetricMemoryBudgetTest.class, BulkPolicyUpdaterTest.class, BulkBinderTest.class,
+	StartupImportTest.class })
+public class ManagerTestSuite {
+	
+}
@@ -0,0 +1,63 @@
+package de.evoila.cf.autoscaler.tests.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.manager.MetricMemoryBudget;
+
+public class MetricMemoryBudgetTest {
+
+	@Test
+	public void testShrinkInProportionToExcess() {
+		assertEquals(250, MetricMemoryBudget.nextLimit(500, 2000, 0, 1000, 16, 500));
+		assertEquals(16, MetricMemoryBudget.nextLimit(500, 1000000, 0, 1000, 16, 500));
+	}
+	
+	@Test
+	public void testKeepBetweenRecoveryThresholdAndBudget() {
+		assertEquals(250, MetricMemoryBudget.nextLimit(250, 1000, 0, 1000, 16, 500));
+		assertEquals(250, MetricMemoryBudget.nextLimit(250, 800, 0, 1000, 16, 500));
+	}
+	
+	@Test
+	public void testGrowBelowRecoveryThreshold() {
+		assertEquals(312, MetricMemoryBudget.nextLimit(250, 500, 0, 1000, 16, 500));
+		assertEquals(500, MetricMemoryBudget.nextLimit(450, 500, 0, 1000, 16, 500));
+		assertEquals(2, MetricMemoryBudget.nextLimit(1, 0, 0, 1000, 1, 500));
+	}
+	
+	@Test
+	public void testNoBudget() {
+		assertEquals(500, MetricMemoryBudget.nextLimit(100, Long.MAX_VALUE, 0, 0, 16, 500));
+	}
+	
+	@Test
+	public void testFixedBytesAreLeftOutOfTheShrink() {
+		// windows of 2000 bytes and buffers of 1000 bytes: 1000 bytes are left for the windows, so they are halved
+		assertEquals(250, MetricMemoryBudget.nextLimit(500, 3000, 1000, 2000, 16, 500));
+		assertEquals(250, MetricMemoryBudget.nextLimit(250, 2000, 1000, 2000, 16, 500));
+		assertEquals(312, MetricMemoryBudget.nextLimit(250, 1500, 1000, 2000, 16, 500));
+	}
+	
+	@Test
+	public void testShrinkConvergesUnderTheBudget() {
+		int limit = 500;
+		long fixedBytes = 8000;
+		long budget = 10000;
+		for (int i = 0; i < 10; i++) {
+			limit = MetricMemoryBudget.nextLimit(limit, fixedBytes + 8L * limit, fixedBytes, budget, 16, 500);
+		}
+		assertEquals(250, limit);
+		assertTrue(fixedBytes + 8L * limit <= budget);
+	}
+	
+	@Test
+	public void testBudgetBelowTheBufferFootprint() {
+		assertEquals(16, MetricMemoryBudget.nextLimit(500, 12000, 8000, 6000, 16, 500));
+		assertEquals(16, MetricMemoryBudget.nextLimit(16, 8128, 8000, 8000, 16, 500));
+		// the windows do not grow back while the buffers alone exceed the budget
+		assertEquals(16, MetricMemoryBudget.nextLimit(16, 8128, 8000, 6000, 16, 500));
+	}
+}
@@ -0,0 +1,88 @@
+package de.evoila.cf.autoscaler.tests.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import de.evoila.cf.autoscaler.core.kafka.consumer.MetricRecordDecoder;
+import de.evoila.cf.autoscaler.core.manager.ResourceIdIndex;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbContainerMetric.ProtoContainerMetric;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbHttpMetric.ProtoHttpMetric;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class ResourceIdIndexTest extends TestBase {
+
+	@Test
+	public void testLookupByBytes() {
+		ResourceIdIndex index = new ResourceIdIndex();
+		for (int i = 0; i < 100; i++) {
+			index.put("other-" + i, app);
+		}
+		index.put("testId", app);
+		
+		byte[] buffer = "xxtestIdxx".getBytes(StandardCharsets.UTF_8);
+		assertSame(app, index.get(buffer, 2, 6));
+		assertNull(index.get(buffer, 2, 5));
+		
+		index.remove("testId", app);
+		assertNull(index.get(buffer, 2, 6));
+		assertEquals(100, index.size());
+	}
+	
+	@Test
+	public void testPutAll() {
+		ResourceIdIndex index = new ResourceIdIndex();
+		index.put("other", app);
+		index.putAll(Arrays.asList(app, null));
+		
+		byte[] buffer = app.getBinding().getResourceId().getBytes(StandardCharsets.UTF_8);
+		assertSame(app, index.get(buffer, 0, buffer.length));
+		assertEquals(2, index.size());
+		
+		index.remove(app.getBinding().getResourceId(), app);
+		assertNull(index.get(buffer, 0, buffer.length));
+		assertEquals(1, index.size());
+	}
+	
+	@Test
+	public void testDecodedAppIdResolvesApp() throws InvalidProtocolBufferException {
+		ResourceIdIndex index = new ResourceIdIndex();
+		index.put("testId", app);
+		
+		byte[] record = ProtoContainerMetric.newBuilder().setTimestamp(1234L).setMetricName("container")
+				.setAppId("testId").setCpu(42).setRam(4096L).setInstanceIndex(3).setDescription("ignored")
+				.build().toByteArray();
+		MetricRecordDecoder decoder = new MetricRecordDecoder();
+		decoder.decodeContainerMetric(record);
+		
+		assertEquals(1234L, decoder.getTimestamp());
+		assertEquals(42, decoder.getCpu());
+		assertEquals(4096L, decoder.getRam());
+		assertEquals(3, decoder.getInstanceIndex());
+		assertSame(app, index.get(decoder.getAppIdBuffer(), decoder.getAppIdOffset(), decoder.getAppIdLength()));
+		
+		record = ProtoHttpMetric.newBuilder().setTimestamp(99L).setAppIdBytes(ByteString.copyFromUtf8("unknown"))
+				.setRequests(7).setLatency(250).build().toByteArray();
+		decoder.decodeHttpMetric(record);
+		assertEquals(99L, decoder.getTimestamp());
+		assertEquals(7, decoder.getRequests());
+		assertEquals(250, decoder.getLatency());
+		assertNull(index.get(decoder.getAppIdBuffer(), decoder.getAppIdOffset(), decoder.getAppIdLength()));
+	}
+	
+	@Test(expected = InvalidProtocolBufferException.class)
+	public void testTruncatedRecordIsRejected() throws InvalidProtocolBufferException {
+		byte[] record = ProtoContainerMetric.newBuilder().setAppId("testId").setCpu(1).build().toByteArray();
+		byte[] truncated = new byte[record.length - 3];
+		System.arraycopy(record, 0, truncated, 0, truncated.length);
+		new MetricRecordDecoder().decodeContainerMetric(truncated);
+	}
+}
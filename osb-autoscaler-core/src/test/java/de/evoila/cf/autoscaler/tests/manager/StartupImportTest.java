@@ -0,0 +1,103 @@
+package de.evoila.cf.autoscaler.tests.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.evoila.cf.autoscaler.api.binding.Binding;
+import de.evoila.cf.autoscaler.core.applications.AppBlueprint;
+import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
+import de.evoila.cf.autoscaler.core.kafka.producer.StringProducer;
+import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import de.evoila.cf.autoscaler.core.scaling.ScalingSchedule;
+import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
+import de.evoila.cf.autoscaler.kafka.model.BindingInformation;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class StartupImportTest extends TestBase {
+
+	private List<String> published;
+	private ScalableAppManager manager;
+	
+	@Before
+	public void setUpManager() {
+		KafkaPropertiesBean kafkaProperties = new KafkaPropertiesBean();
+		AutoscalerPropertiesBean properties = new AutoscalerPropertiesBean();
+		properties.setMaxMetricListSize(100);
+		properties.getPersistence().setWriteBehind(false);
+		properties.getStartup().setBatchSize(2);
+		properties.getStartup().setParallelism(2);
+		published = Collections.synchronizedList(new ArrayList<String>());
+		StringProducer stringProducer = new StringProducer(kafkaProperties) {
+			@Override
+			public void produceString(String topic, String message) {
+				published.add(message);
+			}
+			
+			@Override
+			public void produceBatch(String topic, List<String> messages) {
+				published.addAll(messages);
+			}
+		};
+		manager = new ScalableAppManager(kafkaProperties, properties, new ProtobufProducer(kafkaProperties), stringProducer,
+				new ObjectMapper(), new ScalingSchedule());
+	}
+	
+	private AppBlueprint blueprint(String bindingId, String resourceId) {
+		AppBlueprint bp = setUpBluePrint();
+		bp.setBinding(new Binding(bindingId, resourceId, "testName", "testScalerId", "testServiceId", 0,
+				app.getBinding().getContext()));
+		return bp;
+	}
+	
+	private List<AppBlueprint> cursor() {
+		AppBlueprint invalid = setUpBluePrint();
+		invalid.setBinding(null);
+		return Arrays.asList(blueprint("bindingId1", "resourceId1"), blueprint("bindingId2", "resourceId2"),
+				blueprint("bindingId1", "duplicateResourceId"), invalid,
+				blueprint("bindingId3", "resourceId3"));
+	}
+	
+	@Test
+	public void testBatchesAreIndexedAndAnnouncedOnce() throws IOException {
+		assertEquals(3, manager.importBlueprints(cursor().iterator()));
+		
+		assertEquals(3, manager.size());
+		for (int i = 1; i <= 3; i++) {
+			assertNotNull(manager.get("bindingId" + i));
+			assertTrue(manager.containsResourceId("resourceId" + i));
+		}
+		assertEquals("resourceId1", manager.get("bindingId1").getBinding().getResourceId());
+		assertFalse(manager.containsResourceId("duplicateResourceId"));
+		
+		assertEquals(2, published.size());
+		JsonNode first = new ObjectMapper().readTree(published.get(0));
+		assertEquals(BindingInformation.ACTION_LOAD, first.get("action").asText());
+		assertEquals(2, first.get("resourceIds").size());
+		assertEquals("resourceId3", new ObjectMapper().readTree(published.get(1)).get("resourceIds").get(0).asText());
+	}
+	
+	@Test
+	public void testManagedBindingsAreSkipped() {
+		assertEquals(3, manager.importBlueprints(cursor().iterator()));
+		published.clear();
+		
+		assertEquals(0, manager.importBlueprints(cursor().iterator()));
+		assertEquals(3, manager.size());
+		assertTrue(published.isEmpty());
+	}
+}
@@ -0,0 +1,64 @@
+package de.evoila.cf.autoscaler.tests.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.applications.metrics.AggregatingMetricWindow;
+import de.evoila.cf.autoscaler.core.applications.metrics.WindowAggregate;
+
+public class AggregatingMetricWindowTest {
+
+	@Test
+	public void testAggregatesMatchWindowContent() {
+		Random random = new Random(42);
+		AggregatingMetricWindow window = new AggregatingMetricWindow(50);
+		
+		for (int i = 0; i < 1000; i++) {
+			window.add(i, random.nextInt(100), random.nextInt(1 << 20), random.nextInt(500), random.nextInt(2000), 0);
+			
+			long max = Long.MIN_VALUE;
+			long min = Long.MAX_VALUE;
+			long sum = 0;
+			for (int j = 0; j < window.size(); j++) {
+				max = Math.max(max, window.getLatency(j));
+				min = Math.min(min, window.getLatency(j));
+				sum += window.getLatency(j);
+			}
+			WindowAggregate latency = window.getLatencyAggregate();
+			assertEquals(window.size(), latency.getCount());
+			assertEquals(max, latency.getMax());
+			assertEquals(min, latency.getMin());
+			assertEquals(sum, latency.getSum());
+			
+			if (i == 500) {
+				window.clear();
+				assertTrue(window.getCpuAggregate().isEmpty());
+				assertEquals(Long.MIN_VALUE, window.getCpuAggregate().getMax());
+			}
+		}
+	}
+	
+	@Test
+	public void testLimitCapacityEvictsFromAggregates() {
+		AggregatingMetricWindow window = new AggregatingMetricWindow(50);
+		for (int i = 0; i < 50; i++) {
+			window.add(i, i, i, i, 100 - i, 0);
+		}
+		
+		window.limitCapacity(5);
+		assertEquals(5, window.size());
+		assertEquals(5, window.getCpuAggregate().getCount());
+		assertEquals(45 + 46 + 47 + 48 + 49, window.getCpuAggregate().getSum());
+		assertEquals(45, window.getCpuAggregate().getMin());
+		assertEquals(55, window.getLatencyAggregate().getMax());
+		
+		window.add(50, 50, 50, 50, 50, 0);
+		assertEquals(5, window.getCpuAggregate().getCount());
+		assertEquals(46, window.getCpuAggregate().getMin());
+		assertEquals(54, window.getLatencyAggregate().getMax());
+	}
+}
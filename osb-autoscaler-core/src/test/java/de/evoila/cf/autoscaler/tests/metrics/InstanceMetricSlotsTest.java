@@ -0,0 +1,64 @@
+package de.evoila.cf.autoscaler.tests.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.applications.metrics.InstanceMetricSlots;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricWindow;
+
+public class InstanceMetricSlotsTest {
+
+	@Test
+	public void testEveryInstanceCountsTheSame() {
+		InstanceMetricSlots slots = new InstanceMetricSlots();
+		// instance 0 sends nine samples at 10 percent, instance 1 a single one at 90 percent
+		for (int i = 0; i < 9; i++) {
+			slots.add(i, 10, 100, 0);
+		}
+		slots.add(5, 90, 300, 1);
+		
+		assertEquals(50, slots.getCpuAverage());
+		assertEquals(200, slots.getRamAverage());
+		assertEquals(2, slots.getInstanceCount());
+		assertEquals(8, slots.getLatestTimestamp(0));
+		assertEquals(90, slots.getLatestCpu(1));
+	}
+	
+	@Test
+	public void testGrowAndClear() {
+		InstanceMetricSlots slots = new InstanceMetricSlots();
+		assertEquals(-1, slots.getCpuAverage());
+		assertEquals(0, slots.getInstanceCount());
+		
+		slots.add(1, 40, -1, 20);
+		slots.add(1, -1, -1, InstanceMetricSlots.MAX_SLOTS + 3);
+		assertEquals(40, slots.getCpuAverage());
+		assertEquals(-1, slots.getRamAverage());
+		assertEquals(InstanceMetricSlots.MAX_SLOTS + 4, slots.getInstanceCount());
+		
+		slots.clear();
+		assertEquals(0, slots.getInstanceCount());
+		assertEquals(-1, slots.getCpuAverage());
+		assertEquals(0, slots.getLatestTimestamp(20));
+	}
+	
+	@Test
+	public void testAddNewestSkipsTooOldMetrics() {
+		MetricWindow window = new MetricWindow(10);
+		window.add(1000, 80, 800, 0, 0, 0);
+		window.add(9000, 20, 200, 0, 0, 2);
+		window.add(9500, 40, 400, 0, 0, 3);
+		
+		InstanceMetricSlots slots = new InstanceMetricSlots();
+		slots.addNewest(window, 10, 10000, 5000);
+		assertEquals(30, slots.getCpuAverage());
+		assertEquals(300, slots.getRamAverage());
+		assertEquals(4, slots.getInstanceCount());
+		
+		slots.clear();
+		slots.addNewest(window, 1, 10000, 5000);
+		assertEquals(40, slots.getCpuAverage());
+		assertEquals(4, slots.getInstanceCount());
+	}
+}
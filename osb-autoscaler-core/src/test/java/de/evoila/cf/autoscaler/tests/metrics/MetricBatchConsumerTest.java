@@ -0,0 +1,151 @@
+package de.evoila.cf.autoscaler.tests.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricWindow;
+import de.evoila.cf.autoscaler.core.kafka.consumer.ContainerMetricConsumer;
+import de.evoila.cf.autoscaler.core.kafka.consumer.HttpMetricConsumer;
+import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbContainerMetric.ProtoContainerMetric;
+import de.evoila.cf.autoscaler.kafka.protobuf.PbHttpMetric.ProtoHttpMetric;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class MetricBatchConsumerTest extends TestBase {
+
+	private static final String TOPIC = "metrics";
+	
+	private MockConsumer<byte[], byte[]> kafkaConsumer;
+	private TopicPartition partition;
+	private long offset;
+	private ScalableAppManager appManager;
+	
+	@Before
+	public void setUpConsumer() {
+		kafkaConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		partition = new TopicPartition(TOPIC, 0);
+		kafkaConsumer.assign(Collections.singletonList(partition));
+		kafkaConsumer.updateBeginningOffsets(Collections.singletonMap(partition, 0L));
+		offset = 0;
+		
+		byte[] resourceId = app.getBinding().getResourceId().getBytes(StandardCharsets.UTF_8);
+		appManager = new ScalableAppManager(new KafkaPropertiesBean()) {
+			@Override
+			public ScalableApp getByResourceId(byte[] buffer, int offset, int length) {
+				if (Arrays.equals(resourceId, Arrays.copyOfRange(buffer, offset, offset + length)))
+					return app;
+				return null;
+			}
+		};
+		
+		app.drainMetricBuffers();
+		app.getInstanceMetricWindow().clear();
+		app.getHttpMetricWindow().clear();
+	}
+	
+	private void addRecord(byte[] value) {
+		kafkaConsumer.addRecord(new ConsumerRecord<byte[], byte[]>(TOPIC, 0, offset++, null, value));
+	}
+	
+	private byte[] containerMetric(String appId, long timestamp, int cpu, int instanceIndex) {
+		return ProtoContainerMetric.newBuilder().setTimestamp(timestamp).setMetricName("container").setAppId(appId)
+				.setCpu(cpu).setRam(1024L).setInstanceIndex(instanceIndex).setDescription("").build().toByteArray();
+	}
+	
+	@Test
+	public void testPollIsGroupedByApplication() {
+		ContainerMetricConsumer consumer = new ContainerMetricConsumer(kafkaConsumer, 0, 60000, appManager);
+		long now = System.currentTimeMillis();
+		addRecord(containerMetric("testId", now, 10, 0));
+		addRecord(containerMetric("unknown", now, 20, 0));
+		addRecord(containerMetric("testId", now, 30, 1));
+		addRecord(new byte[] { (byte) 0xFF, (byte) 0xFF });
+		addRecord(containerMetric("testId", now - 120000, 40, 2));
+		addRecord(containerMetric("testId", now, 50, 3));
+		
+		assertEquals(6, consumer.getBatchThread().pollOnce());
+		assertEquals(0, consumer.getBatchThread().pollOnce());
+		
+		assertEquals(3, consumer.getPublishedCount());
+		assertEquals(1, consumer.getDroppedUnknownAppCount());
+		assertEquals(1, consumer.getDroppedMalformedCount());
+		assertEquals(1, consumer.getDroppedTooOldCount());
+		
+		app.drainMetricBuffers();
+		MetricWindow window = app.getInstanceMetricWindow();
+		assertEquals(3, window.size());
+		assertEquals(10, window.getCpu(0));
+		assertEquals(30, window.getCpu(1));
+		assertEquals(50, window.getCpu(2));
+		assertEquals(3, window.getInstanceIndex(2));
+	}
+	
+	@Test
+	public void testFullBufferDropsRestOfGroup() {
+		HttpMetricConsumer consumer = new HttpMetricConsumer(kafkaConsumer, 0, 60000, appManager);
+		long now = System.currentTimeMillis();
+		int records = autoscalerProps.getMaxMetricListSize() * 2;
+		for (int i = 0; i < records; i++) {
+			addRecord(ProtoHttpMetric.newBuilder().setTimestamp(now).setAppId("testId").setRequests(i).setLatency(5).build().toByteArray());
+		}
+		
+		consumer.getBatchThread().pollOnce();
+		
+		int published = (int) consumer.getPublishedCount();
+		assertTrue(published < records);
+		assertEquals(records, published + consumer.getDroppedBufferFullCount());
+		app.drainMetricBuffers();
+		MetricWindow window = app.getHttpMetricWindow();
+		assertEquals(Math.min(published, window.getMaxCapacity()), window.size());
+		assertEquals(published - window.size(), window.getRequests(0));
+		assertEquals(published - 1, window.getRequests(window.size() - 1));
+	}
+	
+	@Test
+	public void testOwnershipIsHandedOffOnRevoke() {
+		ContainerMetricConsumer owner = new ContainerMetricConsumer(kafkaConsumer, 0, 60000, appManager);
+		owner.setPartitionAffinity(true);
+		MockConsumer<byte[], byte[]> otherKafkaConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+		TopicPartition otherPartition = new TopicPartition(TOPIC, 1);
+		otherKafkaConsumer.assign(Collections.singletonList(otherPartition));
+		otherKafkaConsumer.updateBeginningOffsets(Collections.singletonMap(otherPartition, 0L));
+		ContainerMetricConsumer other = new ContainerMetricConsumer(otherKafkaConsumer, 0, 60000, appManager);
+		other.setPartitionAffinity(true);
+		
+		long now = System.currentTimeMillis();
+		addRecord(containerMetric("testId", now, 10, 0));
+		owner.getBatchThread().pollOnce();
+		assertEquals(1, owner.getOwnedAppCount());
+		assertEquals(0, owner.getMisroutedCount());
+		
+		otherKafkaConsumer.addRecord(new ConsumerRecord<byte[], byte[]>(TOPIC, 1, 0, null, containerMetric("testId", now, 20, 0)));
+		other.getBatchThread().pollOnce();
+		assertEquals(1, other.getMisroutedCount());
+		assertEquals(1, other.getPublishedCount());
+		assertEquals(0, other.getOwnedAppCount());
+		
+		owner.onPartitionsRevoked(Collections.singletonList(partition));
+		assertEquals(0, owner.getOwnedAppCount());
+		otherKafkaConsumer.addRecord(new ConsumerRecord<byte[], byte[]>(TOPIC, 1, 1, null, containerMetric("testId", now, 30, 0)));
+		other.getBatchThread().pollOnce();
+		assertEquals(1, other.getMisroutedCount());
+		assertEquals(1, other.getOwnedAppCount());
+		
+		app.drainMetricBuffers();
+		assertEquals(3, app.getInstanceMetricWindow().size());
+		other.onPartitionsRevoked(Collections.singletonList(otherPartition));
+	}
+}
@@ -0,0 +1,70 @@
+package de.evoila.cf.autoscaler.tests.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricWindow;
+
+public class MetricWindowTest {
+
+	@Test
+	public void testGrowAndEvictOldest() {
+		MetricWindow window = new MetricWindow(40);
+		for (int i = 0; i < 100; i++) {
+			window.add(i, i, i * 10L, i + 1, i + 2, i % 4);
+		}
+		
+		assertEquals(40, window.size());
+		for (int i = 0; i < window.size(); i++) {
+			int expected = 60 + i;
+			assertEquals(expected, window.getTimestamp(i));
+			assertEquals(expected, window.getCpu(i));
+			assertEquals(expected * 10L, window.getRam(i));
+			assertEquals(expected + 1, window.getRequests(i));
+			assertEquals(expected + 2, window.getLatency(i));
+			assertEquals(expected % 4, window.getInstanceIndex(i));
+		}
+		
+		window.clear();
+		assertTrue(window.isEmpty());
+		window.add(5, 1, 1, 1, 1, 0);
+		assertEquals(5, window.getTimestamp(0));
+	}
+	
+	@Test
+	public void testLimitCapacity() {
+		MetricWindow window = new MetricWindow(64);
+		for (int i = 0; i < 100; i++) {
+			window.add(i, i, i, i, i, 0);
+		}
+		long fullBytes = window.estimateBytes();
+		
+		window.limitCapacity(10);
+		assertEquals(10, window.size());
+		assertEquals(10, window.getCapacity());
+		assertEquals(90, window.getTimestamp(0));
+		assertEquals(99, window.getTimestamp(9));
+		assertTrue(window.estimateBytes() < fullBytes);
+		
+		window.add(100, 1, 1, 1, 1, 0);
+		assertEquals(10, window.size());
+		assertEquals(91, window.getTimestamp(0));
+		
+		window.limitCapacity(1000);
+		assertEquals(64, window.getCapacityLimit());
+		for (int i = 101; i < 200; i++) {
+			window.add(i, i, i, i, i, 0);
+		}
+		assertEquals(64, window.size());
+		assertEquals(fullBytes, window.estimateBytes());
+	}
+	
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testOutOfBounds() {
+		MetricWindow window = new MetricWindow(4);
+		window.add(1, 1, 1, 1, 1, 0);
+		window.getCpu(1);
+	}
+}
@@ -0,0 +1,12 @@
+package de.evoila.cf.autoscaler.tests.metrics;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+@RunWith(Suite.class)
+@SuiteClasses({ MpscMetricColumnBufferTest.class, MetricWindowTest.class, AggregatingMetricWindowTest.class,
+	MetricBatchConsumerTest.class, InstanceMetricSlotsTest.class, TimeBucketedWindowTest.class })
+public class MetricsTestSuite {
+	
+}
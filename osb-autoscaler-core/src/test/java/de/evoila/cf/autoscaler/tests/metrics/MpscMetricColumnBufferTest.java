@@ -0,0 +1,137 @@
+package de.evoila.cf.autoscaler.tests.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricBatch;
+import de.evoila.cf.autoscaler.core.applications.metrics.MetricWindow;
+import de.evoila.cf.autoscaler.core.applications.metrics.MpscMetricColumnBuffer;
+
+public class MpscMetricColumnBufferTest {
+
+	@Test
+	public void testContainerColumnsAreDrainedInOrder() {
+		MpscMetricColumnBuffer buffer = new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.CONTAINER, 4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offerContainerMetric(1000 + i, 10 + i, 1024L * i, i));
+		}
+		
+		MetricWindow window = new MetricWindow(16);
+		assertEquals(4, buffer.drainTo(window));
+		assertEquals(0, buffer.getDroppedCount());
+		assertEquals(0, buffer.size());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(1000 + i, window.getTimestamp(i));
+			assertEquals(10 + i, window.getCpu(i));
+			assertEquals(1024L * i, window.getRam(i));
+			assertEquals(i, window.getInstanceIndex(i));
+		}
+	}
+	
+	@Test
+	public void testCapacityIsRoundedUp() {
+		assertEquals(4, new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.HTTP, 3).getCapacity());
+		assertEquals(8, new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.HTTP, 8).getCapacity());
+		assertEquals(MpscMetricColumnBuffer.MIN_CAPACITY, new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.HTTP, 0).getCapacity());
+	}
+	
+	@Test
+	public void testNewestMetricsSurviveWhenFull() {
+		MpscMetricColumnBuffer buffer = new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.CONTAINER, 4);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(buffer.offerContainerMetric(1000 + i, i, 0, 0));
+		}
+		assertEquals(4, buffer.size());
+		
+		MetricWindow window = new MetricWindow(16);
+		assertEquals(4, buffer.drainTo(window));
+		assertEquals(6, buffer.getDroppedCount());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(1006 + i, window.getTimestamp(i));
+			assertEquals(6 + i, window.getCpu(i));
+		}
+		
+		assertTrue(buffer.offerContainerMetric(2000, 20, 0, 0));
+		assertEquals(1, buffer.drainTo(window));
+		assertEquals(2000, window.getTimestamp(4));
+	}
+	
+	@Test
+	public void testHttpColumnsAndClear() {
+		MpscMetricColumnBuffer buffer = new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.HTTP, 4);
+		assertTrue(buffer.offerHttpMetric(1000, 120, 35));
+		
+		MetricWindow window = new MetricWindow(16);
+		buffer.drainTo(window);
+		assertEquals(120, window.getRequests(0));
+		assertEquals(35, window.getLatency(0));
+		
+		buffer.offerHttpMetric(1001, 1, 1);
+		assertEquals(1, buffer.clear());
+		assertEquals(0, buffer.drainTo(window));
+	}
+	
+	@Test
+	public void testBatchIsPublishedAsOneRange() {
+		MpscMetricColumnBuffer buffer = new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.CONTAINER, 4);
+		MetricBatch batch = new MetricBatch(MpscMetricColumnBuffer.Kind.CONTAINER, 2);
+		for (int i = 0; i < 6; i++) {
+			batch.addContainerMetric(1000 + i, 10 + i, 1024L * i, i);
+		}
+		assertTrue(buffer.offerContainerMetric(999, 9, 0, 0));
+		assertEquals(3, buffer.offerAll(batch, new int[] { 5, 3, 1 }, 0, 3));
+		
+		MetricWindow window = new MetricWindow(16);
+		assertEquals(4, buffer.drainTo(window));
+		assertEquals(9, window.getCpu(0));
+		assertEquals(15, window.getCpu(1));
+		assertEquals(3072L, window.getRam(2));
+		assertEquals(1, window.getInstanceIndex(3));
+		
+		// an oversized batch keeps its last entries
+		assertEquals(4, buffer.offerAll(batch, new int[] { 0, 1, 2, 3, 4, 5 }, 0, 6));
+		assertEquals(4, buffer.drainTo(window));
+		assertEquals(2, buffer.getDroppedCount());
+		assertEquals(12, window.getCpu(4));
+		assertEquals(15, window.getCpu(7));
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void testKindIsEnforced() {
+		new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.HTTP, 4).offerContainerMetric(0, 0, 0, 0);
+	}
+	
+	@Test
+	public void testConcurrentProducers() throws InterruptedException {
+		final int producers = 4;
+		final int perProducer = 10000;
+		final MpscMetricColumnBuffer buffer = new MpscMetricColumnBuffer(MpscMetricColumnBuffer.Kind.HTTP, 1024);
+		MetricWindow window = new MetricWindow(16);
+		long drained = 0;
+		
+		Thread[] threads = new Thread[producers];
+		for (int p = 0; p < producers; p++) {
+			threads[p] = new Thread(() -> {
+				for (int i = 1; i <= perProducer; i++) {
+					buffer.offerHttpMetric(i, i, i);
+				}
+			});
+			threads[p].start();
+		}
+		
+		boolean running = true;
+		while (running) {
+			running = false;
+			for (Thread thread : threads) {
+				running |= thread.isAlive();
+			}
+			drained += buffer.drainTo(window);
+		}
+		drained += buffer.drainTo(window);
+		
+		assertEquals(0, buffer.size());
+		assertEquals(producers * perProducer, drained + buffer.getDroppedCount());
+	}
+}
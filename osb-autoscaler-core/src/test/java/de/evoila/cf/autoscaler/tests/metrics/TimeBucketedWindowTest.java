@@ -0,0 +1,56 @@
+package de.evoila.cf.autoscaler.tests.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.applications.metrics.TimeBucketedWindow;
+
+public class TimeBucketedWindowTest {
+
+	@Test
+	public void testBucketsExpireWithTheHorizon() {
+		TimeBucketedWindow window = new TimeBucketedWindow(10000, 1000);
+		assertEquals(10, window.getBucketCount());
+		
+		// a burst in the first second and a single metric five seconds later
+		for (int i = 0; i < 100; i++) {
+			window.add(1000 + i, 10, 100, 1, 5, 0);
+		}
+		window.add(6000, 60, 600, 3, 50, 0);
+		assertEquals(101, window.getCount(TimeBucketedWindow.CPU));
+		assertEquals(103, window.getSum(TimeBucketedWindow.REQUESTS));
+		assertEquals(60, window.getMax(TimeBucketedWindow.CPU));
+		assertEquals(10, window.getMin(TimeBucketedWindow.CPU));
+		
+		// the burst falls out of the horizon, the single metric stays
+		window.expire(11500);
+		assertEquals(1, window.getCount(TimeBucketedWindow.CPU));
+		assertEquals(60, window.getMean(TimeBucketedWindow.CPU));
+		assertEquals(600, window.getMean(TimeBucketedWindow.RAM));
+		assertEquals(60, window.getMin(TimeBucketedWindow.CPU));
+		
+		window.expire(100000);
+		assertEquals(0, window.getCount(TimeBucketedWindow.CPU));
+		assertEquals(-1, window.getMean(TimeBucketedWindow.CPU));
+		assertEquals(Long.MIN_VALUE, window.getMax(TimeBucketedWindow.CPU));
+	}
+	
+	@Test
+	public void testOldAndNegativeValuesAreSkipped() {
+		TimeBucketedWindow window = new TimeBucketedWindow(5000, 1000);
+		window.add(20000, 30, -1, -1, -1, 0);
+		window.add(14000, 90, 900, 0, 0, 0);
+		window.add(17000, -1, -1, 4, 8, 0);
+		
+		assertEquals(1, window.getCount(TimeBucketedWindow.CPU));
+		assertEquals(30, window.getSum(TimeBucketedWindow.CPU));
+		assertEquals(0, window.getCount(TimeBucketedWindow.RAM));
+		assertEquals(4, window.getSum(TimeBucketedWindow.REQUESTS));
+		assertEquals(8, window.getMean(TimeBucketedWindow.LATENCY));
+		
+		window.clear();
+		window.add(1000, 10, 10, 1, 1, 0);
+		assertEquals(1, window.getCount(TimeBucketedWindow.CPU));
+	}
+}
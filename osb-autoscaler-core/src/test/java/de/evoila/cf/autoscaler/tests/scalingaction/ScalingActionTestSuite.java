@@ -5,7 +5,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ CpuScalingActionTest.class, RamScalingActionTest.class })
+@SuiteClasses({ CpuScalingActionTest.class, RamScalingActionTest.class, ScalingBatchTest.class, ScalingEventTriggerTest.class, TimingWheelTest.class, ScalingDecisionTest.class, ShardedTickTest.class })
 public class ScalingActionTestSuite {
 
 }
@@ -0,0 +1,83 @@
+package de.evoila.cf.autoscaler.tests.scalingaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+import de.evoila.cf.autoscaler.core.http.request.BatchScalingRequest;
+import de.evoila.cf.autoscaler.core.http.request.BatchScalingResponse;
+import de.evoila.cf.autoscaler.core.scaling.ScalingAction;
+import de.evoila.cf.autoscaler.core.scaling.ScalingBatch;
+import de.evoila.cf.autoscaler.kafka.messages.ScalingLog;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class ScalingBatchTest extends TestBase {
+
+	private long lastScalingTime;
+	private ScalingAction action;
+	private ScalingBatch batch;
+
+	@Before
+	public void prepare() {
+		lastScalingTime = app.getLastScalingTime();
+		action = new ScalingAction(app, 3, 2, true, ScalingLog.CONTAINER_CPU_BASED, "test");
+		batch = new ScalingBatch(1);
+		assertTrue(action.prepareExecution(null));
+		batch.add(action);
+	}
+
+	@After
+	public void restore() {
+		app.setLastScalingTime(lastScalingTime);
+	}
+
+	@Test
+	public void testRequestCarriesScalingOrders() {
+		BatchScalingRequest request = batch.toRequest();
+		assertEquals(1, request.getRequests().size());
+		assertEquals("testId", request.getRequests().get(0).getResourceId());
+		assertEquals(3, request.getRequests().get(0).getScale());
+		assertEquals(action.getScalingTime(), app.getLastScalingTime());
+	}
+
+	@Test
+	public void testResultsAreMappedByResourceId() {
+		BatchScalingResponse body = new BatchScalingResponse();
+		body.setResults(Arrays.asList(new BatchScalingResponse.Item("otherId", 500, "fail"),
+				new BatchScalingResponse.Item("testId", 202, "accepted")));
+		batch.complete(ResponseEntity.ok(body), null, null);
+
+		assertTrue(action.getCompletion().isDone());
+		assertEquals(202, action.getResponseStatusCode());
+	}
+
+	@Test
+	public void testErrorResultsAndMissingResults() {
+		BatchScalingResponse body = new BatchScalingResponse();
+		body.setResults(Arrays.asList(new BatchScalingResponse.Item("testId", 503, "unavailable")));
+		batch.complete(ResponseEntity.ok(body), null, null);
+		assertEquals(503, action.getResponseStatusCode());
+
+		ScalingAction missing = new ScalingAction(app, 3, 2, true, ScalingLog.CONTAINER_CPU_BASED, "test");
+		ScalingBatch other = new ScalingBatch(1);
+		assertTrue(missing.prepareExecution(null));
+		other.add(missing);
+		other.complete(ResponseEntity.ok(new BatchScalingResponse()), null, null);
+		assertTrue(missing.getCompletion().isDone());
+		assertEquals(ScalingAction.NO_RESPONSE, missing.getResponseStatusCode());
+	}
+
+	@Test
+	public void testFailedRequestFailsEveryAction() {
+		batch.complete(null, new ResourceAccessException("unreachable"), null);
+		assertTrue(action.getCompletion().isDone());
+		assertEquals(ScalingAction.NO_RESPONSE, action.getResponseStatusCode());
+	}
+}
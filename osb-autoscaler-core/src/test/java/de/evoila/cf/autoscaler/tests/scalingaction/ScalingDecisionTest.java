@@ -0,0 +1,59 @@
+package de.evoila.cf.autoscaler.tests.scalingaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.scaling.ScalingAction;
+import de.evoila.cf.autoscaler.core.scaling.ScalingChecker;
+import de.evoila.cf.autoscaler.core.scaling.ScalingDecision;
+import de.evoila.cf.autoscaler.core.scaling.ScalingReason;
+import de.evoila.cf.autoscaler.kafka.messages.ScalingLog;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class ScalingDecisionTest extends TestBase {
+
+	@Test
+	public void testDecisionIsReusedPerThread() {
+		ScalingDecision decision = ScalingDecision.forCurrentThread();
+		assertSame(decision, ScalingDecision.forCurrentThread());
+		
+		app.getCpu().setUpperLimit(100);
+		app.getCpu().setLowerLimit(0);
+		ScalingAction first = ScalingChecker.chooseScalingActionForCpu(app, decision.getCpu());
+		ScalingAction second = ScalingChecker.chooseScalingActionForCpu(app, decision.getCpu());
+		assertSame(decision.getCpu(), first);
+		assertSame(first, second);
+	}
+	
+	@Test
+	public void testDescriptionIsRenderedFromReason() {
+		ScalingAction action = new ScalingAction().set(app, 3, 2, true, ScalingLog.CONTAINER_CPU_BASED, ScalingReason.UPSCALE_WITHOUT_QUOTIENT, 80);
+		assertEquals("Upscaled - cpu load over 80 - without quotient ", action.getReasonDescription());
+		
+		action.setReasonCode(ScalingReason.LIMIT_BLOCKED, 0);
+		assertEquals("Not allowed to scale, because it would break an instance count limit.", action.getReasonDescription());
+		
+		action.setReasonDescription("custom");
+		assertEquals(ScalingReason.CUSTOM, action.getReasonCode());
+		assertEquals("custom", action.getReasonDescription());
+	}
+	
+	@Test
+	public void testCopyIsDetached() {
+		ScalingAction pooled = new ScalingAction().set(app, 3, 2, true, ScalingLog.CONTAINER_RAM_BASED, ScalingReason.UPSCALE_WITH_QUOTIENT, 70);
+		ScalingAction copy = pooled.copy();
+		assertNotSame(pooled, copy);
+		
+		pooled.set(app, 2, 2, false, ScalingLog.CONTAINER_CPU_BASED, ScalingReason.IN_ALLOWED_STATE, 0);
+		assertTrue(copy.isNeedToScale());
+		assertEquals(3, copy.getNewInstances());
+		assertEquals(ScalingLog.CONTAINER_RAM_BASED, copy.getReason());
+		assertEquals("Upscaled - ram load over 70 - with quotient", copy.getReasonDescription());
+		assertFalse(pooled.isNeedToScale());
+	}
+}
@@ -0,0 +1,44 @@
+package de.evoila.cf.autoscaler.tests.scalingaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class ScalingEventTriggerTest extends TestBase {
+
+	@After
+	public void restore() {
+		app.finishEventCheck();
+		app.takeLimitCrossingTime();
+	}
+
+	@Test
+	public void testUpperLimits() {
+		assertTrue(app.exceedsUpperLimit(95, 0));
+		assertFalse(app.exceedsUpperLimit(60, 0));
+		assertTrue(app.exceedsLatencyUpperLimit(6000) == app.getLatency().isLatencyScalingEnabled());
+		assertFalse(app.exceedsLatencyUpperLimit(100));
+	}
+
+	@Test
+	public void testEventChecksAreDebounced() {
+		assertTrue(app.tryScheduleEventCheck(100000, 10000));
+		assertFalse(app.tryScheduleEventCheck(100001, 10000));
+		app.finishEventCheck();
+		assertFalse(app.tryScheduleEventCheck(105000, 10000));
+		assertTrue(app.tryScheduleEventCheck(110000, 10000));
+	}
+
+	@Test
+	public void testFirstCrossingIsKept() {
+		app.markLimitCrossing(100);
+		app.markLimitCrossing(200);
+		assertEquals(100, app.takeLimitCrossingTime());
+		assertEquals(0, app.takeLimitCrossingTime());
+	}
+}
@@ -0,0 +1,185 @@
+package de.evoila.cf.autoscaler.tests.scalingaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.api.binding.Binding;
+import de.evoila.cf.autoscaler.core.applications.AppBlueprint;
+import de.evoila.cf.autoscaler.core.applications.ScalableApp;
+import de.evoila.cf.autoscaler.core.http.HTTPWrapper;
+import de.evoila.cf.autoscaler.core.kafka.producer.ProtobufProducer;
+import de.evoila.cf.autoscaler.core.manager.MetricMemoryBudget;
+import de.evoila.cf.autoscaler.core.manager.ScalableAppManager;
+import de.evoila.cf.autoscaler.core.properties.AutoscalerPropertiesBean;
+import de.evoila.cf.autoscaler.core.scaling.Scaler;
+import de.evoila.cf.autoscaler.core.scaling.ScalingSchedule;
+import de.evoila.cf.autoscaler.kafka.KafkaPropertiesBean;
+import de.evoila.cf.autoscaler.tests.TestBase;
+
+public class ShardedTickTest extends TestBase {
+
+	private static final int SHARDS = 4;
+	private static final int APPS = 40;
+	private static final long SLOW_CHECK = 50;
+
+	private Map<String, AtomicInteger> checks;
+	private Set<String> threads;
+	private List<ScalableApp> apps;
+	private AtomicInteger accounted;
+	private Scaler scaler;
+
+	/**
+	 * Application counting its checks, as every check asks whether scaling is enabled first.
+	 * Scaling is disabled, so a check only drains the metric buffers.
+	 */
+	private class CountingApp extends ScalableApp {
+
+		private final RuntimeException failure;
+		private final Error fatal;
+		private final long delay;
+
+		CountingApp(AppBlueprint bp, KafkaPropertiesBean kafkaProperties, AutoscalerPropertiesBean properties, ProtobufProducer producer,
+				RuntimeException failure, Error fatal, long delay) {
+			super(bp, kafkaProperties, properties, producer);
+			this.failure = failure;
+			this.fatal = fatal;
+			this.delay = delay;
+		}
+
+		@Override
+		public boolean isScalingEnabled() {
+			checks.computeIfAbsent(getBinding().getResourceId(), id -> new AtomicInteger()).incrementAndGet();
+			threads.add(Thread.currentThread().getName());
+			if (delay > 0) {
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (failure != null)
+				throw failure;
+			if (fatal != null)
+				throw fatal;
+			return false;
+		}
+	}
+
+	@Before
+	public void setUpScaler() {
+		checks = new ConcurrentHashMap<String, AtomicInteger>();
+		threads = ConcurrentHashMap.newKeySet();
+		apps = new ArrayList<ScalableApp>();
+		accounted = new AtomicInteger();
+
+		KafkaPropertiesBean kafkaProperties = new KafkaPropertiesBean();
+		AutoscalerPropertiesBean properties = new AutoscalerPropertiesBean();
+		properties.setMaxMetricListSize(100);
+		properties.setScalingShards(SHARDS);
+		ProtobufProducer producer = new ProtobufProducer(kafkaProperties);
+		for (int i = 0; i < APPS; i++) {
+			AppBlueprint bp = setUpBluePrint();
+			bp.setBinding(new Binding("bindingId" + i, "resourceId" + i, "testName", "testScalerId", "testServiceId", 0,
+					app.getBinding().getContext()));
+			apps.add(new CountingApp(bp, kafkaProperties, properties, producer,
+					i == 3 ? new IllegalStateException("Check failed.") : null,
+					i == 5 ? new AssertionError("Shard failed.") : null,
+					i == 7 ? SLOW_CHECK : 0));
+		}
+
+		ScalableAppManager appManager = new ScalableAppManager(kafkaProperties) {
+			@Override
+			public Collection<ScalableApp> getApps() {
+				return apps;
+			}
+
+			@Override
+			public int size() {
+				return apps.size();
+			}
+		};
+		MetricMemoryBudget memoryBudget = new MetricMemoryBudget() {
+			@Override
+			public void account() {
+				accounted.incrementAndGet();
+			}
+		};
+		scaler = new Scaler(properties, appManager, new ScalingSchedule(), producer, new HTTPWrapper(), memoryBudget);
+	}
+
+	@After
+	public void shutDownScaler() {
+		scaler.shutdown();
+	}
+
+	/**
+	 * Returns the shard of an application, partitioned like the scaler does by the hash of its resource id.
+	 */
+	private static int shardOf(String resourceId) {
+		return Math.floorMod(resourceId.hashCode(), SHARDS);
+	}
+
+	@Test
+	public void testEveryAppIsCheckedOncePerTick() throws InterruptedException {
+		scaler.runTick();
+		scaler.runTick();
+
+		int failedShard = shardOf("resourceId5");
+		int skipped = 0;
+		for (int i = 0; i < APPS; i++) {
+			String resourceId = "resourceId" + i;
+			AtomicInteger count = checks.get(resourceId);
+			if (count == null) {
+				// only applications after the failing one in its shard are skipped
+				assertEquals(failedShard, shardOf(resourceId));
+				assertTrue(i > 5);
+				skipped++;
+			} else {
+				assertEquals(resourceId, 2, count.get());
+			}
+		}
+		assertTrue(skipped < APPS / 2);
+		assertEquals(2, checks.get("resourceId3").get());
+		for (String thread : threads) {
+			assertTrue(thread, thread.startsWith("ScalingShard-"));
+		}
+		assertTrue(threads.size() > 1);
+	}
+
+	@Test
+	public void testFailingShardDoesNotStopTheOthers() throws InterruptedException {
+		scaler.runTick();
+
+		for (int i = 0; i < APPS; i++) {
+			String resourceId = "resourceId" + i;
+			if (shardOf(resourceId) != shardOf("resourceId5"))
+				assertEquals(resourceId, 1, checks.get(resourceId).get());
+		}
+		assertEquals(1, checks.get("resourceId5").get());
+		assertEquals(1, accounted.get());
+	}
+
+	@Test
+	public void testTickStatisticsAndLag() throws InterruptedException {
+		scaler.runTick();
+
+		assertEquals(1, scaler.getTickStatistics().getTickCount());
+		assertEquals(SHARDS, scaler.getTickStatistics().getLastShardCount());
+		assertEquals(APPS, scaler.getTickStatistics().getLastAppCount());
+		assertTrue(scaler.getTickStatistics().getLastSlowestShardLag() >= SLOW_CHECK);
+		assertTrue(scaler.getTickStatistics().getLastTickWallTime() >= scaler.getTickStatistics().getLastSlowestShardLag());
+		assertEquals(scaler.getTickStatistics().getLastSlowestShardLag(), scaler.getTickStatistics().getMaxSlowestShardLag());
+	}
+}
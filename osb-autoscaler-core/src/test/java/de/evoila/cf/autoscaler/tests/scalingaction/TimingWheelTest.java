@@ -0,0 +1,59 @@
+package de.evoila.cf.autoscaler.tests.scalingaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.evoila.cf.autoscaler.core.scaling.TimingWheel;
+
+public class TimingWheelTest {
+
+	private static List<Long> advance(TimingWheel<Long> wheel, long now) {
+		List<Long> due = new ArrayList<>();
+		wheel.advance(now, due::add);
+		return due;
+	}
+
+	@Test
+	public void testItemsFireAtTheirDeadline() {
+		TimingWheel<Long> wheel = new TimingWheel<>(10, 4, 3, 1005);
+		wheel.schedule(1040L, 1040);
+		wheel.schedule(1300L, 1300);
+		wheel.schedule(1000L, 1000);
+
+		assertEquals(1, advance(wheel, 1010).size());
+		assertTrue(advance(wheel, 1039).isEmpty());
+		assertEquals(1040L, (long) advance(wheel, 1049).get(0));
+		assertTrue(advance(wheel, 1299).isEmpty());
+		assertEquals(1300L, (long) advance(wheel, 1300).get(0));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testCancelledItemsAreSkipped() {
+		TimingWheel<Long> wheel = new TimingWheel<>(10, 4, 3, 0);
+		TimingWheel.Timeout<Long> timeout = wheel.schedule(500L, 500);
+		wheel.schedule(600L, 600);
+		timeout.cancel();
+
+		List<Long> due = advance(wheel, 1000);
+		assertEquals(1, due.size());
+		assertEquals(600L, (long) due.get(0));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	public void testDeadlinesBeyondTheRange() {
+		// 3 levels of 4 slots cover 640 ms
+		TimingWheel<Long> wheel = new TimingWheel<>(10, 4, 3, 0);
+		wheel.schedule(5000L, 5000);
+		for (long now = 0; now < 5000; now += 10) {
+			assertTrue(advance(wheel, now).isEmpty());
+		}
+		assertEquals(5000L, (long) advance(wheel, 5000).get(0));
+	}
+}